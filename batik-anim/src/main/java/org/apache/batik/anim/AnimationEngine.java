@@ -77,6 +77,18 @@ public abstract class AnimationEngine {
      */
     protected Listener targetListener = new Listener();
 
+    /**
+     * The number of animated attributes and properties whose value was
+     * computed during the last tick.
+     */
+    protected int sampledCount;
+
+    /**
+     * The number of animated attributes and properties whose value was
+     * copied into the document during the last tick.
+     */
+    protected int updatedCount;
+
     /**
      * Creates a new AnimationEngine for the given document.
      */
@@ -293,6 +305,40 @@ public abstract class AnimationEngine {
 
     protected static final Map.Entry[] MAP_ENTRY_ARRAY = new Map.Entry[0];
 
+    /**
+     * Returns the number of animated attributes and properties whose value
+     * was computed during the last tick.
+     */
+    public int getSampledCount() {
+        return sampledCount;
+    }
+
+    /**
+     * Returns the number of animated attributes and properties whose value
+     * was copied into the document during the last tick.  The others were
+     * left alone as their value did not change.
+     */
+    public int getUpdatedCount() {
+        return updatedCount;
+    }
+
+    /**
+     * Returns whether the given value, just computed for the given sandwich,
+     * differs from the last value copied into the document for it, and
+     * records it as the last one.  Composed values are updated in place,
+     * so the same object with no change since it was last copied holds the
+     * same value.
+     */
+    protected boolean valueChanged(Sandwich sandwich, AnimatableValue av) {
+        boolean changed = !sandwich.valueCopied || av != sandwich.value;
+        if (av != null && av.hasChanged()) {
+            changed = true;
+        }
+        sandwich.value = av;
+        sandwich.valueCopied = true;
+        return changed;
+    }
+
     /**
      * Updates the animations in the document to the given document time.
      * @param time the document time to sample at
@@ -301,6 +347,8 @@ public abstract class AnimationEngine {
      */
     protected float tick(float time, boolean hyperlinking) {
         float waitTime = timedDocumentRoot.seekTo(time, hyperlinking);
+        sampledCount = 0;
+        updatedCount = 0;
         Map.Entry[] targetEntries =
             (Map.Entry[]) targets.entrySet().toArray(MAP_ENTRY_ARRAY);
         for (Map.Entry e : targetEntries) {
@@ -336,7 +384,12 @@ public abstract class AnimationEngine {
                                 false, targetListener);
                         sandwich.listenerRegistered = false;
                     }
-                    target.updateAttributeValue(namespaceURI, localName, av);
+                    sampledCount++;
+                    if (valueChanged(sandwich, av)) {
+                        target.updateAttributeValue(namespaceURI, localName,
+                                                    av);
+                        updatedCount++;
+                    }
                     sandwich.shouldUpdate = false;
                 }
             }
@@ -368,11 +421,15 @@ public abstract class AnimationEngine {
                                 targetListener);
                         sandwich.listenerRegistered = false;
                     }
-                    if (usesUnderlying) {
-                        target.updatePropertyValue(propertyName, null);
-                    }
-                    if (!(usesUnderlying && av == null)) {
-                        target.updatePropertyValue(propertyName, av);
+                    sampledCount++;
+                    if (valueChanged(sandwich, av)) {
+                        if (usesUnderlying) {
+                            target.updatePropertyValue(propertyName, null);
+                        }
+                        if (!(usesUnderlying && av == null)) {
+                            target.updatePropertyValue(propertyName, av);
+                        }
+                        updatedCount++;
                     }
                     sandwich.shouldUpdate = false;
                 }
@@ -393,7 +450,11 @@ public abstract class AnimationEngine {
                         av = sandwich.animation.getComposedValue();
                         anim.isDirty = false;
                     }
-                    target.updateOtherValue(type, av);
+                    sampledCount++;
+                    if (valueChanged(sandwich, av)) {
+                        target.updateOtherValue(type, av);
+                        updatedCount++;
+                    }
                     sandwich.shouldUpdate = false;
                 }
             }
@@ -605,6 +666,8 @@ public abstract class AnimationEngine {
             short type = isCSS ? ANIM_TYPE_CSS : ANIM_TYPE_XML;
             Sandwich sandwich = getSandwich(t, type, ns, ln);
             sandwich.shouldUpdate = true;
+            // The value must be copied again, even if it did not change.
+            sandwich.valueCopied = false;
             AbstractAnimation anim = sandwich.animation;
             while (anim.lowerAnimation != null) {
                 anim = anim.lowerAnimation;
@@ -658,6 +721,19 @@ public abstract class AnimationEngine {
          */
         public boolean shouldUpdate;
 
+        /**
+         * The value last copied into the document.  Null stands for the
+         * base value.
+         */
+        public AnimatableValue value;
+
+        /**
+         * Whether {@link #value} was copied into the document and still
+         * holds there.  If not, the next value is copied even if it did
+         * not change.
+         */
+        public boolean valueCopied;
+
         /**
          * Whether an {@link AnimationTargetListener} has been registered to
          * listen for changes to the base value.
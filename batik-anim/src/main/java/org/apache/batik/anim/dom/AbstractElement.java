@@ -44,10 +44,9 @@ public abstract class AbstractElement
         implements NodeEventTarget, CSSNavigableNode, SVGConstants {
 
     /**
-     * The live attribute values.
+     * The live attribute values, or null if none was created yet.
      */
-    protected transient DoublyIndexedTable liveAttributeValues =
-        new DoublyIndexedTable();
+    protected transient DoublyIndexedTable liveAttributeValues;
 
     /**
      * Creates a new Element object.
@@ -148,9 +147,9 @@ public abstract class AbstractElement
      * @param ln The attribute's local name.
      */
     public LiveAttributeValue getLiveAttributeValue(String ns, String ln) {
-//         if (liveAttributeValues == null) {
-//             return null;
-//         }
+        if (liveAttributeValues == null) {
+            return null;
+        }
         return (LiveAttributeValue)liveAttributeValues.get(ns, ln);
     }
 
@@ -162,9 +161,9 @@ public abstract class AbstractElement
      */
     public void putLiveAttributeValue(String ns, String ln,
                                       LiveAttributeValue val) {
-//         if (liveAttributeValues == null) {
-//             liveAttributeValues = new SoftDoublyIndexedTable();
-//         }
+        if (liveAttributeValues == null) {
+            liveAttributeValues = new DoublyIndexedTable();
+        }
         liveAttributeValues.put(ns, ln, val);
     }
 
@@ -0,0 +1,957 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+package org.apache.batik.anim.dom;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.MissingResourceException;
+import java.util.Set;
+
+import org.apache.batik.constants.XMLConstants;
+import org.apache.batik.dom.AbstractDocument;
+import org.apache.batik.dom.util.XMLSupport;
+import org.apache.batik.i18n.LocalizableSupport;
+import org.apache.batik.util.HaltingThread;
+import org.apache.batik.util.SVGConstants;
+import org.apache.batik.util.io.NormalizingReader;
+import org.apache.batik.util.io.StreamNormalizingReader;
+import org.apache.batik.xml.LexicalUnits;
+import org.apache.batik.xml.XMLException;
+import org.apache.batik.xml.XMLScanner;
+import org.apache.batik.xml.XMLStreamNormalizingReader;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+/**
+ * An experimental SVG document factory which builds the content of the
+ * top-level 'g' elements of large documents concurrently.
+ *
+ * <p>The whole source is read in memory and scanned with an {@link
+ * XMLScanner} to find the content of the 'g' children of the document
+ * element.  The document is first parsed without that content, which
+ * leaves these 'g' elements empty, then the removed content is parsed by
+ * several threads, each of them appending the nodes it creates directly
+ * to the 'g' elements it was given.  The resulting document is identical
+ * to the one built by {@link SAXSVGDocumentFactory}.</p>
+ *
+ * <p>Documents too small to benefit from it, documents whose structure
+ * the scanner cannot follow, and factories which validate or create a
+ * document descriptor are parsed sequentially.  The positions of the
+ * errors found in the content of a 'g' element are relative to that
+ * content.</p>
+ *
+ * @version $Id$
+ */
+public class ParallelSAXSVGDocumentFactory extends SAXSVGDocumentFactory {
+
+    /**
+     * The minimum number of characters of content parsed by a task.
+     */
+    protected static final int MIN_TASK_LENGTH = 1 << 16;
+
+    /**
+     * The time, in milliseconds, between two checks of whether the
+     * thread building a document has been halted.
+     */
+    protected static final long JOIN_INTERVAL = 50;
+
+    /**
+     * The error messages bundle class name.
+     */
+    protected static final String RESOURCES =
+        "org.apache.batik.anim.resources.Messages";
+
+    /**
+     * The localizable support for the error messages.
+     */
+    protected static LocalizableSupport localizableSupport =
+        new LocalizableSupport
+        (RESOURCES, ParallelSAXSVGDocumentFactory.class.getClassLoader());
+
+    /**
+     * The number of threads used to parse the content of the 'g' elements.
+     */
+    protected int threadCount = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The 'g' elements whose content is parsed separately, while the
+     * rest of a document is being parsed.
+     */
+    protected Split[] splits;
+
+    /**
+     * The index of the next 'g' element to find in the document.
+     */
+    protected int splitIndex;
+
+    /**
+     * The number of children of the document element met so far.
+     */
+    protected int topLevelCount;
+
+    /**
+     * The depth of the current element.
+     */
+    protected int elementDepth;
+
+    /**
+     * The ids met while parsing the rest of the document.
+     */
+    protected List ids;
+
+    /**
+     * Creates a new ParallelSAXSVGDocumentFactory object.
+     * @param parser The SAX2 parser classname.
+     */
+    public ParallelSAXSVGDocumentFactory(String parser) {
+        super(parser);
+    }
+
+    /**
+     * Creates a new ParallelSAXSVGDocumentFactory object.
+     * @param parser The SAX2 parser classname.
+     * @param dd Whether a document descriptor must be generated.
+     */
+    public ParallelSAXSVGDocumentFactory(String parser, boolean dd) {
+        super(parser, dd);
+    }
+
+    /**
+     * Sets the number of threads used to build a document.
+     */
+    public void setThreadCount(int n) {
+        threadCount = n;
+    }
+
+    /**
+     * Returns the number of threads used to build a document.
+     */
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * Implements {@link
+     * org.apache.batik.i18n.Localizable#formatMessage(String,Object[])}.
+     */
+    public static String formatMessage(String key, Object[] args)
+        throws MissingResourceException {
+        return localizableSupport.formatMessage(key, args);
+    }
+
+    /**
+     * Creates a Document.
+     * @param is  The document input source.
+     * @exception IOException if an error occured while reading the document.
+     */
+    protected Document createDocument(InputSource is) throws IOException {
+        if (createDocumentDescriptor || isValidating || threadCount < 2) {
+            return super.createDocument(is);
+        }
+        NormalizingReader r;
+        if (is.getCharacterStream() != null) {
+            r = new StreamNormalizingReader(is.getCharacterStream());
+        } else if (is.getByteStream() != null) {
+            r = new XMLStreamNormalizingReader(is.getByteStream(),
+                                               is.getEncoding());
+        } else {
+            return super.createDocument(is);
+        }
+
+        char[] text = new char[8192];
+        int length = 0;
+        try {
+            for (;;) {
+                if (length == text.length) {
+                    char[] t = new char[length * 2];
+                    System.arraycopy(text, 0, t, 0, length);
+                    text = t;
+                }
+                int n = r.read(text, length, text.length - length);
+                if (n == -1) {
+                    break;
+                }
+                length += n;
+            }
+        } finally {
+            r.close();
+        }
+        int offset = (length > 0 && text[0] == '\uFEFF') ? 1 : 0;
+
+        Layout layout = scan(text, offset, length);
+        if (layout == null) {
+            return super.createDocument
+                (createInputSource(is, new CharArrayReader
+                                   (text, offset, length - offset)));
+        }
+
+        // Parse the document without the content of the 'g' elements.
+        int removed = 0;
+        Split[] sa = layout.splits;
+        for (int i = 0; i < sa.length; i++) {
+            removed += sa[i].end - sa[i].start;
+        }
+        char[] skeleton = new char[length - offset - removed];
+        int pos = offset;
+        int len = 0;
+        for (int i = 0; i < sa.length; i++) {
+            System.arraycopy(text, pos, skeleton, len, sa[i].start - pos);
+            len += sa[i].start - pos;
+            pos = sa[i].end;
+        }
+        System.arraycopy(text, pos, skeleton, len, length - pos);
+
+        Document doc;
+        List docIds = new ArrayList();
+        splits = sa;
+        splitIndex = 0;
+        topLevelCount = 0;
+        elementDepth = 0;
+        ids = docIds;
+        try {
+            doc = super.createDocument
+                (createInputSource(is, new CharArrayReader(skeleton)));
+        } finally {
+            splits = null;
+            ids = null;
+        }
+        skeleton = null;
+        if (splitIndex != sa.length) {
+            throw new IOException
+                (formatMessage("inconsistent.document.structure", null));
+        }
+
+        // Parse the content of the 'g' elements.
+        Element root = doc.getDocumentElement();
+        String rootStart = createStartTag(root);
+        String rootEnd = "</" + root.getNodeName() + '>';
+        LinkedList tasks = new LinkedList();
+        int size = Math.max(MIN_TASK_LENGTH, removed / (threadCount * 4));
+        int from = 0;
+        int taskLength = 0;
+        for (int i = 0; i < sa.length; i++) {
+            taskLength += sa[i].end - sa[i].start;
+            if (taskLength >= size || i == sa.length - 1) {
+                ContentBuilder cb = new ContentBuilder(parserClassName);
+                cb.ownerDocument = (AbstractDocument)doc;
+                cb.source = is;
+                cb.text = text;
+                cb.prologStart = offset;
+                cb.prologEnd = layout.prologEnd;
+                cb.rootStart = rootStart;
+                cb.rootEnd = rootEnd;
+                cb.splits = sa;
+                cb.from = from;
+                cb.to = i + 1;
+                cb.setInternValues(internValues);
+                cb.setErrorHandler(errorHandler);
+                tasks.add(cb);
+                from = i + 1;
+                taskLength = 0;
+            }
+        }
+        List builders = new ArrayList(tasks);
+        int n = Math.min(threadCount, tasks.size());
+        Worker[] workers = new Worker[n];
+        for (int i = 0; i < n; i++) {
+            workers[i] = new Worker(tasks);
+            workers[i].start();
+        }
+        try {
+            for (int i = 0; i < n; i++) {
+                // Poll so that halting this thread also halts the
+                // workers.
+                while (workers[i].isAlive()) {
+                    if (HaltingThread.hasBeenHalted()) {
+                        haltWorkers(workers, tasks);
+                    }
+                    workers[i].join(JOIN_INTERVAL);
+                }
+            }
+        } catch (InterruptedException e) {
+            haltWorkers(workers, tasks);
+            throw new InterruptedIOException();
+        }
+        if (HaltingThread.hasBeenHalted()) {
+            throw new InterruptedIOException();
+        }
+        for (int i = 0; i < n; i++) {
+            Throwable t = workers[i].error;
+            if (t instanceof IOException) {
+                throw (IOException)t;
+            }
+            if (t instanceof RuntimeException) {
+                throw (RuntimeException)t;
+            }
+            if (t instanceof Error) {
+                throw (Error)t;
+            }
+        }
+
+        // The elements sharing an id were registered in document order
+        // only if they were all built by the same parser.
+        Set seen = new HashSet(docIds);
+        Set dups = new HashSet();
+        Iterator it = builders.iterator();
+        while (it.hasNext()) {
+            Set s = new HashSet(((ContentBuilder)it.next()).ids);
+            Iterator ii = s.iterator();
+            while (ii.hasNext()) {
+                Object id = ii.next();
+                if (!seen.add(id)) {
+                    dups.add(id);
+                }
+            }
+        }
+        if (!dups.isEmpty()) {
+            reorderIdEntries((AbstractDocument)doc, dups);
+        }
+        return doc;
+    }
+
+    /**
+     * Halts the given workers and drops the tasks they did not start.
+     */
+    protected static void haltWorkers(Worker[] workers, LinkedList tasks) {
+        synchronized (tasks) {
+            tasks.clear();
+        }
+        for (int i = 0; i < workers.length; i++) {
+            workers[i].halt();
+        }
+    }
+
+    /**
+     * Scans the given text to find the content of the top-level 'g'
+     * elements.
+     * @return null if the document must be parsed sequentially.
+     */
+    protected Layout scan(char[] text, int offset, int length) {
+        TextReader r = new TextReader(text, offset, length);
+        Layout result = new Layout();
+        List l = new ArrayList();
+        int total = 0;
+        try {
+            XMLScanner scanner = new XMLScanner(r);
+            Split split = null;
+            int ordinal = 0;
+            for (;;) {
+                int depth = scanner.getDepth();
+                int context = scanner.getContext();
+                int start = r.offset - 1;
+                int type = scanner.next();
+                scanner.clearBuffer();
+                switch (type) {
+                case LexicalUnits.EOF:
+                    if (l.size() < 2 || total < 2 * MIN_TASK_LENGTH) {
+                        return null;
+                    }
+                    result.splits = new Split[l.size()];
+                    l.toArray(result.splits);
+                    return result;
+
+                case LexicalUnits.START_TAG:
+                    if (depth == 0) {
+                        result.prologEnd = start;
+                    } else if (depth == 1) {
+                        ordinal++;
+                        if (isGroup(text, start + 1, length)) {
+                            split = new Split();
+                            split.ordinal = ordinal;
+                        }
+                    }
+                    break;
+
+                case LexicalUnits.END_CHAR:
+                    if (split != null && depth == 2 &&
+                        context == XMLScanner.START_TAG_CONTEXT) {
+                        split.start = r.offset - 1;
+                    }
+                    break;
+
+                case LexicalUnits.EMPTY_ELEMENT_END:
+                    if (depth == 2) {
+                        split = null;
+                    }
+                    break;
+
+                case LexicalUnits.END_TAG:
+                    if (split != null && depth == 2) {
+                        split.end = start;
+                        if (split.end > split.start) {
+                            l.add(split);
+                            total += split.end - split.start;
+                        }
+                        split = null;
+                    }
+                    break;
+
+                case LexicalUnits.ENTITY_REFERENCE:
+                    if (depth == 1 && context == XMLScanner.CONTENT_CONTEXT &&
+                        !isPredefinedEntity(text, start + 1, r.offset)) {
+                        // The entity could contain elements.
+                        return null;
+                    }
+                }
+            }
+        } catch (XMLException e) {
+            // Let the parser report the error.
+            return null;
+        }
+    }
+
+    /**
+     * Whether the name of the element starting at the given offset has
+     * 'g' as local name.
+     */
+    protected static boolean isGroup(char[] text, int offset, int length) {
+        int i = offset;
+        loop: while (i < length) {
+            switch (text[i]) {
+            case 0x9: case 0xA: case 0xD: case 0x20: case '/': case '>':
+                break loop;
+            }
+            i++;
+        }
+        return i > offset && text[i - 1] == 'g' &&
+            (i - 1 == offset || text[i - 2] == ':');
+    }
+
+    /**
+     * Whether the entity reference whose name starts at the given offset
+     * refers to one of the predefined XML entities.
+     */
+    protected static boolean isPredefinedEntity(char[] text, int offset,
+                                                int length) {
+        int i = offset;
+        while (i < length && text[i] != ';') {
+            i++;
+        }
+        String name = new String(text, offset, i - offset);
+        return name.equals("amp") || name.equals("lt") || name.equals("gt") ||
+            name.equals("quot") || name.equals("apos");
+    }
+
+    /**
+     * Returns a start tag for the given element, which only contains its
+     * namespace declarations.
+     */
+    protected static String createStartTag(Element e) {
+        StringBuffer sb = new StringBuffer();
+        sb.append('<');
+        sb.append(e.getNodeName());
+        NamedNodeMap attrs = e.getAttributes();
+        int len = attrs.getLength();
+        for (int i = 0; i < len; i++) {
+            Attr a = (Attr)attrs.item(i);
+            if (!XMLSupport.XMLNS_NAMESPACE_URI.equals(a.getNamespaceURI())) {
+                continue;
+            }
+            sb.append(' ');
+            sb.append(a.getNodeName());
+            sb.append("=\"");
+            String v = a.getValue();
+            for (int j = 0; j < v.length(); j++) {
+                char c = v.charAt(j);
+                switch (c) {
+                case '&':  sb.append("&amp;");  break;
+                case '<':  sb.append("&lt;");   break;
+                case '"':  sb.append("&quot;"); break;
+                default:   sb.append(c);
+                }
+            }
+            sb.append('"');
+        }
+        sb.append('>');
+        return sb.toString();
+    }
+
+    /**
+     * Creates an input source which reads from the given reader in place
+     * of the given source.
+     */
+    protected static InputSource createInputSource(InputSource is,
+                                                   Reader r) {
+        InputSource result = new InputSource(r);
+        result.setSystemId(is.getSystemId());
+        result.setPublicId(is.getPublicId());
+        return result;
+    }
+
+    /**
+     * Appends the ids defined by the given attributes to the given list.
+     */
+    protected static void addIds(Attributes attributes, List l) {
+        int len = attributes.getLength();
+        for (int i = 0; i < len; i++) {
+            String aname = attributes.getQName(i);
+            if (aname.equals(SVGConstants.SVG_ID_ATTRIBUTE) ||
+                aname.equals(XMLConstants.XML_ID_QNAME)) {
+                l.add(attributes.getValue(i));
+            }
+        }
+    }
+
+    /**
+     * Registers again the elements with the given ids in document order.
+     */
+    protected static void reorderIdEntries(AbstractDocument doc, Set dups) {
+        Map elements = new HashMap();
+        Node n = doc.getDocumentElement();
+        while (n != null) {
+            if (n.getNodeType() == Node.ELEMENT_NODE) {
+                Element e = (Element)n;
+                addElement(elements, dups, e,
+                           e.getAttributeNodeNS(null,
+                                                SVGConstants.SVG_ID_ATTRIBUTE));
+                addElement(elements, dups, e,
+                           e.getAttributeNodeNS
+                           (XMLSupport.XML_NAMESPACE_URI,
+                            XMLConstants.XML_ID_ATTRIBUTE));
+            }
+            Node m = n.getFirstChild();
+            if (m == null) {
+                while (n != null && (m = n.getNextSibling()) == null) {
+                    n = n.getParentNode();
+                    if (n == doc) {
+                        n = null;
+                    }
+                }
+            }
+            n = m;
+        }
+        Iterator it = elements.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry me = (Map.Entry)it.next();
+            String id = (String)me.getKey();
+            List l = (List)me.getValue();
+            doc.removeIdEntries(id);
+            for (int i = 0; i < l.size(); i++) {
+                doc.addIdEntry((Element)l.get(i), id);
+            }
+        }
+    }
+
+    /**
+     * Records the given element if the given id attribute has one of the
+     * given values.
+     */
+    private static void addElement(Map elements, Set dups, Element e,
+                                   Attr a) {
+        if (a == null || !a.isId() || !dups.contains(a.getValue())) {
+            return;
+        }
+        List l = (List)elements.get(a.getValue());
+        if (l == null) {
+            l = new ArrayList();
+            elements.put(a.getValue(), l);
+        }
+        l.add(e);
+    }
+
+    /**
+     * <b>SAX</b>: Implements {@link
+     * org.xml.sax.ContentHandler#startElement(String,String,String,Attributes)}.
+     */
+    public void startElement(String     uri,
+                             String     localName,
+                             String     rawName,
+                             Attributes attributes) throws SAXException {
+        super.startElement(uri, localName, rawName, attributes);
+        if (splits != null) {
+            if (elementDepth == 1) {
+                topLevelCount++;
+                if (splitIndex < splits.length &&
+                    splits[splitIndex].ordinal == topLevelCount) {
+                    splits[splitIndex++].element = (Element)currentNode;
+                }
+            }
+            addIds(attributes, ids);
+            elementDepth++;
+        }
+    }
+
+    /**
+     * <b>SAX</b>: Implements {@link
+     * org.xml.sax.ContentHandler#endElement(String,String,String)}.
+     */
+    public void endElement(String uri, String localName, String rawName)
+        throws SAXException {
+        super.endElement(uri, localName, rawName);
+        if (splits != null) {
+            elementDepth--;
+        }
+    }
+
+    /**
+     * The result of the scan of a document.
+     */
+    protected static class Layout {
+
+        /**
+         * The end of the prolog.
+         */
+        public int prologEnd;
+
+        /**
+         * The top-level 'g' elements with content.
+         */
+        public Split[] splits;
+    }
+
+    /**
+     * A top-level 'g' element whose content is parsed separately.
+     */
+    protected static class Split {
+
+        /**
+         * The position of the element among the element children of the
+         * document element, starting at 1.
+         */
+        public int ordinal;
+
+        /**
+         * The start of the content in the source.
+         */
+        public int start;
+
+        /**
+         * The end of the content in the source.
+         */
+        public int end;
+
+        /**
+         * The element, once created.
+         */
+        public Element element;
+    }
+
+    /**
+     * Parses the content of a range of top-level 'g' elements into these
+     * elements.
+     */
+    protected static class ContentBuilder extends SAXSVGDocumentFactory {
+
+        /**
+         * The document the 'g' elements belong to.
+         */
+        protected AbstractDocument ownerDocument;
+
+        /**
+         * The source of the document.
+         */
+        protected InputSource source;
+
+        /**
+         * The text of the document.
+         */
+        protected char[] text;
+
+        /**
+         * The bounds of the prolog in the text.
+         */
+        protected int prologStart, prologEnd;
+
+        /**
+         * The tags used in place of the document element.
+         */
+        protected String rootStart, rootEnd;
+
+        /**
+         * The 'g' elements of the document.
+         */
+        protected Split[] splits;
+
+        /**
+         * The range of 'g' elements to fill.
+         */
+        protected int from, to;
+
+        /**
+         * The index of the next 'g' element to fill.
+         */
+        protected int next;
+
+        /**
+         * The depth of the current element.
+         */
+        protected int depth;
+
+        /**
+         * The ids met in the content.
+         */
+        protected List ids = new ArrayList();
+
+        /**
+         * Creates a new ContentBuilder.
+         */
+        public ContentBuilder(String parser) {
+            super(parser);
+        }
+
+        /**
+         * Parses the content of the 'g' elements.  The content is put in
+         * a document made of the prolog of the original document and of
+         * copies of the start and end tags of the document element and
+         * of the 'g' elements, which only declare namespaces.
+         */
+        public void build() throws IOException {
+            int len = prologEnd - prologStart + rootStart.length() +
+                rootEnd.length();
+            String[] tags = new String[(to - from) * 2];
+            for (int i = from; i < to; i++) {
+                Element e = splits[i].element;
+                tags[(i - from) * 2] = createStartTag(e);
+                tags[(i - from) * 2 + 1] = "</" + e.getNodeName() + '>';
+                len += tags[(i - from) * 2].length() +
+                    tags[(i - from) * 2 + 1].length() +
+                    splits[i].end - splits[i].start;
+            }
+            char[] buf = new char[len];
+            int pos = prologEnd - prologStart;
+            System.arraycopy(text, prologStart, buf, 0, pos);
+            pos = append(rootStart, buf, pos);
+            for (int i = from; i < to; i++) {
+                pos = append(tags[(i - from) * 2], buf, pos);
+                int n = splits[i].end - splits[i].start;
+                System.arraycopy(text, splits[i].start, buf, pos, n);
+                pos += n;
+                pos = append(tags[(i - from) * 2 + 1], buf, pos);
+            }
+            append(rootEnd, buf, pos);
+            createDocument(createInputSource(source, new CharArrayReader(buf)));
+        }
+
+        /**
+         * Copies the given string in the given buffer.
+         * @return The position following the copy.
+         */
+        protected static int append(String s, char[] buf, int pos) {
+            s.getChars(0, s.length(), buf, pos);
+            return pos + s.length();
+        }
+
+        /**
+         * <b>SAX</b>: Implements {@link
+         * org.xml.sax.ContentHandler#startDocument()}.
+         */
+        public void startDocument() throws SAXException {
+            super.startDocument();
+            document = ownerDocument;
+            next = from;
+            depth = 0;
+        }
+
+        /**
+         * <b>SAX</b>: Implements {@link
+         * org.xml.sax.ContentHandler#startElement(String,String,String,Attributes)}.
+         */
+        public void startElement(String     uri,
+                                 String     localName,
+                                 String     rawName,
+                                 Attributes attributes) throws SAXException {
+            if (depth < 2) {
+                // Only the namespace declarations of the copied tags
+                // matter.
+                appendStringData();
+                namespaces.push();
+                int len = attributes.getLength();
+                for (int i = 0; i < len; i++) {
+                    String aname = attributes.getQName(i);
+                    if (!aname.startsWith("xmlns")) {
+                        continue;
+                    }
+                    String ns = attributes.getValue(i);
+                    if (ns.length() == 0) {
+                        ns = null;
+                    }
+                    if (aname.length() == 5) {
+                        namespaces.put("", ns);
+                    } else if (aname.charAt(5) == ':') {
+                        namespaces.put(aname.substring(6), ns);
+                    }
+                }
+                if (depth == 1) {
+                    currentNode = splits[next++].element;
+                }
+            } else {
+                super.startElement(uri, localName, rawName, attributes);
+                addIds(attributes, ids);
+            }
+            depth++;
+        }
+
+        /**
+         * <b>SAX</b>: Implements {@link
+         * org.xml.sax.ContentHandler#endElement(String,String,String)}.
+         */
+        public void endElement(String uri, String localName, String rawName)
+            throws SAXException {
+            if (--depth < 2) {
+                appendStringData();
+                namespaces.pop();
+                currentNode = null;
+            } else {
+                super.endElement(uri, localName, rawName);
+            }
+        }
+    }
+
+    /**
+     * A thread which runs content builders until none is left.
+     */
+    protected static class Worker extends HaltingThread {
+
+        /**
+         * The builders to run.
+         */
+        protected LinkedList tasks;
+
+        /**
+         * The error thrown by a builder, if any.
+         */
+        protected Throwable error;
+
+        /**
+         * Creates a new Worker.
+         */
+        public Worker(LinkedList tasks) {
+            this.tasks = tasks;
+            setDaemon(true);
+        }
+
+        /**
+         * Runs the builders.
+         */
+        public void run() {
+            try {
+                for (;;) {
+                    ContentBuilder cb;
+                    synchronized (tasks) {
+                        if (tasks.isEmpty() || isHalted()) {
+                            return;
+                        }
+                        cb = (ContentBuilder)tasks.removeFirst();
+                    }
+                    cb.build();
+                }
+            } catch (Throwable t) {
+                error = t;
+                synchronized (tasks) {
+                    tasks.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * A reader of text whose line breaks are already normalized, which
+     * tracks how many characters were read.
+     */
+    protected static class TextReader extends NormalizingReader {
+
+        /**
+         * The text.
+         */
+        protected char[] text;
+
+        /**
+         * The end of the text.
+         */
+        protected int length;
+
+        /**
+         * The offset of the next character.
+         */
+        protected int offset;
+
+        /**
+         * The current line.
+         */
+        protected int line = 1;
+
+        /**
+         * The current column.
+         */
+        protected int column;
+
+        /**
+         * Creates a new TextReader.
+         */
+        public TextReader(char[] text, int offset, int length) {
+            this.text = text;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        /**
+         * Reads a single character.
+         */
+        public int read() throws IOException {
+            if (offset == length) {
+                return -1;
+            }
+            char c = text[offset++];
+            if (c == 10) {
+                line++;
+                column = 0;
+            } else {
+                column++;
+            }
+            return c;
+        }
+
+        /**
+         * Returns the current line in the stream.
+         */
+        public int getLine() {
+            return line;
+        }
+
+        /**
+         * Returns the current column in the stream.
+         */
+        public int getColumn() {
+            return column;
+        }
+
+        /**
+         * Close the stream.
+         */
+        public void close() throws IOException {
+            text = null;
+        }
+    }
+}
@@ -120,6 +120,18 @@ public class SAXSVGDocumentFactory
         super(SVGDOMImplementation.getDOMImplementation(), parser, dd);
     }
 
+    /**
+     * Creates a new SVGDocumentFactory object.
+     * @param parser The SAX2 parser classname.
+     * @param dd Whether a document descriptor must be generated.
+     * @param iv Whether equal short attribute values must share a single
+     *        string instance.
+     */
+    public SAXSVGDocumentFactory(String parser, boolean dd, boolean iv) {
+        super(SVGDOMImplementation.getDOMImplementation(), parser, dd);
+        internValues = iv;
+    }
+
     public SVGDocument createSVGDocument(String uri) throws IOException {
         return (SVGDocument)createDocument(uri);
     }
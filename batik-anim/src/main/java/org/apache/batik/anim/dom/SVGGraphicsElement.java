@@ -96,7 +96,6 @@ public abstract class SVGGraphicsElement
      */
     protected SVGGraphicsElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -183,6 +182,7 @@ public abstract class SVGGraphicsElement
      * org.w3c.dom.svg.SVGTransformable#getTransform()}.
      */
     public SVGAnimatedTransformList getTransform() {
+        ensureLiveAttributes();
         return transform;
     }
 
@@ -193,6 +193,7 @@ public abstract class SVGGraphicsElement
      * org.w3c.dom.svg.SVGExternalResourcesRequired#getExternalResourcesRequired()}.
      */
     public SVGAnimatedBoolean getExternalResourcesRequired() {
+        ensureLiveAttributes();
         return externalResourcesRequired;
     }
 
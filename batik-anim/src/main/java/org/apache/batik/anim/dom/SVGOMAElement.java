@@ -85,7 +85,6 @@ public class SVGOMAElement
      */
     public SVGOMAElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -114,6 +113,7 @@ public class SVGOMAElement
      * <b>DOM</b>: Implements {@link SVGAElement#getTarget()}.
      */
     public SVGAnimatedString getTarget() {
+        ensureLiveAttributes();
         return target;
     }
 
@@ -71,7 +71,6 @@ public abstract class SVGOMAnimationElement
      */
     protected SVGOMAnimationElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -175,6 +174,7 @@ public abstract class SVGOMAnimationElement
      * org.w3c.dom.svg.SVGExternalResourcesRequired#getExternalResourcesRequired()}.
      */
     public SVGAnimatedBoolean getExternalResourcesRequired() {
+        ensureLiveAttributes();
         return externalResourcesRequired;
     }
 
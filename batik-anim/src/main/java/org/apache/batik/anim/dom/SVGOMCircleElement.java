@@ -80,7 +80,6 @@ public class SVGOMCircleElement
      */
     public SVGOMCircleElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -117,6 +116,7 @@ public class SVGOMCircleElement
      * <b>DOM</b>: Implements {@link SVGCircleElement#getCx()}.
      */
     public SVGAnimatedLength getCx() {
+        ensureLiveAttributes();
         return cx;
     }
 
@@ -124,6 +124,7 @@ public class SVGOMCircleElement
      * <b>DOM</b>: Implements {@link SVGCircleElement#getCy()}.
      */
     public SVGAnimatedLength getCy() {
+        ensureLiveAttributes();
         return cy;
     }
 
@@ -131,6 +132,7 @@ public class SVGOMCircleElement
      * <b>DOM</b>: Implements {@link SVGCircleElement#getR()}.
      */
     public SVGAnimatedLength getR() {
+        ensureLiveAttributes();
         return r;
     }
 
@@ -75,7 +75,6 @@ public class SVGOMClipPathElement
      */
     public SVGOMClipPathElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -107,6 +106,7 @@ public class SVGOMClipPathElement
      * <b>DOM</b>: Implements {@link SVGClipPathElement#getClipPathUnits()}.
      */
     public SVGAnimatedEnumeration getClipPathUnits() {
+        ensureLiveAttributes();
         return clipPathUnits;
     }
 
@@ -122,7 +122,6 @@ public abstract class SVGOMComponentTransferFunctionElement
     protected SVGOMComponentTransferFunctionElement(String prefix,
                                                     AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -157,6 +156,7 @@ public abstract class SVGOMComponentTransferFunctionElement
      * SVGComponentTransferFunctionElement#getType()}.
      */
     public SVGAnimatedEnumeration getType() {
+        ensureLiveAttributes();
         return type;
     }
 
@@ -176,6 +176,7 @@ public abstract class SVGOMComponentTransferFunctionElement
      * SVGComponentTransferFunctionElement#getSlope()}.
      */
     public SVGAnimatedNumber getSlope() {
+        ensureLiveAttributes();
         return slope;
     }
 
@@ -184,6 +185,7 @@ public abstract class SVGOMComponentTransferFunctionElement
      * SVGComponentTransferFunctionElement#getIntercept()}.
      */
     public SVGAnimatedNumber getIntercept() {
+        ensureLiveAttributes();
         return intercept;
     }
 
@@ -192,6 +194,7 @@ public abstract class SVGOMComponentTransferFunctionElement
      * SVGComponentTransferFunctionElement#getAmplitude()}.
      */
     public SVGAnimatedNumber getAmplitude() {
+        ensureLiveAttributes();
         return amplitude;
     }
 
@@ -200,6 +203,7 @@ public abstract class SVGOMComponentTransferFunctionElement
      * SVGComponentTransferFunctionElement#getExponent()}.
      */
     public SVGAnimatedNumber getExponent() {
+        ensureLiveAttributes();
         return exponent;
     }
 
@@ -208,6 +212,7 @@ public abstract class SVGOMComponentTransferFunctionElement
      * SVGComponentTransferFunctionElement#getOffset()}.
      */
     public SVGAnimatedNumber getOffset() {
+        ensureLiveAttributes();
         return offset;
     }
 
@@ -102,7 +102,6 @@ public class SVGOMCursorElement
      */
     public SVGOMCursorElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -139,6 +138,7 @@ public class SVGOMCursorElement
      * <b>DOM</b>: Implements {@link SVGCursorElement#getX()}.
      */
     public SVGAnimatedLength getX() {
+        ensureLiveAttributes();
         return x;
     }
 
@@ -146,6 +146,7 @@ public class SVGOMCursorElement
      * <b>DOM</b>: Implements {@link SVGCursorElement#getY()}.
      */
     public SVGAnimatedLength getY() {
+        ensureLiveAttributes();
         return y;
     }
 
@@ -156,6 +157,7 @@ public class SVGOMCursorElement
      * org.w3c.dom.svg.SVGExternalResourcesRequired#getExternalResourcesRequired()}.
      */
     public SVGAnimatedBoolean getExternalResourcesRequired() {
+        ensureLiveAttributes();
         return externalResourcesRequired;
     }
 
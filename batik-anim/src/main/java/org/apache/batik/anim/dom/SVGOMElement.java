@@ -97,6 +97,16 @@ public abstract class SVGOMElement
      */
     protected transient SVGContext svgContext;
 
+    /**
+     * The bridge context which bound this element, if any.
+     */
+    protected transient Object bindingContext;
+
+    /**
+     * The object, usually a graphics node, this element is bound to.
+     */
+    protected transient Object binding;
+
     /**
      * Table mapping namespaceURI/local name pairs to {@link LinkedList}s
      * of {@link AnimationTargetListener}s.
@@ -124,6 +134,11 @@ public abstract class SVGOMElement
         // initializeLiveAttributes();
     }
 
+    /**
+     * Whether the live attribute values of this element have been created.
+     */
+    protected transient boolean liveAttributesInitialized;
+
     /**
      * Initializes all live attributes for this element.
      */
@@ -131,6 +146,19 @@ public abstract class SVGOMElement
         // initializeLiveAttributes();
     }
 
+    /**
+     * Creates the live attribute values of this element, if this was not
+     * done yet.  They are only created when first requested, since most
+     * elements of a static document are never accessed through the SVG DOM
+     * interfaces nor animated.
+     */
+    protected final void ensureLiveAttributes() {
+        if (!liveAttributesInitialized) {
+            liveAttributesInitialized = true;
+            initializeAllLiveAttributes();
+        }
+    }
+
 //     /**
 //       * Initializes the live attribute values of this element.
 //       */
@@ -314,6 +342,34 @@ public abstract class SVGOMElement
         return svgContext;
     }
 
+    // Binding ///////////////////////////////////////////////////////
+
+    /**
+     * Binds this element to the given object, usually the graphics node
+     * built from it by the given bridge context.
+     *
+     * @param ctx the bridge context, or null to remove the binding
+     * @param b the object to bind this element to
+     */
+    public void setBinding(Object ctx, Object b) {
+        bindingContext = ctx;
+        binding = ctx == null ? null : b;
+    }
+
+    /**
+     * Returns the bridge context which bound this element, or null.
+     */
+    public Object getBindingContext() {
+        return bindingContext;
+    }
+
+    /**
+     * Returns the object this element is bound to, or null.
+     */
+    public Object getBinding() {
+        return binding;
+    }
+
     // ExtendedNode //////////////////////////////////////////////////
 
     /**
@@ -359,7 +415,7 @@ public abstract class SVGOMElement
             (String ns, String ln, String def) {
         SVGOMAnimatedTransformList v =
             new SVGOMAnimatedTransformList(this, ns, ln, def);
-        liveAttributeValues.put(ns, ln, v);
+        putLiveAttributeValue(ns, ln, v);
         v.addAnimatedAttributeListener
             (((SVGOMDocument) ownerDocument).getAnimatedAttributeListener());
         return v;
@@ -373,7 +429,7 @@ public abstract class SVGOMElement
             (String ns, String ln, boolean def) {
         SVGOMAnimatedBoolean v =
             new SVGOMAnimatedBoolean(this, ns, ln, def);
-        liveAttributeValues.put(ns, ln, v);
+        putLiveAttributeValue(ns, ln, v);
         v.addAnimatedAttributeListener
             (((SVGOMDocument) ownerDocument).getAnimatedAttributeListener());
         return v;
@@ -387,7 +443,7 @@ public abstract class SVGOMElement
             (String ns, String ln) {
         SVGOMAnimatedString v =
             new SVGOMAnimatedString(this, ns, ln);
-        liveAttributeValues.put(ns, ln, v);
+        putLiveAttributeValue(ns, ln, v);
         v.addAnimatedAttributeListener
             (((SVGOMDocument) ownerDocument).getAnimatedAttributeListener());
         return v;
@@ -401,7 +457,7 @@ public abstract class SVGOMElement
             createLiveAnimatedPreserveAspectRatio() {
         SVGOMAnimatedPreserveAspectRatio v =
             new SVGOMAnimatedPreserveAspectRatio(this);
-        liveAttributeValues.put(null, SVG_PRESERVE_ASPECT_RATIO_ATTRIBUTE, v);
+        putLiveAttributeValue(null, SVG_PRESERVE_ASPECT_RATIO_ATTRIBUTE, v);
         v.addAnimatedAttributeListener
             (((SVGOMDocument) ownerDocument).getAnimatedAttributeListener());
         return v;
@@ -415,7 +471,7 @@ public abstract class SVGOMElement
             createLiveAnimatedMarkerOrientValue(String ns, String ln) {
         SVGOMAnimatedMarkerOrientValue v =
             new SVGOMAnimatedMarkerOrientValue(this, ns, ln);
-        liveAttributeValues.put(ns, ln, v);
+        putLiveAttributeValue(ns, ln, v);
         v.addAnimatedAttributeListener
             (((SVGOMDocument) ownerDocument).getAnimatedAttributeListener());
         return v;
@@ -429,7 +485,7 @@ public abstract class SVGOMElement
             createLiveAnimatedPathData(String ns, String ln, String def) {
         SVGOMAnimatedPathData v =
             new SVGOMAnimatedPathData(this, ns, ln, def);
-        liveAttributeValues.put(ns, ln, v);
+        putLiveAttributeValue(ns, ln, v);
         v.addAnimatedAttributeListener
             (((SVGOMDocument) ownerDocument).getAnimatedAttributeListener());
         return v;
@@ -452,7 +508,7 @@ public abstract class SVGOMElement
             (String ns, String ln, float def, boolean allowPercentage) {
         SVGOMAnimatedNumber v =
             new SVGOMAnimatedNumber(this, ns, ln, def, allowPercentage);
-        liveAttributeValues.put(ns, ln, v);
+        putLiveAttributeValue(ns, ln, v);
         v.addAnimatedAttributeListener
             (((SVGOMDocument) ownerDocument).getAnimatedAttributeListener());
         return v;
@@ -466,7 +522,7 @@ public abstract class SVGOMElement
             (String ns, String ln, String def, boolean canEmpty) {
         SVGOMAnimatedNumberList v =
             new SVGOMAnimatedNumberList(this, ns, ln, def, canEmpty);
-        liveAttributeValues.put(ns, ln, v);
+        putLiveAttributeValue(ns, ln, v);
         v.addAnimatedAttributeListener
             (((SVGOMDocument) ownerDocument).getAnimatedAttributeListener());
         return v;
@@ -480,7 +536,7 @@ public abstract class SVGOMElement
             (String ns, String ln, String def) {
         SVGOMAnimatedPoints v =
             new SVGOMAnimatedPoints(this, ns, ln, def);
-        liveAttributeValues.put(ns, ln, v);
+        putLiveAttributeValue(ns, ln, v);
         v.addAnimatedAttributeListener
             (((SVGOMDocument) ownerDocument).getAnimatedAttributeListener());
         return v;
@@ -495,7 +551,7 @@ public abstract class SVGOMElement
              short dir) {
         SVGOMAnimatedLengthList v =
             new SVGOMAnimatedLengthList(this, ns, ln, def, emptyAllowed, dir);
-        liveAttributeValues.put(ns, ln, v);
+        putLiveAttributeValue(ns, ln, v);
         v.addAnimatedAttributeListener
             (((SVGOMDocument) ownerDocument).getAnimatedAttributeListener());
         return v;
@@ -509,7 +565,7 @@ public abstract class SVGOMElement
             (String ns, String ln, int def) {
         SVGOMAnimatedInteger v =
             new SVGOMAnimatedInteger(this, ns, ln, def);
-        liveAttributeValues.put(ns, ln, v);
+        putLiveAttributeValue(ns, ln, v);
         v.addAnimatedAttributeListener
             (((SVGOMDocument) ownerDocument).getAnimatedAttributeListener());
         return v;
@@ -523,7 +579,7 @@ public abstract class SVGOMElement
             (String ns, String ln, String[] val, short def) {
         SVGOMAnimatedEnumeration v =
             new SVGOMAnimatedEnumeration(this, ns, ln, val, def);
-        liveAttributeValues.put(ns, ln, v);
+        putLiveAttributeValue(ns, ln, v);
         v.addAnimatedAttributeListener
             (((SVGOMDocument) ownerDocument).getAnimatedAttributeListener());
         return v;
@@ -537,7 +593,7 @@ public abstract class SVGOMElement
             (String ns, String ln, String val, short dir, boolean nonneg) {
         SVGOMAnimatedLength v =
             new SVGOMAnimatedLength(this, ns, ln, val, dir, nonneg);
-        liveAttributeValues.put(ns, ln, v);
+        putLiveAttributeValue(ns, ln, v);
         v.addAnimatedAttributeListener
             (((SVGOMDocument) ownerDocument).getAnimatedAttributeListener());
         return v;
@@ -550,7 +606,7 @@ public abstract class SVGOMElement
     protected SVGOMAnimatedRect createLiveAnimatedRect
             (String ns, String ln, String value) {
         SVGOMAnimatedRect v = new SVGOMAnimatedRect(this, ns, ln, value);
-        liveAttributeValues.put(ns, ln, v);
+        putLiveAttributeValue(ns, ln, v);
         v.addAnimatedAttributeListener
             (((SVGOMDocument) ownerDocument).getAnimatedAttributeListener());
         return v;
@@ -698,6 +754,7 @@ public abstract class SVGOMElement
      */
     public void updateAttributeValue(String ns, String ln,
                                      AnimatableValue val) {
+        ensureLiveAttributes();
         LiveAttributeValue a = getLiveAttributeValue(ns, ln);
         ((AbstractSVGAnimatedValue) a).updateAnimatedValue(val);
         // XXX Override this for NumberOptionalNumber values
@@ -713,6 +770,7 @@ public abstract class SVGOMElement
      * Returns the underlying value of an animatable XML attribute.
      */
     public AnimatableValue getUnderlyingValue(String ns, String ln) {
+        ensureLiveAttributes();
         LiveAttributeValue a = getLiveAttributeValue(ns, ln);
         if (!(a instanceof AnimatedLiveAttributeValue)) {
             return null;
@@ -856,7 +914,6 @@ public abstract class SVGOMElement
         super.export(n, d);
         SVGOMElement e = (SVGOMElement)n;
         e.prefix = prefix;
-        e.initializeAllLiveAttributes();
         return n;
     }
 
@@ -867,7 +924,6 @@ public abstract class SVGOMElement
         super.deepExport(n, d);
         SVGOMElement e = (SVGOMElement)n;
         e.prefix = prefix;
-        e.initializeAllLiveAttributes();
         return n;
     }
 
@@ -879,7 +935,6 @@ public abstract class SVGOMElement
         super.copyInto(n);
         SVGOMElement e = (SVGOMElement)n;
         e.prefix = prefix;
-        e.initializeAllLiveAttributes();
         return n;
     }
 
@@ -891,7 +946,6 @@ public abstract class SVGOMElement
         super.deepCopyInto(n);
         SVGOMElement e = (SVGOMElement)n;
         e.prefix = prefix;
-        e.initializeAllLiveAttributes();
         return n;
     }
 
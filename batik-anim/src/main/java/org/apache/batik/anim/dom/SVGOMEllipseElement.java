@@ -87,7 +87,6 @@ public class SVGOMEllipseElement
      */
     public SVGOMEllipseElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -127,6 +126,7 @@ public class SVGOMEllipseElement
      * <b>DOM</b>: Implements {@link SVGEllipseElement#getCx()}.
      */
     public SVGAnimatedLength getCx() {
+        ensureLiveAttributes();
         return cx;
     }
 
@@ -134,6 +134,7 @@ public class SVGOMEllipseElement
      * <b>DOM</b>: Implements {@link SVGEllipseElement#getCy()}.
      */
     public SVGAnimatedLength getCy() {
+        ensureLiveAttributes();
         return cy;
     }
 
@@ -141,6 +142,7 @@ public class SVGOMEllipseElement
      * <b>DOM</b>: Implements {@link SVGEllipseElement#getRx()}.
      */
     public SVGAnimatedLength getRx() {
+        ensureLiveAttributes();
         return rx;
     }
 
@@ -148,6 +150,7 @@ public class SVGOMEllipseElement
      * <b>DOM</b>: Implements {@link SVGEllipseElement#getRy()}.
      */
     public SVGAnimatedLength getRy() {
+        ensureLiveAttributes();
         return ry;
    }
 
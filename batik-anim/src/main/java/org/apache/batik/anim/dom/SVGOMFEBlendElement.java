@@ -95,7 +95,6 @@ public class SVGOMFEBlendElement
      */
     public SVGOMFEBlendElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -128,6 +127,7 @@ public class SVGOMFEBlendElement
      * <b>DOM</b>: Implements {@link SVGFEBlendElement#getIn1()}.
      */
     public SVGAnimatedString getIn1() {
+        ensureLiveAttributes();
         return in;
     }
 
@@ -135,6 +135,7 @@ public class SVGOMFEBlendElement
      * <b>DOM</b>: Implements {@link SVGFEBlendElement#getIn2()}.
      */
     public SVGAnimatedString getIn2() {
+        ensureLiveAttributes();
         return in2;
     }
 
@@ -142,6 +143,7 @@ public class SVGOMFEBlendElement
      * <b>DOM</b>: Implements {@link SVGFEBlendElement#getMode()}.
      */
     public SVGAnimatedEnumeration getMode() {
+        ensureLiveAttributes();
         return mode;
     }
 
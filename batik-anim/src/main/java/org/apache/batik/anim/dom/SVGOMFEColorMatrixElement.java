@@ -93,7 +93,6 @@ public class SVGOMFEColorMatrixElement
      */
     public SVGOMFEColorMatrixElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -125,6 +124,7 @@ public class SVGOMFEColorMatrixElement
      * <b>DOM</b>: Implements {@link SVGFEColorMatrixElement#getIn1()}.
      */
     public SVGAnimatedString getIn1() {
+        ensureLiveAttributes();
         return in;
     }
 
@@ -132,6 +132,7 @@ public class SVGOMFEColorMatrixElement
      * <b>DOM</b>: Implements {@link SVGFEColorMatrixElement#getType()}.
      */
     public SVGAnimatedEnumeration getType() {
+        ensureLiveAttributes();
         return type;
     }
 
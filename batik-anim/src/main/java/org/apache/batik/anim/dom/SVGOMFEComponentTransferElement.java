@@ -67,7 +67,6 @@ public class SVGOMFEComponentTransferElement
     public SVGOMFEComponentTransferElement(String prefix,
                                            AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -96,6 +95,7 @@ public class SVGOMFEComponentTransferElement
      * <b>DOM</b>: Implements {@link SVGFEComponentTransferElement#getIn1()}.
      */
     public SVGAnimatedString getIn1() {
+        ensureLiveAttributes();
         return in;
     }
 
@@ -123,7 +123,6 @@ public class SVGOMFECompositeElement
      */
     public SVGOMFECompositeElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -160,6 +159,7 @@ public class SVGOMFECompositeElement
      * <b>DOM</b>: Implements {@link SVGFECompositeElement#getIn1()}.
      */
     public SVGAnimatedString getIn1() {
+        ensureLiveAttributes();
         return in;
     }
 
@@ -167,6 +167,7 @@ public class SVGOMFECompositeElement
      * <b>DOM</b>: Implements {@link SVGFECompositeElement#getIn2()}.
      */
     public SVGAnimatedString getIn2() {
+        ensureLiveAttributes();
         return in2;
     }
 
@@ -174,6 +175,7 @@ public class SVGOMFECompositeElement
      * <b>DOM</b>: Implements {@link SVGFECompositeElement#getOperator()}.
      */
     public SVGAnimatedEnumeration getOperator() {
+        ensureLiveAttributes();
         return operator;
     }
 
@@ -181,6 +183,7 @@ public class SVGOMFECompositeElement
      * <b>DOM</b>: Implements {@link SVGFECompositeElement#getK1()}.
      */
     public SVGAnimatedNumber getK1() {
+        ensureLiveAttributes();
         return k1;
     }
 
@@ -188,6 +191,7 @@ public class SVGOMFECompositeElement
      * <b>DOM</b>: Implements {@link SVGFECompositeElement#getK2()}.
      */
     public SVGAnimatedNumber getK2() {
+        ensureLiveAttributes();
         return k2;
     }
 
@@ -195,6 +199,7 @@ public class SVGOMFECompositeElement
      * <b>DOM</b>: Implements {@link SVGFECompositeElement#getK3()}.
      */
     public SVGAnimatedNumber getK3() {
+        ensureLiveAttributes();
         return k3;
     }
 
@@ -202,6 +207,7 @@ public class SVGOMFECompositeElement
      * <b>DOM</b>: Implements {@link SVGFECompositeElement#getK4()}.
      */
     public SVGAnimatedNumber getK4() {
+        ensureLiveAttributes();
         return k4;
     }
 
@@ -115,7 +115,6 @@ public class SVGOMFEConvolveMatrixElement
     public SVGOMFEConvolveMatrixElement(String prefix,
                                         AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -151,6 +150,7 @@ public class SVGOMFEConvolveMatrixElement
      * <b>DOM</b>: Implements SVGFEConvolveMatrixElement#getIn1().
      */
     public SVGAnimatedString getIn1() {
+        ensureLiveAttributes();
         return in;
     }
 
@@ -158,6 +158,7 @@ public class SVGOMFEConvolveMatrixElement
      * <b>DOM</b>: Implements {@link SVGFEConvolveMatrixElement#getEdgeMode()}.
      */
     public SVGAnimatedEnumeration getEdgeMode() {
+        ensureLiveAttributes();
         return edgeMode;
     }
 
@@ -217,6 +218,7 @@ public class SVGOMFEConvolveMatrixElement
      * org.w3c.dom.svg.SVGFEConvolveMatrixElement#getBias()}.
      */
     public SVGAnimatedNumber getBias() {
+        ensureLiveAttributes();
         return bias;
     }
 
@@ -243,6 +245,7 @@ public class SVGOMFEConvolveMatrixElement
      * org.w3c.dom.svg.SVGFEConvolveMatrixElement#getPreserveAlpha()}.
      */
     public SVGAnimatedBoolean getPreserveAlpha() {
+        ensureLiveAttributes();
         return preserveAlpha;
     }
 
@@ -84,7 +84,6 @@ public class SVGOMFEDiffuseLightingElement
     public SVGOMFEDiffuseLightingElement(String prefix,
                                          AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -117,6 +116,7 @@ public class SVGOMFEDiffuseLightingElement
      * <b>DOM</b>: Implements {@link SVGFEDiffuseLightingElement#getIn1()}.
      */
     public SVGAnimatedString getIn1() {
+        ensureLiveAttributes();
         return in;
     }
 
@@ -125,6 +125,7 @@ public class SVGOMFEDiffuseLightingElement
      * SVGFEDiffuseLightingElement#getSurfaceScale()}.
      */
     public SVGAnimatedNumber getSurfaceScale() {
+        ensureLiveAttributes();
         return surfaceScale;
     }
 
@@ -133,6 +134,7 @@ public class SVGOMFEDiffuseLightingElement
      * SVGFEDiffuseLightingElement#getDiffuseConstant()}.
      */
     public SVGAnimatedNumber getDiffuseConstant() {
+        ensureLiveAttributes();
         return diffuseConstant;
     }
 
@@ -108,7 +108,6 @@ public class SVGOMFEDisplacementMapElement
     public SVGOMFEDisplacementMapElement(String prefix,
                                          AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -148,6 +147,7 @@ public class SVGOMFEDisplacementMapElement
      * SVGFEDisplacementMapElement#getIn1()}.
      */
     public SVGAnimatedString getIn1() {
+        ensureLiveAttributes();
         return in;
     }
 
@@ -156,6 +156,7 @@ public class SVGOMFEDisplacementMapElement
      * SVGFEDisplacementMapElement#getIn2()}.
      */
     public SVGAnimatedString getIn2() {
+        ensureLiveAttributes();
         return in2;
     }
 
@@ -164,6 +165,7 @@ public class SVGOMFEDisplacementMapElement
      * org.w3c.dom.svg.SVGFEDisplacementMapElement#getScale()}.
      */
     public SVGAnimatedNumber getScale() {
+        ensureLiveAttributes();
         return scale;
     }
 
@@ -172,6 +174,7 @@ public class SVGOMFEDisplacementMapElement
      * SVGFEDisplacementMapElement#getXChannelSelector()}.
      */
     public SVGAnimatedEnumeration getXChannelSelector() {
+        ensureLiveAttributes();
         return xChannelSelector;
     }
 
@@ -180,6 +183,7 @@ public class SVGOMFEDisplacementMapElement
      * SVGFEDisplacementMapElement#getYChannelSelector()}.
      */
     public SVGAnimatedEnumeration getYChannelSelector() {
+        ensureLiveAttributes();
         return yChannelSelector;
     }
 
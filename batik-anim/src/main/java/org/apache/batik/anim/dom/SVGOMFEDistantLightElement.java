@@ -74,7 +74,6 @@ public class SVGOMFEDistantLightElement
     public SVGOMFEDistantLightElement(String prefix,
                                       AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -104,6 +103,7 @@ public class SVGOMFEDistantLightElement
      * <b>DOM</b>: Implements {@link SVGFEDistantLightElement#getAzimuth()}.
      */
     public SVGAnimatedNumber getAzimuth() {
+        ensureLiveAttributes();
         return azimuth;
     }
 
@@ -111,6 +111,7 @@ public class SVGOMFEDistantLightElement
      * <b>DOM</b>: Implements {@link SVGFEDistantLightElement#getElevation()}.
      */
     public SVGAnimatedNumber getElevation() {
+        ensureLiveAttributes();
         return elevation;
     }
 
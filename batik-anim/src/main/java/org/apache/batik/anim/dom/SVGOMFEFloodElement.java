@@ -67,7 +67,6 @@ public class SVGOMFEFloodElement
     public SVGOMFEFloodElement(String prefix,
                                AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -96,6 +95,7 @@ public class SVGOMFEFloodElement
      * <b>DOM</b>: Implements {@link SVGFEFloodElement#getIn1()}.
      */
     public SVGAnimatedString getIn1() {
+        ensureLiveAttributes();
         return in;
     }
     
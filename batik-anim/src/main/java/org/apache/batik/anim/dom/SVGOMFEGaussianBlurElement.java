@@ -69,7 +69,6 @@ public class SVGOMFEGaussianBlurElement
      */
     public SVGOMFEGaussianBlurElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -98,6 +97,7 @@ public class SVGOMFEGaussianBlurElement
      * <b>DOM</b>: Implements {@link SVGFEGaussianBlurElement#getIn1()}.
      */
     public SVGAnimatedString getIn1() {
+        ensureLiveAttributes();
         return in;
     }
 
@@ -102,7 +102,6 @@ public class SVGOMFEImageElement
     public SVGOMFEImageElement(String prefix,
                                AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -137,6 +136,7 @@ public class SVGOMFEImageElement
      * org.w3c.dom.svg.SVGURIReference#getHref()}.
      */
     public SVGAnimatedString getHref() {
+        ensureLiveAttributes();
         return href;
     }
 
@@ -144,6 +144,7 @@ public class SVGOMFEImageElement
      * <b>DOM</b>: Implements {@link SVGFEImageElement#getPreserveAspectRatio()}.
      */
     public SVGAnimatedPreserveAspectRatio getPreserveAspectRatio() {
+        ensureLiveAttributes();
         return preserveAspectRatio;
     }
 
@@ -184,6 +185,7 @@ public class SVGOMFEImageElement
      * org.w3c.dom.svg.SVGExternalResourcesRequired#getExternalResourcesRequired()}.
      */
     public SVGAnimatedBoolean getExternalResourcesRequired() {
+        ensureLiveAttributes();
         return externalResourcesRequired;
     }
 
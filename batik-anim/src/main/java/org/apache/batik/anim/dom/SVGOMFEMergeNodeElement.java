@@ -66,7 +66,6 @@ public class SVGOMFEMergeNodeElement
      */
     public SVGOMFEMergeNodeElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -96,6 +95,7 @@ public class SVGOMFEMergeNodeElement
      * SVGFEMergeNodeElement#getIn1()}.
      */
     public SVGAnimatedString getIn1() {
+        ensureLiveAttributes();
         return in;
     }
 
@@ -81,7 +81,6 @@ public class SVGOMFEOffsetElement
      */
     public SVGOMFEOffsetElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -113,6 +112,7 @@ public class SVGOMFEOffsetElement
      * SVGFEOffsetElement#getIn1()}.
      */
     public SVGAnimatedString getIn1() {
+        ensureLiveAttributes();
         return in;
     }
 
@@ -121,6 +121,7 @@ public class SVGOMFEOffsetElement
      * org.w3c.dom.svg.SVGFEOffsetElement#getDx()}.
      */
     public SVGAnimatedNumber getDx() {
+        ensureLiveAttributes();
         return dx;
     } 
 
@@ -129,6 +130,7 @@ public class SVGOMFEOffsetElement
      * org.w3c.dom.svg.SVGFEOffsetElement#getDy()}.
      */
     public SVGAnimatedNumber getDy() {
+        ensureLiveAttributes();
         return dy;
     }
 
@@ -81,7 +81,6 @@ public class SVGOMFEPointLightElement
     public SVGOMFEPointLightElement(String prefix,
                                     AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -112,6 +111,7 @@ public class SVGOMFEPointLightElement
      * <b>DOM</b>: Implements {@link SVGFEPointLightElement#getX()}.
      */
     public SVGAnimatedNumber getX() {
+        ensureLiveAttributes();
         return x;
     }
 
@@ -119,6 +119,7 @@ public class SVGOMFEPointLightElement
      * <b>DOM</b>: Implements {@link SVGFEPointLightElement#getY()}.
      */
     public SVGAnimatedNumber getY() {
+        ensureLiveAttributes();
         return y;
     }
 
@@ -126,6 +127,7 @@ public class SVGOMFEPointLightElement
      * <b>DOM</b>: Implements {@link SVGFEPointLightElement#getZ()}.
      */
     public SVGAnimatedNumber getZ() {
+        ensureLiveAttributes();
         return z;
     }
 
@@ -89,7 +89,6 @@ public class SVGOMFESpecularLightingElement
     public SVGOMFESpecularLightingElement(String prefix,
                                           AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -124,6 +123,7 @@ public class SVGOMFESpecularLightingElement
      * <b>DOM</b>: Implements {@link SVGFESpecularLightingElement#getIn1()}.
      */
     public SVGAnimatedString getIn1() {
+        ensureLiveAttributes();
         return in;
     }
 
@@ -132,6 +132,7 @@ public class SVGOMFESpecularLightingElement
      * SVGFESpecularLightingElement#getSurfaceScale()}.
      */
     public SVGAnimatedNumber getSurfaceScale() {
+        ensureLiveAttributes();
         return surfaceScale;
     }
 
@@ -140,6 +141,7 @@ public class SVGOMFESpecularLightingElement
      * SVGFESpecularLightingElement#getSpecularConstant()}.
      */
     public SVGAnimatedNumber getSpecularConstant() {
+        ensureLiveAttributes();
         return specularConstant;
     }
 
@@ -148,6 +150,7 @@ public class SVGOMFESpecularLightingElement
      * SVGFESpecularLightingElement#getSpecularExponent()}.
      */
     public SVGAnimatedNumber getSpecularExponent() {
+        ensureLiveAttributes();
         return specularExponent;
     }
 
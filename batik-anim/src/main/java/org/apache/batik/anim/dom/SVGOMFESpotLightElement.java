@@ -116,7 +116,6 @@ public class SVGOMFESpotLightElement
     public SVGOMFESpotLightElement(String prefix,
                                    AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -158,6 +157,7 @@ public class SVGOMFESpotLightElement
      * <b>DOM</b>: Implements {@link SVGFESpotLightElement#getX()}.
      */
     public SVGAnimatedNumber getX() {
+        ensureLiveAttributes();
         return x;
     }
 
@@ -165,6 +165,7 @@ public class SVGOMFESpotLightElement
      * <b>DOM</b>: Implements {@link SVGFESpotLightElement#getY()}.
      */
     public SVGAnimatedNumber getY() {
+        ensureLiveAttributes();
         return y;
     }
 
@@ -172,6 +173,7 @@ public class SVGOMFESpotLightElement
      * <b>DOM</b>: Implements {@link SVGFESpotLightElement#getZ()}.
      */
     public SVGAnimatedNumber getZ() {
+        ensureLiveAttributes();
         return z;
     }
 
@@ -179,6 +181,7 @@ public class SVGOMFESpotLightElement
      * <b>DOM</b>: Implements {@link SVGFESpotLightElement#getPointsAtX()}.
      */
     public SVGAnimatedNumber getPointsAtX() {
+        ensureLiveAttributes();
         return pointsAtX;
     }
 
@@ -186,6 +189,7 @@ public class SVGOMFESpotLightElement
      * <b>DOM</b>: Implements {@link SVGFESpotLightElement#getPointsAtY()}.
      */
     public SVGAnimatedNumber getPointsAtY() {
+        ensureLiveAttributes();
         return pointsAtY;
     }
 
@@ -193,6 +197,7 @@ public class SVGOMFESpotLightElement
      * <b>DOM</b>: Implements {@link SVGFESpotLightElement#getPointsAtZ()}.
      */
     public SVGAnimatedNumber getPointsAtZ() {
+        ensureLiveAttributes();
         return pointsAtZ;
     }
 
@@ -201,6 +206,7 @@ public class SVGOMFESpotLightElement
      * SVGFESpotLightElement#getSpecularExponent()}.
      */
     public SVGAnimatedNumber getSpecularExponent() {
+        ensureLiveAttributes();
         return specularExponent;
     }
 
@@ -209,6 +215,7 @@ public class SVGOMFESpotLightElement
      * SVGFESpotLightElement#getLimitingConeAngle()}.
      */
     public SVGAnimatedNumber getLimitingConeAngle() {
+        ensureLiveAttributes();
         return limitingConeAngle;
     }
 
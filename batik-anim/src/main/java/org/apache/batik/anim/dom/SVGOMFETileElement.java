@@ -66,7 +66,6 @@ public class SVGOMFETileElement
      */
     public SVGOMFETileElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -95,6 +94,7 @@ public class SVGOMFETileElement
      * <b>DOM</b>: Implements {@link SVGFETileElement#getIn1()}.
      */
     public SVGAnimatedString getIn1() {
+        ensureLiveAttributes();
         return in;
     }
 
@@ -110,7 +110,6 @@ public class SVGOMFETurbulenceElement
     public SVGOMFETurbulenceElement(String prefix,
                                     AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -166,6 +165,7 @@ public class SVGOMFETurbulenceElement
      * <b>DOM</b>: Implements {@link SVGFETurbulenceElement#getNumOctaves()}.
      */
     public SVGAnimatedInteger getNumOctaves() {
+        ensureLiveAttributes();
         return numOctaves;
     }
 
@@ -173,6 +173,7 @@ public class SVGOMFETurbulenceElement
      * <b>DOM</b>: Implements {@link SVGFETurbulenceElement#getSeed()}.
      */
     public SVGAnimatedNumber getSeed() {
+        ensureLiveAttributes();
         return seed;
     }
 
@@ -180,6 +181,7 @@ public class SVGOMFETurbulenceElement
      * <b>DOM</b>: Implements {@link SVGFETurbulenceElement#getStitchTiles()}.
      */
     public SVGAnimatedEnumeration getStitchTiles() {
+        ensureLiveAttributes();
         return stitchTiles;
     }
 
@@ -187,6 +189,7 @@ public class SVGOMFETurbulenceElement
      * <b>DOM</b>: Implements {@link SVGFETurbulenceElement#getType()}.
      */
     public SVGAnimatedEnumeration getType() {
+        ensureLiveAttributes();
         return type;
     }
 
@@ -145,7 +145,6 @@ public class SVGOMFilterElement
      */
     public SVGOMFilterElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -198,6 +197,7 @@ public class SVGOMFilterElement
      * <b>DOM</b>: Implements {@link SVGFilterElement#getFilterUnits()}.
      */
     public SVGAnimatedEnumeration getFilterUnits() {
+        ensureLiveAttributes();
         return filterUnits;
     }
 
@@ -205,6 +205,7 @@ public class SVGOMFilterElement
      * <b>DOM</b>: Implements {@link SVGFilterElement#getPrimitiveUnits()}.
      */
     public SVGAnimatedEnumeration getPrimitiveUnits() {
+        ensureLiveAttributes();
         return primitiveUnits;
     }
 
@@ -212,6 +213,7 @@ public class SVGOMFilterElement
      * <b>DOM</b>: Implements {@link SVGFilterElement#getX()}.
      */
     public SVGAnimatedLength getX() {
+        ensureLiveAttributes();
         return x;
     }
 
@@ -219,6 +221,7 @@ public class SVGOMFilterElement
      * <b>DOM</b>: Implements {@link SVGFilterElement#getY()}.
      */
     public SVGAnimatedLength getY() {
+        ensureLiveAttributes();
         return y;
     }
 
@@ -226,6 +229,7 @@ public class SVGOMFilterElement
      * <b>DOM</b>: Implements {@link SVGFilterElement#getWidth()}.
      */
     public SVGAnimatedLength getWidth() {
+        ensureLiveAttributes();
         return width;
     }
 
@@ -233,6 +237,7 @@ public class SVGOMFilterElement
      * <b>DOM</b>: Implements {@link SVGFilterElement#getHeight()}.
      */
     public SVGAnimatedLength getHeight() {
+        ensureLiveAttributes();
         return height;
     }
 
@@ -266,6 +271,7 @@ public class SVGOMFilterElement
      * <b>DOM</b>: Implements {@link org.w3c.dom.svg.SVGURIReference#getHref()}.
      */
     public SVGAnimatedString getHref() {
+        ensureLiveAttributes();
         return href;
     }
 
@@ -276,6 +282,7 @@ public class SVGOMFilterElement
      * org.w3c.dom.svg.SVGExternalResourcesRequired#getExternalResourcesRequired()}.
      */
     public SVGAnimatedBoolean getExternalResourcesRequired() {
+        ensureLiveAttributes();
         return externalResourcesRequired;
     }
 
@@ -96,7 +96,6 @@ public abstract class SVGOMFilterPrimitiveStandardAttributes
     protected SVGOMFilterPrimitiveStandardAttributes(String prefix,
                                                      AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -135,6 +134,7 @@ public abstract class SVGOMFilterPrimitiveStandardAttributes
      * org.w3c.dom.svg.SVGFilterPrimitiveStandardAttributes#getX()}.
      */
     public SVGAnimatedLength getX() {
+        ensureLiveAttributes();
         return x;
     }
 
@@ -143,6 +143,7 @@ public abstract class SVGOMFilterPrimitiveStandardAttributes
      * org.w3c.dom.svg.SVGFilterPrimitiveStandardAttributes#getY()}.
      */
     public SVGAnimatedLength getY() {
+        ensureLiveAttributes();
         return y;
     }
 
@@ -151,6 +152,7 @@ public abstract class SVGOMFilterPrimitiveStandardAttributes
      * org.w3c.dom.svg.SVGFilterPrimitiveStandardAttributes#getWidth()}.
      */
     public SVGAnimatedLength getWidth() {
+        ensureLiveAttributes();
         return width;
     }
 
@@ -159,6 +161,7 @@ public abstract class SVGOMFilterPrimitiveStandardAttributes
      * org.w3c.dom.svg.SVGFilterPrimitiveStandardAttributes#getHeight()}.
      */
     public SVGAnimatedLength getHeight() {
+        ensureLiveAttributes();
         return height;
     }
 
@@ -167,6 +170,7 @@ public abstract class SVGOMFilterPrimitiveStandardAttributes
      * org.w3c.dom.svg.SVGFilterPrimitiveStandardAttributes#getResult()}.
      */
     public SVGAnimatedString getResult() {
+        ensureLiveAttributes();
         return result;
     }
 
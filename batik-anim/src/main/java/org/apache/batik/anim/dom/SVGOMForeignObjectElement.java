@@ -92,7 +92,6 @@ public class SVGOMForeignObjectElement
      */
     public SVGOMForeignObjectElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -135,6 +134,7 @@ public class SVGOMForeignObjectElement
      * <b>DOM</b>: Implements {@link SVGForeignObjectElement#getX()}.
      */
     public SVGAnimatedLength getX() {
+        ensureLiveAttributes();
         return x;
     }
 
@@ -142,6 +142,7 @@ public class SVGOMForeignObjectElement
      * <b>DOM</b>: Implements {@link SVGForeignObjectElement#getY()}.
      */
     public SVGAnimatedLength getY() {
+        ensureLiveAttributes();
         return y;
     }
 
@@ -149,6 +150,7 @@ public class SVGOMForeignObjectElement
      * <b>DOM</b>: Implements {@link SVGForeignObjectElement#getWidth()}.
      */
     public SVGAnimatedLength getWidth() {
+        ensureLiveAttributes();
         return width;
     }
 
@@ -156,6 +158,7 @@ public class SVGOMForeignObjectElement
      * <b>DOM</b>: Implements {@link SVGForeignObjectElement#getHeight()}.
      */
     public SVGAnimatedLength getHeight() {
+        ensureLiveAttributes();
         return height;
     }
 
@@ -96,7 +96,6 @@ public class SVGOMGlyphRefElement
      */
     public SVGOMGlyphRefElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -126,6 +125,7 @@ public class SVGOMGlyphRefElement
      * <b>DOM</b>: Implements {@link org.w3c.dom.svg.SVGURIReference#getHref()}.
      */
     public SVGAnimatedString getHref() {
+        ensureLiveAttributes();
         return href;
     }
 
@@ -130,7 +130,6 @@ public abstract class SVGOMGradientElement
      */
     protected SVGOMGradientElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -173,6 +172,7 @@ public abstract class SVGOMGradientElement
      * org.w3c.dom.svg.SVGGradientElement#getGradientUnits()}.
      */
     public SVGAnimatedEnumeration getGradientUnits() {
+        ensureLiveAttributes();
         return gradientUnits;
     }
 
@@ -181,6 +181,7 @@ public abstract class SVGOMGradientElement
      * org.w3c.dom.svg.SVGGradientElement#getSpreadMethod()}.
      */
     public SVGAnimatedEnumeration getSpreadMethod() {
+        ensureLiveAttributes();
         return spreadMethod;
     }
 
@@ -189,6 +190,7 @@ public abstract class SVGOMGradientElement
      * org.w3c.dom.svg.SVGURIReference#getHref()}.
      */
     public SVGAnimatedString getHref() {
+        ensureLiveAttributes();
         return href;
     }
 
@@ -199,6 +201,7 @@ public abstract class SVGOMGradientElement
      * org.w3c.dom.svg.SVGExternalResourcesRequired#getExternalResourcesRequired()}.
      */
     public SVGAnimatedBoolean getExternalResourcesRequired() {
+        ensureLiveAttributes();
         return externalResourcesRequired;
     }
 
@@ -115,7 +115,6 @@ public class SVGOMImageElement
      */
     public SVGOMImageElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -158,6 +157,7 @@ public class SVGOMImageElement
      * <b>DOM</b>: Implements {@link SVGImageElement#getX()}.
      */
     public SVGAnimatedLength getX() {
+        ensureLiveAttributes();
         return x;
     }
 
@@ -165,6 +165,7 @@ public class SVGOMImageElement
      * <b>DOM</b>: Implements {@link SVGImageElement#getY()}.
      */
     public SVGAnimatedLength getY() {
+        ensureLiveAttributes();
         return y;
     }
 
@@ -172,6 +173,7 @@ public class SVGOMImageElement
      * <b>DOM</b>: Implements {@link SVGImageElement#getWidth()}.
      */
     public SVGAnimatedLength getWidth() {
+        ensureLiveAttributes();
         return width;
     }
 
@@ -179,6 +181,7 @@ public class SVGOMImageElement
      * <b>DOM</b>: Implements {@link SVGImageElement#getHeight()}.
      */
     public SVGAnimatedLength getHeight() {
+        ensureLiveAttributes();
         return height;
     }
 
@@ -186,6 +189,7 @@ public class SVGOMImageElement
      * <b>DOM</b>: Implements {@link SVGImageElement#getPreserveAspectRatio()}.
      */
     public SVGAnimatedPreserveAspectRatio getPreserveAspectRatio() {
+        ensureLiveAttributes();
         return preserveAspectRatio;
     }
 
@@ -87,7 +87,6 @@ public class SVGOMLineElement
      */
     public SVGOMLineElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -127,6 +126,7 @@ public class SVGOMLineElement
      * <b>DOM</b>: Implements {@link SVGLineElement#getX1()}.
      */
     public SVGAnimatedLength getX1() {
+        ensureLiveAttributes();
         return x1;
     }
 
@@ -134,6 +134,7 @@ public class SVGOMLineElement
      * <b>DOM</b>: Implements {@link SVGLineElement#getY1()}.
      */
     public SVGAnimatedLength getY1() {
+        ensureLiveAttributes();
         return y1;
     }
 
@@ -141,6 +142,7 @@ public class SVGOMLineElement
      * <b>DOM</b>: Implements {@link SVGLineElement#getX2()}.
      */
     public SVGAnimatedLength getX2() {
+        ensureLiveAttributes();
         return x2;
     }
 
@@ -148,6 +150,7 @@ public class SVGOMLineElement
      * <b>DOM</b>: Implements {@link SVGLineElement#getY2()}.
      */
     public SVGAnimatedLength getY2() {
+        ensureLiveAttributes();
         return y2;
     }
 
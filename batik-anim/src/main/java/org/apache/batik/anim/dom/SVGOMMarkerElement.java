@@ -157,7 +157,6 @@ public class SVGOMMarkerElement
      */
     public SVGOMMarkerElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -214,6 +213,7 @@ public class SVGOMMarkerElement
      * <b>DOM</b>: Implements {@link SVGMarkerElement#getRefX()}.
      */
     public SVGAnimatedLength getRefX() {
+        ensureLiveAttributes();
         return refX;
     }
 
@@ -221,6 +221,7 @@ public class SVGOMMarkerElement
      * <b>DOM</b>: Implements {@link SVGMarkerElement#getRefY()}.
      */
     public SVGAnimatedLength getRefY() {
+        ensureLiveAttributes();
         return refY;
     }
 
@@ -228,6 +229,7 @@ public class SVGOMMarkerElement
      * <b>DOM</b>: Implements {@link SVGMarkerElement#getMarkerUnits()}.
      */
     public SVGAnimatedEnumeration getMarkerUnits() {
+        ensureLiveAttributes();
         return markerUnits;
     }
 
@@ -235,6 +237,7 @@ public class SVGOMMarkerElement
      * <b>DOM</b>: Implements {@link SVGMarkerElement#getMarkerWidth()}.
      */
     public SVGAnimatedLength getMarkerWidth() {
+        ensureLiveAttributes();
         return markerWidth;
     }
 
@@ -242,6 +245,7 @@ public class SVGOMMarkerElement
      * <b>DOM</b>: Implements {@link SVGMarkerElement#getMarkerHeight()}.
      */
     public SVGAnimatedLength getMarkerHeight() {
+        ensureLiveAttributes();
         return markerHeight;
     }
 
@@ -249,6 +253,7 @@ public class SVGOMMarkerElement
      * <b>DOM</b>: Implements {@link SVGMarkerElement#getOrientType()}.
      */
     public SVGAnimatedEnumeration getOrientType() {
+        ensureLiveAttributes();
         return orient.getAnimatedEnumeration();
     }
 
@@ -256,6 +261,7 @@ public class SVGOMMarkerElement
      * <b>DOM</b>: Implements {@link SVGMarkerElement#getOrientAngle()}.
      */
     public SVGAnimatedAngle getOrientAngle() {
+        ensureLiveAttributes();
         return orient.getAnimatedAngle();
     }
 
@@ -281,6 +287,7 @@ public class SVGOMMarkerElement
      * org.w3c.dom.svg.SVGFitToViewBox#getViewBox()}.
      */
     public SVGAnimatedRect getViewBox() {
+        ensureLiveAttributes();
         return viewBox;
     }
 
@@ -289,6 +296,7 @@ public class SVGOMMarkerElement
      * org.w3c.dom.svg.SVGFitToViewBox#getPreserveAspectRatio()}.
      */
     public SVGAnimatedPreserveAspectRatio getPreserveAspectRatio() {
+        ensureLiveAttributes();
         return preserveAspectRatio;
     }
 
@@ -299,6 +307,7 @@ public class SVGOMMarkerElement
      * org.w3c.dom.svg.SVGExternalResourcesRequired#getExternalResourcesRequired()}.
      */
     public SVGAnimatedBoolean getExternalResourcesRequired() {
+        ensureLiveAttributes();
         return externalResourcesRequired;
     }
 
@@ -111,7 +111,6 @@ public class SVGOMMaskElement
      */
     public SVGOMMaskElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -160,6 +159,7 @@ public class SVGOMMaskElement
      * <b>DOM</b>: Implements {@link SVGMaskElement#getMaskUnits()}.
      */
     public SVGAnimatedEnumeration getMaskUnits() {
+        ensureLiveAttributes();
         return maskUnits;
     }
 
@@ -167,6 +167,7 @@ public class SVGOMMaskElement
      * <b>DOM</b>: Implements {@link SVGMaskElement#getMaskContentUnits()}.
      */
     public SVGAnimatedEnumeration getMaskContentUnits() {
+        ensureLiveAttributes();
         return maskContentUnits;
     }
 
@@ -174,6 +175,7 @@ public class SVGOMMaskElement
      * <b>DOM</b>: Implements {@link SVGMaskElement#getX()}.
      */
     public SVGAnimatedLength getX() {
+        ensureLiveAttributes();
         return x;
     }
 
@@ -181,6 +183,7 @@ public class SVGOMMaskElement
      * <b>DOM</b>: Implements {@link SVGMaskElement#getY()}.
      */
     public SVGAnimatedLength getY() {
+        ensureLiveAttributes();
         return y;
     }
 
@@ -188,6 +191,7 @@ public class SVGOMMaskElement
      * <b>DOM</b>: Implements {@link SVGMaskElement#getWidth()}.
      */
     public SVGAnimatedLength getWidth() {
+        ensureLiveAttributes();
         return width;
     }
 
@@ -195,6 +199,7 @@ public class SVGOMMaskElement
      * <b>DOM</b>: Implements {@link SVGMaskElement#getHeight()}.
      */
     public SVGAnimatedLength getHeight() {
+        ensureLiveAttributes();
         return height;
     }
 
@@ -92,7 +92,6 @@ public class SVGOMPathElement
      */
     public SVGOMPathElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -151,6 +150,7 @@ public class SVGOMPathElement
      * path data for this element.
      */
     public SVGOMAnimatedPathData getAnimatedPathData() {
+        ensureLiveAttributes();
         return d;
     }
 
@@ -158,6 +158,7 @@ public class SVGOMPathElement
      * <b>DOM</b>: Implements {@link SVGPathElement#getPathSegList()}.
      */
     public SVGPathSegList getPathSegList() {
+        ensureLiveAttributes();
         return d.getPathSegList();
     }
 
@@ -165,6 +166,7 @@ public class SVGOMPathElement
      * <b>DOM</b>: Implements {@link SVGPathElement#getNormalizedPathSegList()}.
      */
     public SVGPathSegList getNormalizedPathSegList() {
+        ensureLiveAttributes();
         return d.getNormalizedPathSegList();
     }
 
@@ -172,6 +174,7 @@ public class SVGOMPathElement
      * <b>DOM</b>: Implements {@link SVGPathElement#getAnimatedPathSegList()}.
      */
     public SVGPathSegList getAnimatedPathSegList() {
+        ensureLiveAttributes();
         return d.getAnimatedPathSegList();
     }
 
@@ -180,6 +183,7 @@ public class SVGOMPathElement
      * SVGPathElement#getAnimatedNormalizedPathSegList()}.
      */
     public SVGPathSegList getAnimatedNormalizedPathSegList() {
+        ensureLiveAttributes();
         return d.getAnimatedNormalizedPathSegList();
     }
 
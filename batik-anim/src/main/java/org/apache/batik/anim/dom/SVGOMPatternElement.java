@@ -164,7 +164,6 @@ public class SVGOMPatternElement
     public SVGOMPatternElement(String prefix,
                                AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -227,6 +226,7 @@ public class SVGOMPatternElement
      * <b>DOM</b>: Implements {@link SVGPatternElement#getPatternUnits()}.
      */
     public SVGAnimatedEnumeration getPatternUnits() {
+        ensureLiveAttributes();
         return patternUnits;
     }
 
@@ -235,6 +235,7 @@ public class SVGOMPatternElement
      * SVGPatternElement#getPatternContentUnits()}.
      */
     public SVGAnimatedEnumeration getPatternContentUnits() {
+        ensureLiveAttributes();
         return patternContentUnits;
     }
 
@@ -242,6 +243,7 @@ public class SVGOMPatternElement
      * <b>DOM</b>: Implements {@link SVGPatternElement#getX()}.
      */
     public SVGAnimatedLength getX() {
+        ensureLiveAttributes();
         return x;
     }
 
@@ -249,6 +251,7 @@ public class SVGOMPatternElement
      * <b>DOM</b>: Implements {@link SVGPatternElement#getY()}.
      */
     public SVGAnimatedLength getY() {
+        ensureLiveAttributes();
         return y;
     }
 
@@ -256,6 +259,7 @@ public class SVGOMPatternElement
      * <b>DOM</b>: Implements {@link SVGPatternElement#getWidth()}.
      */
     public SVGAnimatedLength getWidth() {
+        ensureLiveAttributes();
         return width;
     }
 
@@ -264,6 +268,7 @@ public class SVGOMPatternElement
      * org.w3c.dom.svg.SVGPatternElement#getHeight()}.
      */
     public SVGAnimatedLength getHeight() {
+        ensureLiveAttributes();
         return height;
     }
 
@@ -281,6 +286,7 @@ public class SVGOMPatternElement
      * org.w3c.dom.svg.SVGURIReference#getHref()}.
      */
     public SVGAnimatedString getHref() {
+        ensureLiveAttributes();
         return href;
     }
 
@@ -300,6 +306,7 @@ public class SVGOMPatternElement
      * org.w3c.dom.svg.SVGFitToViewBox#getPreserveAspectRatio()}.
      */
     public SVGAnimatedPreserveAspectRatio getPreserveAspectRatio() {
+        ensureLiveAttributes();
         return preserveAspectRatio;
     }
 
@@ -310,6 +317,7 @@ public class SVGOMPatternElement
      * org.w3c.dom.svg.SVGExternalResourcesRequired#getExternalResourcesRequired()}.
      */
     public SVGAnimatedBoolean getExternalResourcesRequired() {
+        ensureLiveAttributes();
         return externalResourcesRequired;
     }
 
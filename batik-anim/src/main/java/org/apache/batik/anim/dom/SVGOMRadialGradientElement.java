@@ -95,7 +95,6 @@ public class SVGOMRadialGradientElement
      */
     public SVGOMRadialGradientElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -142,8 +141,8 @@ public class SVGOMRadialGradientElement
                 }
             };
 
-        liveAttributeValues.put(null, SVG_FX_ATTRIBUTE, fx);
-        liveAttributeValues.put(null, SVG_FY_ATTRIBUTE, fy);
+        putLiveAttributeValue(null, SVG_FX_ATTRIBUTE, fx);
+        putLiveAttributeValue(null, SVG_FY_ATTRIBUTE, fy);
         AnimatedAttributeListener l =
             ((SVGOMDocument) ownerDocument).getAnimatedAttributeListener();
         fx.addAnimatedAttributeListener(l);
@@ -162,6 +161,7 @@ public class SVGOMRadialGradientElement
      * org.w3c.dom.svg.SVGRadialGradientElement#getCx()}.
      */
     public SVGAnimatedLength getCx() {
+        ensureLiveAttributes();
         return cx;
     }
 
@@ -170,6 +170,7 @@ public class SVGOMRadialGradientElement
      * org.w3c.dom.svg.SVGRadialGradientElement#getCy()}.
      */
     public SVGAnimatedLength getCy() {
+        ensureLiveAttributes();
         return cy;
     }
 
@@ -178,6 +179,7 @@ public class SVGOMRadialGradientElement
      * org.w3c.dom.svg.SVGRadialGradientElement#getR()}.
      */
     public SVGAnimatedLength getR() {
+        ensureLiveAttributes();
         return r;
     }
 
@@ -186,6 +188,7 @@ public class SVGOMRadialGradientElement
      * org.w3c.dom.svg.SVGRadialGradientElement#getFx()}.
      */
     public SVGAnimatedLength getFx() {
+        ensureLiveAttributes();
         return fx;
     }
 
@@ -194,6 +197,7 @@ public class SVGOMRadialGradientElement
      * org.w3c.dom.svg.SVGRadialGradientElement#getFy()}.
      */
     public SVGAnimatedLength getFy() {
+        ensureLiveAttributes();
         return fy;
     }
 
@@ -103,7 +103,6 @@ public class SVGOMRectElement
      */
     public SVGOMRectElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -171,8 +170,8 @@ public class SVGOMRectElement
                 }
             };
 
-        liveAttributeValues.put(null, SVG_RX_ATTRIBUTE, rx);
-        liveAttributeValues.put(null, SVG_RY_ATTRIBUTE, ry);
+        putLiveAttributeValue(null, SVG_RX_ATTRIBUTE, rx);
+        putLiveAttributeValue(null, SVG_RY_ATTRIBUTE, ry);
         AnimatedAttributeListener l =
             ((SVGOMDocument) ownerDocument).getAnimatedAttributeListener();
         rx.addAnimatedAttributeListener(l);
@@ -190,6 +189,7 @@ public class SVGOMRectElement
      * <b>DOM</b>: Implements {@link SVGRectElement#getX()}.
      */
     public SVGAnimatedLength getX() {
+        ensureLiveAttributes();
         return x;
     }
 
@@ -197,6 +197,7 @@ public class SVGOMRectElement
      * <b>DOM</b>: Implements {@link SVGRectElement#getY()}.
      */
     public SVGAnimatedLength getY() {
+        ensureLiveAttributes();
         return y;
     }
 
@@ -204,6 +205,7 @@ public class SVGOMRectElement
      * <b>DOM</b>: Implements {@link SVGRectElement#getWidth()}.
      */
     public SVGAnimatedLength getWidth() {
+        ensureLiveAttributes();
         return width;
     }
 
@@ -211,6 +213,7 @@ public class SVGOMRectElement
      * <b>DOM</b>: Implements {@link SVGRectElement#getHeight()}.
      */
     public SVGAnimatedLength getHeight() {
+        ensureLiveAttributes();
         return height;
     }
 
@@ -218,6 +221,7 @@ public class SVGOMRectElement
      * <b>DOM</b>: Implements {@link SVGRectElement#getRx()}.
      */
     public SVGAnimatedLength getRx() {
+        ensureLiveAttributes();
         return rx;
     }
 
@@ -225,6 +229,7 @@ public class SVGOMRectElement
      * <b>DOM</b>: Implements {@link SVGRectElement#getRy()}.
      */
     public SVGAnimatedLength getRy() {
+        ensureLiveAttributes();
         return ry;
     }
 
@@ -66,7 +66,6 @@ public class SVGOMStopElement
      */
     public SVGOMStopElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -96,6 +95,7 @@ public class SVGOMStopElement
      * org.w3c.dom.svg.SVGStopElement#getOffset()}.
      */
     public SVGAnimatedNumber getOffset() {
+        ensureLiveAttributes();
         return offset;
     }
     
@@ -95,7 +95,6 @@ public abstract class SVGOMTextContentElement
      */
     protected SVGOMTextContentElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -150,7 +149,7 @@ public abstract class SVGOMTextContentElement
                 }
             };
 
-        liveAttributeValues.put(null, SVG_TEXT_LENGTH_ATTRIBUTE, textLength);
+        putLiveAttributeValue(null, SVG_TEXT_LENGTH_ATTRIBUTE, textLength);
         textLength.addAnimatedAttributeListener
             (((SVGOMDocument) ownerDocument).getAnimatedAttributeListener());
     }
@@ -160,6 +159,7 @@ public abstract class SVGOMTextContentElement
      * org.w3c.dom.svg.SVGTextContentElement#getTextLength()}.
      */
     public SVGAnimatedLength getTextLength() {
+        ensureLiveAttributes();
         return textLength;
     }
 
@@ -168,6 +168,7 @@ public abstract class SVGOMTextContentElement
      * org.w3c.dom.svg.SVGTextContentElement#getLengthAdjust()}.
      */
     public SVGAnimatedEnumeration getLengthAdjust() {
+        ensureLiveAttributes();
         return lengthAdjust;
     }
 
@@ -253,6 +254,7 @@ public abstract class SVGOMTextContentElement
      * org.w3c.dom.svg.SVGExternalResourcesRequired#getExternalResourcesRequired()}.
      */
     public SVGAnimatedBoolean getExternalResourcesRequired() {
+        ensureLiveAttributes();
         return externalResourcesRequired;
     }
 
@@ -85,7 +85,6 @@ public class SVGOMTextElement
      */
     public SVGOMTextElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -167,6 +166,7 @@ public class SVGOMTextElement
      * org.w3c.dom.svg.SVGTransformable#getTransform()}.
      */
     public SVGAnimatedTransformList getTransform() {
+        ensureLiveAttributes();
         return transform;
     }
 
@@ -126,7 +126,6 @@ public class SVGOMTextPathElement
      */
     public SVGOMTextPathElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -167,6 +166,7 @@ public class SVGOMTextPathElement
      * <b>DOM</b>: Implements {@link SVGTextPathElement#getStartOffset()}.
      */
     public SVGAnimatedLength getStartOffset() {
+        ensureLiveAttributes();
         return startOffset;
     }
 
@@ -174,6 +174,7 @@ public class SVGOMTextPathElement
      * <b>DOM</b>: Implements {@link SVGTextPathElement#getMethod()}.
      */
     public SVGAnimatedEnumeration getMethod() {
+        ensureLiveAttributes();
         return method;
     }
 
@@ -181,6 +182,7 @@ public class SVGOMTextPathElement
      * <b>DOM</b>: Implements {@link SVGTextPathElement#getSpacing()}.
      */
     public SVGAnimatedEnumeration getSpacing() {
+        ensureLiveAttributes();
         return spacing;
     }
 
@@ -191,6 +193,7 @@ public class SVGOMTextPathElement
      * org.w3c.dom.svg.SVGURIReference#getHref()}.
      */
     public SVGAnimatedString getHref() {
+        ensureLiveAttributes();
         return href;
     }
 
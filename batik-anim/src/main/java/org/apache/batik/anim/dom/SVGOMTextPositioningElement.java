@@ -95,7 +95,6 @@ public abstract class SVGOMTextPositioningElement
     protected SVGOMTextPositioningElement(String prefix,
                                           AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -130,6 +129,7 @@ public abstract class SVGOMTextPositioningElement
      * <b>DOM</b>: Implements {@link SVGTextPositioningElement#getX()}.
      */
     public SVGAnimatedLengthList getX() {
+        ensureLiveAttributes();
         return x;
     }
 
@@ -137,6 +137,7 @@ public abstract class SVGOMTextPositioningElement
      * <b>DOM</b>: Implements {@link SVGTextPositioningElement#getY()}.
      */
     public SVGAnimatedLengthList getY() {
+        ensureLiveAttributes();
         return y;
     }
 
@@ -144,6 +145,7 @@ public abstract class SVGOMTextPositioningElement
      * <b>DOM</b>: Implements {@link SVGTextPositioningElement#getDx()}.
      */
     public SVGAnimatedLengthList getDx() {
+        ensureLiveAttributes();
         return dx;
     }
 
@@ -151,6 +153,7 @@ public abstract class SVGOMTextPositioningElement
      * <b>DOM</b>: Implements {@link SVGTextPositioningElement#getDy()}.
      */
     public SVGAnimatedLengthList getDy() {
+        ensureLiveAttributes();
         return dy;
     }
 
@@ -158,6 +161,7 @@ public abstract class SVGOMTextPositioningElement
      * <b>DOM</b>: Implements {@link SVGTextPositioningElement#getRotate()}.
      */
     public SVGAnimatedNumberList getRotate() {
+        ensureLiveAttributes();
         return rotate;
     }
 
@@ -64,7 +64,6 @@ public abstract class SVGOMURIReferenceElement
      */
     protected SVGOMURIReferenceElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -87,6 +86,7 @@ public abstract class SVGOMURIReferenceElement
      * <b>DOM</b>: Implements {@link org.w3c.dom.svg.SVGURIReference#getHref()}.
      */
     public SVGAnimatedString getHref() {
+        ensureLiveAttributes();
         return href;
     }
 
@@ -113,7 +113,6 @@ public class SVGOMUseElement
      */
     public SVGOMUseElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -155,6 +154,7 @@ public class SVGOMUseElement
      * <b>DOM</b>: Implements {@link SVGUseElement#getX()}.
      */
     public SVGAnimatedLength getX() {
+        ensureLiveAttributes();
         return x;
     }
 
@@ -162,6 +162,7 @@ public class SVGOMUseElement
      * <b>DOM</b>: Implements {@link SVGUseElement#getY()}.
      */
     public SVGAnimatedLength getY() {
+        ensureLiveAttributes();
         return y;
     }
 
@@ -169,6 +170,7 @@ public class SVGOMUseElement
      * <b>DOM</b>: Implements {@link SVGUseElement#getWidth()}.
      */
     public SVGAnimatedLength getWidth() {
+        ensureLiveAttributes();
         return width;
     }
 
@@ -176,6 +178,7 @@ public class SVGOMUseElement
      * <b>DOM</b>: Implements {@link SVGUseElement#getHeight()}.
      */
     public SVGAnimatedLength getHeight() {
+        ensureLiveAttributes();
         return height;
     }
 
@@ -66,7 +66,6 @@ public abstract class SVGPointShapeElement
      */
     public SVGPointShapeElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -89,6 +88,7 @@ public abstract class SVGPointShapeElement
      * point list for this element.
      */
     public SVGOMAnimatedPoints getSVGOMAnimatedPoints() {
+        ensureLiveAttributes();
         return points;
     }
 
@@ -97,6 +97,7 @@ public abstract class SVGPointShapeElement
      * org.w3c.dom.svg.SVGAnimatedPoints#getPoints()}.
      */
     public SVGPointList getPoints() {
+        ensureLiveAttributes();
         return points.getPoints();
     }
 
@@ -105,6 +106,7 @@ public abstract class SVGPointShapeElement
      * org.w3c.dom.svg.SVGAnimatedPoints#getAnimatedPoints()}.
      */
     public SVGPointList getAnimatedPoints() {
+        ensureLiveAttributes();
         return points.getAnimatedPoints();
     }
 
@@ -100,7 +100,6 @@ public abstract class SVGStylableElement
      */
     protected SVGStylableElement(String prefix, AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -317,6 +316,7 @@ public abstract class SVGStylableElement
      * org.w3c.dom.svg.SVGStylable#getClassName()}.
      */
     public SVGAnimatedString getClassName() {
+        ensureLiveAttributes();
         return className;
     }
 
@@ -67,7 +67,6 @@ public abstract class SVGURIReferenceTextPositioningElement
     protected SVGURIReferenceTextPositioningElement(String prefix,
                                                     AbstractDocument owner) {
         super(prefix, owner);
-        initializeLiveAttributes();
     }
 
     /**
@@ -90,6 +89,7 @@ public abstract class SVGURIReferenceTextPositioningElement
      * <b>DOM</b>: Implements {@link org.w3c.dom.svg.SVGURIReference#getHref()}.
      */
     public SVGAnimatedString getHref() {
+        ensureLiveAttributes();
         return href;
     }
 
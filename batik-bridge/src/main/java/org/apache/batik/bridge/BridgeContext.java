@@ -55,6 +55,7 @@ import org.apache.batik.dom.AbstractNode;
 import org.apache.batik.dom.events.NodeEventTarget;
 import org.apache.batik.dom.svg.SVGContext;
 import org.apache.batik.dom.xbl.XBLManager;
+import org.apache.batik.gvt.AbstractGraphicsNode;
 import org.apache.batik.gvt.CompositeGraphicsNode;
 import org.apache.batik.gvt.GraphicsNode;
 import org.apache.batik.script.Interpreter;
@@ -138,14 +139,14 @@ public class BridgeContext implements ErrorConstants, CSSContext {
     protected UserAgent userAgent;
 
     /**
-     * Binding Map:
+     * Binding Map, for the nodes which do not hold their binding:
      * key is an SVG Element -
      * value is a GraphicsNode
      */
     protected Map elementNodeMap;
 
     /**
-     * Binding Map:
+     * Binding Map, for the graphics nodes which do not hold their binding:
      * key is GraphicsNode -
      * value is a SVG Element.
      */
@@ -174,6 +175,13 @@ public class BridgeContext implements ErrorConstants, CSSContext {
      */
     protected Set reservedNamespaceSet;
 
+    /**
+     * The shared registry the bridges that were not put in this context
+     * come from, or null if the bridge extensions registered their bridges
+     * in this context.
+     */
+    protected BridgeRegistry bridgeRegistry;
+
     /**
      * Element Data Map:
      * This is a general location for elements to 'cache'
@@ -234,6 +242,11 @@ public class BridgeContext implements ErrorConstants, CSSContext {
      */
     protected int dynamicStatus = STATIC;
 
+    /**
+     * Whether elements of a static document may be released once built.
+     */
+    protected boolean streamingBuild;
+
     /**
      * The update manager.
      */
@@ -667,6 +680,29 @@ public class BridgeContext implements ErrorConstants, CSSContext {
             setDynamicState(STATIC);
     }
 
+    /**
+     * Returns whether the GVT tree of a static document is built in
+     * streaming mode.
+     * @see #setStreamingBuild(boolean)
+     */
+    public boolean isStreamingBuild() {
+        return streamingBuild;
+    }
+
+    /**
+     * Sets whether the GVT tree of a static document is built in streaming
+     * mode.  In this mode, the {@link GVTBuilder} removes the elements from
+     * the document as soon as their graphics nodes have been built, so the
+     * DOM and its style maps can be reclaimed while the rest of the document
+     * is built.  Elements that can be referenced from elsewhere in the
+     * document are kept.  This has no effect on interactive or dynamic
+     * documents, and must only be used when the document is not needed once
+     * built.
+     */
+    public void setStreamingBuild(boolean b) {
+        streamingBuild = b;
+    }
+
     /**
      * Returns the update manager, if the bridge supports dynamic features.
      */
@@ -875,18 +911,45 @@ public class BridgeContext implements ErrorConstants, CSSContext {
     /**
      * Binds the specified GraphicsNode to the specified Node. This method
      * automatically bind the graphics node to the element and the element to
-     * the graphics node.
+     * the graphics node.  The binding is stored in the SVG element and in the
+     * graphics node themselves when they are not bound by another context,
+     * and in maps otherwise.
      *
      * @param node the DOM Node to bind to the specified graphics node
      * @param gn the graphics node to bind to the specified element
      */
     public void bind(Node node, GraphicsNode gn) {
+        boolean nodeBound = false;
+        boolean gnBound = false;
+        if (node instanceof SVGOMElement) {
+            SVGOMElement e = (SVGOMElement) node;
+            Object c = e.getBindingContext();
+            if (c == null || c == this) {
+                e.setBinding(this, gn);
+                nodeBound = true;
+            }
+        }
+        if (gn instanceof AbstractGraphicsNode) {
+            AbstractGraphicsNode agn = (AbstractGraphicsNode) gn;
+            Object c = agn.getBindingContext();
+            if (c == null || c == this) {
+                agn.setBinding(this, node);
+                gnBound = true;
+            }
+        }
+        if (nodeBound && gnBound) {
+            return;
+        }
         if (elementNodeMap == null) {
             elementNodeMap = new WeakHashMap();
             nodeElementMap = new WeakHashMap();
         }
-        elementNodeMap.put(node, new SoftReference(gn));
-        nodeElementMap.put(gn, new SoftReference(node));
+        if (!nodeBound) {
+            elementNodeMap.put(node, new SoftReference(gn));
+        }
+        if (!gnBound) {
+            nodeElementMap.put(gn, new SoftReference(node));
+        }
     }
 
     /**
@@ -895,15 +958,26 @@ public class BridgeContext implements ErrorConstants, CSSContext {
      * @param node the DOM Node to unbind
      */
     public void unbind(Node node) {
-        if (elementNodeMap == null) {
-            return;
-        }
         GraphicsNode gn = null;
-        SoftReference sr = (SoftReference)elementNodeMap.get(node);
-        if (sr != null)
-            gn = (GraphicsNode)sr.get();
-        elementNodeMap.remove(node);
-        if (gn != null)
+        if (node instanceof SVGOMElement) {
+            SVGOMElement e = (SVGOMElement) node;
+            if (e.getBindingContext() == this) {
+                gn = (GraphicsNode) e.getBinding();
+                e.setBinding(null, null);
+            }
+        }
+        if (elementNodeMap != null) {
+            SoftReference sr = (SoftReference)elementNodeMap.remove(node);
+            if (sr != null && gn == null)
+                gn = (GraphicsNode)sr.get();
+        }
+        if (gn instanceof AbstractGraphicsNode) {
+            AbstractGraphicsNode agn = (AbstractGraphicsNode) gn;
+            if (agn.getBindingContext() == this) {
+                agn.setBinding(null, null);
+            }
+        }
+        if (gn != null && nodeElementMap != null)
             nodeElementMap.remove(gn);
     }
 
@@ -914,6 +988,12 @@ public class BridgeContext implements ErrorConstants, CSSContext {
      * @param node the DOM Node associated to the graphics node to return
      */
     public GraphicsNode getGraphicsNode(Node node) {
+        if (node instanceof SVGOMElement) {
+            SVGOMElement e = (SVGOMElement) node;
+            if (e.getBindingContext() == this) {
+                return (GraphicsNode) e.getBinding();
+            }
+        }
         if (elementNodeMap != null) {
             SoftReference sr = (SoftReference)elementNodeMap.get(node);
             if (sr != null)
@@ -929,15 +1009,19 @@ public class BridgeContext implements ErrorConstants, CSSContext {
      * @param gn the graphics node associated to the element to return
      */
     public Element getElement(GraphicsNode gn) {
-        if (nodeElementMap != null) {
+        Node n = null;
+        if (gn instanceof AbstractGraphicsNode
+                && ((AbstractGraphicsNode) gn).getBindingContext() == this) {
+            n = (Node) ((AbstractGraphicsNode) gn).getBinding();
+        } else if (nodeElementMap != null) {
             SoftReference sr = (SoftReference)nodeElementMap.get(gn);
             if (sr != null) {
-                Node n = (Node) sr.get();
-                if (n.getNodeType() == Node.ELEMENT_NODE) {
-                    return (Element) n;
-                }
+                n = (Node) sr.get();
             }
         }
+        if (n != null && n.getNodeType() == Node.ELEMENT_NODE) {
+            return (Element) n;
+        }
         return null;
     }
 
@@ -950,17 +1034,24 @@ public class BridgeContext implements ErrorConstants, CSSContext {
      * @param element the element
      */
     public boolean hasGraphicsNodeBridge(Element element) {
-        if (namespaceURIMap == null || element == null) {
+        if (element == null) {
             return false;
         }
         String localName = element.getLocalName();
         String namespaceURI = element.getNamespaceURI();
         namespaceURI = ((namespaceURI == null)? "" : namespaceURI);
-        HashMap localNameMap = (HashMap) namespaceURIMap.get(namespaceURI);
-        if (localNameMap == null) {
+        HashMap localNameMap = null;
+        if (namespaceURIMap != null) {
+            localNameMap = (HashMap) namespaceURIMap.get(namespaceURI);
+        }
+        if (localNameMap != null && localNameMap.containsKey(localName)) {
+            return (localNameMap.get(localName) instanceof GraphicsNodeBridge);
+        }
+        if (bridgeRegistry == null) {
             return false;
         }
-        return (localNameMap.get(localName) instanceof GraphicsNodeBridge);
+        return (bridgeRegistry.getBridge(namespaceURI, localName)
+                instanceof GraphicsNodeBridge);
     }
 
     /**
@@ -976,7 +1067,8 @@ public class BridgeContext implements ErrorConstants, CSSContext {
      * @param element the element
      */
     public Bridge getBridge(Element element) {
-        if (namespaceURIMap == null || element == null) {
+        if ((namespaceURIMap == null && bridgeRegistry == null)
+                || element == null) {
             return null;
         }
         String localName = element.getLocalName();
@@ -994,10 +1086,18 @@ public class BridgeContext implements ErrorConstants, CSSContext {
      */
     public Bridge getBridge(String namespaceURI, String localName) {
         Bridge bridge = null;
+        HashMap localNameMap = null;
         if (namespaceURIMap != null) {
-            HashMap localNameMap = (HashMap) namespaceURIMap.get(namespaceURI);
-            if (localNameMap != null) {
-                bridge = (Bridge)localNameMap.get(localName);
+            localNameMap = (HashMap) namespaceURIMap.get(namespaceURI);
+        }
+        if (localNameMap != null && localNameMap.containsKey(localName)) {
+            bridge = (Bridge)localNameMap.get(localName);
+        } else if (bridgeRegistry != null) {
+            // Instantiates the bridge for this context on first use.
+            bridge = bridgeRegistry.getBridge(namespaceURI, localName);
+            if (bridge != null && !bridgeRegistry.isShared(bridge)) {
+                bridge = bridgeRegistry.createBridge(bridge);
+                putBridge(namespaceURI, localName, bridge);
             }
         }
         if (bridge == null
@@ -1059,10 +1159,24 @@ public class BridgeContext implements ErrorConstants, CSSContext {
      * @param localName the local name
      */
     public void removeBridge(String namespaceURI, String localName) {
+        namespaceURI = ((namespaceURI == null)? "" : namespaceURI);
+        if (bridgeRegistry != null
+                && bridgeRegistry.getBridge(namespaceURI, localName) != null) {
+            // Hides the bridge of the registry.
+            if (namespaceURIMap == null) {
+                namespaceURIMap = new HashMap();
+            }
+            HashMap localNameMap = (HashMap) namespaceURIMap.get(namespaceURI);
+            if (localNameMap == null) {
+                localNameMap = new HashMap();
+                namespaceURIMap.put(namespaceURI, localNameMap);
+            }
+            localNameMap.put(localName, null);
+            return;
+        }
         if (namespaceURIMap == null) {
             return;
         }
-        namespaceURI = ((namespaceURI == null)? "" : namespaceURI);
         HashMap localNameMap = (HashMap) namespaceURIMap.get(namespaceURI);
         if (localNameMap != null) {
             localNameMap.remove(localName);
@@ -1449,6 +1563,8 @@ public class BridgeContext implements ErrorConstants, CSSContext {
         if (document != null) {
             removeDOMListeners();
             AbstractGraphicsNodeBridge.disposeTree(document);
+            // The root graphics node holds its binding to the document.
+            unbind(document);
         }
 
         if (animationEngine != null) {
@@ -2037,15 +2153,56 @@ public class BridgeContext implements ErrorConstants, CSSContext {
     protected List extensions = null;
 
     /**
-     * Registers the bridges to handle SVG 1.0 elements.
+     * Registers the bridges to handle SVG 1.0 elements.  The bridges come
+     * from the {@link BridgeRegistry} shared by the contexts using the same
+     * extensions, and are only instantiated for this context when needed.
      */
     public void registerSVGBridges() {
         UserAgent ua = getUserAgent();
         List ext = getBridgeExtensions(document);
 
+        BridgeRegistry registry = BridgeRegistry.getRegistry(ext);
+        if (registry != null) {
+            bridgeRegistry = registry;
+            if (namespaceURIMap != null) {
+                // The bridges of the registry replace those put before.
+                Iterator it = namespaceURIMap.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry e = (Map.Entry) it.next();
+                    String ns = (String) e.getKey();
+                    HashMap localNameMap = (HashMap) e.getValue();
+                    Iterator it2 = localNameMap.keySet().iterator();
+                    while (it2.hasNext()) {
+                        String ln = (String) it2.next();
+                        if (registry.getBridge(ns, ln) != null) {
+                            it2.remove();
+                        }
+                    }
+                    if (localNameMap.isEmpty()) {
+                        it.remove();
+                    }
+                }
+                if (namespaceURIMap.isEmpty()) {
+                    namespaceURIMap = null;
+                }
+            }
+            if (registry.getDefaultBridge() != null) {
+                defaultBridge =
+                    registry.createBridge(registry.getDefaultBridge());
+            }
+            Set reserved = registry.getReservedNamespaceURIs();
+            if (reserved != null) {
+                if (reservedNamespaceSet != null) {
+                    reserved.addAll(reservedNamespaceSet);
+                }
+                reservedNamespaceSet = reserved;
+            }
+        }
         for (Object anExt : ext) {
             BridgeExtension be = (BridgeExtension) anExt;
-            be.registerTags(this);
+            if (registry == null) {
+                be.registerTags(this);
+            }
             ua.registerExtension(be);
         }
     }
@@ -2083,34 +2240,41 @@ public class BridgeContext implements ErrorConstants, CSSContext {
     /**
      * Returns the extensions supported by this bridge context.
      */
-    protected static List globalExtensions = null;
+    protected static volatile List globalExtensions = null;
 
-    public static synchronized List getGlobalBridgeExtensions() {
-        if (globalExtensions != null) {
-            return globalExtensions;
+    public static List getGlobalBridgeExtensions() {
+        List l = globalExtensions;
+        if (l != null) {
+            return l;
         }
-        globalExtensions = new LinkedList();
+        synchronized (BridgeContext.class) {
+            if (globalExtensions != null) {
+                return globalExtensions;
+            }
+            l = new LinkedList();
 
-        Iterator iter = Service.providers(BridgeExtension.class);
+            Iterator iter = Service.providers(BridgeExtension.class);
 
-        while (iter.hasNext()) {
-            BridgeExtension be = (BridgeExtension)iter.next();
-            float priority  = be.getPriority();
-            ListIterator li = globalExtensions.listIterator();
-            for (;;) {
-                if (!li.hasNext()) {
-                    li.add(be);
-                    break;
-                }
-                BridgeExtension lbe = (BridgeExtension)li.next();
-                if (lbe.getPriority() > priority) {
-                    li.previous();
-                    li.add(be);
-                    break;
+            while (iter.hasNext()) {
+                BridgeExtension be = (BridgeExtension)iter.next();
+                float priority  = be.getPriority();
+                ListIterator li = l.listIterator();
+                for (;;) {
+                    if (!li.hasNext()) {
+                        li.add(be);
+                        break;
+                    }
+                    BridgeExtension lbe = (BridgeExtension)li.next();
+                    if (lbe.getPriority() > priority) {
+                        li.previous();
+                        li.add(be);
+                        break;
+                    }
                 }
             }
+            globalExtensions = l;
+            return l;
         }
-        return globalExtensions;
     }
 
     public static class CSSEngineUserAgentWrapper implements CSSEngineUserAgent {
@@ -0,0 +1,238 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+package org.apache.batik.bridge;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable table of the bridges registered by a list of bridge
+ * extensions, shared by all the bridge contexts using the same extensions.
+ *
+ * <p>The bridges of the table are prototypes.  Those which have no instance
+ * fields, and whose {@link Bridge#getInstance()} returns the bridge itself,
+ * are stateless and are used directly by all the contexts.  A context gets
+ * its own instance of the other bridges, created the first time it needs
+ * one, so that a document only instantiates the bridges of the elements it
+ * actually contains.</p>
+ *
+ * <p>The table is built once for each list of extension classes, by calling
+ * {@link BridgeExtension#registerTags(BridgeContext)} on an empty context,
+ * so extensions must register the same bridges whatever the context.</p>
+ *
+ * @version $Id$
+ */
+public class BridgeRegistry {
+
+    /**
+     * The registries, keyed by the list of the classes of their extensions.
+     * This map is never modified, but replaced by a copy when a registry
+     * is added, so that it can be read without locking.
+     */
+    protected static volatile Map registries = Collections.EMPTY_MAP;
+
+    /**
+     * The bridges, keyed by namespace URI then by local name.
+     */
+    protected Map namespaceURIMap;
+
+    /**
+     * The bridge for the elements that have no other bridge.
+     */
+    protected Bridge defaultBridge;
+
+    /**
+     * The namespace URIs for which the default bridge is not used.
+     */
+    protected Set reservedNamespaceSet;
+
+    /**
+     * The stateless bridges.
+     */
+    protected Set sharedBridges = new HashSet();
+
+    /**
+     * Returns the registry for the given list of bridge extensions, or null
+     * if one of their bridges cannot be instantiated again, in which case
+     * the extensions must register their bridges in each context.
+     */
+    public static BridgeRegistry getRegistry(List extensions) {
+        List key = new ArrayList(extensions.size());
+        for (Object extension : extensions) {
+            key.add(extension.getClass());
+        }
+        Object o = registries.get(key);
+        if (o == null) {
+            synchronized (BridgeRegistry.class) {
+                o = registries.get(key);
+                if (o == null) {
+                    BridgeRegistry r = new BridgeRegistry(extensions);
+                    o = r.isComplete() ? r : (Object) Boolean.FALSE;
+                    Map m = new HashMap(registries);
+                    m.put(key, o);
+                    registries = m;
+                }
+            }
+        }
+        return o instanceof BridgeRegistry ? (BridgeRegistry) o : null;
+    }
+
+    /**
+     * Creates a new BridgeRegistry.
+     * @param extensions the bridge extensions registering the bridges.
+     */
+    protected BridgeRegistry(List extensions) {
+        BridgeContext ctx = new BridgeContext();
+        for (Object extension : extensions) {
+            ((BridgeExtension) extension).registerTags(ctx);
+        }
+        namespaceURIMap = ctx.namespaceURIMap;
+        if (namespaceURIMap == null) {
+            namespaceURIMap = Collections.EMPTY_MAP;
+        }
+        defaultBridge = ctx.defaultBridge;
+        reservedNamespaceSet = ctx.reservedNamespaceSet;
+
+        for (Object o : namespaceURIMap.values()) {
+            for (Object b : ((Map) o).values()) {
+                Bridge bridge = (Bridge) b;
+                if (bridge.getInstance() == bridge
+                        && !hasInstanceFields(bridge.getClass())) {
+                    sharedBridges.add(bridge);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the bridge registered for the given element type, which must
+     * not be used directly unless {@link #isShared(Bridge)} returns true.
+     * @param namespaceURI the namespace URI, "" for no namespace.
+     * @param localName the local name.
+     */
+    public Bridge getBridge(String namespaceURI, String localName) {
+        Map localNameMap = (Map) namespaceURIMap.get(namespaceURI);
+        if (localNameMap == null) {
+            return null;
+        }
+        return (Bridge) localNameMap.get(localName);
+    }
+
+    /**
+     * Returns the default bridge registered by the extensions, or null.
+     */
+    public Bridge getDefaultBridge() {
+        return defaultBridge;
+    }
+
+    /**
+     * Returns a copy of the namespace URIs for which the default bridge is
+     * not used, or null if there is none.
+     */
+    public Set getReservedNamespaceURIs() {
+        return reservedNamespaceSet == null
+            ? null
+            : new HashSet(reservedNamespaceSet);
+    }
+
+    /**
+     * Tells whether the given bridge of this registry can be used by
+     * several contexts at once.
+     */
+    public boolean isShared(Bridge bridge) {
+        return sharedBridges.contains(bridge);
+    }
+
+    /**
+     * Returns a bridge, equivalent to the given bridge of this registry,
+     * that a context can use.
+     */
+    public Bridge createBridge(Bridge bridge) {
+        if (bridge == null || isShared(bridge)) {
+            return bridge;
+        }
+        Bridge b = bridge.getInstance();
+        if (b != bridge) {
+            return b;
+        }
+        try {
+            return (Bridge)
+                bridge.getClass().getDeclaredConstructor().newInstance();
+        } catch (Exception e) {
+            throw new IllegalStateException(e.toString());
+        }
+    }
+
+    /**
+     * Tells whether all the bridges of this registry can be instantiated
+     * for each context.
+     */
+    protected boolean isComplete() {
+        List bridges = new ArrayList();
+        for (Object o : namespaceURIMap.values()) {
+            bridges.addAll(((Map) o).values());
+        }
+        if (defaultBridge != null) {
+            bridges.add(defaultBridge);
+        }
+        Iterator it = bridges.iterator();
+        while (it.hasNext()) {
+            Bridge bridge = (Bridge) it.next();
+            if (isShared(bridge) || bridge.getInstance() != bridge) {
+                continue;
+            }
+            try {
+                bridge.getClass().getDeclaredConstructor().newInstance();
+            } catch (Exception e) {
+                return false;
+            } catch (LinkageError e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tells whether the given class, or one of its superclasses, declares
+     * instance fields.
+     */
+    protected static boolean hasInstanceFields(Class c) {
+        try {
+            for (; c != null && c != Object.class; c = c.getSuperclass()) {
+                Field[] fields = c.getDeclaredFields();
+                for (Field field : fields) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        return true;
+                    }
+                }
+            }
+        } catch (SecurityException e) {
+            return true;
+        }
+        return false;
+    }
+}
@@ -24,9 +24,14 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.apache.batik.gvt.font.AWTFontFamily;
 import org.apache.batik.gvt.font.AWTGVTFont;
@@ -54,87 +59,143 @@ public final class DefaultFontFamilyResolver implements FontFamilyResolver {
             new AWTFontFamily("SansSerif");
 
     /**
-     * List of all available fonts on the current system, plus a few common
-     * alternatives.
+     * The fonts available on the current system.  Enumerating them is
+     * costly, so it is only done when a font is first resolved, and the
+     * result is shared by all the documents.
      */
-    protected static final Map fonts = new HashMap();
-
-    protected static final List awtFontFamilies = new ArrayList();
-
-    protected static final List awtFonts = new ArrayList();
-
-    /**
-     * This sets up the list of available fonts.
-     */
-    static {
-        fonts.put("sans-serif",      "SansSerif");
-        fonts.put("serif",           "Serif");
-        fonts.put("times",           "Serif");
-        fonts.put("times new roman", "Serif");
-        fonts.put("cursive",         "Dialog");
-        fonts.put("fantasy",         "Symbol");
-        fonts.put("monospace",       "Monospaced");
-        fonts.put("monospaced",      "Monospaced");
-        fonts.put("courier",         "Monospaced");
-
-        //
-        // Load all fonts. Work around
-        //
-
-        GraphicsEnvironment env;
-        env = GraphicsEnvironment.getLocalGraphicsEnvironment();
-        String[] fontNames = env.getAvailableFontFamilyNames();
-
-        int nFonts = fontNames != null ? fontNames.length : 0;
-        for(int i=0; i<nFonts; i++){
-            fonts.put(fontNames[i].toLowerCase(), fontNames[i]);
-
-            // also add the font name with the spaces removed
-            StringTokenizer st = new StringTokenizer(fontNames[i]);
-            String fontNameWithoutSpaces = "";
-            while (st.hasMoreTokens()) {
-                fontNameWithoutSpaces += st.nextToken();
+    static final class SystemFonts {
+
+        /**
+         * List of all available fonts on the current system, plus a few
+         * common alternatives.
+         */
+        static final Map fonts = new HashMap();
+
+        /**
+         * The distinct font families, the default one first, in the order
+         * they are tried for characters the requested fonts can't display.
+         */
+        static final AWTFontFamily[] fallbackFamilies;
+
+        /**
+         * The fonts of the fallback families, created on first use.
+         */
+        static final AtomicReferenceArray fallbackFonts;
+
+        /**
+         * This sets up the list of available fonts.
+         */
+        static {
+            fonts.put("sans-serif",      "SansSerif");
+            fonts.put("serif",           "Serif");
+            fonts.put("times",           "Serif");
+            fonts.put("times new roman", "Serif");
+            fonts.put("cursive",         "Dialog");
+            fonts.put("fantasy",         "Symbol");
+            fonts.put("monospace",       "Monospaced");
+            fonts.put("monospaced",      "Monospaced");
+            fonts.put("courier",         "Monospaced");
+
+            //
+            // Load all fonts. Work around
+            //
+
+            GraphicsEnvironment env;
+            env = GraphicsEnvironment.getLocalGraphicsEnvironment();
+            String[] fontNames = env.getAvailableFontFamilyNames();
+
+            int nFonts = fontNames != null ? fontNames.length : 0;
+            for(int i=0; i<nFonts; i++){
+                fonts.put(fontNames[i].toLowerCase(), fontNames[i]);
+
+                // also add the font name with the spaces removed
+                StringTokenizer st = new StringTokenizer(fontNames[i]);
+                String fontNameWithoutSpaces = "";
+                while (st.hasMoreTokens()) {
+                    fontNameWithoutSpaces += st.nextToken();
+                }
+                fonts.put(fontNameWithoutSpaces.toLowerCase(), fontNames[i]);
+
+                // also add the font name with spaces replaced by dashes
+                String fontNameWithDashes = fontNames[i].replace(' ', '-');
+                if (!fontNameWithDashes.equals(fontNames[i])) {
+                    fonts.put(fontNameWithDashes.toLowerCase(), fontNames[i]);
+                }
             }
-            fonts.put(fontNameWithoutSpaces.toLowerCase(), fontNames[i]);
 
-            // also add the font name with spaces replaced by dashes
-            String fontNameWithDashes = fontNames[i].replace(' ', '-');
-            if (!fontNameWithDashes.equals(fontNames[i])) {
-                fonts.put(fontNameWithDashes.toLowerCase(), fontNames[i]);
+            //Also register all font names, not just font families.
+            //Example: Font Family: "Univers", but Font Name: "Univers 45 Light"
+            //Without this, matching "Univers 45 Light" is not possible.
+            Font[] allFonts = env.getAllFonts();
+            for (Font f : allFonts) {
+                fonts.put(f.getFontName().toLowerCase(), f.getFontName());
             }
-        }
 
-        //Also register all font names, not just font families.
-        //Example: Font Family: "Univers", but Font Name: "Univers 45 Light"
-        //Without this, matching "Univers 45 Light" is not possible.
-        Font[] allFonts = env.getAllFonts();
-        for (Font f : allFonts) {
-            fonts.put(f.getFontName().toLowerCase(), f.getFontName());
+            fallbackFamilies = createFallbackFamilies(fonts.values());
+            fallbackFonts = new AtomicReferenceArray(fallbackFamilies.length);
         }
 
-        // first add the default font
-        awtFontFamilies.add(DEFAULT_FONT_FAMILY);
-        awtFonts.add(new AWTGVTFont(DEFAULT_FONT_FAMILY.getFamilyName(), 0, 12));
-
-        Collection fontValues = fonts.values();
-        for (Object fontValue : fontValues) {
-            String fontFamily = (String) fontValue;
-            AWTFontFamily awtFontFamily = new AWTFontFamily(fontFamily);
-            awtFontFamilies.add(awtFontFamily);
-            AWTGVTFont font = new AWTGVTFont(fontFamily, 0, 12);
-            awtFonts.add(font);
+        /**
+         * Returns the distinct families of the given family names, the
+         * default one first.
+         */
+        static AWTFontFamily[] createFallbackFamilies(Collection fontValues) {
+            // first add the default font
+            Set names = new HashSet();
+            List families = new ArrayList();
+            names.add(DEFAULT_FONT_FAMILY.getFamilyName());
+            families.add(DEFAULT_FONT_FAMILY);
+
+            for (Object fontValue : fontValues) {
+                String fontFamily = (String) fontValue;
+                // the awt font for "MS Song" doesn't display chinese
+                // glyphs correctly
+                if (fontFamily.indexOf("Song") == -1 && names.add(fontFamily)) {
+                    families.add(new AWTFontFamily(fontFamily));
+                }
+            }
+            return (AWTFontFamily[])
+                families.toArray(new AWTFontFamily[families.size()]);
         }
 
+        /**
+         * Returns the font of the fallback family at the given index.
+         */
+        static AWTGVTFont getFallbackFont(int i) {
+            AWTGVTFont font = (AWTGVTFont)fallbackFonts.get(i);
+            if (font == null) {
+                font = new AWTGVTFont
+                    (fallbackFamilies[i].getFamilyName(), 0, 12);
+                fallbackFonts.set(i, font);
+            }
+            return font;
+        }
     }
 
+    /**
+     * The value of the font families which couldn't be resolved in
+     * <code>resolvedFontFamilies</code>.
+     */
+    private static final Object UNRESOLVED = new Object();
+
     /**
      * This keeps track of all the resolved font families. This is to hopefully
      * reduce the number of font family objects used.
      */
-    protected static final Map resolvedFontFamilies = new HashMap();
+    protected static final ConcurrentMap resolvedFontFamilies =
+        new ConcurrentHashMap();
+
+    /**
+     * The index in <code>SystemFonts.fallbackFamilies</code> of the first
+     * family which can display each character, plus one, or -1 if none can,
+     * by blocks of 256 characters.  Zero means the character wasn't looked
+     * up yet.
+     */
+    protected static final AtomicReferenceArray fallbackIndexes =
+        new AtomicReferenceArray(256);
 
     public AWTFontFamily resolve(String familyName, FontFace fontFace) {
-        String fontName = (String)fonts.get(fontFace.getFamilyName().toLowerCase());
+        String fontName = (String)SystemFonts.fonts.get(fontFace.getFamilyName().toLowerCase());
         if (fontName == null) {
             return null;
         } else {
@@ -154,18 +215,23 @@ public final class DefaultFontFamilyResolver implements FontFamilyResolver {
         familyName = familyName.toLowerCase();
 
         // first see if this font family has already been resolved
-        GVTFontFamily resolvedFF =
-                (GVTFontFamily)resolvedFontFamilies.get(familyName);
+        Object resolvedFF = resolvedFontFamilies.get(familyName);
 
         if (resolvedFF == null) { // hasn't been resolved yet
             // try to find a matching family name in the list of
             // available fonts
-            String awtFamilyName = (String)fonts.get(familyName);
+            String awtFamilyName = (String)SystemFonts.fonts.get(familyName);
             if (awtFamilyName != null) {
                 resolvedFF = new AWTFontFamily(awtFamilyName);
+            } else {
+                resolvedFF = UNRESOLVED;
             }
 
-            resolvedFontFamilies.put(familyName, resolvedFF);
+            Object ff = resolvedFontFamilies.putIfAbsent(familyName,
+                                                         resolvedFF);
+            if (ff != null) {
+                resolvedFF = ff;
+            }
         }
 
         //  if (resolvedFF != null) {
@@ -175,21 +241,37 @@ public final class DefaultFontFamilyResolver implements FontFamilyResolver {
         //      System.out.println("could not resolve " +
         //                         fontFamily.getFamilyName());
         //  }
-        return resolvedFF;
+        if (resolvedFF == UNRESOLVED) {
+            return null;
+        }
+        return (GVTFontFamily)resolvedFF;
     }
 
     /** {@inheritDoc} */
     public GVTFontFamily getFamilyThatCanDisplay(char c) {
-        for (int i = 0; i < awtFontFamilies.size(); i++) {
-            AWTFontFamily fontFamily = (AWTFontFamily)awtFontFamilies.get(i);
-            AWTGVTFont font = (AWTGVTFont)awtFonts.get(i);
-            if (font.canDisplay(c) && fontFamily.getFamilyName().indexOf("Song") == -1) {
-                // the awt font for "MS Song" doesn't display chinese glyphs correctly
-                return fontFamily;
+        int[] indexes = (int[])fallbackIndexes.get(c >> 8);
+        if (indexes == null) {
+            fallbackIndexes.compareAndSet(c >> 8, null, new int[256]);
+            indexes = (int[])fallbackIndexes.get(c >> 8);
+        }
+
+        int index = indexes[c & 0xFF];
+        if (index == 0) {
+            index = -1;
+            int n = SystemFonts.fallbackFamilies.length;
+            for (int i = 0; i < n; i++) {
+                if (SystemFonts.getFallbackFont(i).canDisplay(c)) {
+                    index = i + 1;
+                    break;
+                }
             }
+            indexes[c & 0xFF] = index;
         }
 
-        return null;
+        if (index == -1) {
+            return null;
+        }
+        return SystemFonts.fallbackFamilies[index - 1];
     }
 
     /** {@inheritDoc} */
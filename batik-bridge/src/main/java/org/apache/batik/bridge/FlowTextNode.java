@@ -19,6 +19,7 @@
 
 package org.apache.batik.bridge;
 
+import java.text.AttributedCharacterIterator;
 
 /**
  * One line Class Desc
@@ -40,4 +41,53 @@ public class FlowTextNode extends TextNode{
         else
             this.textPainter = textPainter;
     }
+
+    /**
+     * The layouts of the text chunks, computed by the text painter.
+     */
+    protected FlowTextPainter.ChunkInfo [] chunkInfos;
+
+    /**
+     * Whether the next attributed character iterator keeps the layouts of
+     * the chunks of the current one.
+     */
+    protected boolean keepChunkInfos;
+
+    /**
+     * Sets whether the layouts of the chunks of the current text are kept
+     * when the next attributed character iterator is set, so that the text
+     * painter can reuse those of the leading paragraphs which did not
+     * change.  The paragraphs which changed must have new
+     * <code>BlockInfo</code>s.
+     */
+    public void setKeepChunkInfos(boolean keepChunkInfos) {
+        this.keepChunkInfos = keepChunkInfos;
+    }
+
+    /**
+     * Sets the attributed character iterator of this text node.
+     *
+     * @param newAci the new attributed character iterator
+     */
+    public void setAttributedCharacterIterator
+        (AttributedCharacterIterator newAci) {
+        super.setAttributedCharacterIterator(newAci);
+        if (!keepChunkInfos)
+            chunkInfos = null;
+        keepChunkInfos = false;
+    }
+
+    /**
+     * Returns the layouts of the text chunks, or null.
+     */
+    public FlowTextPainter.ChunkInfo [] getChunkInfos() {
+        return chunkInfos;
+    }
+
+    /**
+     * Sets the layouts of the text chunks.
+     */
+    public void setChunkInfos(FlowTextPainter.ChunkInfo [] chunkInfos) {
+        this.chunkInfos = chunkInfos;
+    }
 }
@@ -21,6 +21,7 @@ package org.apache.batik.bridge;
 
 import java.awt.font.FontRenderContext;
 import java.awt.font.TextAttribute;
+import java.awt.geom.Point2D;
 import java.text.AttributedCharacterIterator;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -64,6 +65,17 @@ public class FlowTextPainter extends StrokingTextPainter {
         return singleton;
     }
 
+    /**
+     * The maximum number of previous texts whose chunks are reused by a
+     * layout.  Each reused text run keeps alive the whole text it was laid
+     * out from, so a series of edits would otherwise keep one old copy of
+     * the text per edit.  When the reusable chunks come from more texts,
+     * the layout restarts at the first chunk of the fifth one.  This keeps
+     * at most four old copies alive, at the cost of laying out some
+     * unchanged paragraphs again.
+     */
+    protected static final int MAX_REUSED_TEXTS = 4;
+
     public List getTextRuns(TextNode node, AttributedCharacterIterator aci) {
         List textRuns = node.getTextRuns();
         if (textRuns != null) {
@@ -71,35 +83,126 @@ public class FlowTextPainter extends StrokingTextPainter {
         }
 
         AttributedCharacterIterator[] chunkACIs = getTextChunkACIs(aci);
-        textRuns = computeTextRuns(node, aci, chunkACIs);
 
         aci.first();
         List rgns = (List)aci.getAttribute(FLOW_REGIONS);
 
-        if (rgns != null) {
-            Iterator i = textRuns.iterator();
+        if (rgns == null) {
+            textRuns = computeTextRuns(node, aci, chunkACIs);
+            node.setTextRuns(textRuns);
+            return node.getTextRuns();
+        }
+
+        // Reuse the layout of the leading chunks which did not change.
+        ChunkInfo [] prevInfos = null;
+        if (node instanceof FlowTextNode) {
+            prevInfos = ((FlowTextNode)node).getChunkInfos();
+        }
+        int reused = getReusableChunkCount(prevInfos, chunkACIs);
+        ChunkInfo [] chunkInfos = new ChunkInfo[chunkACIs.length];
+        textRuns = new ArrayList();
+        for (int i = 0; i < reused; i++) {
+            chunkInfos[i] = prevInfos[i];
+            textRuns.addAll(prevInfos[i].textRuns);
+        }
+
+        if (reused < chunkACIs.length) {
+            AttributedCharacterIterator [] acis;
+            acis = new AttributedCharacterIterator[chunkACIs.length-reused];
+            System.arraycopy(chunkACIs, reused, acis, 0, acis.length);
+            ChunkInfo [] infos = new ChunkInfo[acis.length];
+            Point2D location = node.getLocation();
+            if (reused > 0)
+                location = chunkInfos[reused-1].nextLocation;
+            List runs = computeTextRuns(node, acis[0], acis, location);
+
+            Iterator i = runs.iterator();
             List chunkLayouts = new ArrayList();
-            TextRun tr = (TextRun)i.next();
-            List layouts = new ArrayList();
-            chunkLayouts.add(layouts);
-            layouts.add(tr.getLayout());
+            List layouts = null;
+            int chunk = -1;
             while (i.hasNext()) {
-                tr = (TextRun)i.next();
-                if (tr.isFirstRunInChunk()) {
+                TextRun tr = (TextRun)i.next();
+                if ((layouts == null) || tr.isFirstRunInChunk()) {
                     layouts = new ArrayList();
                     chunkLayouts.add(layouts);
+                    chunk++;
+                    if (chunk < infos.length) {
+                        AttributedCharacterIterator chunkACI;
+                        chunkACI = chunkACIs[reused+chunk];
+                        chunkACI.first();
+                        infos[chunk] = new ChunkInfo
+                            ((BlockInfo)chunkACI.getAttribute(FLOW_PARAGRAPH),
+                             chunkACI.getBeginIndex(),
+                             chunkACI.getEndIndex(), aci);
+                    }
                 }
                 layouts.add(tr.getLayout());
+                if (chunk < infos.length) {
+                    infos[chunk].textRuns.add(tr);
+                }
             }
 
-            textWrap(chunkACIs, chunkLayouts, rgns, fontRenderContext);
-        }
+            // Record where the next chunk was laid out from, before the
+            // runs are moved into the regions.
+            for (int c = 0; c < infos.length; c++) {
+                if (infos[c] == null)
+                    continue;
+                List l = infos[c].textRuns;
+                TextSpanLayout layout;
+                layout = ((TextRun)l.get(l.size()-1)).getLayout();
+                Point2D offset  = layout.getOffset();
+                Point2D advance = layout.getAdvance2D();
+                infos[c].nextLocation = new Point2D.Float
+                    ((float)(offset.getX() + advance.getX()),
+                     (float)(offset.getY() + advance.getY()));
+            }
 
+            ChunkInfo prev = (reused == 0) ? null : chunkInfos[reused-1];
+            textWrap(acis, chunkLayouts, rgns, fontRenderContext,
+                     prev, infos);
+            System.arraycopy(infos, 0, chunkInfos, reused, infos.length);
+            textRuns.addAll(runs);
+        }
 
+        if (node instanceof FlowTextNode) {
+            ((FlowTextNode)node).setChunkInfos(chunkInfos);
+        }
         node.setTextRuns(textRuns);
         return node.getTextRuns();
     }
 
+    /**
+     * Returns the number of leading chunks of the text whose previous
+     * layout can be reused: those which were entirely laid out, from the
+     * same paragraph, at the same position in the text.
+     */
+    protected int getReusableChunkCount(ChunkInfo [] prevInfos,
+                                        AttributedCharacterIterator [] acis) {
+        if (prevInfos == null) {
+            return 0;
+        }
+        List texts = new ArrayList(MAX_REUSED_TEXTS);
+        int n = Math.min(prevInfos.length, acis.length);
+        for (int i = 0; i < n; i++) {
+            ChunkInfo ci = prevInfos[i];
+            AttributedCharacterIterator aci = acis[i];
+            aci.first();
+            if ((ci == null) || !ci.complete ||
+                (ci.blockInfo != aci.getAttribute(FLOW_PARAGRAPH)) ||
+                (ci.begin != aci.getBeginIndex()) ||
+                (ci.end != aci.getEndIndex())) {
+                return i;
+            }
+            if (!texts.contains(ci.text)) {
+                if (texts.size() == MAX_REUSED_TEXTS) {
+                    return i;
+                }
+                texts.add(ci.text);
+            }
+        }
+        return n;
+    }
+
     public static final char SOFT_HYPHEN       = 0x00AD;
     public static final char ZERO_WIDTH_SPACE  = 0x200B;
     public static final char ZERO_WIDTH_JOINER = 0x200D;
@@ -131,6 +234,24 @@ public class FlowTextPainter extends StrokingTextPainter {
                                    List chunkLayouts,
                                    List flowRects,
                                    FontRenderContext frc) {
+        return textWrap(acis, chunkLayouts, flowRects, frc, null, null);
+    }
+
+    /**
+     * Fills the flow regions with the lines of the given chunks.  The
+     * filling starts where it stopped after the chunk described by
+     * <code>prev</code>, or at the top of the first region if it is null.
+     * The state of the filling after each chunk is recorded in the
+     * corresponding element of <code>chunkInfos</code>, if not null.
+     *
+     * @return true if the text overflows the regions.
+     */
+    protected static boolean textWrap(AttributedCharacterIterator [] acis,
+                                      List chunkLayouts,
+                                      List flowRects,
+                                      FontRenderContext frc,
+                                      ChunkInfo prev,
+                                      ChunkInfo [] chunkInfos) {
 
         // System.out.println("Len: " + acis.length + " Size: " +
         //                     chunkLayouts.size());
@@ -144,8 +265,13 @@ public class FlowTextPainter extends StrokingTextPainter {
 
         float prevBotMargin = 0;
         int numWords = 0;
+        if (prev != null) {
+            prevBotMargin = prev.blockInfo.getBottomMargin();
+            numWords      = prev.numWords;
+        }
         BlockInfo [] blockInfos = new BlockInfo[acis.length];
         float      [] topSkip   = new float[acis.length];
+        int        [] endWords  = new int[acis.length];
         for (int chunk=0; clIter.hasNext(); chunk++) {
             // System.err.print("Chunk: " + chunk + " Str: '");
             AttributedCharacterIterator aci = acis[chunk];
@@ -168,16 +294,28 @@ public class FlowTextPainter extends StrokingTextPainter {
                 topSkip[chunk] = bi.getTopMargin();
             prevBotMargin = bi.getBottomMargin();
             numWords += wordInfos[chunk].length;
+            endWords[chunk] = numWords;
         }
 
-        Iterator frIter = flowRects.iterator();
+        // The index of the next region, and the state of the current one.
+        int region = 0;
+        FlowRegions fr = null;
+        if (prev != null) {
+            region = Math.min(prev.region, flowRects.size());
+            if (prev.flowRegions != null)
+                fr = new FlowRegions(prev.flowRegions);
+        }
+        Iterator frIter = flowRects.listIterator(region);
         RegionInfo currentRegion = null;
         int currWord = 0;
         int chunk = 0;
         List lineInfos = new LinkedList();
-        while(frIter.hasNext()) {
-            currentRegion = (RegionInfo) frIter.next();
-            FlowRegions fr = new FlowRegions(currentRegion.getShape());
+        while((fr != null) || frIter.hasNext()) {
+            if (fr == null) {
+                currentRegion = (RegionInfo) frIter.next();
+                fr = new FlowRegions(currentRegion.getShape());
+                region++;
+            }
 
             while (chunk < wordInfos.length) {
                 WordInfo [] chunkInfo = wordInfos[chunk];
@@ -230,14 +368,21 @@ public class FlowTextPainter extends StrokingTextPainter {
                 chunk++;
                 currWord = 0;
 
-                if (bi.isFlowRegionBreak())
-                    break;
+                // Region is done if broken or full.
+                boolean rgnDone = bi.isFlowRegionBreak() || !fr.newLine(lh);
 
-                if (!fr.newLine(lh)) // Region is done.
+                if ((chunkInfos != null) && (chunkInfos[chunk-1] != null)) {
+                    FlowRegions state = rgnDone ? null : new FlowRegions(fr);
+                    chunkInfos[chunk-1].setEndState(endWords[chunk-1],
+                                                    region, state);
+                }
+
+                if (rgnDone)
                     break;
             }
             if (chunk == wordInfos.length)
                 break;
+            fr = null;
         }
 
         boolean overflow = (chunk < wordInfos.length);
@@ -518,4 +663,78 @@ public class FlowTextPainter extends StrokingTextPainter {
         return wordInfos;
     }
 
+    /**
+     * The layout of a text chunk, that is of a paragraph, kept so that it
+     * can be reused when the chunks preceding it and itself do not change.
+     */
+    public static class ChunkInfo {
+
+        /**
+         * The paragraph of the chunk.
+         */
+        protected BlockInfo blockInfo;
+
+        /**
+         * The indexes of the chunk in the text.
+         */
+        protected int begin, end;
+
+        /**
+         * The text the chunk was laid out from.
+         */
+        protected AttributedCharacterIterator text;
+
+        /**
+         * The text runs of the chunk, laid out in the flow regions.
+         */
+        protected List textRuns = new ArrayList();
+
+        /**
+         * The location the next chunk is laid out from.
+         */
+        protected Point2D nextLocation;
+
+        /**
+         * Whether the chunk was entirely laid out in the flow regions.
+         */
+        protected boolean complete;
+
+        /**
+         * The number of words of the text up to the end of the chunk.
+         */
+        protected int numWords;
+
+        /**
+         * The index of the first region not used by the chunk.
+         */
+        protected int region;
+
+        /**
+         * The state of the region the next chunk starts in, or null if it
+         * starts in the next region.
+         */
+        protected FlowRegions flowRegions;
+
+        /**
+         * Creates a new ChunkInfo.
+         */
+        public ChunkInfo(BlockInfo blockInfo, int begin, int end,
+                         AttributedCharacterIterator text) {
+            this.blockInfo = blockInfo;
+            this.begin     = begin;
+            this.end       = end;
+            this.text      = text;
+        }
+
+        /**
+         * Records the state of the region filling after the chunk.
+         */
+        public void setEndState(int numWords, int region,
+                                FlowRegions flowRegions) {
+            this.numWords    = numWords;
+            this.region      = region;
+            this.flowRegions = flowRegions;
+            this.complete    = true;
+        }
+    }
 }
@@ -18,15 +18,22 @@
  */
 package org.apache.batik.bridge;
 
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.batik.css.engine.CSSEngine;
 import org.apache.batik.gvt.CompositeGraphicsNode;
 import org.apache.batik.gvt.GraphicsNode;
 import org.apache.batik.gvt.RootGraphicsNode;
 import org.apache.batik.util.HaltingThread;
+import org.apache.batik.util.ParsedURL;
 import org.apache.batik.util.SVGConstants;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
+import org.w3c.dom.svg.SVGDocument;
 
 /**
  * This class is responsible for creating a GVT tree using an SVG DOM tree.
@@ -36,6 +43,18 @@ import org.w3c.dom.Node;
  */
 public class GVTBuilder implements SVGConstants {
 
+    /**
+     * The ids of the elements referenced from within the document being
+     * built in streaming mode, or null if no element must be released.
+     * @see BridgeContext#setStreamingBuild(boolean)
+     */
+    protected Set referencedIds;
+
+    /**
+     * The number of referenced elements containing the element being built.
+     */
+    protected int referencedDepth;
+
     /**
      * Constructs a new builder.
      */
@@ -57,6 +76,11 @@ public class GVTBuilder implements SVGConstants {
         // inform the bridge context the builder to use
         ctx.setGVTBuilder(this);
 
+        if (ctx.isStreamingBuild() && !ctx.isInteractive()
+                && !ctx.isSVG12()) {
+            referencedIds = getReferencedIds(ctx, document);
+        }
+
         // build the GVT tree
         DocumentBridge dBridge = ctx.getDocumentBridge();
         RootGraphicsNode rootNode = null;
@@ -89,6 +113,8 @@ public class GVTBuilder implements SVGConstants {
             ex.setGraphicsNode(rootNode);
             //ex.printStackTrace();
             throw ex; // re-throw the udpated exception
+        } finally {
+            referencedIds = null;
         }
 
         // For cursor handling
@@ -116,6 +142,22 @@ public class GVTBuilder implements SVGConstants {
      * the GVT tree
      */
     public GraphicsNode build(BridgeContext ctx, Element e) {
+        // Elements built on request (by 'use', patterns, markers...) may be
+        // built again, so they are never released.
+        Set ids = referencedIds;
+        referencedIds = null;
+        try {
+            return buildElement(ctx, e);
+        } finally {
+            referencedIds = ids;
+        }
+    }
+
+    /**
+     * Builds the specified Element.
+     * @see #build(BridgeContext,Element)
+     */
+    private GraphicsNode buildElement(BridgeContext ctx, Element e) {
         // get the appropriate bridge according to the specified element
         Bridge bridge = ctx.getBridge(e);
         if (bridge instanceof GenericBridge) {
@@ -166,11 +208,151 @@ public class GVTBuilder implements SVGConstants {
     protected void buildComposite(BridgeContext ctx,
                                   Element e,
                                   CompositeGraphicsNode parentNode) {
+        if (referencedIds == null) {
+            for (Node n = e.getFirstChild();
+                 n != null;
+                 n = n.getNextSibling()) {
+                if (n.getNodeType() == Node.ELEMENT_NODE) {
+                    buildGraphicsNode(ctx, (Element)n, parentNode);
+                }
+            }
+            return;
+        }
+
+        // Streaming build: release the children once built.
+        boolean referenced = isReferenced(e);
+        if (referenced) {
+            referencedDepth++;
+        }
+        try {
+            Node n = e.getFirstChild();
+            while (n != null) {
+                Node next = n.getNextSibling();
+                if (n.getNodeType() == Node.ELEMENT_NODE) {
+                    buildGraphicsNode(ctx, (Element)n, parentNode);
+                    next = n.getNextSibling();
+                    if (canRelease(ctx, (Element)n)) {
+                        e.removeChild(n);
+                    }
+                }
+                n = next;
+            }
+        } finally {
+            if (referenced) {
+                referencedDepth--;
+            }
+        }
+    }
+
+    /**
+     * Returns whether the given element, which has just been built, can be
+     * removed from the document being built in streaming mode.
+     */
+    protected boolean canRelease(BridgeContext ctx, Element e) {
+        if (referencedDepth != 0 || isReferenced(e)) {
+            return false;
+        }
+        // Only graphics elements are released, and only once all their
+        // children have been: other elements (fonts, gradients, titles...)
+        // may be looked up later on.
+        Bridge bridge = ctx.getBridge(e);
+        if (!(bridge instanceof GraphicsNodeBridge)) {
+            return false;
+        }
         for (Node n = e.getFirstChild(); n != null; n = n.getNextSibling()) {
             if (n.getNodeType() == Node.ELEMENT_NODE) {
-                buildGraphicsNode(ctx, (Element)n, parentNode);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the id of the given element is referenced from
+     * within the document being built in streaming mode.
+     */
+    protected boolean isReferenced(Element e) {
+        String id = e.getAttributeNS(null, SVG_ID_ATTRIBUTE);
+        if (id.length() != 0 && referencedIds.contains(id)) {
+            return true;
+        }
+        id = e.getAttributeNS(XML_NAMESPACE_URI, SVG_ID_ATTRIBUTE);
+        return id.length() != 0 && referencedIds.contains(id);
+    }
+
+    /**
+     * Returns the ids referenced from within the given document, or null
+     * if its elements cannot be released while it is built.
+     */
+    protected Set getReferencedIds(BridgeContext ctx, Document document) {
+        // Releasing an element changes the siblings of the next ones, which
+        // style sheet selectors may depend on.
+        UserAgent ua = ctx.getUserAgent();
+        if (ua != null && ua.getUserStyleSheetURI() != null) {
+            return null;
+        }
+        Element root = document.getDocumentElement();
+        CSSEngine eng = CSSUtilities.getCSSEngine(root);
+        if (eng == null || !eng.getStyleSheetNodes().isEmpty()) {
+            return null;
+        }
+        Set ids = new HashSet();
+        if (!addReferencedIds(root, ids)) {
+            return null;
+        }
+        // The fragment identifier of the document URI selects the view.
+        if (document instanceof SVGDocument) {
+            String url = ((SVGDocument) document).getURL();
+            if (url != null) {
+                String ref = new ParsedURL(url).getRef();
+                if (ref != null) {
+                    if (ref.startsWith("xpointer(")
+                            || ref.startsWith("svgView(")) {
+                        return null;
+                    }
+                    ids.add(ref);
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Adds to the given set the fragment identifiers found in the attributes
+     * of the given element and of its descendants.
+     * @return false if a reference other than a plain id was found.
+     */
+    private boolean addReferencedIds(Element e, Set ids) {
+        NamedNodeMap attrs = e.getAttributes();
+        int len = attrs.getLength();
+        for (int i = 0; i < len; i++) {
+            String v = attrs.item(i).getNodeValue();
+            int idx = v.indexOf('#');
+            while (idx != -1) {
+                int end = idx + 1;
+                while (end < v.length()) {
+                    char c = v.charAt(end);
+                    if (c == ')' || c == '\'' || c == '"' || c == ';'
+                        || c == ',' || Character.isWhitespace(c)) {
+                        break;
+                    }
+                    end++;
+                }
+                String id = v.substring(idx + 1, end);
+                if (id.startsWith("xpointer(") || id.startsWith("svgView(")) {
+                    return false;
+                }
+                ids.add(id);
+                idx = v.indexOf('#', end);
+            }
+        }
+        for (Node n = e.getFirstChild(); n != null; n = n.getNextSibling()) {
+            if (n.getNodeType() == Node.ELEMENT_NODE
+                    && !addReferencedIds((Element) n, ids)) {
+                return false;
             }
         }
+        return true;
     }
 
     /**
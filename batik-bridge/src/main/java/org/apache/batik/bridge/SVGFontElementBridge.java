@@ -62,6 +62,32 @@ public class SVGFontElementBridge extends AbstractSVGBridge {
                                  float size,
                                  GVTFontFace fontFace) {
 
+        // The index is shared by all the text elements using the font,
+        // unless the document may change.
+        SVGFontIndex index = null;
+        if (!ctx.isDynamic()) {
+            index = (SVGFontIndex) ctx.getElementData(fontElement);
+        }
+        if (index == null) {
+            index = createFontIndex(fontElement);
+            if (!ctx.isDynamic()) {
+                ctx.setElementData(fontElement, index);
+            }
+        }
+
+        // return the new SVGGVTFont
+        return new SVGGVTFont(size, fontFace, index, ctx, textElement);
+    }
+
+    /**
+     * Creates the index of the glyphs and kerning pairs of the specified
+     * &lt;font&gt; element.
+     *
+     * @param fontElement The font element.
+     *
+     * @return The new SVGFontIndex.
+     */
+    protected SVGFontIndex createFontIndex(Element fontElement) {
 
         // construct a list of glyph codes that this font can display and
         // a list of the glyph elements
@@ -119,11 +145,9 @@ public class SVGFontElementBridge extends AbstractSVGBridge {
             vkernElementArray[i] = vkernElement;
         }
 
-        // return the new SVGGVTFont
-        return new SVGGVTFont
-            (size, fontFace, glyphCodes, glyphNames, glyphLangs,
-             glyphOrientations, glyphForms, ctx,
-             glyphElementArray, missingGlyphElement,
-             hkernElementArray, vkernElementArray, textElement);
+        return new SVGFontIndex
+            (glyphCodes, glyphNames, glyphLangs, glyphOrientations,
+             glyphForms, glyphElementArray, missingGlyphElement,
+             hkernElementArray, vkernElementArray);
     }
 }
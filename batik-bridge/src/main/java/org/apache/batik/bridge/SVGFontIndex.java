@@ -0,0 +1,245 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+package org.apache.batik.bridge;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.batik.gvt.font.KerningTable;
+import org.w3c.dom.Element;
+
+/**
+ * The glyphs and kerning pairs of an SVG font, indexed so that the
+ * glyphs matching a character, a unicode value or a name are found without
+ * scanning the whole font.  An index is built once per &lt;font&gt; element
+ * and shared by all the {@link SVGGVTFont}s, of any size, created for it.
+ *
+ * <p>The glyphs are indexed by the first character of their unicode value,
+ * in document order, so that ligatures are matched by comparing the
+ * remaining characters of the few glyphs starting with the same character,
+ * and the first matching glyph in document order is still the one used.</p>
+ *
+ * @version $Id$
+ */
+public class SVGFontIndex {
+
+    /**
+     * An empty array of glyph codes.
+     */
+    protected static final int[] EMPTY = new int[0];
+
+    protected String[] glyphUnicodes;
+    protected String[] glyphNames;
+    protected String[] glyphLangs;
+    protected String[] glyphOrientations;
+    protected String[] glyphForms;
+    protected Element[] glyphElements;
+    protected Element missingGlyphElement;
+    protected Element[] hkernElements;
+    protected Element[] vkernElements;
+
+    /**
+     * The glyph codes, keyed by the first character of their unicode value.
+     */
+    protected Map firstCharMap = new HashMap();
+
+    /**
+     * The glyph codes, keyed by the characters of their unicode value.
+     */
+    protected Map charMap = new HashMap();
+
+    /**
+     * The glyph codes, keyed by unicode value.
+     */
+    protected Map unicodeMap = new HashMap();
+
+    /**
+     * The glyph codes, keyed by glyph name.
+     */
+    protected Map nameMap = new HashMap();
+
+    /**
+     * The kerning tables, created by the first font which needs them.
+     */
+    protected KerningTable hKerningTable;
+    protected KerningTable vKerningTable;
+
+    /**
+     * Creates a new SVGFontIndex.
+     *
+     * @param glyphUnicodes An array containing the unicode values for
+     * all the glyphs of the font.
+     * @param glyphNames An array containing the names of all the
+     * glyphs of the font.
+     * @param glyphLangs An array containing the languages of the glyphs.
+     * @param glyphOrientations An array containing the orientations of the
+     * glyphs.
+     * @param glyphForms An array containing the arabic forms of the glyphs.
+     * @param glyphElements An array containing the children glyph
+     * elements of the SVG font.
+     * @param missingGlyphElement The missing glyph element for this
+     * font.
+     * @param hkernElements An array containing all hkern elements for
+     * this font.
+     * @param vkernElements An array containing all vkern elements for
+     * this font.
+     */
+    public SVGFontIndex(String[] glyphUnicodes,
+                        String[] glyphNames,
+                        String[] glyphLangs,
+                        String[] glyphOrientations,
+                        String[] glyphForms,
+                        Element[] glyphElements,
+                        Element missingGlyphElement,
+                        Element[] hkernElements,
+                        Element[] vkernElements) {
+        this.glyphUnicodes = glyphUnicodes;
+        this.glyphNames = glyphNames;
+        this.glyphLangs = glyphLangs;
+        this.glyphOrientations = glyphOrientations;
+        this.glyphForms = glyphForms;
+        this.glyphElements = glyphElements;
+        this.missingGlyphElement = missingGlyphElement;
+        this.hkernElements = hkernElements;
+        this.vkernElements = vkernElements;
+
+        for (int i = 0; i < glyphUnicodes.length; i++) {
+            String u = glyphUnicodes[i];
+            if (u == null) {
+                continue;
+            }
+            add(unicodeMap, u, i);
+            if (u.length() > 0) {
+                add(firstCharMap, u.charAt(0), i);
+            }
+            for (int j = 0; j < u.length(); j++) {
+                if (u.indexOf(u.charAt(j)) == j) {
+                    add(charMap, u.charAt(j), i);
+                }
+            }
+        }
+        for (int i = 0; i < glyphNames.length; i++) {
+            if (glyphNames[i] != null) {
+                add(nameMap, glyphNames[i], i);
+            }
+        }
+        toArrays(firstCharMap);
+        toArrays(charMap);
+        toArrays(unicodeMap);
+        toArrays(nameMap);
+    }
+
+    /**
+     * Returns the codes, in document order, of the glyphs whose unicode
+     * value starts with the given character.  The returned array must not
+     * be modified.
+     */
+    public int[] getGlyphCodesStartingWith(char c) {
+        return get(firstCharMap, c);
+    }
+
+    /**
+     * Returns the codes, in document order, of the glyphs whose unicode
+     * value contains the given character.  The returned array must not be
+     * modified.
+     */
+    public int[] getGlyphCodesContaining(char c) {
+        return get(charMap, c);
+    }
+
+    /**
+     * Returns the codes, in document order, of the glyphs with the given
+     * unicode value.  The returned array must not be modified.
+     */
+    public int[] getGlyphCodesForUnicode(String unicode) {
+        return get(unicodeMap, unicode);
+    }
+
+    /**
+     * Returns the codes, in document order, of the glyphs with the given
+     * name.  The returned array must not be modified.
+     */
+    public int[] getGlyphCodesForName(String name) {
+        return get(nameMap, name);
+    }
+
+    /**
+     * Returns the horizontal kerning table, or null if it has not been
+     * created yet.
+     */
+    public synchronized KerningTable getHKerningTable() {
+        return hKerningTable;
+    }
+
+    /**
+     * Returns the vertical kerning table, or null if it has not been
+     * created yet.
+     */
+    public synchronized KerningTable getVKerningTable() {
+        return vKerningTable;
+    }
+
+    /**
+     * Sets the kerning tables.
+     */
+    public synchronized void setKerningTables(KerningTable h,
+                                              KerningTable v) {
+        hKerningTable = h;
+        vKerningTable = v;
+    }
+
+    /**
+     * Adds a glyph code to the list associated with the given key.
+     */
+    protected static void add(Map m, Object key, int glyphCode) {
+        List l = (List) m.get(key);
+        if (l == null) {
+            l = new ArrayList(1);
+            m.put(key, l);
+        }
+        l.add(glyphCode);
+    }
+
+    /**
+     * Replaces the lists of glyph codes of the given map with arrays.
+     */
+    protected static void toArrays(Map m) {
+        Iterator it = m.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry e = (Map.Entry) it.next();
+            List l = (List) e.getValue();
+            int[] a = new int[l.size()];
+            for (int i = 0; i < a.length; i++) {
+                a[i] = (Integer) l.get(i);
+            }
+            e.setValue(a);
+        }
+    }
+
+    /**
+     * Returns the glyph codes associated with the given key.
+     */
+    protected static int[] get(Map m, Object key) {
+        int[] a = (int[]) m.get(key);
+        return a == null ? EMPTY : a;
+    }
+}
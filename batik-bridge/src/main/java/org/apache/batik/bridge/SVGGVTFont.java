@@ -74,6 +74,7 @@ public final class SVGGVTFont implements GVTFont, SVGConstants {
     private String orientation;
     private float  scale;
     private GVTLineMetrics lineMetrics=null;
+    private SVGFontIndex index;
 
     /**
      * Constructs a new SVGGVTFont of the specified size.
@@ -109,18 +110,42 @@ public final class SVGGVTFont implements GVTFont, SVGConstants {
                       Element[] hkernElements,
                       Element[] vkernElements,
                       Element textElement) {
+        this(fontSize, fontFace,
+             new SVGFontIndex(glyphUnicodes, glyphNames, glyphLangs,
+                              glyphOrientations, glyphForms, glyphElements,
+                              missingGlyphElement, hkernElements,
+                              vkernElements),
+             ctx, textElement);
+    }
+
+    /**
+     * Constructs a new SVGGVTFont of the specified size.
+     *
+     * @param fontSize The size of the font to create.
+     * @param fontFace The font face that describes the font.
+     * @param index The glyphs and kerning pairs of the font.
+     * @param ctx The bridge context.
+     * @param textElement The text element that contains the text to
+     * be rendered using this font.
+     */
+    public SVGGVTFont(float fontSize,
+                      GVTFontFace fontFace,
+                      SVGFontIndex index,
+                      BridgeContext ctx,
+                      Element textElement) {
         this.fontFace = fontFace;
         this.fontSize = fontSize;
-        this.glyphUnicodes = glyphUnicodes;
-        this.glyphNames = glyphNames;
-        this.glyphLangs = glyphLangs;
-        this.glyphOrientations = glyphOrientations;
-        this.glyphForms = glyphForms;
+        this.index = index;
+        this.glyphUnicodes = index.glyphUnicodes;
+        this.glyphNames = index.glyphNames;
+        this.glyphLangs = index.glyphLangs;
+        this.glyphOrientations = index.glyphOrientations;
+        this.glyphForms = index.glyphForms;
         this.ctx = ctx;
-        this.glyphElements = glyphElements;
-        this.missingGlyphElement = missingGlyphElement;
-        this.hkernElements = hkernElements;
-        this.vkernElements = vkernElements;
+        this.glyphElements = index.glyphElements;
+        this.missingGlyphElement = index.missingGlyphElement;
+        this.hkernElements = index.hkernElements;
+        this.vkernElements = index.vkernElements;
         this.scale         = fontSize/fontFace.getUnitsPerEm();
         this.textElement = textElement;
 
@@ -135,14 +160,20 @@ public final class SVGGVTFont implements GVTFont, SVGConstants {
             this.orientation = SVG_H_VALUE;
         }
 
-        createKerningTables();
+        hKerningTable = index.getHKerningTable();
+        vKerningTable = index.getVKerningTable();
+        if (hKerningTable == null) {
+            createKerningTables();
+            index.setKerningTables(hKerningTable, vKerningTable);
+        }
     }
 
 
     /**
      * Creates the kerning tables for this font. Two tables are created,
      * horizontal and vertical. If there are not children vkern or hkern
-     * elements these tables will be empty.
+     * elements these tables will be empty.  The tables do not depend on
+     * the size of the font, so they are shared through the font index.
      */
     private void createKerningTables() {
 
@@ -221,17 +252,7 @@ public final class SVGGVTFont implements GVTFont, SVGConstants {
      * @return An array of matching glyph codes. This may be empty.
      */
     public int[] getGlyphCodesForName(String name) {
-        List glyphCodes = new ArrayList();
-        for (int i = 0; i < glyphNames.length; i++) {
-            if (glyphNames[i] != null && glyphNames[i].equals(name)) {
-                glyphCodes.add(i);
-            }
-        }
-        int[] glyphCodeArray = new int[glyphCodes.size()];
-        for (int i = 0; i < glyphCodes.size(); i++) {
-            glyphCodeArray[i] = (Integer) glyphCodes.get(i);
-        }
-        return glyphCodeArray;
+        return index.getGlyphCodesForName(name).clone();
     }
 
     /**
@@ -243,17 +264,7 @@ public final class SVGGVTFont implements GVTFont, SVGConstants {
      * @return An array of matching glyph codes. This may be empty.
      */
     public int[] getGlyphCodesForUnicode(String unicode) {
-        List glyphCodes = new ArrayList();
-        for (int i = 0; i < glyphUnicodes.length; i++) {
-            if (glyphUnicodes[i] != null && glyphUnicodes[i].equals(unicode)) {
-                glyphCodes.add(i);
-            }
-        }
-        int[] glyphCodeArray = new int[glyphCodes.size()];
-        for (int i = 0; i < glyphCodes.size(); i++) {
-            glyphCodeArray[i] = (Integer) glyphCodes.get(i);
-        }
-        return glyphCodeArray;
+        return index.getGlyphCodesForUnicode(unicode).clone();
     }
 
     /**
@@ -413,9 +424,9 @@ public final class SVGGVTFont implements GVTFont, SVGConstants {
      * @return true if the glyph can be displayed.
      */
     public boolean canDisplayGivenName(String name) {
-        for (int i = 0; i < glyphNames.length; i++) {
-            if (glyphNames[i] != null && glyphNames[i].equals(name)
-                && languageMatches(glyphLangs[i])
+        int[] glyphCodes = index.getGlyphCodesForName(name);
+        for (int i : glyphCodes) {
+            if (languageMatches(glyphLangs[i])
                 && orientationMatches(glyphOrientations[i])) {
                 return true;
             }
@@ -433,9 +444,9 @@ public final class SVGGVTFont implements GVTFont, SVGConstants {
      * @return true if the character can be displayed.
      */
     public boolean canDisplay(char c) {
-        for (int i = 0; i < glyphUnicodes.length; i++) {
-            if (glyphUnicodes[i].indexOf(c) != -1
-                && languageMatches(glyphLangs[i])
+        int[] glyphCodes = index.getGlyphCodesContaining(c);
+        for (int i : glyphCodes) {
+            if (languageMatches(glyphLangs[i])
                 && orientationMatches(glyphOrientations[i])) {
                 return true;
             }
@@ -485,9 +496,9 @@ public final class SVGGVTFont implements GVTFont, SVGConstants {
 
             boolean foundMatchingGlyph = false;
 
-            for (int i = 0; i < glyphUnicodes.length; i++) {
-                if (glyphUnicodes[i].indexOf(c) == 0
-                    && languageMatches(glyphLangs[i])
+            int[] glyphCodes = index.getGlyphCodesStartingWith(c);
+            for (int i : glyphCodes) {
+                if (languageMatches(glyphLangs[i])
                     && orientationMatches(glyphOrientations[i])
                     && formMatches(glyphUnicodes[i], glyphForms[i],
                                    aci, currentIndex)) {
@@ -580,9 +591,9 @@ public final class SVGGVTFont implements GVTFont, SVGConstants {
         char c = ci.first();
         while (c != CharacterIterator.DONE) {
             boolean foundMatchingGlyph = false;
-            for (int i = 0; i < glyphUnicodes.length; i++) {
-                if (glyphUnicodes[i].indexOf(c) == 0 &&
-                    languageMatches(glyphLangs[i]) &&
+            int[] glyphCodes = index.getGlyphCodesStartingWith(c);
+            for (int i : glyphCodes) {
+                if (languageMatches(glyphLangs[i]) &&
                     orientationMatches(glyphOrientations[i]) &&
                     formMatches(glyphUnicodes[i], glyphForms[i], aci,
                                 ci.getIndex())) {  // found a possible match
@@ -712,10 +723,7 @@ public final class SVGGVTFont implements GVTFont, SVGConstants {
      * @return The new font object.
      */
     public GVTFont deriveFont(float size) {
-        return new SVGGVTFont(size, fontFace, glyphUnicodes, glyphNames,
-                              glyphLangs, glyphOrientations, glyphForms, ctx,
-                              glyphElements, missingGlyphElement,
-                              hkernElements, vkernElements, textElement);
+        return new SVGGVTFont(size, fontFace, index, ctx, textElement);
     }
 
     public String getFamilyName() {
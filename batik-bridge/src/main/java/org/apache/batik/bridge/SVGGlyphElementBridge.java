@@ -29,6 +29,7 @@ import org.apache.batik.gvt.CompositeGraphicsNode;
 import org.apache.batik.gvt.GraphicsNode;
 import org.apache.batik.gvt.font.GVTFontFace;
 import org.apache.batik.gvt.font.Glyph;
+import org.apache.batik.gvt.font.GlyphGeometryCache;
 import org.apache.batik.gvt.text.TextPaintInfo;
 import org.apache.batik.parser.AWTPathProducer;
 import org.apache.batik.parser.ParseException;
@@ -91,23 +92,30 @@ public class SVGGlyphElementBridge extends AbstractSVGBridge
         String d = glyphElement.getAttributeNS(null, SVG_D_ATTRIBUTE);
         Shape dShape = null;
         if (d.length() != 0) {
-            AWTPathProducer app = new AWTPathProducer();
             // Glyph is supposed to use properties from text element.
-            app.setWindingRule(CSSUtilities.convertFillRule(textElement));
-            try {
-                PathParser pathParser = new PathParser();
-                pathParser.setPathHandler(app);
-                pathParser.parse(d);
-            } catch (ParseException pEx) {
-                throw new BridgeException(ctx, glyphElement,
-                                          pEx, ERR_ATTRIBUTE_VALUE_MALFORMED,
-                                          new Object [] {SVG_D_ATTRIBUTE});
-            } finally {
-                // transform the shape into the correct coord system
-                Shape shape = app.getShape();
-                Shape transformedShape
-                    = scaleTransform.createTransformedShape(shape);
-                dShape = transformedShape;
+            int windingRule = CSSUtilities.convertFillRule(textElement);
+            GlyphGeometryCache cache = GlyphGeometryCache.getInstance();
+            OutlineKey key = new OutlineKey(d, windingRule, scale);
+            dShape = (Shape) cache.get(key);
+            if (dShape == null) {
+                AWTPathProducer app = new AWTPathProducer();
+                app.setWindingRule(windingRule);
+                try {
+                    PathParser pathParser = new PathParser();
+                    pathParser.setPathHandler(app);
+                    pathParser.parse(d);
+                } catch (ParseException pEx) {
+                    throw new BridgeException(ctx, glyphElement,
+                                              pEx, ERR_ATTRIBUTE_VALUE_MALFORMED,
+                                              new Object [] {SVG_D_ATTRIBUTE});
+                } finally {
+                    // transform the shape into the correct coord system
+                    Shape shape = app.getShape();
+                    Shape transformedShape
+                        = scaleTransform.createTransformedShape(shape);
+                    dShape = transformedShape;
+                }
+                cache.put(key, dShape, dShape);
             }
         }
 
@@ -325,4 +333,64 @@ public class SVGGlyphElementBridge extends AbstractSVGBridge
                          horizAdvX, vertAdvY, glyphCode,
                          tpi, dShape, glyphContentNode);
     }
+
+    /**
+     * The key of a glyph outline in the {@link GlyphGeometryCache}: the path
+     * data, the winding rule and the scale, which are all the outline
+     * depends on, so that the outlines can be shared across documents.
+     */
+    protected static class OutlineKey {
+
+        /**
+         * The path data.
+         */
+        protected String d;
+
+        /**
+         * The winding rule.
+         */
+        protected int windingRule;
+
+        /**
+         * The scale.
+         */
+        protected float scale;
+
+        /**
+         * The hash code.
+         */
+        protected int hash;
+
+        /**
+         * Creates a new OutlineKey.
+         */
+        public OutlineKey(String d, int windingRule, float scale) {
+            this.d = d;
+            this.windingRule = windingRule;
+            this.scale = scale;
+            hash = (d.hashCode() * 31 + windingRule) * 31
+                + Float.floatToIntBits(scale);
+        }
+
+        /**
+         * Returns a hash code for this key.
+         */
+        public int hashCode() {
+            return hash;
+        }
+
+        /**
+         * Whether the given object is an equivalent key.
+         */
+        public boolean equals(Object o) {
+            if (!(o instanceof OutlineKey)) {
+                return false;
+            }
+            OutlineKey k = (OutlineKey) o;
+            return k.hash == hash
+                && k.windingRule == windingRule
+                && Float.floatToIntBits(k.scale) == Float.floatToIntBits(scale)
+                && k.d.equals(d);
+        }
+    }
 }
@@ -198,6 +198,18 @@ public class StrokingTextPainter extends BasicTextPainter {
     public List computeTextRuns(TextNode node,
                                 AttributedCharacterIterator aci,
                                 AttributedCharacterIterator [] chunkACIs) {
+        return computeTextRuns(node, aci, chunkACIs, node.getLocation());
+    }
+
+    /**
+     * Computes the text runs of the given chunks, laying out the first
+     * chunk from the given location rather than from the location of the
+     * node.
+     */
+    public List computeTextRuns(TextNode node,
+                                AttributedCharacterIterator aci,
+                                AttributedCharacterIterator [] chunkACIs,
+                                Point2D location) {
         int [][] chunkCharMaps = new int[chunkACIs.length][];
 
         // reorder each chunk ACI for bidi text
@@ -211,13 +223,22 @@ public class StrokingTextPainter extends BasicTextPainter {
             chunkStart += (chunkACIs[i].getEndIndex()-
                            chunkACIs[i].getBeginIndex());
         }
-        return computeTextRuns(node, aci, chunkACIs, chunkCharMaps);
+        return computeTextRuns(node, aci, chunkACIs, chunkCharMaps, location);
     }
 
     protected List computeTextRuns(TextNode node,
                                 AttributedCharacterIterator aci,
                                 AttributedCharacterIterator [] chunkACIs,
                                 int [][] chunkCharMaps) {
+        return computeTextRuns(node, aci, chunkACIs, chunkCharMaps,
+                               node.getLocation());
+    }
+
+    protected List computeTextRuns(TextNode node,
+                                AttributedCharacterIterator aci,
+                                AttributedCharacterIterator [] chunkACIs,
+                                int [][] chunkCharMaps,
+                                Point2D location) {
         // add font matching attributes
         int chunkStart = aci.getBeginIndex();
         for (int i = 0; i < chunkACIs.length; i++) {
@@ -230,7 +251,6 @@ public class StrokingTextPainter extends BasicTextPainter {
         TextChunk chunk, prevChunk=null;
         int currentChunk = 0;
 
-        Point2D location = node.getLocation();
         do {
             // Text Chunks contain one or more TextRuns, which they
             // create from the ACI.
@@ -1090,7 +1110,8 @@ public class StrokingTextPainter extends BasicTextPainter {
              Rectangle2D runBounds = textRunLayout.getBounds2D();
              if (runBounds != null) {
                  if (bounds == null)
-                     bounds = runBounds;
+                     // The layout may cache its bounds, so don't modify them.
+                     bounds = (Rectangle2D)runBounds.clone();
                  else
                      bounds.add(runBounds);
              }
@@ -19,6 +19,7 @@
 package org.apache.batik.bridge.svg12;
 
 import java.util.HashMap;
+import java.util.List;
 
 import org.apache.batik.anim.dom.XBLOMContentElement;
 
@@ -75,6 +76,52 @@ public abstract class AbstractContentSelector {
      */
     abstract boolean update();
 
+    /**
+     * Returns whether this selector selects a child of the bound element
+     * only according to that child, so that inserting or removing a child
+     * does not change the selection of the others.
+     */
+    boolean isLocal() {
+        return false;
+    }
+
+    /**
+     * Returns whether this selector selects the given child of the bound
+     * element, if no previous content element selected it.  This is only
+     * called on local selectors.
+     */
+    boolean matches(Node n) {
+        return false;
+    }
+
+    /**
+     * Adds the given child of the bound element, which was just inserted,
+     * to the selected nodes.  This is only called on local selectors.
+     */
+    void addSelectedNode(Node n) {
+    }
+
+    /**
+     * Removes the given child of the bound element, which was just removed,
+     * from the selected nodes.  This is only called on local selectors.
+     */
+    void removeSelectedNode(Node n) {
+    }
+
+    /**
+     * Inserts the given child of the bound element in the given list of
+     * nodes selected by this selector, in document order.
+     */
+    protected void insertSelectedNode(List nodes, Node n) {
+        for (Node m = n.getNextSibling(); m != null; m = m.getNextSibling()) {
+            if (contentManager.getContentElement(m) == contentElement) {
+                nodes.add(nodes.indexOf(m), n);
+                return;
+            }
+        }
+        nodes.add(n);
+    }
+
     /**
      * Returns true if the given node has already been selected
      * by a content element.
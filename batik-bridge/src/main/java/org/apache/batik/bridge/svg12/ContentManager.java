@@ -19,6 +19,7 @@
 package org.apache.batik.bridge.svg12;
 
 import javax.swing.event.EventListenerList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -90,6 +91,24 @@ public class ContentManager {
      */
     protected Node removedNode;
 
+    /**
+     * The parent the recently removed child of the bound element was
+     * removed from, or null if the removed node is not one.
+     */
+    protected Node removedNodeParent;
+
+    /**
+     * The number of times the content selected by all the content elements
+     * was computed.
+     */
+    protected int fullUpdateCount;
+
+    /**
+     * The number of nodes inserted in or removed from the bound element
+     * for which only the selection of that node was updated.
+     */
+    protected int incrementalUpdateCount;
+
     /**
      * Map of XBLContentElement objects to EventListenerList
      * objects.
@@ -254,6 +273,22 @@ public class ContentManager {
         return (NodeList) selectedNodes.get(e);
     }
 
+    /**
+     * Returns the number of times the content selected by all the content
+     * elements was computed.
+     */
+    public int getFullUpdateCount() {
+        return fullUpdateCount;
+    }
+
+    /**
+     * Returns the number of nodes inserted in or removed from the bound
+     * element for which only the selection of that node was updated.
+     */
+    public int getIncrementalUpdateCount() {
+        return incrementalUpdateCount;
+    }
+
     /**
      * Returns the content element that selected a given node.
      */
@@ -320,6 +355,7 @@ public class ContentManager {
      * @param first Whether this is the first update for this ContentManager.
      */
     protected void update(boolean first) {
+        fullUpdateCount++;
         HashSet previouslySelectedNodes = new HashSet();
         Iterator i = selectedNodes.entrySet().iterator();
         while (i.hasNext()) {
@@ -424,6 +460,95 @@ public class ContentManager {
         return updated;
     }
 
+    /**
+     * Returns whether the selectors of all the content elements are local,
+     * so that inserting or removing a child of the bound element only
+     * changes the selection of that child.
+     */
+    protected boolean hasLocalSelectors() {
+        Iterator i = contentElementList.iterator();
+        while (i.hasNext()) {
+            AbstractContentSelector s =
+                (AbstractContentSelector) selectors.get(i.next());
+            if (s == null || !s.isLocal()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the given node is the bound element or one of its
+     * descendants.
+     */
+    protected boolean isInBoundElement(Node n) {
+        for (; n != null; n = n.getParentNode()) {
+            if (n == boundElement) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Updates the selection of the given node, which was just inserted in
+     * the bound element.
+     * @return false if all the content elements need to be updated
+     */
+    protected boolean nodeInserted(Node n) {
+        Node parent = n.getParentNode();
+        if (!isInBoundElement(parent) || !hasLocalSelectors()) {
+            return false;
+        }
+        incrementalUpdateCount++;
+        if (parent != boundElement) {
+            // Only children of the bound element are selected.
+            return true;
+        }
+        Iterator i = contentElementList.iterator();
+        while (i.hasNext()) {
+            XBLOMContentElement e = (XBLOMContentElement) i.next();
+            AbstractContentSelector s =
+                (AbstractContentSelector) selectors.get(e);
+            if (s.matches(n)) {
+                s.addSelectedNode(n);
+                xblManager.getRecord(n).contentElement = e;
+                dispatchContentSelectionChangedEvent(e);
+                xblManager.shadowTreeSelectedContentChanged
+                    (Collections.EMPTY_SET, Collections.singleton(n));
+                break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Updates the selection of the given node, which was just removed from
+     * the given parent in the bound element.
+     * @return false if all the content elements need to be updated
+     */
+    protected boolean nodeRemoved(Node n, Node parent) {
+        if (!isInBoundElement(parent) || !hasLocalSelectors()) {
+            return false;
+        }
+        incrementalUpdateCount++;
+        if (parent != boundElement) {
+            // Only children of the bound element are selected.
+            return true;
+        }
+        XBLOMContentElement e = getContentElement(n);
+        if (e != null) {
+            AbstractContentSelector s =
+                (AbstractContentSelector) selectors.get(e);
+            s.removeSelectedNode(n);
+            xblManager.getRecord(n).contentElement = null;
+            dispatchContentSelectionChangedEvent(e);
+            xblManager.shadowTreeSelectedContentChanged
+                (Collections.singleton(n), Collections.EMPTY_SET);
+        }
+        return true;
+    }
+
     /**
      * Returns the selector language to be used for the given
      * xbl:content element.  This will look at the xbl:content
@@ -486,7 +611,9 @@ public class ContentManager {
      */
     protected class DOMNodeInsertedEventListener implements EventListener {
         public void handleEvent(Event evt) {
-            update(false);
+            if (!nodeInserted((Node) evt.getTarget())) {
+                update(false);
+            }
         }
     }
 
@@ -496,6 +623,7 @@ public class ContentManager {
     protected class DOMNodeRemovedEventListener implements EventListener {
         public void handleEvent(Event evt) {
             removedNode = (Node) evt.getTarget();
+            removedNodeParent = removedNode.getParentNode();
         }
     }
 
@@ -505,8 +633,13 @@ public class ContentManager {
     protected class DOMSubtreeModifiedEventListener implements EventListener {
         public void handleEvent(Event evt) {
             if (removedNode != null) {
+                Node n = removedNode;
+                Node parent = removedNodeParent;
                 removedNode = null;
-                update(false);
+                removedNodeParent = null;
+                if (!nodeRemoved(n, parent)) {
+                    update(false);
+                }
             }
         }
 
@@ -533,6 +666,7 @@ public class ContentManager {
             EventTarget target = evt.getTarget();
             if (target instanceof XBLOMContentElement) {
                 removedNode = (Node) evt.getTarget();
+                removedNodeParent = null;
             }
         }
     }
@@ -545,6 +679,7 @@ public class ContentManager {
         public void handleEvent(Event evt) {
             if (removedNode != null) {
                 removedNode = null;
+                removedNodeParent = null;
                 update(false);
             }
         }
@@ -75,6 +75,38 @@ public class DefaultContentSelector extends AbstractContentSelector {
         return selectedContent.update();
     }
 
+    /**
+     * Returns whether this selector selects a child of the bound element
+     * only according to that child.
+     */
+    boolean isLocal() {
+        return true;
+    }
+
+    /**
+     * Returns whether this selector selects the given child of the bound
+     * element, if no previous content element selected it.
+     */
+    boolean matches(Node n) {
+        return true;
+    }
+
+    /**
+     * Adds the given child of the bound element to the selected nodes.
+     */
+    void addSelectedNode(Node n) {
+        getSelectedContent();
+        insertSelectedNode(selectedContent.nodes, n);
+    }
+
+    /**
+     * Removes the given child of the bound element from the selected nodes.
+     */
+    void removeSelectedNode(Node n) {
+        getSelectedContent();
+        selectedContent.nodes.remove(n);
+    }
+
     /**
      * Implementation of NodeList that contains the nodes that matched
      * this selector.
@@ -52,6 +52,7 @@ import org.apache.batik.bridge.TextUtilities;
 import org.apache.batik.bridge.UserAgent;
 import org.apache.batik.bridge.SVGAElementBridge;
 import org.apache.batik.css.engine.CSSEngine;
+import org.apache.batik.css.engine.CSSEngineEvent;
 import org.apache.batik.css.engine.SVGCSSEngine;
 import org.apache.batik.css.engine.value.ComputedValue;
 import org.apache.batik.css.engine.value.svg12.SVG12ValueConstants;
@@ -76,6 +77,7 @@ import org.apache.batik.constants.XMLConstants;
 
 import org.w3c.dom.events.Event;
 import org.w3c.dom.events.EventListener;
+import org.w3c.dom.events.MutationEvent;
 
 /**
  * Bridge class for the &lt;flowRoot&gt; element.
@@ -139,6 +141,25 @@ public class SVGFlowRootElementBridge extends SVG12TextElementBridge {
      */
     protected RegionChangeListener regionChangeListener;
 
+    /**
+     * The BlockInfos of the paragraphs of the last layout which did not
+     * change since, keyed by paragraph element.  The text painter reuses
+     * the layout of the leading paragraphs whose BlockInfo is unchanged.
+     */
+    protected Map blockInfos = new HashMap();
+
+    /**
+     * Whether the changes since the last layout are known to be confined
+     * to the paragraphs whose BlockInfos were discarded.
+     */
+    protected boolean paragraphChangesOnly;
+
+    /**
+     * The TextPaintInfos of the previous layout, while the text is laid
+     * out again.
+     */
+    protected Map previousTPI;
+
     /**
      * Constructs a new bridge for the &lt;flowRoot&gt; element.
      */
@@ -336,7 +357,95 @@ public class SVGFlowRootElementBridge extends SVG12TextElementBridge {
     protected void computeLaidoutText(BridgeContext ctx,
                                        Element e,
                                        GraphicsNode node) {
+        if (!paragraphChangesOnly) {
+            blockInfos.clear();
+        }
+        paragraphChangesOnly = false;
+        if (!blockInfos.isEmpty() && (node instanceof FlowTextNode)) {
+            // Keep the layout and the paint of the unchanged paragraphs.
+            previousTPI = new HashMap(elemTPI);
+            ((FlowTextNode) node).setKeepChunkInfos(true);
+        }
         super.computeLaidoutText(ctx, getFlowDivElement(e), node);
+        previousTPI = null;
+    }
+
+    /**
+     * Discards the BlockInfo of the paragraph which contains the given
+     * node, or those of all the paragraphs if the node is not in a
+     * paragraph, so that the next layout lays the changed paragraphs out
+     * again.
+     */
+    protected void paragraphChanged(Node n) {
+        Element para = getParagraphElement(n);
+        if (para == null) {
+            blockInfos.clear();
+        } else {
+            blockInfos.remove(para);
+        }
+        paragraphChangesOnly = true;
+    }
+
+    /**
+     * Returns the child of the flowDiv element which contains the given
+     * node, or null.
+     */
+    protected Element getParagraphElement(Node n) {
+        Element div = getFlowDivElement(e);
+        if (div == null) return null;
+        for (Node p = getParentNode(n); p != null; p = getParentNode(p)) {
+            if (p == div) {
+                if (n.getNodeType() != Node.ELEMENT_NODE) return null;
+                return (Element)n;
+            }
+            n = p;
+        }
+        return null;
+    }
+
+    /**
+     * Invoked when an MutationEvent of type 'DOMNodeInserted' is fired.
+     */
+    public void handleDOMNodeInsertedEvent(MutationEvent evt) {
+        paragraphChanged((Node)evt.getTarget());
+        super.handleDOMNodeInsertedEvent(evt);
+        if (laidoutText != null) {
+            paragraphChangesOnly = false;
+        }
+    }
+
+    /**
+     * Invoked when an MutationEvent of type 'DOMNodeRemoved' is fired.
+     */
+    public void handleDOMChildNodeRemovedEvent(MutationEvent evt) {
+        paragraphChanged((Node)evt.getTarget());
+        super.handleDOMChildNodeRemovedEvent(evt);
+        if (laidoutText != null) {
+            paragraphChangesOnly = false;
+        }
+    }
+
+    /**
+     * Invoked when an MutationEvent of type 'DOMCharacterDataModified'
+     * is fired.
+     */
+    public void handleDOMCharacterDataModified(MutationEvent evt) {
+        paragraphChanged((Node)evt.getTarget());
+        super.handleDOMCharacterDataModified(evt);
+        if (laidoutText != null) {
+            paragraphChangesOnly = false;
+        }
+    }
+
+    /**
+     * Invoked when CSS properties have changed on an element.
+     */
+    public void handleCSSEngineEvent(CSSEngineEvent evt) {
+        paragraphChanged(evt.getElement());
+        super.handleCSSEngineEvent(evt);
+        if (laidoutText != null) {
+            paragraphChangesOnly = false;
+        }
     }
 
     /**
@@ -489,6 +598,7 @@ public class SVGFlowRootElementBridge extends SVG12TextElementBridge {
         elemTPI.put(div, divTPI);
 
         AttributedStringBuffer asb = new AttributedStringBuffer();
+        Map newBlockInfos = ctx.isDynamic() ? new HashMap() : null;
         List paraEnds  = new ArrayList();
         List paraElems = new ArrayList();
         List lnLocs    = new ArrayList();
@@ -546,20 +656,28 @@ public class SVGFlowRootElementBridge extends SVG12TextElementBridge {
         for (int i=0; i<paraElems.size(); i++, start=end) {
             Element elem = (Element)paraElems.get(i);
             end  = (Integer) paraEnds.get(i);
+            // Keep the BlockInfo of an unchanged paragraph, so that its
+            // layout is reused.
+            BlockInfo bi = (BlockInfo)blockInfos.get(elem);
+            if (bi == null)
+                bi = makeBlockInfo(ctx, elem);
+            if (newBlockInfos != null)
+                newBlockInfos.put(elem, bi);
             if (start == end) {
                 if (emptyPara == null)
                     emptyPara = new LinkedList();
-                emptyPara.add(makeBlockInfo(ctx, elem));
+                emptyPara.add(bi);
                 continue;
             }
             // System.out.println("Para: [" + start + ", " + end + "]");
-            ret.addAttribute(FLOW_PARAGRAPH, makeBlockInfo(ctx, elem),
-                             start, end);
+            ret.addAttribute(FLOW_PARAGRAPH, bi, start, end);
             if (emptyPara != null) {
                 ret.addAttribute(FLOW_EMPTY_PARAGRAPH, emptyPara, start, end);
                 emptyPara = null;
             }
         }
+        if (newBlockInfos != null)
+            blockInfos = newBlockInfos;
 
         return ret;
     }
@@ -835,6 +953,17 @@ public class SVGFlowRootElementBridge extends SVG12TextElementBridge {
         float lineHeight = getLineHeight(ctx, element, fontSize);
         result.put(LINE_HEIGHT, lineHeight);
 
+        if (previousTPI != null) {
+            // The text runs of an unchanged paragraph may be reused, so
+            // its elements keep the TextPaintInfos the runs refer to.
+            Object tpi = previousTPI.get(element);
+            if ((tpi != null)
+                    && blockInfos.containsKey(getParagraphElement(element))) {
+                result.put(PAINT_INFO, tpi);
+                elemTPI.put(element, tpi);
+            }
+        }
+
         return inheritingMap;
     }
 
@@ -78,7 +78,8 @@ public class XPathPatternContentSelector extends AbstractContentSelector {
     }
 
     /**
-     * Parses the XPath selector.
+     * Parses the XPath selector.  The compiled expression is used for all
+     * the updates, until the selector changes.
      */
     protected void parse() {
         context = new XPathContext();
@@ -117,7 +118,6 @@ public class XPathPatternContentSelector extends AbstractContentSelector {
             selectedContent = new SelectedNodes();
             return true;
         }
-        parse();
         return selectedContent.update();
     }
 
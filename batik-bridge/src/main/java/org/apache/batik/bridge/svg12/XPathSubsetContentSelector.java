@@ -123,35 +123,35 @@ public class XPathSubsetContentSelector extends AbstractContentSelector {
                             }
                         }
                     }
-                } else if (token == Scanner.LEFT_SQUARE_BRACKET) {
+                }
+            } else if (token == Scanner.LEFT_SQUARE_BRACKET) {
+                token = scanner.next();
+                if (token == Scanner.NUMBER) {
+                    int number = Integer.parseInt(scanner.getStringValue());
                     token = scanner.next();
-                    if (token == Scanner.NUMBER) {
-                        int number = Integer.parseInt(scanner.getStringValue());
+                    if (token == Scanner.RIGHT_SQUARE_BRACKET) {
                         token = scanner.next();
-                        if (token == Scanner.RIGHT_SQUARE_BRACKET) {
-                            token = scanner.next();
-                            if (token == Scanner.EOF) {
-                                selectorType = SELECTOR_QNAME;
-                                prefix = null;
-                                localName = name1;
-                                index = number;
-                                return;
-                            }
+                        if (token == Scanner.EOF) {
+                            selectorType = SELECTOR_QNAME;
+                            prefix = null;
+                            localName = name1;
+                            index = number;
+                            return;
                         }
                     }
-                } else if (token == Scanner.LEFT_PARENTHESIS) {
-                    if (name1.equals("id")) {
+                }
+            } else if (token == Scanner.LEFT_PARENTHESIS) {
+                if (name1.equals("id")) {
+                    token = scanner.next();
+                    if (token == Scanner.STRING) {
+                        String id = scanner.getStringValue();
                         token = scanner.next();
-                        if (token == Scanner.STRING) {
-                            String id = scanner.getStringValue();
+                        if (token == Scanner.RIGHT_PARENTHESIS) {
                             token = scanner.next();
-                            if (token == Scanner.RIGHT_PARENTHESIS) {
-                                token = scanner.next();
-                                if (token == Scanner.EOF) {
-                                    selectorType = SELECTOR_ID;
-                                    localName = id;
-                                    return;
-                                }
+                            if (token == Scanner.EOF) {
+                                selectorType = SELECTOR_ID;
+                                localName = id;
+                                return;
                             }
                         }
                     }
@@ -206,6 +206,83 @@ public class XPathSubsetContentSelector extends AbstractContentSelector {
         return selectedContent.update();
     }
 
+    /**
+     * Returns whether this selector selects a child of the bound element
+     * only according to that child, that is, unless it selects the nth
+     * matching element.
+     */
+    boolean isLocal() {
+        return selectorType == SELECTOR_ID
+            || selectorType == SELECTOR_INVALID
+            || index == 0;
+    }
+
+    /**
+     * Returns whether this selector selects the given child of the bound
+     * element, if no previous content element selected it.
+     */
+    boolean matches(Node n) {
+        if (n.getNodeType() != Node.ELEMENT_NODE) {
+            return false;
+        }
+        return matches((Element) n, getNamespaceURI());
+    }
+
+    /**
+     * Adds the given child of the bound element to the selected nodes.
+     */
+    void addSelectedNode(Node n) {
+        getSelectedContent();
+        insertSelectedNode(selectedContent.nodes, n);
+    }
+
+    /**
+     * Removes the given child of the bound element from the selected nodes.
+     */
+    void removeSelectedNode(Node n) {
+        getSelectedContent();
+        selectedContent.nodes.remove(n);
+    }
+
+    /**
+     * Returns the namespace URI of the QName prefix used for selection,
+     * or null.
+     */
+    protected String getNamespaceURI() {
+        if (selectorType != SELECTOR_QNAME || prefix == null) {
+            return null;
+        }
+        return contentElement.lookupNamespaceURI(prefix);
+    }
+
+    /**
+     * Returns whether the given element matches this selector, regardless
+     * of its index.
+     * @param e the element
+     * @param ns the namespace URI of the QName prefix used for selection
+     */
+    protected boolean matches(Element e, String ns) {
+        boolean matched = selectorType == SELECTOR_ANY;
+        switch (selectorType) {
+            case SELECTOR_ID:
+                matched = e.getAttributeNS(null, "id").equals(localName);
+                break;
+            case SELECTOR_QNAME:
+                if (prefix == null) {
+                    matched = e.getNamespaceURI() == null;
+                } else {
+                    if (ns == null) {
+                        // XXX throw invalid prefix exception
+                    } else {
+                        matched = e.getNamespaceURI().equals(ns);
+                    }
+                }
+                matched = matched && localName.equals(e.getLocalName());
+                break;
+        }
+        return matched;
+    }
+
     /**
      * Implementation of NodeList that contains the nodes that matched
      * this selector.
@@ -228,30 +305,13 @@ public class XPathSubsetContentSelector extends AbstractContentSelector {
             ArrayList oldNodes = (ArrayList) nodes.clone();
             nodes.clear();
             int nth = 0;
+            String ns = getNamespaceURI();
             for (Node n = boundElement.getFirstChild(); n != null; n = n.getNextSibling()) {
                 if (n.getNodeType() != Node.ELEMENT_NODE) {
                     continue;
                 }
                 Element e = (Element) n;
-                boolean matched = selectorType == SELECTOR_ANY;
-                switch (selectorType) {
-                    case SELECTOR_ID:
-                        matched = e.getAttributeNS(null, "id").equals(localName);
-                        break;
-                    case SELECTOR_QNAME:
-                        if (prefix == null) {
-                            matched = e.getNamespaceURI() == null;
-                        } else {
-                            String ns = contentElement.lookupNamespaceURI(prefix);
-                            if (ns == null) {
-                                // XXX throw invalid prefix exception
-                            } else {
-                                matched = e.getNamespaceURI().equals(ns);
-                            }
-                        }
-                        matched = matched && localName.equals(e.getLocalName());
-                        break;
-                }
+                boolean matched = matches(e, ns);
                 if (selectorType == SELECTOR_ANY
                         || selectorType == SELECTOR_QNAME) {
                     matched = matched && (index == 0 || ++nth == index);
@@ -317,7 +377,12 @@ public class XPathSubsetContentSelector extends AbstractContentSelector {
          * Returns the end gap of the current lexical unit.
          */
         protected int endGap() {
-            return (current == -1) ? 0 : 1;
+            int result = (current == -1) ? 0 : 1;
+            if (type == STRING) {
+                // The closing quote.
+                result++;
+            }
+            return result;
         }
 
 //         public int next() {
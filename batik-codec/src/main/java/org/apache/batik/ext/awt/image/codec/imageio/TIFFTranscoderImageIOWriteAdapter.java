@@ -28,6 +28,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 
 import org.apache.batik.ext.awt.image.GraphicsUtil;
+import org.apache.batik.ext.awt.image.rendered.CachableRed;
 import org.apache.batik.ext.awt.image.rendered.FormatRed;
 import org.apache.batik.ext.awt.image.spi.ImageWriter;
 import org.apache.batik.ext.awt.image.spi.ImageWriterParams;
@@ -44,7 +45,7 @@ import org.apache.batik.transcoder.image.TIFFTranscoder;
  * @version $Id$
  */
 public class TIFFTranscoderImageIOWriteAdapter 
-    implements TIFFTranscoder.WriteAdapter {
+    implements TIFFTranscoder.StripWriteAdapter {
 
     /**
      * @throws TranscoderException 
@@ -53,6 +54,24 @@ public class TIFFTranscoderImageIOWriteAdapter
      */
     public void writeImage(TIFFTranscoder transcoder, BufferedImage img,
             TranscoderOutput output) throws TranscoderException {
+        write(transcoder, GraphicsUtil.wrap(img), output);
+    }
+
+    /**
+     * @throws TranscoderException
+     * @see org.apache.batik.transcoder.image.TIFFTranscoder.StripWriteAdapter#writeStrips(TIFFTranscoder,
+     * java.awt.image.RenderedImage, org.apache.batik.transcoder.TranscoderOutput)
+     */
+    public void writeStrips(TIFFTranscoder transcoder, RenderedImage img,
+            TranscoderOutput output) throws TranscoderException {
+        write(transcoder, GraphicsUtil.wrap(img), output);
+    }
+
+    /**
+     * Writes the image, converted to interleaved bytes one tile at a time.
+     */
+    private void write(TIFFTranscoder transcoder, CachableRed img,
+            TranscoderOutput output) throws TranscoderException {
 
         TranscodingHints hints = transcoder.getTranscodingHints();
 
@@ -82,8 +101,10 @@ public class TIFFTranscoderImageIOWriteAdapter
 
         try {
             OutputStream ostream = output.getOutputStream();
-            int w = img.getWidth();
-            int h = img.getHeight();
+            // The converted image keeps the tiling of the source, so
+            // strips rendered on demand are converted one at a time.
+            int w = img.getTileWidth();
+            int h = img.getTileHeight();
             SinglePixelPackedSampleModel sppsm;
             sppsm = (SinglePixelPackedSampleModel)img.getSampleModel();
             int bands = sppsm.getNumBands();
@@ -93,7 +114,7 @@ public class TIFFTranscoderImageIOWriteAdapter
             SampleModel sm = new PixelInterleavedSampleModel
                 (DataBuffer.TYPE_BYTE, w, h, bands, w * bands, off);
             
-            RenderedImage rimg = new FormatRed(GraphicsUtil.wrap(img), sm);
+            RenderedImage rimg = new FormatRed(img, sm);
             writer.writeImage(rimg, ostream, params);
             ostream.flush();
         } catch (IOException ex) {
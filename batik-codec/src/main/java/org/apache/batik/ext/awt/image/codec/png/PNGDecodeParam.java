@@ -70,6 +70,9 @@ import org.apache.batik.ext.awt.image.codec.util.PropertyUtil;
  * (GA) images to be output as full-color (GGGA) images, which may
  * simplify further processing and display.
  *
+ * <p> <code>setStripHeight()</code> causes non-interlaced images to be
+ * decoded a strip of rows at a time, as the strips are requested.
+ *
  * <p><b> This class is not a committed part of the JAI API.  It may
  * be removed or changed in future releases of JAI.</b>
  *
@@ -308,6 +311,40 @@ public class PNGDecodeParam implements ImageDecodeParam {
         this.expandGrayAlpha = expandGrayAlpha;
     }
 
+    private int stripHeight = 0;
+
+    /**
+     * Returns the number of rows per decoded strip, or 0 if images
+     * are decoded in one piece.
+     */
+    public int getStripHeight() {
+        return stripHeight;
+    }
+
+    /**
+     * If greater than zero, non-interlaced images taller than
+     * <code>stripHeight</code> rows are not decoded up front.
+     * Instead the output image is tiled in strips of
+     * <code>stripHeight</code> rows, and each strip is inflated and
+     * unfiltered when it is first requested; only the compressed
+     * image data is kept in memory.  Since PNG rows can only be
+     * decoded in order, requesting a strip above the last one decoded
+     * restarts decoding from the top of the image, so callers should
+     * cache the strips they expect to reuse.
+     *
+     * <p> Interlaced images are always decoded in one piece.  The
+     * default is 0.
+     *
+     * @throws IllegalArgumentException if <code>stripHeight</code> is
+     * negative.
+     */
+    public void setStripHeight(int stripHeight) {
+        if (stripHeight < 0) {
+            throw new IllegalArgumentException(PropertyUtil.getString("PNGDecodeParam2"));
+        }
+        this.stripHeight = stripHeight;
+    }
+
     private boolean generateEncodeParam = false;
 
     private PNGEncodeParam encodeParam = null;
@@ -28,6 +28,7 @@ import java.awt.image.SampleModel;
 import java.util.Date;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.zip.Deflater;
 
 /**
  * An instance of <code>ImageEncodeParam</code> for encoding images in
@@ -67,6 +68,23 @@ public abstract class PNGEncodeParam implements ImageEncodeParam {
     /** Constant for use in filtering. */
     public static final int PNG_FILTER_PAETH = 4;
 
+    /**
+     * Filter strategy that tries all five filter types on each row
+     * and keeps the one with the smallest sum of absolute differences.
+     */
+    public static final int FILTER_STRATEGY_ADAPTIVE = 0;
+
+    /**
+     * Filter strategy that only considers the 'none', 'sub' and 'up'
+     * filters, trading some compression for speed.
+     */
+    public static final int FILTER_STRATEGY_FAST = 1;
+
+    /**
+     * Filter strategy that never filters rows.
+     */
+    public static final int FILTER_STRATEGY_NONE = 2;
+
 
     /**
      * Returns an instance of <code>PNGEncodeParam.Palette</code>,
@@ -587,6 +605,56 @@ public abstract class PNGEncodeParam implements ImageEncodeParam {
         return useInterlacing;
     }
 
+    private int compressionLevel = Deflater.BEST_COMPRESSION;
+
+    /**
+     * Sets the deflate compression level used for the image data, from
+     * 0 (no compression) to 9 (best compression).  The default is 9.
+     *
+     * @throws IllegalArgumentException if the level is out of range.
+     */
+    public void setCompressionLevel(int compressionLevel) {
+        if (compressionLevel < Deflater.NO_COMPRESSION ||
+            compressionLevel > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException(PropertyUtil.getString("PNGEncodeParam25"));
+        }
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * Returns the deflate compression level used for the image data.
+     */
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    private int filterStrategy = FILTER_STRATEGY_ADAPTIVE;
+
+    /**
+     * Sets the strategy used by the default <code>filterRow</code>
+     * implementation to choose the filter type of each row.  This must
+     * be one of <code>FILTER_STRATEGY_ADAPTIVE</code> (the default),
+     * <code>FILTER_STRATEGY_FAST</code> or
+     * <code>FILTER_STRATEGY_NONE</code>.
+     *
+     * @throws IllegalArgumentException if the strategy is unknown.
+     */
+    public void setFilterStrategy(int filterStrategy) {
+        if (filterStrategy != FILTER_STRATEGY_ADAPTIVE &&
+            filterStrategy != FILTER_STRATEGY_FAST &&
+            filterStrategy != FILTER_STRATEGY_NONE) {
+            throw new IllegalArgumentException(PropertyUtil.getString("PNGEncodeParam26"));
+        }
+        this.filterStrategy = filterStrategy;
+    }
+
+    /**
+     * Returns the strategy used to choose the filter type of each row.
+     */
+    public int getFilterStrategy() {
+        return filterStrategy;
+    }
+
     // bKGD chunk - delegate to subclasses
 
     // In JAI 1.0, 'backgroundSet' was private.  The JDK 1.2 compiler
@@ -1336,7 +1404,10 @@ public abstract class PNGEncodeParam implements ImageEncodeParam {
      * encoding with each of the filter types, and computes the sum of
      * absolute values of the differences between the raw bytes of the
      * current row and the predicted values.  The index of the filter
-     * producing the smallest result is returned.
+     * producing the smallest result is returned.  When the filter
+     * strategy is <code>FILTER_STRATEGY_FAST</code> only the 'none',
+     * 'sub' and 'up' filters are tried, and when it is
+     * <code>FILTER_STRATEGY_NONE</code> the row is left unfiltered.
      *
      * <p> As an example, to perform only 'sub' filtering, this method
      * could be implemented (non-optimally) as follows:
@@ -1379,6 +1450,17 @@ public abstract class PNGEncodeParam implements ImageEncodeParam {
                          int bytesPerRow,
                          int bytesPerPixel) {
 
+        switch (filterStrategy) {
+        case FILTER_STRATEGY_FAST:
+            return filterRowFast(currRow, prevRow, scratchRows,
+                                 bytesPerRow, bytesPerPixel);
+        case FILTER_STRATEGY_NONE:
+            System.arraycopy(currRow, bytesPerPixel,
+                             scratchRows[0], bytesPerPixel,
+                             bytesPerRow);
+            return PNG_FILTER_NONE;
+        }
+
         int [] badness = {0, 0, 0, 0, 0};
         int curr, left, up, upleft, diff;
         int pa, pb, pc;
@@ -1502,4 +1584,51 @@ public abstract class PNGEncodeParam implements ImageEncodeParam {
 
         return filterType;
     }
+
+    /**
+     * Chooses between the 'none', 'sub' and 'up' filters in a single
+     * pass over the row.  The sum of absolute differences is computed
+     * on the filtered bytes taken as signed values, which is a better
+     * estimate of their compressibility than the raw byte values, and
+     * only the winning filter is written to <code>scratchRows</code>.
+     */
+    private static int filterRowFast(byte[] currRow,
+                                     byte[] prevRow,
+                                     byte[][] scratchRows,
+                                     int bytesPerRow,
+                                     int bytesPerPixel) {
+        int end = bytesPerRow + bytesPerPixel;
+        int noneSum = 0;
+        int subSum  = 0;
+        int upSum   = 0;
+        for (int i = bytesPerPixel; i < end; i++) {
+            int curr = currRow[i];
+            int diff = (byte)(curr - currRow[i - bytesPerPixel]);
+            noneSum += (curr < 0) ? -curr : curr;
+            subSum  += (diff < 0) ? -diff : diff;
+            diff = (byte)(curr - prevRow[i]);
+            upSum   += (diff < 0) ? -diff : diff;
+        }
+
+        if (noneSum <= subSum && noneSum <= upSum) {
+            System.arraycopy(currRow, bytesPerPixel,
+                             scratchRows[0], bytesPerPixel,
+                             bytesPerRow);
+            return PNG_FILTER_NONE;
+        }
+
+        byte[] out;
+        if (subSum <= upSum) {
+            out = scratchRows[PNG_FILTER_SUB];
+            for (int i = bytesPerPixel; i < end; i++) {
+                out[i] = (byte)(currRow[i] - currRow[i - bytesPerPixel]);
+            }
+            return PNG_FILTER_SUB;
+        }
+        out = scratchRows[PNG_FILTER_UP];
+        for (int i = bytesPerPixel; i < end; i++) {
+            out[i] = (byte)(currRow[i] - prevRow[i]);
+        }
+        return PNG_FILTER_UP;
+    }
 }
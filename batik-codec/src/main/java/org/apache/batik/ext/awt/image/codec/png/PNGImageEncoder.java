@@ -22,10 +22,12 @@ import org.apache.batik.ext.awt.image.codec.util.ImageEncoderImpl;
 
 import java.awt.Rectangle;
 import java.awt.image.ColorModel;
+import java.awt.image.DataBufferInt;
 import java.awt.image.IndexColorModel;
 import java.awt.image.Raster;
 import java.awt.image.RenderedImage;
 import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutput;
 import java.io.DataOutputStream;
@@ -341,18 +343,25 @@ public class PNGImageEncoder extends ImageEncoderImpl {
                             int xOffset,     int yOffset,
                             int xSkip,       int ySkip)
         throws IOException {
-        int minX   = ras.getMinX();
-        int minY   = ras.getMinY();
-        int width  = ras.getWidth();
-        int height = ras.getHeight();
+        int bytesPerRow = startPass(ras.getWidth(), xOffset, xSkip);
+        if (bytesPerRow == 0) {
+            return;
+        }
+        encodeRows(os, ras, xOffset, yOffset, xSkip, ySkip, bytesPerRow);
+    }
 
+    /**
+     * Allocates the row buffers for a pass over rows of the given width.
+     * @return the number of bytes in each row of the pass, which is
+     *         zero if the pass is empty.
+     */
+    private int startPass(int width, int xOffset, int xSkip) {
         xOffset *= numBands;
         xSkip   *= numBands;
 
         int samplesPerByte = 8/bitDepth;
 
         int numSamples = width*numBands;
-        int[] samples = new int[numSamples];
 
         int pixels = (numSamples - xOffset + xSkip - 1)/xSkip;
         int bytesPerRow = pixels*numBands;
@@ -363,7 +372,7 @@ public class PNGImageEncoder extends ImageEncoderImpl {
         }
 
         if (bytesPerRow == 0) {
-            return;
+            return 0;
         }
 
         currRow = new byte[bytesPerRow + bpp];
@@ -371,9 +380,67 @@ public class PNGImageEncoder extends ImageEncoderImpl {
 
         filteredRows = new byte[5][bytesPerRow + bpp];
 
+        return bytesPerRow;
+    }
+
+    /**
+     * Encodes the rows of <code>ras</code> that belong to the current
+     * pass.  The previous row is carried over between calls so a pass
+     * can be fed one strip at a time.
+     */
+    private void encodeRows(OutputStream os, Raster ras,
+                            int xOffset,     int yOffset,
+                            int xSkip,       int ySkip,
+                            int bytesPerRow)
+        throws IOException {
+        int minX   = ras.getMinX();
+        int minY   = ras.getMinY();
+        int width  = ras.getWidth();
+        int height = ras.getHeight();
+
+        int[] packedData = getPackedData(ras);
+        SinglePixelPackedSampleModel packedSM = null;
+        int[] bitMasks   = null;
+        int[] bitOffsets = null;
+        int packedOffset = 0;
+        if (packedData != null) {
+            packedSM   = (SinglePixelPackedSampleModel)ras.getSampleModel();
+            bitMasks   = packedSM.getBitMasks();
+            bitOffsets = packedSM.getBitOffsets();
+            packedOffset = ((DataBufferInt)ras.getDataBuffer()).getOffset();
+        }
+        int pixelOffset = xOffset;
+        int pixelSkip   = xSkip;
+
+        xOffset *= numBands;
+        xSkip   *= numBands;
+
+        int samplesPerByte = 8/bitDepth;
+
+        int numSamples = width*numBands;
+        int[] samples = new int[numSamples];
+
         int maxValue = (1 << bitDepth) - 1;
 
         for (int row = minY + yOffset; row < minY + height; row += ySkip) {
+            if (packedData != null) {
+                // Unpack the 8 bit samples straight from the int
+                // data, avoiding the per-sample getPixels() copy.
+                int base = packedOffset + packedSM.getOffset
+                    (minX - ras.getSampleModelTranslateX(),
+                     row  - ras.getSampleModelTranslateY());
+                int count = bpp;
+                for (int x = pixelOffset; x < width; x += pixelSkip) {
+                    int pixel = packedData[base + x];
+                    for (int b = 0; b < numBands; b++) {
+                        currRow[count++] =
+                            (byte)((pixel & bitMasks[b]) >>> bitOffsets[b]);
+                    }
+                }
+                filterAndWriteRow(os, bytesPerRow);
+                continue;
+            }
+
             ras.getPixels(minX, row, width, 1, samples);
 
             if (compressGray) {
@@ -430,61 +497,67 @@ public class PNGImageEncoder extends ImageEncoderImpl {
                 break;
             }
 
-            // Perform filtering
-            int filterType = param.filterRow(currRow, prevRow,
-                                             filteredRows,
-                                             bytesPerRow, bpp);
+            filterAndWriteRow(os, bytesPerRow);
+        }
+    }
 
-            os.write(filterType);
-            os.write(filteredRows[filterType], bpp, bytesPerRow);
+    /**
+     * Filters the current row, writes it and makes it the previous row.
+     */
+    private void filterAndWriteRow(OutputStream os, int bytesPerRow)
+        throws IOException {
+        // Perform filtering
+        int filterType = param.filterRow(currRow, prevRow,
+                                         filteredRows,
+                                         bytesPerRow, bpp);
+
+        os.write(filterType);
+        os.write(filteredRows[filterType], bpp, bytesPerRow);
+
+        // Swap current and previous rows
+        byte[] swap = currRow;
+        currRow = prevRow;
+        prevRow = swap;
+    }
 
-            // Swap current and previous rows
-            byte[] swap = currRow;
-            currRow = prevRow;
-            prevRow = swap;
+    /**
+     * Returns the backing int array of the raster if its samples can be
+     * read directly as 8 bit fields of packed ints, or null otherwise.
+     */
+    private int[] getPackedData(Raster ras) {
+        if (bitDepth != 8 || bitShift != 0 || compressGray) {
+            return null;
+        }
+        if (!(ras.getSampleModel() instanceof SinglePixelPackedSampleModel) ||
+            !(ras.getDataBuffer() instanceof DataBufferInt)) {
+            return null;
+        }
+        SinglePixelPackedSampleModel sppsm =
+            (SinglePixelPackedSampleModel)ras.getSampleModel();
+        int[] masks   = sppsm.getBitMasks();
+        int[] offsets = sppsm.getBitOffsets();
+        if (masks.length != numBands) {
+            return null;
         }
+        for (int b = 0; b < numBands; b++) {
+            if ((masks[b] >>> offsets[b]) != 0xff) {
+                return null;
+            }
+        }
+        return ((DataBufferInt)ras.getDataBuffer()).getData();
     }
 
     private void writeIDAT() throws IOException {
         IDATOutputStream ios = new IDATOutputStream(dataOutput, 8192);
         DeflaterOutputStream dos =
-            new DeflaterOutputStream(ios, new Deflater(9));
-
-        // Future work - don't convert entire image to a Raster It
-        // might seem that you could just call image.getData() but
-        // 'BufferedImage.subImage' doesn't appear to set the Width
-        // and height properly of the Child Raster, so the Raster
-        // you get back here appears larger than it should.
-        // This solves that problem by bounding the raster to the
-        // image's bounds...
-        Raster ras = image.getData(new Rectangle(image.getMinX(),
-                                                 image.getMinY(),
-                                                 image.getWidth(),
-                                                 image.getHeight()));
-        // System.out.println("Image: [" +
-        //                    image.getMinY()  + ", " +
-        //                    image.getMinX()  + ", " +
-        //                    image.getWidth()  + ", " +
-        //                    image.getHeight() + "]");
-        // System.out.println("Ras: [" +
-        //                    ras.getMinX()  + ", " +
-        //                    ras.getMinY()  + ", " +
-        //                    ras.getWidth()  + ", " +
-        //                    ras.getHeight() + "]");
-
-        if (skipAlpha) {
-            int numBands = ras.getNumBands() - 1;
-            int[] bandList = new int[numBands];
-            for (int i = 0; i < numBands; i++) {
-                bandList[i] = i;
-            }
-            ras = ras.createChild(0, 0,
-                                  ras.getWidth(), ras.getHeight(),
-                                  0, 0,
-                                  bandList);
-        }
+            new DeflaterOutputStream(ios,
+                                    new Deflater(param.getCompressionLevel()));
 
         if (interlace) {
+            // Interlacing needs random access to every row, so the
+            // image has to be converted to a single Raster.
+            Raster ras = getRows(image.getMinY(), image.getHeight());
+
             // Interlacing pass 1
             encodePass(dos, ras, 0, 0, 8, 8);
             // Interlacing pass 2
@@ -500,7 +573,7 @@ public class PNGImageEncoder extends ImageEncoderImpl {
             // Interlacing pass 7
             encodePass(dos, ras, 0, 1, 1, 2);
         } else {
-            encodePass(dos, ras, 0, 0, 1, 1);
+            encodeStrips(dos);
         }
 
         dos.finish();
@@ -509,6 +582,72 @@ public class PNGImageEncoder extends ImageEncoderImpl {
         ios.close();
     }
 
+    /**
+     * The number of bytes of image data fetched at once when encoding
+     * an untiled image strip by strip.
+     */
+    private static final int STRIP_SIZE = 1 << 20;
+
+    /**
+     * Encodes a non interlaced image one strip of rows at a time, so
+     * only a strip of the image is held as a Raster while encoding.
+     * Strips follow the tile grid of the image so each tile is
+     * requested once; untiled images are read in strips of about
+     * <code>STRIP_SIZE</code> bytes.
+     */
+    private void encodeStrips(OutputStream os) throws IOException {
+        int minY = image.getMinY();
+        int maxY = minY + image.getHeight();
+
+        int bytesPerRow = startPass(image.getWidth(), 0, 1);
+        if (bytesPerRow == 0) {
+            return;
+        }
+
+        int tileH = image.getTileHeight();
+        int tileGridY = image.getTileGridYOffset();
+        if (image.getNumYTiles() <= 1) {
+            tileH = Math.max(1, STRIP_SIZE / (bytesPerRow + bpp));
+            tileGridY = minY;
+        }
+
+        int y = minY;
+        while (y < maxY) {
+            int ty = y - tileGridY;
+            ty = (ty >= 0) ? ty / tileH : (ty - tileH + 1) / tileH;
+            int end = Math.min(maxY, tileGridY + (ty + 1) * tileH);
+            encodeRows(os, getRows(y, end - y), 0, 0, 1, 1, bytesPerRow);
+            y = end;
+        }
+    }
+
+    /**
+     * Returns the given rows of the image as a Raster, without the
+     * alpha band when it is not encoded.
+     */
+    private Raster getRows(int y, int h) {
+        // 'BufferedImage.subImage' doesn't appear to set the Width
+        // and height properly of the Child Raster, so the Raster
+        // you get back from image.getData() could appear larger than
+        // it should.  This solves that problem by bounding the
+        // raster to the image's bounds...
+        Raster ras = image.getData(new Rectangle(image.getMinX(), y,
+                                                 image.getWidth(), h));
+
+        if (skipAlpha) {
+            int numBands = ras.getNumBands() - 1;
+            int[] bandList = new int[numBands];
+            for (int i = 0; i < numBands; i++) {
+                bandList[i] = i;
+            }
+            ras = ras.createChild(ras.getMinX(), ras.getMinY(),
+                                  ras.getWidth(), ras.getHeight(),
+                                  ras.getMinX(), ras.getMinY(),
+                                  bandList);
+        }
+        return ras;
+    }
+
     private void writeIEND() throws IOException {
         ChunkStream cs = new ChunkStream("IEND");
         cs.writeToStream(dataOutput);
@@ -45,6 +45,7 @@ import java.util.GregorianCalendar;
 import java.util.TimeZone;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.Collections;
@@ -297,6 +298,16 @@ public class PNGRed extends AbstractRed {
     private WritableRaster theTile;
     private Rectangle bounds;
 
+    // State for images decoded strip by strip (theTile is null then).
+    private int stripHeight;
+    private int stripDepth;
+    private int stripStride;
+    private int nextRow;
+    private byte[] currRow;
+    private byte[] priorRow;
+    private WritableRaster rowRaster;
+    private Inflater inflater;
+
     /** A Hashtable containing the image properties. */
     private Map properties = new HashMap();
 
@@ -375,6 +386,7 @@ public class PNGRed extends AbstractRed {
             output8BitGray = true;
         }
         this.generateEncodeParam = decodeParam.getGenerateEncodeParam();
+        this.stripHeight = decodeParam.getStripHeight();
 
         if (emitProperties) {
             properties.put("file_type", "PNG v. 1.0");
@@ -748,13 +760,6 @@ public class PNGRed extends AbstractRed {
             encodeParam.setCompressedText(ztextArray);
         }
 
-        // Parse prior IDAT chunks
-        InputStream seqStream =
-            new SequenceInputStream( Collections.enumeration( streamVec ));
-        InputStream infStream =
-            new InflaterInputStream(seqStream, new Inflater());
-        dataStream = new DataInputStream(infStream);
-
         // Create an empty WritableRaster
         int depth = bitDepth;
         if ((colorType == PNG_COLOR_GRAY) &&
@@ -771,10 +776,6 @@ public class PNGRed extends AbstractRed {
         int scanlineStride =
             (depth == 16) ? (bytesPerRow/2) : bytesPerRow;
 
-        theTile = createRaster(width, height, outputBands,
-                               scanlineStride,
-                               depth);
-
         if (performGammaCorrection && (gammaLut == null)) {
             initGammaLut(bitDepth);
         }
@@ -784,15 +785,29 @@ public class PNGRed extends AbstractRed {
             initGrayLut(bitDepth);
         }
 
-        decodeImage(interlaceMethod == 1);
+        SampleModel sm;
+        if ((stripHeight > 0) && (interlaceMethod == 0) &&
+            (height > stripHeight)) {
+            // Keep the IDAT chunks, rows are decoded by getTile.
+            stripDepth  = depth;
+            stripStride = scanlineStride;
+            sm = createRaster(width, 1, outputBands, scanlineStride, depth)
+                .getSampleModel()
+                .createCompatibleSampleModel(width, stripHeight);
+        } else {
+            theTile = createRaster(width, height, outputBands,
+                                   scanlineStride,
+                                   depth);
+
+            openDataStream();
+            decodeImage(interlaceMethod == 1);
 
-        // Free resources associated with compressed data.
-        dataStream.close();
-        infStream.close();
-        seqStream.close();
-        streamVec = null;
+            // Free resources associated with compressed data.
+            closeDataStream();
+            streamVec = null;
 
-        SampleModel sm = theTile.getSampleModel();
+            sm = theTile.getSampleModel();
+        }
         ColorModel  cm;
 
         if ((colorType == PNG_COLOR_PALETTE) && !expandPalette) {
@@ -1784,35 +1799,7 @@ public class PNGRed extends AbstractRed {
         for (srcY = 0, dstY = yOffset;
              srcY < passHeight;
              srcY++, dstY += yStep) {
-            // Read the filter type byte and a row of data
-            int filter = 0;
-            try {
-                filter = dataStream.read();
-                dataStream.readFully(curr, 0, bytesPerRow);
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-
-            switch (filter) {
-            case PNG_FILTER_NONE:
-                break;
-            case PNG_FILTER_SUB:
-                decodeSubFilter(curr, bytesPerRow, bytesPerPixel);
-                break;
-            case PNG_FILTER_UP:
-                decodeUpFilter(curr, prior, bytesPerRow);
-                break;
-            case PNG_FILTER_AVERAGE:
-                decodeAverageFilter(curr, prior, bytesPerRow, bytesPerPixel);
-                break;
-            case PNG_FILTER_PAETH:
-                decodePaethFilter(curr, prior, bytesPerRow, bytesPerPixel);
-                break;
-            default:
-                // Error -- unknown filter type
-                String msg = PropertyUtil.getString("PNGImageDecoder16");
-                throw new RuntimeException(msg);
-            }
+            readRow(curr, prior, bytesPerRow);
 
             // Copy data into passRow byte by byte
             if (bitDepth < 16) {
@@ -1836,6 +1823,142 @@ public class PNGRed extends AbstractRed {
         }
     }
 
+    /**
+     * Reads the next row of <code>bytesPerRow</code> bytes from the
+     * compressed data into <code>curr</code> and undoes its filter,
+     * <code>prior</code> holding the previous row of the pass.
+     */
+    private void readRow(byte[] curr, byte[] prior, int bytesPerRow) {
+        // Read the filter type byte and a row of data
+        int filter = 0;
+        try {
+            filter = dataStream.read();
+            dataStream.readFully(curr, 0, bytesPerRow);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        switch (filter) {
+        case PNG_FILTER_NONE:
+            break;
+        case PNG_FILTER_SUB:
+            decodeSubFilter(curr, bytesPerRow, bytesPerPixel);
+            break;
+        case PNG_FILTER_UP:
+            decodeUpFilter(curr, prior, bytesPerRow);
+            break;
+        case PNG_FILTER_AVERAGE:
+            decodeAverageFilter(curr, prior, bytesPerRow, bytesPerPixel);
+            break;
+        case PNG_FILTER_PAETH:
+            decodePaethFilter(curr, prior, bytesPerRow, bytesPerPixel);
+            break;
+        default:
+            // Error -- unknown filter type
+            String msg = PropertyUtil.getString("PNGImageDecoder16");
+            throw new RuntimeException(msg);
+        }
+    }
+
+    /**
+     * Starts inflating the IDAT chunks from the beginning.
+     */
+    private void openDataStream() {
+        for (Object aStreamVec : streamVec) {
+            ((ByteArrayInputStream) aStreamVec).reset();
+        }
+        InputStream seqStream =
+            new SequenceInputStream( Collections.enumeration( streamVec ));
+        inflater = new Inflater();
+        dataStream = new DataInputStream
+            (new InflaterInputStream(seqStream, inflater));
+    }
+
+    /**
+     * Frees the inflater used by the current data stream.
+     */
+    private void closeDataStream() {
+        try {
+            dataStream.close();
+        } catch (IOException ioe) {
+        }
+        inflater.end();
+        dataStream = null;
+        inflater = null;
+    }
+
+    /**
+     * Decodes strip <code>tileY</code> of an image decoded on demand.
+     * Rows are read in order, so decoding continues from the last
+     * strip requested when possible and restarts from the top of the
+     * image otherwise.
+     */
+    private synchronized Raster decodeStrip(int tileY) {
+        int width = bounds.width;
+        int y0 = tileY*stripHeight;
+        int h = Math.min(stripHeight, bounds.height - y0);
+        int bytesPerRow = (inputBands*width*bitDepth + 7)/8;
+
+        if ((dataStream == null) || (y0 < nextRow)) {
+            if (dataStream != null) {
+                closeDataStream();
+            }
+            openDataStream();
+            nextRow = 0;
+            if (currRow == null) {
+                currRow  = new byte[bytesPerRow];
+                priorRow = new byte[bytesPerRow];
+                int eltsPerRow =
+                    (bitDepth == 16) ? bytesPerRow/2 : bytesPerRow;
+                rowRaster = createRaster(width, 1, inputBands,
+                                         eltsPerRow, bitDepth);
+            } else {
+                // The first row has no prior row.
+                Arrays.fill(priorRow, (byte)0);
+            }
+        }
+
+        byte[] curr  = currRow;
+        byte[] prior = priorRow;
+        byte[] tmp;
+        // Skipped rows still feed the filters of the following ones.
+        while (nextRow < y0) {
+            readRow(curr, prior, bytesPerRow);
+            tmp = prior; prior = curr; curr = tmp;
+            nextRow++;
+        }
+
+        WritableRaster strip = createRaster(width, stripHeight, outputBands,
+                                            stripStride, stripDepth);
+        DataBuffer dataBuffer = rowRaster.getDataBuffer();
+        for (int y = 0; y < h; y++) {
+            readRow(curr, prior, bytesPerRow);
+            if (bitDepth < 16) {
+                System.arraycopy(curr, 0,
+                                 ((DataBufferByte)dataBuffer).getData(), 0,
+                                 bytesPerRow);
+            } else {
+                short[] shortData = ((DataBufferUShort)dataBuffer).getData();
+                int idx = 0;
+                for (int j = 0; j < shortData.length; j++) {
+                    shortData[j] =
+                        (short)((curr[idx] << 8) | (curr[idx + 1] & 0xff));
+                    idx += 2;
+                }
+            }
+            processPixels(postProcess, rowRaster, strip, 0, 1, y, width);
+            tmp = prior; prior = curr; curr = tmp;
+            nextRow++;
+        }
+        currRow  = curr;
+        priorRow = prior;
+
+        if (nextRow == bounds.height) {
+            closeDataStream();
+        }
+        return strip.createWritableTranslatedChild(0, y0);
+    }
+
     private void decodeImage(boolean useInterlacing) {
         int width = bounds.width;
         int height = bounds.height;
@@ -1854,12 +1977,24 @@ public class PNGRed extends AbstractRed {
     }
 
     public WritableRaster copyData(WritableRaster wr) {
+        if (theTile == null) {
+            copyToRaster(wr);
+            return wr;
+        }
         GraphicsUtil.copyData(theTile, wr);
         return wr;
     }
 
     // RenderedImage stuff
     public Raster getTile(int tileX, int tileY) {
+        if (theTile == null) {
+            if ((tileX != 0) || (tileY < 0) || (tileY >= numYTiles)) {
+                // Error -- bad tile requested
+                String msg = PropertyUtil.getString("PNGImageDecoder17");
+                throw new IllegalArgumentException(msg);
+            }
+            return decodeStrip(tileY);
+        }
         if (tileX != 0 || tileY != 0) {
             // Error -- bad tile requested
             String msg = PropertyUtil.getString("PNGImageDecoder17");
@@ -22,16 +22,20 @@ import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
 import java.awt.image.WritableRaster;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
 
 import org.apache.batik.ext.awt.image.GraphicsUtil;
+import org.apache.batik.ext.awt.image.codec.util.MappedFileSeekableStream;
 import org.apache.batik.ext.awt.image.renderable.DeferRable;
 import org.apache.batik.ext.awt.image.renderable.Filter;
 import org.apache.batik.ext.awt.image.renderable.RedRable;
 import org.apache.batik.ext.awt.image.rendered.Any2sRGBRed;
 import org.apache.batik.ext.awt.image.rendered.CachableRed;
 import org.apache.batik.ext.awt.image.rendered.FormatRed;
+import org.apache.batik.ext.awt.image.rendered.TileCacheRed;
 import org.apache.batik.ext.awt.image.spi.ImageTagRegistry;
 import org.apache.batik.ext.awt.image.spi.MagicNumberRegistryEntry;
 import org.apache.batik.util.ParsedURL;
@@ -46,6 +50,23 @@ public class PNGRegistryEntry
 
     static final byte [] signature = {(byte)0x89, 80, 78, 71, 13, 10, 26, 10};
 
+    /**
+     * Local files at least this large are read through a memory
+     * mapping rather than the stream opened by the registry.
+     */
+    static final long MIN_MAPPED_LENGTH = 64 * 1024;
+
+    /**
+     * Rows per strip of images decoded on demand.
+     */
+    static final int STRIP_HEIGHT = 64;
+
+    /**
+     * Non-interlaced images with at least this many pixels are decoded
+     * on demand, a strip at a time, instead of into one raster.
+     */
+    static final long MIN_STRIP_DECODE_PIXELS = 1024 * 1024;
+
     public PNGRegistryEntry() {
         super("PNG", "png", "image/png", 0, signature);
     }
@@ -64,7 +85,7 @@ public class PNGRegistryEntry
                                boolean needRawData) {
 
         final DeferRable  dr  = new DeferRable();
-        final InputStream is  = inIS;
+        final InputStream is  = openMappedFile(inIS, origURL);
         final boolean     raw = needRawData;
         final String      errCode;
         final Object []   errParam;
@@ -89,18 +110,28 @@ public class PNGRegistryEntry
                             param.setPerformGammaCorrection(true);
                             param.setDisplayExponent(2.2f); // sRGB gamma
                         }
+                        param.setStripHeight(STRIP_HEIGHT);
                         CachableRed cr = new PNGRed(is, param);
                         dr.setBounds(new Rectangle2D.Double
                                      (0, 0, cr.getWidth(), cr.getHeight()));
 
+                        boolean onDemand = (cr.getNumYTiles() > 1) &&
+                            ((long)cr.getWidth() * cr.getHeight() >=
+                             MIN_STRIP_DECODE_PIXELS);
                         cr = new Any2sRGBRed(cr);
                         cr = new FormatRed(cr, GraphicsUtil.sRGB_Unpre);
-                        WritableRaster wr = (WritableRaster)cr.getData();
-                        ColorModel cm = cr.getColorModel();
-                        BufferedImage image;
-                        image = new BufferedImage
-                            (cm, wr, cm.isAlphaPremultiplied(), null);
-                        cr = GraphicsUtil.wrap(image);
+                        if (onDemand) {
+                            // Only the strips rendering touches get
+                            // decoded, and they live in the tile cache.
+                            cr = new TileCacheRed(cr);
+                        } else {
+                            WritableRaster wr = (WritableRaster)cr.getData();
+                            ColorModel cm = cr.getColorModel();
+                            BufferedImage image;
+                            image = new BufferedImage
+                                (cm, wr, cm.isAlphaPremultiplied(), null);
+                            cr = GraphicsUtil.wrap(image);
+                        }
                         filt = new RedRable(cr);
                     } catch (IOException ioe) {
                         filt = ImageTagRegistry.getBrokenLinkImage
@@ -121,4 +152,44 @@ public class PNGRegistryEntry
         t.start();
         return dr;
     }
+
+    /**
+     * Returns a memory mapped stream over the local file <code>url</code>
+     * refers to, positioned just like <code>is</code>, or
+     * <code>is</code> itself if the file can't be mapped.  The file is
+     * only used if it starts with the PNG signature, so streams the
+     * registry decoded (gzip for instance) are left alone.
+     */
+    static InputStream openMappedFile(InputStream is, ParsedURL url) {
+        if (url == null || !"file".equals(url.getProtocol())) {
+            return is;
+        }
+        MappedFileSeekableStream mfss = null;
+        try {
+            File file = new File(new URI(url.toString()));
+            if (file.length() < MIN_MAPPED_LENGTH) {
+                return is;
+            }
+            mfss = new MappedFileSeekableStream(file);
+            for (byte b : signature) {
+                if (mfss.read() != (b & 0xff)) {
+                    mfss.close();
+                    return is;
+                }
+            }
+            // The registry only peeked at the stream, so both start
+            // at the beginning of the image.
+            mfss.seek(0);
+            is.close();
+            return mfss;
+        } catch (Exception e) {
+            if (mfss != null) {
+                try {
+                    mfss.close();
+                } catch (IOException ioe) {
+                }
+            }
+            return is;
+        }
+    }
 }
@@ -19,6 +19,7 @@
 package org.apache.batik.ext.awt.image.codec.png;
 
 import java.awt.image.BufferedImage;
+import java.awt.image.RenderedImage;
 import java.io.IOException;
 import java.io.OutputStream;
 
@@ -35,7 +36,7 @@ import org.apache.batik.transcoder.image.PNGTranscoder;
  * @version $Id$
  */
 public class PNGTranscoderInternalCodecWriteAdapter implements
-        PNGTranscoder.WriteAdapter {
+        PNGTranscoder.StripWriteAdapter {
 
     /**
      * @throws TranscoderException
@@ -54,6 +55,28 @@ public class PNGTranscoderInternalCodecWriteAdapter implements
                 //PNGEncodeParam.Palette can handle these numbers only.
                 img = IndexImage.getIndexedImage(img,1<<n);
         }
+        encode(transcoder, img, output);
+    }
+
+    /**
+     * @throws TranscoderException
+     * @see org.apache.batik.transcoder.image.PNGTranscoder.StripWriteAdapter#writeStrips(
+     * org.apache.batik.transcoder.image.PNGTranscoder, java.awt.image.RenderedImage,
+     * org.apache.batik.transcoder.TranscoderOutput)
+     */
+    public void writeStrips(PNGTranscoder transcoder, RenderedImage img,
+            TranscoderOutput output) throws TranscoderException {
+        // PNGImageEncoder reads non interlaced images one tile row at
+        // a time, so the strips are encoded as they are rendered.
+        encode(transcoder, img, output);
+    }
+
+    /**
+     * Encodes the image using the parameters given by the transcoder hints.
+     */
+    private void encode(PNGTranscoder transcoder, RenderedImage img,
+            TranscoderOutput output) throws TranscoderException {
+        TranscodingHints hints = transcoder.getTranscodingHints();
 
         PNGEncodeParam params = PNGEncodeParam.getDefaultEncodeParam(img);
         if (params instanceof PNGEncodeParam.RGB) {
@@ -78,6 +101,20 @@ public class PNGTranscoderInternalCodecWriteAdapter implements
         }
 
 
+        if (hints.containsKey(PNGTranscoder.KEY_COMPRESSION_LEVEL)) {
+            int level = (Integer) hints.get(PNGTranscoder.KEY_COMPRESSION_LEVEL);
+            params.setCompressionLevel(level);
+        }
+
+        if (hints.containsKey(PNGTranscoder.KEY_FILTER_STRATEGY)) {
+            String strategy = (String) hints.get(PNGTranscoder.KEY_FILTER_STRATEGY);
+            if (PNGTranscoder.VALUE_FILTER_STRATEGY_FAST.equals(strategy)) {
+                params.setFilterStrategy(PNGEncodeParam.FILTER_STRATEGY_FAST);
+            } else if (PNGTranscoder.VALUE_FILTER_STRATEGY_NONE.equals(strategy)) {
+                params.setFilterStrategy(PNGEncodeParam.FILTER_STRATEGY_NONE);
+            }
+        }
+
         float PixSzMM = transcoder.getUserAgent().getPixelUnitToMillimeter();
         // num Pixs in 1 Meter
         int numPix      = (int)((1000/PixSzMM)+0.5);
@@ -51,7 +51,7 @@ public final class FileCacheSeekableStream extends SeekableStream {
     private RandomAccessFile cache;
 
     /** The length of the read buffer. */
-    private int bufLen = 1024;
+    private int bufLen = 8192;
 
     /** The read buffer. */
     private byte[] buf = new byte[bufLen];
@@ -108,7 +108,7 @@ public final class FileCacheSeekableStream extends SeekableStream {
                 return length;
             }
 
-            cache.setLength(cache.length() + nbytes);
+            // Writing at the end of the file extends it.
             cache.write(buf, 0, nbytes);
             len -= nbytes;
             length += nbytes;
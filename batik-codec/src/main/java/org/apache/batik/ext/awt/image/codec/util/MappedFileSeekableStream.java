@@ -0,0 +1,195 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+package org.apache.batik.ext.awt.image.codec.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A subclass of <code>SeekableStream</code> that reads a local file
+ * through a read-only memory mapping of its contents.  Reads, including
+ * single byte reads, are served straight from the mapping without any
+ * system call or intermediate buffer, and seeking in either direction
+ * is free.
+ *
+ * <p> Only files smaller than 2GB can be mapped.  The mapping is
+ * released when the stream is garbage collected, which on some
+ * platforms prevents the file from being deleted until then.
+ *
+ * <p> The <code>mark()</code> and <code>reset()</code> methods are
+ * supported.
+ *
+ * @version $Id$
+ */
+public final class MappedFileSeekableStream extends SeekableStream {
+
+    /** The mapped file contents, null once the stream is closed. */
+    private MappedByteBuffer buffer;
+
+    /** The file length. */
+    private int length;
+
+    /** Position of first unread byte. */
+    private long pointer = 0;
+
+    /**
+     * Constructs a <code>MappedFileSeekableStream</code> that reads the
+     * given file.
+     *
+     * @exception IOException if the file can't be opened or is too large
+     *            to be mapped.
+     */
+    public MappedFileSeekableStream(File file) throws IOException {
+        FileInputStream fis = new FileInputStream(file);
+        try {
+            FileChannel channel = fis.getChannel();
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(PropertyUtil.getString("MappedFileSeekableStream0"));
+            }
+            this.length = (int)size;
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } finally {
+            // The mapping stays valid after the channel is closed.
+            fis.close();
+        }
+    }
+
+    /**
+     * Returns the length of the file in bytes.
+     */
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Returns <code>true</code> since all
+     * <code>MappedFileSeekableStream</code> instances support seeking
+     * backwards.
+     */
+    public boolean canSeekBackwards() {
+        return true;
+    }
+
+    /**
+     * Returns the current offset in this file.
+     *
+     * @return     the offset from the beginning of the file, in bytes,
+     *             at which the next read occurs.
+     */
+    public long getFilePointer() {
+        return pointer;
+    }
+
+    /**
+     * Sets the file-pointer offset, measured from the beginning of this
+     * file, at which the next read occurs.  The offset may be set beyond
+     * the end of the file, in which case reads return end of file.
+     *
+     * @param      pos   the offset position, measured in bytes from the
+     *                   beginning of the file, at which to set the file
+     *                   pointer.
+     * @exception  IOException  if <code>pos</code> is less than
+     *                          <code>0</code>.
+     */
+    public void seek(long pos) throws IOException {
+        if (pos < 0) {
+            throw new IOException(PropertyUtil.getString("MappedFileSeekableStream1"));
+        }
+        pointer = pos;
+    }
+
+    /**
+     * Returns the number of bytes left before the end of the file.
+     */
+    public int available() {
+        return (pointer >= length) ? 0 : (int)(length - pointer);
+    }
+
+    /**
+     * Reads the next byte of data from the file, or returns
+     * <code>-1</code> at the end of the file.
+     *
+     * @exception IOException if the stream has been closed.
+     */
+    public int read() throws IOException {
+        if (pointer >= length) {
+            return -1;
+        }
+        return getBuffer().get((int)pointer++) & 0xff;
+    }
+
+    /**
+     * Reads up to <code>len</code> bytes of data from the file into an
+     * array of bytes.  Only returns fewer than <code>len</code> bytes
+     * at the end of the file.
+     *
+     * @param      b     the buffer into which the data is read.
+     * @param      off   the start offset in array <code>b</code>
+     *                   at which the data is written.
+     * @param      len   the maximum number of bytes to read.
+     * @return     the total number of bytes read into the buffer, or
+     *             <code>-1</code> if the end of the file has been reached.
+     * @exception  IOException if the stream has been closed.
+     */
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (b == null) {
+            throw new NullPointerException();
+        }
+        if ((off < 0) || (len < 0) || (off + len > b.length)) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (pointer >= length) {
+            return -1;
+        }
+
+        len = (int)Math.min(len, length - pointer);
+        // The buffer position is only used for the bulk get, the
+        // stream keeps its own pointer so seeking beyond the end is
+        // allowed.
+        MappedByteBuffer buf = getBuffer();
+        buf.position((int)pointer);
+        buf.get(b, off, len);
+        pointer += len;
+        return len;
+    }
+
+    /**
+     * Releases the mapping.  Further reads throw an
+     * <code>IOException</code>.
+     */
+    public void close() throws IOException {
+        super.close();
+        buffer = null;
+    }
+
+    private MappedByteBuffer getBuffer() throws IOException {
+        MappedByteBuffer buf = buffer;
+        if (buf == null) {
+            throw new IOException(PropertyUtil.getString("MappedFileSeekableStream2"));
+        }
+        return buf;
+    }
+}
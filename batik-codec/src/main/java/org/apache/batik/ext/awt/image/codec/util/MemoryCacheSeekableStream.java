@@ -46,8 +46,12 @@ public final class MemoryCacheSeekableStream extends SeekableStream {
     /** Position of first unread byte. */
     private long pointer = 0;
 
-    /** Log_2 of the sector size. */
-    private static final int SECTOR_SHIFT = 9;
+    /**
+     * Log_2 of the sector size.  Sectors are large enough that most
+     * reads are served from a single sector and the source is read in
+     * few, large blocks.
+     */
+    private static final int SECTOR_SHIFT = 13;
 
     /** The sector size. */
     private static final int SECTOR_SIZE = 1 << SECTOR_SHIFT;
@@ -246,11 +250,20 @@ public final class MemoryCacheSeekableStream extends SeekableStream {
             return -1;
         }
 
-        byte[] buf = (byte[])data.get((int)(pointer >> SECTOR_SHIFT));
-        int nbytes = Math.min(len, SECTOR_SIZE - (int)(pointer & SECTOR_MASK));
-        System.arraycopy(buf, (int)(pointer & SECTOR_MASK),
-                         b, off, nbytes);
-        pointer += nbytes;
-        return nbytes;
+        // Copy from as many sectors as needed rather than stopping at
+        // the first sector boundary.
+        int total = (int)Math.min(len, pos - pointer);
+        int remaining = total;
+        while (remaining > 0) {
+            byte[] buf = (byte[])data.get((int)(pointer >> SECTOR_SHIFT));
+            int nbytes = Math.min(remaining,
+                                  SECTOR_SIZE - (int)(pointer & SECTOR_MASK));
+            System.arraycopy(buf, (int)(pointer & SECTOR_MASK),
+                             b, off, nbytes);
+            pointer += nbytes;
+            off += nbytes;
+            remaining -= nbytes;
+        }
+        return total;
     }
 }
@@ -68,6 +68,10 @@ import java.io.UTFDataFormatException;
  * file.  It performs a limited amount of caching in order to avoid excessive
  * I/O costs.
  *
+ * <p> The <code>MappedFileSeekableStream</code> class reads a local
+ * <code>File</code> through a read-only memory mapping, which avoids both
+ * the copy into a cache and per-read system calls.
+ *
  * <p> The <code>SegmentedSeekableStream</code> class performs a different sort
  * of function.  It creates a <code>SeekableStream</code> from another
  * <code>SeekableStream</code> by selecting a series of portions or "segments".
@@ -23,6 +23,7 @@ import org.w3c.dom.Attr;
 import org.w3c.dom.DOMException;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
 import org.w3c.dom.TypeInfo;
 import org.w3c.dom.events.MutationEvent;
 
@@ -59,6 +60,22 @@ public abstract class AbstractAttr extends AbstractParentNode implements Attr {
      */
     protected TypeInfo typeInfo;
 
+    /**
+     * The value of this attribute, when it is not stored as child nodes.
+     * Most attributes are only ever read and written as a whole, so the
+     * text node child is only created when the child node API is used.
+     */
+    protected String value;
+
+    /**
+     * The types of the events fired at a text node child when it is
+     * removed or inserted.
+     */
+    protected static final String[] CHILD_EVENT_TYPES = {
+        "DOMNodeInserted", "DOMNodeRemoved",
+        "DOMNodeInsertedIntoDocument", "DOMNodeRemovedFromDocument"
+    };
+
     /**
      * Creates a new Attr object.
      */
@@ -111,6 +128,9 @@ public abstract class AbstractAttr extends AbstractParentNode implements Attr {
      * @return The content of the attribute.
      */
     public String getNodeValue() throws DOMException {
+        if (value != null) {
+            return value;
+        }
         Node first = getFirstChild();
         if (first == null) {
             return "";
@@ -138,19 +158,39 @@ public abstract class AbstractAttr extends AbstractParentNode implements Attr {
                                                     getNodeName() });
         }
 
-        String s = getNodeValue();
-
-        // Remove all the children
-        Node n;
-        while ((n = getFirstChild()) != null) {
-            removeChild(n);
-        }
-
         String val = (nodeValue == null) ? "" : nodeValue;
+        String s;
+
+        if (!hasChildEventListeners() &&
+            (childNodes == null || childNodes.firstChild == null)) {
+            // No text node child was ever handed out, and no listener
+            // would see one, so the value can be replaced in place.  The
+            // DOMSubtreeModified events that the removal and the
+            // insertion of the text node would have fired are still
+            // fired.
+            boolean hadValue = value != null;
+            s = hadValue ? value : "";
+            value = val;
+            setSpecified(true);
+            if (getCurrentDocument().getEventsEnabled()) {
+                if (hadValue) {
+                    fireDOMSubtreeModifiedEvent();
+                }
+                fireDOMSubtreeModifiedEvent();
+            }
+        } else {
+            s = getNodeValue();
 
-        // Create and append a new child.
-        n = getOwnerDocument().createTextNode(val);
-        appendChild(n);
+            // Remove all the children
+            Node n;
+            while ((n = getFirstChild()) != null) {
+                removeChild(n);
+            }
+
+            // Create and append a new child.
+            n = getOwnerDocument().createTextNode(val);
+            appendChild(n);
+        }
 
         if (ownerElement != null) {
             ownerElement.fireDOMAttrModifiedEvent(nodeName,
@@ -161,6 +201,126 @@ public abstract class AbstractAttr extends AbstractParentNode implements Attr {
         }
     }
 
+    /**
+     * Returns whether a listener on this attribute would see the events
+     * fired at a text node child.  The event support is created by any
+     * dispatch, so its presence alone does not tell.
+     */
+    protected boolean hasChildEventListeners() {
+        if (eventSupport == null) {
+            return false;
+        }
+        for (int i = 0; i < CHILD_EVENT_TYPES.length; i++) {
+            String t = CHILD_EVENT_TYPES[i];
+            if (eventSupport.getEventListeners(t, true) != null
+                    || eventSupport.getEventListeners(t, false) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves the value held in {@link #value} into a text node child.
+     * No event is fired since the value of the attribute does not change.
+     */
+    protected void expandValue() {
+        if (value != null) {
+            String v = value;
+            value = null;
+            if (childNodes == null) {
+                childNodes = new ChildNodes();
+            }
+            ExtendedNode n =
+                (ExtendedNode)getOwnerDocument().createTextNode(v);
+            childNodes.append(n);
+            n.setParentNode(this);
+        }
+    }
+
+    /**
+     * <b>DOM</b>: Implements {@link org.w3c.dom.Node#getChildNodes()}.
+     */
+    public NodeList getChildNodes() {
+        expandValue();
+        return super.getChildNodes();
+    }
+
+    /**
+     * <b>DOM</b>: Implements {@link org.w3c.dom.Node#getFirstChild()}.
+     */
+    public Node getFirstChild() {
+        expandValue();
+        return super.getFirstChild();
+    }
+
+    /**
+     * <b>DOM</b>: Implements {@link org.w3c.dom.Node#getLastChild()}.
+     */
+    public Node getLastChild() {
+        expandValue();
+        return super.getLastChild();
+    }
+
+    /**
+     * <b>DOM</b>: Implements {@link
+     * org.w3c.dom.Node#insertBefore(Node, Node)}.
+     */
+    public Node insertBefore(Node newChild, Node refChild)
+        throws DOMException {
+        expandValue();
+        return super.insertBefore(newChild, refChild);
+    }
+
+    /**
+     * <b>DOM</b>: Implements {@link
+     * org.w3c.dom.Node#replaceChild(Node, Node)}.
+     */
+    public Node replaceChild(Node newChild, Node oldChild)
+        throws DOMException {
+        expandValue();
+        return super.replaceChild(newChild, oldChild);
+    }
+
+    /**
+     * <b>DOM</b>: Implements {@link org.w3c.dom.Node#removeChild(Node)}.
+     */
+    public Node removeChild(Node oldChild) throws DOMException {
+        expandValue();
+        return super.removeChild(oldChild);
+    }
+
+    /**
+     * <b>DOM</b>: Implements {@link org.w3c.dom.Node#appendChild(Node)}.
+     */
+    public Node appendChild(Node newChild) throws DOMException {
+        expandValue();
+        return super.appendChild(newChild);
+    }
+
+    /**
+     * <b>DOM</b>: Implements {@link org.w3c.dom.Node#hasChildNodes()}.
+     */
+    public boolean hasChildNodes() {
+        return value != null || super.hasChildNodes();
+    }
+
+    /**
+     * <b>DOM</b>: Implements {@link org.w3c.dom.Node#normalize()}.
+     */
+    public void normalize() {
+        if (value == null) {
+            super.normalize();
+        }
+    }
+
+    /**
+     * <b>DOM</b>: Implements {@link org.w3c.dom.Node#getTextContent()}.
+     */
+    public String getTextContent() {
+        return (value != null) ? value : super.getTextContent();
+    }
+
     /**
      * <b>DOM</b>: Implements {@link org.w3c.dom.Attr#getName()}.
      * @return {@link #getNodeName()}.
@@ -267,7 +427,12 @@ public abstract class AbstractAttr extends AbstractParentNode implements Attr {
      * Deeply exports this node to the given document.
      */
     protected Node deepExport(Node n, AbstractDocument d) {
-        super.deepExport(n, d);
+        if (value != null) {
+            super.export(n, d);
+            ((AbstractAttr)n).value = value;
+        } else {
+            super.deepExport(n, d);
+        }
         AbstractAttr aa = (AbstractAttr)n;
         aa.nodeName     = nodeName;
         aa.unspecified  = false;
@@ -293,7 +458,12 @@ public abstract class AbstractAttr extends AbstractParentNode implements Attr {
      * @param n a node of the type of this.
      */
     protected Node deepCopyInto(Node n) {
-        super.deepCopyInto(n);
+        if (value != null) {
+            super.copyInto(n);
+            ((AbstractAttr)n).value = value;
+        } else {
+            super.deepCopyInto(n);
+        }
         AbstractAttr aa = (AbstractAttr)n;
         aa.nodeName     = nodeName;
         aa.unspecified  = unspecified;
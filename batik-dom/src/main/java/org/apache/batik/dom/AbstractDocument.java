@@ -182,8 +182,10 @@ public abstract class AbstractDocument
      * a IdSoftReference to the element or a List of
      * IdSoftReferences (if there is more than one element
      * owned by this document with a particular 'id').
+     * It is volatile since it is created lazily by {@link #addIdEntry},
+     * which may be called by several threads building the document.
      */
-    protected transient Map elementsById;
+    protected transient volatile Map elementsById;
 
     /**
      * Creates a new document.
@@ -365,6 +367,16 @@ public abstract class AbstractDocument
         case ATTRIBUTE_NODE:
             result = createAttributeNS(importedNode.getNamespaceURI(),
                                        importedNode.getNodeName());
+            if (deep && importedNode instanceof AbstractAttr) {
+                // Copy a string value without creating its text node.
+                String v = ((AbstractAttr) importedNode).value;
+                if (v != null) {
+                    AbstractAttr aa = (AbstractAttr) result;
+                    aa.value = v;
+                    aa.setSpecified(true);
+                    deep = false;
+                }
+            }
             break;
 
         case TEXT_NODE:
@@ -538,6 +550,18 @@ public abstract class AbstractDocument
         }
     }
 
+    /**
+     * Remove the mappings of all the elements to <code>id</code>
+     */
+    public void removeIdEntries(String id) {
+        if (id == null) return;
+        if (elementsById == null) return;
+
+        synchronized (elementsById) {
+            elementsById.remove(id);
+        }
+    }
+
     /**
      * Remove the mapping for <code>element</code> to <code>id</code>
      */
@@ -577,10 +601,15 @@ public abstract class AbstractDocument
         if (id == null) return;
 
         if (elementsById == null) {
-            Map tmp = new HashMap();
-            tmp.put(id, new IdSoftRef(e, id));
-            elementsById = tmp;
-            return;
+            // Elements may be built by several threads at once.
+            synchronized (this) {
+                if (elementsById == null) {
+                    Map tmp = new HashMap();
+                    tmp.put(id, new IdSoftRef(e, id));
+                    elementsById = tmp;
+                    return;
+                }
+            }
         }
 
         synchronized (elementsById) {
@@ -160,6 +160,23 @@ public class SAXDocumentFactory
      */
     protected ErrorHandler errorHandler;
 
+    /**
+     * The maximum length of the attribute values shared through the
+     * symbol table.
+     */
+    protected static final int MAX_INTERNED_VALUE_LENGTH = 32;
+
+    /**
+     * The table used to share the names, namespace URIs and, if enabled,
+     * attribute values of the document being parsed.
+     */
+    protected SymbolTable symbols;
+
+    /**
+     * Whether short attribute values are shared through the symbol table.
+     */
+    protected boolean internValues;
+
     protected interface PreInfo {
         Node createNode(Document doc);
     }
@@ -504,6 +521,26 @@ public class SAXDocumentFactory
         return isValidating;
     }
 
+    /**
+     * Sets whether equal attribute values of at most
+     * {@link #MAX_INTERNED_VALUE_LENGTH} characters are represented by a
+     * single string instance in the created documents.  This reduces the
+     * memory used by documents that repeat the same values many times,
+     * such as generated drawings, at the cost of a table lookup per
+     * attribute.
+     */
+    public void setInternValues(boolean b) {
+        internValues = b;
+    }
+
+    /**
+     * Returns true if short attribute values are shared between the
+     * attributes of the created documents.
+     */
+    public boolean isInternValues() {
+        return internValues;
+    }
+
     /**
      * Sets a custom error handler.
      */
@@ -549,6 +586,12 @@ public class SAXDocumentFactory
         namespaces.put("xmlns", XMLSupport.XMLNS_NAMESPACE_URI);
         namespaces.put("", null);
 
+        if (symbols == null) {
+            symbols = new SymbolTable();
+        } else {
+            symbols.clear();
+        }
+
         inDTD        = false;
         inCDATA      = false;
         inProlog     = true;
@@ -613,16 +656,16 @@ public class SAXDocumentFactory
             if (!aname.startsWith("xmlns"))
                 continue;
             if (slen == 5) {
-                String ns = attributes.getValue(i);
+                String ns = symbols.intern(attributes.getValue(i));
                 if (ns.length() == 0)
                     ns = null;
                 namespaces.put("", ns);
             } else if (aname.charAt(5) == ':') {
-                String ns = attributes.getValue(i);
+                String ns = symbols.intern(attributes.getValue(i));
                 if (ns.length() == 0) {
                     ns = null;
                 }
-                namespaces.put(aname.substring(6), ns);
+                namespaces.put(symbols.intern(aname.substring(6)), ns);
             }
         }
 
@@ -631,6 +674,7 @@ public class SAXDocumentFactory
 
         // Element creation
         Element e;
+        rawName = symbols.intern(rawName);
         int idx = rawName.indexOf(':');
         String nsp = (idx == -1 || idx == rawName.length()-1)
             ? ""
@@ -662,17 +706,22 @@ public class SAXDocumentFactory
 
         // Attributes creation
         for (int i = 0; i < len; i++) {
-            String aname = attributes.getQName(i);
+            String aname = symbols.intern(attributes.getQName(i));
+            String value = attributes.getValue(i);
+            if (internValues
+                && value.length() <= MAX_INTERNED_VALUE_LENGTH) {
+                value = symbols.intern(value);
+            }
             if (aname.equals("xmlns")) {
                 e.setAttributeNS(XMLSupport.XMLNS_NAMESPACE_URI,
                                  aname,
-                                 attributes.getValue(i));
+                                 value);
             } else {
                 idx = aname.indexOf(':');
                 nsURI = (idx == -1)
                     ? null
                     : namespaces.get(aname.substring(0, idx));
-                e.setAttributeNS(nsURI, aname, attributes.getValue(i));
+                e.setAttributeNS(nsURI, aname, value);
             }
         }
     }
@@ -0,0 +1,96 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+package org.apache.batik.dom.util;
+
+/**
+ * A bounded table of strings, used to share a single instance between
+ * equal strings.
+ * The table is direct-mapped: each string hashes to exactly one slot, and
+ * a string that does not match the slot's current occupant replaces it.
+ * The memory used by the table is therefore fixed, and strings that are
+ * not repeated do not keep the ones that are from being shared.
+ * This implementation is not Thread-safe.
+ *
+ * @version $Id$
+ */
+public class SymbolTable {
+
+    /**
+     * The default number of slots.
+     */
+    protected static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * The slots.
+     */
+    protected String[] table;
+
+    /**
+     * The mask used to compute a slot index from a hash code.
+     */
+    protected int mask;
+
+    /**
+     * Creates a new table with the default capacity.
+     */
+    public SymbolTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new table.
+     * @param c The number of slots, rounded up to a power of two.
+     */
+    public SymbolTable(int c) {
+        int size = 1;
+        while (size < c) {
+            size <<= 1;
+        }
+        table = new String[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Returns the instance held by this table which is equal to the
+     * given string, or the given string itself if there is none, in
+     * which case it is recorded for the next lookups.
+     */
+    public String intern(String s) {
+        if (s == null) {
+            return null;
+        }
+        int h = s.hashCode();
+        int i = (h ^ (h >>> 16)) & mask;
+        String e = table[i];
+        if (e != null && (e == s || e.equals(s))) {
+            return e;
+        }
+        table[i] = s;
+        return s;
+    }
+
+    /**
+     * Removes all the strings held by this table.
+     */
+    public void clear() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = null;
+        }
+    }
+}
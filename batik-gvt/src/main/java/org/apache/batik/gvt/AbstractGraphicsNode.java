@@ -132,6 +132,17 @@ public abstract class AbstractGraphicsNode implements GraphicsNode {
      */
     protected WeakReference weakRef;
 
+    /**
+     * The bridge context which bound this node, if any.
+     */
+    protected Object bindingContext;
+
+    /**
+     * The object, usually the element this node was built from, this node
+     * is bound to.
+     */
+    protected Object binding;
+
     /**
      * Internal Cache: node bounds
      */
@@ -156,6 +167,32 @@ public abstract class AbstractGraphicsNode implements GraphicsNode {
         return weakRef;
     }
 
+    /**
+     * Binds this node to the given object, usually the element it was built
+     * from by the given bridge context.
+     *
+     * @param ctx the bridge context, or null to remove the binding
+     * @param b the object to bind this node to
+     */
+    public void setBinding(Object ctx, Object b) {
+        bindingContext = ctx;
+        binding = ctx == null ? null : b;
+    }
+
+    /**
+     * Returns the bridge context which bound this node, or null.
+     */
+    public Object getBindingContext() {
+        return bindingContext;
+    }
+
+    /**
+     * Returns the object this node is bound to, or null.
+     */
+    public Object getBinding() {
+        return binding;
+    }
+
     //
     // Properties methods
     //
@@ -53,6 +53,20 @@ public class FlowRegions {
         gotoY(startY);
     }
 
+    /**
+     * Creates a new FlowRegions in the state of the given one, so that
+     * the filling of the region can be resumed from that state.
+     */
+    public FlowRegions(FlowRegions fr) {
+        this.flowShape    = fr.flowShape;
+        this.sl           = fr.sl;
+        this.sr           = fr.sr;
+        this.validRanges  = fr.validRanges;
+        this.currentRange = fr.currentRange;
+        this.currentY     = fr.currentY;
+        this.lineHeight   = fr.lineHeight;
+    }
+
     public double getCurrentY() { return currentY; }
     public double getLineHeight() { return lineHeight; }
 
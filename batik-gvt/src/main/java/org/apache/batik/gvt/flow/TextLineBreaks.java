@@ -19,9 +19,17 @@
 
 package org.apache.batik.gvt.flow;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
 import java.text.AttributedCharacterIterator;
 import java.text.AttributedString;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.batik.gvt.text.GVTAttributedCharacterIterator;
@@ -47,161 +55,195 @@ public class TextLineBreaks {
         lineBrks.add(FLOW_LINE_BREAK);
     }
 
-    // placeholder function for complex break analysis
-    static int findComplexBreak(AttributedCharacterIterator aci)
-    {
-        int cnt = 0;
-        for(char ch = aci.current();
-            ch == AttributedCharacterIterator.DONE;
-            ch = aci.next(), cnt++) {
-
-            // .. do complex break analysis here Right now we aren't
-            // do any, we just find the end of the run of
-            // CHAR_CLASS_SA.
-
-            if (getCharCharClass(ch) != CHAR_CLASS_SA)
-                break;
-        }
-        return cnt;
-    }
+    /**
+     * The maximum number of characters of the paragraphs in the word limit
+     * cache.  The memory used by an entry is proportional to the length of
+     * its paragraph, so the cache is bounded by characters rather than by
+     * entries.  Longer paragraphs are not cached.
+     */
+    protected static final int WORD_LIMIT_CACHE_CHARS = 256 * 1024;
+
+    /**
+     * The word limits of the most recently analyzed paragraphs, keyed by
+     * the text of the paragraph.  Paragraphs repeated across layouts, such
+     * as the unchanged paragraphs of an edited flow, are analyzed once.
+     * Accesses are synchronized on the cache.
+     */
+    protected static final LinkedHashMap wordLimitCache =
+        new LinkedHashMap(16, 0.75f, true);
+
+    /**
+     * The number of characters of the paragraphs in the word limit cache.
+     */
+    protected static int wordLimitCacheChars;
 
     // handle spaces separately, all others by table
     // as - Attributed string to attribute with Word extents.
     public static void findLineBrk(AttributedString as) {
         AttributedCharacterIterator aci = as.getIterator();
-        if (aci.getEndIndex() == 0)
+        int begin = aci.getBeginIndex();
+        int end   = aci.getEndIndex();
+        if (end == 0)
             return;
-        char ch = aci.current(), prevCh = (char)-1;
-        byte         cls = getCharCharClass(ch);
-        if (cls == CHAR_CLASS_LF) cls = CHAR_CLASS_BK;
-        byte      curCls = cls;
-        byte     prevCls = cls;
-        byte prevPrevCls = -1;
-        int  wordCnt = 0;
-        int  wordBegin = aci.getBeginIndex();
-        // loop over all pairs in the string
-        int ich = wordBegin+1;
-        int lineEnd = aci.getRunLimit(lineBrks);
-
-        // handle case where input starts with an LF
-        if (cls >= CHAR_CLASS_CM) cls = CHAR_CLASS_AL;
-
-        for (ch = aci.next();
+        char [] chars = new char[end-begin];
+        int i = 0;
+        for (char ch = aci.first();
              ch != AttributedCharacterIterator.DONE;
-             ich++, prevCh = ch, ch = aci.next(),
-             prevPrevCls = prevCls, prevCls = curCls) {
+             ch = aci.next()) {
+            chars[i++] = ch;
+        }
 
-            if (ich == lineEnd) {
-                as.addAttribute(WORD_LIMIT, wordCnt++,
-                                wordBegin, ich);
-                wordBegin = ich;
+        // Find the word limits of each paragraph and line before adding
+        // any attribute, so that their runs are not split.
+        List lines = new ArrayList();
+        for (int lineStart = begin; lineStart < end; ) {
+            aci.setIndex(lineStart);
+            int lineEnd = aci.getRunLimit(lineBrks);
+            lines.add(getWordLimits(chars, lineStart-begin, lineEnd-begin));
+            lineStart = lineEnd;
+        }
 
-                cls    = getCharCharClass(ch);
-                curCls = cls;
-                prevCls = cls;
-                if (cls >= CHAR_CLASS_CM) cls = CHAR_CLASS_AL;
+        int wordCnt = 0;
+        int lineStart = begin;
+        for (Object line : lines) {
+            int [] limits = (int [])line;
+            int len = limits.length;
+            for (i = 0; i < len; i += 2) {
+                as.addAttribute(WORD_LIMIT, wordCnt++,
+                                lineStart+limits[i], lineStart+limits[i+1]);
+            }
+            lineStart += limits[len-1];
+        }
+    }
 
-                lineEnd = aci.getRunLimit(lineBrks);
-                continue;
+    /**
+     * Returns the word limits of the line of text in the given range of
+     * <code>chars</code>, as pairs of indexes relative to the start of the
+     * line.  The returned array is shared and must not be modified.
+     */
+    protected static int [] getWordLimits(char [] chars, int start, int end) {
+        String key = new String(chars, start, end-start);
+        int [] limits;
+        synchronized (wordLimitCache) {
+            limits = (int [])wordLimitCache.get(key);
+        }
+        if (limits != null) {
+            return limits;
+        }
+        limits = computeWordLimits(chars, start, end);
+        if (key.length() <= WORD_LIMIT_CACHE_CHARS) {
+            synchronized (wordLimitCache) {
+                if (wordLimitCache.put(key, limits) == null) {
+                    wordLimitCacheChars += key.length();
+                }
+                Iterator it = wordLimitCache.keySet().iterator();
+                while (wordLimitCacheChars > WORD_LIMIT_CACHE_CHARS) {
+                    String k = (String)it.next();
+                    it.remove();
+                    wordLimitCacheChars -= k.length();
+                }
             }
+        }
+        return limits;
+    }
+
+    /**
+     * Computes the word limits of the line of text in the given range of
+     * <code>chars</code>, as pairs of indexes relative to the start of the
+     * line.
+     */
+    protected static int [] computeWordLimits(char [] chars,
+                                              int start, int end) {
+        int len = end-start;
+        byte [] classes = new byte[len];
+        for (int i = 0; i < len; i++) {
+            classes[i] = getCharCharClass(chars[start+i]);
+        }
+
+        int [] limits = new int[16];
+        int  n = 0;
+        int  wordBegin = 0;
+        byte cls = classes[0];
+        // handle case where input starts with an LF
+        if (cls >= CHAR_CLASS_CM) cls = CHAR_CLASS_AL;
+
+        // loop over all pairs in the line
+        for (int ich = 1; ich < len; ich++) {
+            byte curCls  = classes[ich];
+            byte prevCls = classes[ich-1];
+            int  brkEnd  = -1;
 
-            // handle spaces
-            curCls = getCharCharClass(ch);
             if (curCls == CHAR_CLASS_SP) {
-                // pbrk[ich-1] = BREAK_ACTION_PROHIBITED;
+                // handle spaces
                 continue;
-            }
-
-            // handle complex scripts
-            if (curCls == CHAR_CLASS_SA) {
-                ich += findComplexBreak(aci);
-                ch = aci.previous();
-                if (ch != AttributedCharacterIterator.DONE)
-                    prevCls = getCharCharClass(ch);
-                ch = aci.next();
-                if (ch != AttributedCharacterIterator.DONE)
-                    curCls = cls = getCharCharClass(ch);
+            } else if (curCls == CHAR_CLASS_SA) {
+                // Complex scripts would need a dictionary based analysis
+                // here, right now their runs are not broken.
+                cls = curCls;
                 continue;
-            }
-
-            // This isn't in the Unicode line breaking alg.  but it
-            // seems needed as otherwise it does produce a break.
-            if ((ch == CHAR_ZERO_WIDTH_JOINER) ||
-                (prevCh == CHAR_ZERO_WIDTH_JOINER))
+            } else if ((chars[start+ich]   == CHAR_ZERO_WIDTH_JOINER) ||
+                       (chars[start+ich-1] == CHAR_ZERO_WIDTH_JOINER)) {
+                // This isn't in the Unicode line breaking alg.  but it
+                // seems needed as otherwise it does produce a break.
                 continue; // Don't allow break around JOINER.
-
-            if ((curCls == CHAR_CLASS_BK) || (curCls == CHAR_CLASS_LF)) {
-                as.addAttribute(WORD_LIMIT, wordCnt++,
-                                wordBegin, ich);
-                wordBegin = ich;
+            } else if ((curCls == CHAR_CLASS_BK) ||
+                       (curCls == CHAR_CLASS_LF)) {
+                brkEnd = ich;
                 cls = CHAR_CLASS_BK;
-                continue;
-            }
-            if (prevCls == CHAR_CLASS_CR) {
-                as.addAttribute(WORD_LIMIT, wordCnt++,
-                                wordBegin, ich-1);
-                wordBegin = ich-1;
+            } else if (prevCls == CHAR_CLASS_CR) {
+                brkEnd = ich-1;
                 cls = CHAR_CLASS_BK;
+            } else if (curCls == CHAR_CLASS_CR) {
                 continue;
-            }
-            if (curCls == CHAR_CLASS_CR) {
-                continue;
-            }
-
-            // handle combining marks
-            if (curCls == CHAR_CLASS_CM) {
-                if (prevCls == CHAR_CLASS_SP) {
-                    cls = CHAR_CLASS_ID;
-                    if (prevPrevCls != -1) {
-                        if (brkPairs[prevPrevCls][CHAR_CLASS_ID] ==
-                            BREAK_ACTION_DIRECT) {
-                            as.addAttribute(WORD_LIMIT, wordCnt++,
-                                            wordBegin, ich-1);
-                            wordBegin = ich-1;
-                            // pbrk[ich-2] = BREAK_ACTION_DIRECT;
-                        } else {
-                            // pbrk[ich-2] = BREAK_ACTION_PROHIBITED;
-                        }
-                    }
-                }
-                // pbrk[ich-1] = BREAK_ACTION_PROHIBITED;
-                continue;
-            }
-
-            if (cls == CHAR_CLASS_BK) {
+            } else if (curCls == CHAR_CLASS_CM) {
+                // handle combining marks
+                if (prevCls != CHAR_CLASS_SP)
+                    continue;
+                cls = CHAR_CLASS_ID;
+                if ((ich > 1) &&
+                    (getBreakAction(classes[ich-2], CHAR_CLASS_ID) ==
+                     BREAK_ACTION_DIRECT))
+                    brkEnd = ich-1;
+            } else if (cls == CHAR_CLASS_BK) {
                 cls = curCls;
                 continue;
+            } else {
+                // lookup pair table information
+                byte brk = getBreakAction(cls, curCls);
+                if ((brk == BREAK_ACTION_DIRECT) ||
+                    ((brk == BREAK_ACTION_INDIRECT) &&
+                     (prevCls == CHAR_CLASS_SP)))
+                    brkEnd = ich;
+                cls = curCls;
             }
 
-            // lookup pair table information
-            byte brk = brkPairs[cls][curCls];
-
-            if (brk == BREAK_ACTION_DIRECT) {
-                as.addAttribute(WORD_LIMIT, wordCnt++,
-                                wordBegin, ich);
-                wordBegin = ich;
-                // pbrk[ich-1] = brk;
-            } else if (brk == BREAK_ACTION_INDIRECT) {
-                if (prevCls == CHAR_CLASS_SP) {
-                    as.addAttribute(WORD_LIMIT, wordCnt++,
-                                    wordBegin, ich);
-                    wordBegin = ich;
+            if (brkEnd != -1) {
+                if (n == limits.length) {
+                    int [] tmp = new int[n*2];
+                    System.arraycopy(limits, 0, tmp, 0, n);
+                    limits = tmp;
                 }
-                // pbrk[ich-1] = ((prevCls == CHAR_CLASS_SP) ?
-                //                BREAK_ACTION_INDIRECT :
-                //                BREAK_ACTION_PROHIBITED);
+                limits[n++] = wordBegin;
+                limits[n++] = brkEnd;
+                wordBegin = brkEnd;
             }
-            cls = curCls;
         }
 
         // always break at the end
-        as.addAttribute(WORD_LIMIT, wordCnt++,
-                        wordBegin, ich);
-        wordBegin = ich;
-        // pbrk[ich-1] = BREAK_ACTION_DIRECT;
+        int [] ret = new int[n+2];
+        System.arraycopy(limits, 0, ret, 0, n);
+        ret[n]   = wordBegin;
+        ret[n+1] = len;
+        return ret;
+    }
 
-        return;
-   }
+    /**
+     * Returns the break action between two characters of the given
+     * classes.
+     */
+    public static byte getBreakAction(byte before, byte after) {
+        return pairTable[before*NUM_CHAR_CLASSES+after];
+    }
 
     public static byte[] stringToLineBreakClasses(String s) {
         int len = s.length();
@@ -213,10 +255,14 @@ public class TextLineBreaks {
     }
 
     public static byte getCharCharClass(char ch) {
-        if (ch < QUICK_LUT_SIZE) {
-            if (quickLut == null) buildQuickLut();
-            return quickLut[ch];
-        }
+        return classBlocks[classBlockOffsets[ch >> 8] | (ch & 0xFF)];
+    }
+
+    /**
+     * Returns the class of the given character from the ranges of
+     * <code>raw_data</code>.
+     */
+    protected static byte lookupCharCharClass(char ch) {
         int len = raw_data.length;
         int l = 0;
         int r = (len/2)-1;
@@ -232,26 +278,64 @@ public class TextLineBreaks {
         return raw_classes[entry];
     }
 
-    public static final char CHAR_ZERO_WIDTH_JOINER = 0x200D;
+    /**
+     * Builds the two stage character class table from the ranges of
+     * <code>raw_data</code>.  Blocks of 256 characters which have the same
+     * classes share their entries.
+     */
+    protected static void buildClassTable() {
+        Map blocks = new HashMap();
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        for (int hi = 0; hi < 256; hi++) {
+            byte [] block = new byte[256];
+            for (int lo = 0; lo < 256; lo++) {
+                block[lo] = lookupCharCharClass((char)((hi << 8) | lo));
+            }
+            ByteBuffer key = ByteBuffer.wrap(block);
+            Integer offset = (Integer)blocks.get(key);
+            if (offset == null) {
+                offset = bos.size();
+                blocks.put(key, offset);
+                bos.write(block, 0, block.length);
+            }
+            classBlockOffsets[hi] = offset;
+        }
+        classBlocks = bos.toByteArray();
+    }
 
-    protected static final int QUICK_LUT_SIZE = 256;
-
-    protected static void buildQuickLut() {
-        int entry = 0;
-        quickLut = new byte[QUICK_LUT_SIZE];
-        int i=0;
-        while (i<QUICK_LUT_SIZE) {
-            int max = raw_data[2*entry+1];
-            byte cls = raw_classes[entry];
-            while (i<=max) {
-                quickLut[i] = cls;
-                i++;
-                if (i>=QUICK_LUT_SIZE) break;
+    /**
+     * Builds the pair table from <code>brkPairs</code>, which only covers
+     * the classes up to CM.  Of the others, SA is resolved as AL, and CB as
+     * ID.  Breaks after SP, BK, CR and LF are prohibited: those are only
+     * looked up for the space before a combining mark.
+     */
+    protected static byte [] buildPairTable() {
+        byte [] table = new byte[NUM_CHAR_CLASSES*NUM_CHAR_CLASSES];
+        for (int before = 0; before < NUM_CHAR_CLASSES; before++) {
+            int b = resolvePairClass(before);
+            for (int after = 0; after < NUM_CHAR_CLASSES; after++) {
+                int a = resolvePairClass(after);
+                table[before*NUM_CHAR_CLASSES+after] =
+                    ((b == -1) || (a == -1)) ? BREAK_ACTION_PROHIBITED
+                                             : brkPairs[b][a];
             }
-            entry++;
         }
+        return table;
+    }
+
+    /**
+     * Returns the row or column of <code>brkPairs</code> for the given
+     * class, or -1 if breaks next to it are prohibited.
+     */
+    protected static int resolvePairClass(int cls) {
+        if (cls <= CHAR_CLASS_CM)  return cls;
+        if (cls == CHAR_CLASS_SA) return CHAR_CLASS_AL;
+        if (cls == CHAR_CLASS_CB) return CHAR_CLASS_ID;
+        return -1;
     }
 
+    public static final char CHAR_ZERO_WIDTH_JOINER = 0x200D;
+
     // direct break     (blank in table)
     public static final byte BREAK_ACTION_DIRECT     = 0;
     // indirect break   (% in table)
@@ -360,7 +444,29 @@ public class TextLineBreaks {
         {  0, 2, 1, 1, 1, 2, 2, 2, 0, 0, 1, 1, 0, 1, 1, 1, 0, 0, 2, 1 }};// 19
 
 
-    static byte [] quickLut = null;
+    /**
+     * The number of character classes, and of rows and columns of
+     * <code>pairTable</code>.
+     */
+    static final int NUM_CHAR_CLASSES = CHAR_CLASS_CB+1;
+
+    /**
+     * The break action between each pair of character classes, indexed
+     * by the class before times NUM_CHAR_CLASSES plus the class after.
+     */
+    static final byte [] pairTable = buildPairTable();
+
+    /**
+     * The first stage of the character class table: for each high byte
+     * of a character, the offset of its block in <code>classBlocks</code>.
+     */
+    static final int [] classBlockOffsets = new int[256];
+
+    /**
+     * The second stage of the character class table: the classes of the
+     * distinct blocks of 256 characters.
+     */
+    static byte [] classBlocks;
 
     static final char [] raw_data = {
         0x0000, 0x0008,
@@ -1939,4 +2045,8 @@ public class TextLineBreaks {
         CHAR_CLASS_CM,
         CHAR_CLASS_CB,
         CHAR_CLASS_AI };
+
+    static {
+        buildClassTable();
+    }
 }
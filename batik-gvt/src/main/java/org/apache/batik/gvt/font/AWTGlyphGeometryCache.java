@@ -26,6 +26,8 @@ import java.lang.ref.SoftReference;
 /**
  * This class represents a doubly indexed hash table, which holds
  * soft references to the contained glyph geometry informations.
+ * The glyph geometry of the AWT fonts is now kept in the shared
+ * {@link GlyphGeometryCache}, which holds instances of {@link Value}.
  *
  * @author <a href="mailto:stephane@hillion.org">Stephane Hillion</a>
  * @author <a href="mailto:tkormann@ilog.fr">Thierry Kormann</a>
@@ -0,0 +1,319 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+package org.apache.batik.gvt.font;
+
+import java.awt.Shape;
+import java.awt.geom.PathIterator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A process-wide cache of glyph geometry, shared by all the glyph vectors
+ * of all the documents.  The entries are evicted in least recently used
+ * order when the estimated size of the cached outlines exceeds a maximum.
+ *
+ * <p>The AWT fonts key their glyphs with {@link Key}.  Other sources of
+ * outlines may use their own keys, which must implement equals and
+ * hashCode and must not be equal to the keys of another source.</p>
+ *
+ * <p>The cached values are shared and must not be modified.  The methods
+ * of this class are synchronized, so it can be used by several threads.
+ * The geometry is computed outside of the cache lock, so two threads
+ * may compute the same entry, the last one being kept.</p>
+ *
+ * @version $Id$
+ */
+public class GlyphGeometryCache {
+
+    /**
+     * The default maximum size of the cache, in bytes.
+     */
+    public static final long DEFAULT_MAX_SIZE = 4 << 20;
+
+    /**
+     * The estimated size of an entry, not counting its outline.
+     */
+    protected static final int ENTRY_SIZE = 128;
+
+    /**
+     * The shared cache.
+     */
+    protected static GlyphGeometryCache instance =
+        new GlyphGeometryCache(DEFAULT_MAX_SIZE);
+
+    /**
+     * The entries, in least recently used order.
+     */
+    protected LinkedHashMap entries = new LinkedHashMap(64, 0.75f, true);
+
+    /**
+     * The estimated sizes of the entries, keyed like the entries.
+     */
+    protected Map sizes = new HashMap();
+
+    /**
+     * The maximum size of the cache, in bytes.
+     */
+    protected long maxSize;
+
+    /**
+     * The estimated size of the cache, in bytes.
+     */
+    protected long size;
+
+    /**
+     * The number of lookups which found an entry.
+     */
+    protected long hitCount;
+
+    /**
+     * The number of lookups which found no entry.
+     */
+    protected long missCount;
+
+    /**
+     * The number of entries evicted to keep the cache under its maximum size.
+     */
+    protected long evictionCount;
+
+    /**
+     * Returns the cache shared by the glyph vectors.
+     */
+    public static GlyphGeometryCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Creates a new GlyphGeometryCache.
+     * @param maxSize The maximum size of the cache, in bytes.
+     */
+    public GlyphGeometryCache(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the geometry cached for the given key, or null.
+     */
+    public synchronized Object get(Object key) {
+        Object v = entries.get(key);
+        if (v == null) {
+            missCount++;
+        } else {
+            hitCount++;
+        }
+        return v;
+    }
+
+    /**
+     * Caches the given geometry, whose size is estimated from the given
+     * outline, evicting the least recently used entries if needed.
+     */
+    public synchronized void put(Object key, Object value, Shape outline) {
+        int sz = ENTRY_SIZE + getSize(outline);
+        Object old = sizes.put(key, sz);
+        if (old != null) {
+            size -= (Integer) old;
+        }
+        entries.put(key, value);
+        size += sz;
+        trim();
+    }
+
+    /**
+     * Removes all the entries.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        sizes.clear();
+        size = 0;
+    }
+
+    /**
+     * Returns the maximum size of the cache, in bytes.
+     */
+    public synchronized long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Sets the maximum size of the cache, in bytes.
+     */
+    public synchronized void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+        trim();
+    }
+
+    /**
+     * Returns the estimated size of the cache, in bytes.
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the number of entries.
+     */
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of lookups which found an entry.
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of lookups which found no entry.
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of entries evicted to keep the cache under its
+     * maximum size.
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns the ratio of the lookups which found an entry, or 0 if there
+     * was no lookup.
+     */
+    public synchronized double getHitRate() {
+        long n = hitCount + missCount;
+        return n == 0 ? 0 : hitCount / (double) n;
+    }
+
+    /**
+     * Resets the lookup and eviction counts.
+     */
+    public synchronized void resetStatistics() {
+        hitCount = 0;
+        missCount = 0;
+        evictionCount = 0;
+    }
+
+    /**
+     * Evicts the least recently used entries until the cache is under its
+     * maximum size.
+     */
+    protected void trim() {
+        Iterator it = entries.keySet().iterator();
+        while (size > maxSize && it.hasNext()) {
+            Object k = it.next();
+            it.remove();
+            size -= (Integer) sizes.remove(k);
+            evictionCount++;
+        }
+    }
+
+    /**
+     * Returns the estimated size, in bytes, of the given outline.
+     */
+    protected static int getSize(Shape outline) {
+        if (outline == null) {
+            return 0;
+        }
+        int sz = 0;
+        float[] coords = new float[6];
+        PathIterator pi = outline.getPathIterator(null);
+        for (; !pi.isDone(); pi.next()) {
+            switch (pi.currentSegment(coords)) {
+            case PathIterator.SEG_MOVETO:
+            case PathIterator.SEG_LINETO:
+                sz += 9;
+                break;
+            case PathIterator.SEG_QUADTO:
+                sz += 17;
+                break;
+            case PathIterator.SEG_CUBICTO:
+                sz += 25;
+                break;
+            default:
+                sz += 1;
+            }
+        }
+        return sz;
+    }
+
+    /**
+     * The key of a glyph: the font, the code of the glyph in this font and
+     * the size the outline is computed at.
+     */
+    public static class Key {
+
+        /**
+         * The font.
+         */
+        protected Object font;
+
+        /**
+         * The glyph code.
+         */
+        protected int glyphCode;
+
+        /**
+         * The size.
+         */
+        protected float size;
+
+        /**
+         * The hash code.
+         */
+        protected int hash;
+
+        /**
+         * Creates a new Key.
+         */
+        public Key(Object font, int glyphCode, float size) {
+            this.font = font;
+            this.glyphCode = glyphCode;
+            this.size = size;
+            hash = (font.hashCode() * 31 + glyphCode) * 31
+                + Float.floatToIntBits(size);
+        }
+
+        /**
+         * Returns a hash code for this key.
+         */
+        public int hashCode() {
+            return hash;
+        }
+
+        /**
+         * Whether the given object is an equivalent key.
+         */
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key k = (Key) o;
+            return k.hash == hash
+                && k.glyphCode == glyphCode
+                && Float.floatToIntBits(k.size) == Float.floatToIntBits(size)
+                && k.font.equals(font);
+        }
+    }
+}
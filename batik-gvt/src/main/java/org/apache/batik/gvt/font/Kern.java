@@ -160,6 +160,22 @@ public class Kern {
         return false;
     }
 
+    /**
+     * Returns the sorted glyph codes of the first set of glyphs of this
+     * kerning entry, or null.
+     */
+    int[] getFirstGlyphCodes() {
+        return firstGlyphCodes;
+    }
+
+    /**
+     * Returns whether the first set of glyphs of this kerning entry
+     * contains unicode ranges.
+     */
+    boolean hasFirstUnicodeRanges() {
+        return firstUnicodeRanges != null && firstUnicodeRanges.length > 0;
+    }
+
     /**
      * Returns the kerning adjustment value for this kerning entry (a positive
      * value means the space between characters should decrease).
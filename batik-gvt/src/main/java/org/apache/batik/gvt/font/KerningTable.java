@@ -18,6 +18,11 @@
  */
 package org.apache.batik.gvt.font;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
 /**
  * The KerningTable class holds a kerning table (a collection of Kern
@@ -31,6 +36,18 @@ public class KerningTable {
 
     private Kern[] entries;
 
+    /**
+     * The indices of the entries, keyed by the glyph codes in their first
+     * set of glyphs.
+     */
+    private Map firstGlyphEntries = new HashMap();
+
+    /**
+     * The indices of the entries whose first set of glyphs contains
+     * unicode ranges.
+     */
+    private int[] rangeEntries;
+
     /**
      * Creates a KerningTable from an array of Kern entries.
      *
@@ -39,6 +56,43 @@ public class KerningTable {
      */
     public KerningTable(Kern[] entries) {
         this.entries = entries;
+
+        // Indexes the entries by first glyph, so that the entries that
+        // may match a pair are found without scanning the whole table.
+        Map m = new HashMap();
+        int[] ranges = new int[entries.length];
+        int n = 0;
+        for (int i = 0; i < entries.length; i++) {
+            int[] codes = entries[i].getFirstGlyphCodes();
+            if (codes != null) {
+                for (int j = 0; j < codes.length; j++) {
+                    if (j > 0 && codes[j] == codes[j - 1]) {
+                        continue;
+                    }
+                    List l = (List) m.get(codes[j]);
+                    if (l == null) {
+                        l = new ArrayList(1);
+                        m.put(codes[j], l);
+                    }
+                    l.add(i);
+                }
+            }
+            if (entries[i].hasFirstUnicodeRanges()) {
+                ranges[n++] = i;
+            }
+        }
+        Iterator it = m.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry e = (Map.Entry) it.next();
+            List l = (List) e.getValue();
+            int[] a = new int[l.size()];
+            for (int i = 0; i < a.length; i++) {
+                a[i] = (Integer) l.get(i);
+            }
+            firstGlyphEntries.put(e.getKey(), a);
+        }
+        rangeEntries = new int[n];
+        System.arraycopy(ranges, 0, rangeEntries, 0, n);
     }
 
     /**
@@ -57,7 +111,24 @@ public class KerningTable {
                                  int glyphCode2,
                                  String glyphUnicode1, 
                                  String glyphUnicode2) {
-        for (Kern entry : entries) {
+        // Visits, in table order, the entries indexed by the first glyph
+        // and those with unicode ranges, so that the first matching entry
+        // is still the one used.
+        int[] codeEntries = (int[]) firstGlyphEntries.get(glyphCode1);
+        int nc = codeEntries == null ? 0 : codeEntries.length;
+        int nr = rangeEntries.length;
+        int ic = 0, ir = 0;
+        while (ic < nc || ir < nr) {
+            int i;
+            if (ir == nr || (ic < nc && codeEntries[ic] < rangeEntries[ir])) {
+                i = codeEntries[ic++];
+            } else {
+                i = rangeEntries[ir++];
+                if (ic < nc && codeEntries[ic] == i) {
+                    ic++;
+                }
+            }
+            Kern entry = entries[i];
             if (entry.matchesFirstGlyph(glyphCode1, glyphUnicode1) &&
                     entry.matchesSecondGlyph(glyphCode2, glyphUnicode2)) {
                 return entry.getAdjustValue();
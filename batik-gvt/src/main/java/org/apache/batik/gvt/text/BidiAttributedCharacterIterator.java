@@ -19,10 +19,15 @@
 package org.apache.batik.gvt.text;
 
 import java.awt.font.FontRenderContext;
+import java.awt.font.TextAttribute;
 import java.awt.font.TextLayout;
 import java.text.AttributedCharacterIterator;
 import java.text.AttributedString;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -44,6 +49,36 @@ public class BidiAttributedCharacterIterator implements AttributedCharacterItera
     private int [] newCharOrder;
     private static final Float FLOAT_NAN = Float.NaN;
 
+    /**
+     * The maximum number of entries in the level cache.
+     */
+    protected static final int LEVEL_CACHE_SIZE = 512;
+
+    /**
+     * The attributes the bidi levels of a text depend on.
+     */
+    protected static final Set BIDI_ATTRIBUTES = new HashSet();
+    static {
+        BIDI_ATTRIBUTES.add(TextAttribute.RUN_DIRECTION);
+        BIDI_ATTRIBUTES.add(TextAttribute.BIDI_EMBEDDING);
+        BIDI_ATTRIBUTES.add(TextAttribute.NUMERIC_SHAPING);
+    }
+
+    /**
+     * The bidi levels of the most recently analyzed texts, keyed by the
+     * text, the runs of its bidi attributes (run direction, embedding and
+     * override levels, numeric shaping) and the font render context.  Texts
+     * repeated across text nodes and documents, such as labels, are
+     * analyzed once.
+     * Accesses are synchronized on the cache.
+     */
+    protected static final Map levelCache =
+        new LinkedHashMap(16, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry eldest) {
+                return size() > LEVEL_CACHE_SIZE;
+            }
+        };
+
 
     protected BidiAttributedCharacterIterator
         (AttributedCharacterIterator reorderedACI,
@@ -115,21 +150,19 @@ public class BidiAttributedCharacterIterator implements AttributedCharacterItera
             }
         }
 
-        // We Just want it to do BIDI for us...
-        // In 1.4 we might be able to use the BIDI class...
-        TextLayout tl = new TextLayout(as.getIterator(), frc);
+        byte[] levels = getLevels(as, frc);
 
         int[] charIndices = new int[numChars];
         int[] charLevels  = new int[numChars];
 
         int runStart   = 0;
-        int currBiDi   = tl.getCharacterLevel(0);
+        int currBiDi   = levels[0];
         charIndices[0] = 0;
         charLevels [0] = currBiDi;
         int maxBiDi    = currBiDi;
 
         for (int i = 1; i < numChars; i++) {
-            int newBiDi = tl.getCharacterLevel(i);
+            int newBiDi = levels[i];
             charIndices[i] = i;
             charLevels [i] = newBiDi;
 
@@ -172,7 +205,7 @@ public class BidiAttributedCharacterIterator implements AttributedCharacterItera
             if (srcIdx == 0) reorderedFirstChar = i;
 
             // check for mirrored char
-            int bidiLevel = tl.getCharacterLevel(srcIdx);
+            int bidiLevel = levels[srcIdx];
             if ((bidiLevel & 0x01) != 0) {
                 // bidi level is odd so writing dir is right to left
                 // So get the mirror version of the char if there
@@ -264,6 +297,63 @@ public class BidiAttributedCharacterIterator implements AttributedCharacterItera
         reorderedACI = reorderedAS.getIterator();
     }
 
+    /**
+     * Returns the bidi level of each character of the given text.  The
+     * returned array is shared and must not be modified.
+     */
+    protected static byte[] getLevels(AttributedString as,
+                                      FontRenderContext frc) {
+        AttributedCharacterIterator aci = as.getIterator();
+        int end = aci.getEndIndex();
+        StringBuffer sb = new StringBuffer(end);
+        for (char c = aci.first(); c != AttributedCharacterIterator.DONE;
+             c = aci.next()) {
+            sb.append(c);
+        }
+        List key = new ArrayList();
+        key.add(sb.toString());
+        key.add(frc);
+        int index = 0;
+        while (index < end) {
+            aci.setIndex(index);
+            int extent = aci.getRunLimit(BIDI_ATTRIBUTES);
+            Map m = new HashMap();
+            for (Object o : BIDI_ATTRIBUTES) {
+                Object value = aci.getAttribute
+                    ((AttributedCharacterIterator.Attribute) o);
+                if (value != null) {
+                    m.put(o, value);
+                }
+            }
+            if (!m.isEmpty()) {
+                key.add(index);
+                key.add(extent);
+                key.add(m);
+            }
+            index = extent;
+        }
+
+        byte[] levels;
+        synchronized (levelCache) {
+            levels = (byte[]) levelCache.get(key);
+        }
+        if (levels != null) {
+            return levels;
+        }
+
+        // We Just want it to do BIDI for us...
+        // In 1.4 we might be able to use the BIDI class...
+        TextLayout tl = new TextLayout(as.getIterator(), frc);
+        levels = new byte[end];
+        for (int i = 0; i < end; i++) {
+            levels[i] = tl.getCharacterLevel(i);
+        }
+        synchronized (levelCache) {
+            levelCache.put(key, levels);
+        }
+        return levels;
+    }
+
     // Returns an array that give the character index in the source ACI for
     // each character in this ACI.
     public int[] getCharMap() { return newCharOrder; }
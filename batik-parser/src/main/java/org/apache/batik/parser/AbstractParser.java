@@ -27,7 +27,6 @@ import java.util.MissingResourceException;
 import org.apache.batik.i18n.LocalizableSupport;
 import org.apache.batik.util.io.NormalizingReader;
 import org.apache.batik.util.io.StreamNormalizingReader;
-import org.apache.batik.util.io.StringNormalizingReader;
 
 /**
  * This class is the superclass of all parsers. It provides localization
@@ -66,6 +65,22 @@ public abstract class AbstractParser implements Parser {
      */
     protected int current;
 
+    /**
+     * The string given to {@link #parse(String)}, or null when parsing
+     * a stream.  Strings are scanned in place by {@link #nextChar()}.
+     */
+    protected String string;
+
+    /**
+     * The index of the next character of the string.
+     */
+    protected int position;
+
+    /**
+     * The length of the string.
+     */
+    protected int length;
+
     /**
      * Returns the current character value.
      */
@@ -117,6 +132,7 @@ public abstract class AbstractParser implements Parser {
      */
     public void parse(Reader r) throws ParseException {
         try {
+            string = null;
             reader = new StreamNormalizingReader(r);
             doParse();
         } catch (IOException e) {
@@ -132,6 +148,7 @@ public abstract class AbstractParser implements Parser {
      */
     public void parse(InputStream is, String enc) throws ParseException {
         try {
+            string = null;
             reader = new StreamNormalizingReader(is, enc);
             doParse();
         } catch (IOException e) {
@@ -146,7 +163,10 @@ public abstract class AbstractParser implements Parser {
      */
     public void parse(String s) throws ParseException {
         try {
-            reader = new StringNormalizingReader(s);
+            string = s;
+            position = 0;
+            length = s.length();
+            reader = new StringPositionReader();
             doParse();
         } catch (IOException e) {
             errorHandler.error
@@ -155,6 +175,29 @@ public abstract class AbstractParser implements Parser {
         }
     }
 
+    /**
+     * Reads the next character, normalizing line breaks like the
+     * reader does.  When parsing a string the characters are taken
+     * straight from it instead of going through the reader.
+     * @return the character read, or -1 at the end of the input.
+     */
+    protected final int nextChar() throws IOException {
+        if (string == null) {
+            return reader.read();
+        }
+        if (position == length) {
+            return -1;
+        }
+        int c = string.charAt(position++);
+        if (c == 13) {
+            if (position < length && string.charAt(position) == 10) {
+                position++;
+            }
+            return 10;
+        }
+        return c;
+    }
+
     /**
      * Method responsible for actually parsing data after AbstractParser
      * has initialized itself.
@@ -213,6 +256,62 @@ public abstract class AbstractParser implements Parser {
         }
     }
 
+    /**
+     * A reader over the string being parsed, sharing its position with
+     * {@link #nextChar()}.  Line and column are only computed when asked,
+     * that is when an error is reported.
+     */
+    private class StringPositionReader extends NormalizingReader {
+
+        /**
+         * Read a single character.
+         */
+        public int read() throws IOException {
+            return AbstractParser.this.nextChar();
+        }
+
+        /**
+         * Returns the current line in the string.
+         */
+        public int getLine() {
+            int line = 1;
+            for (int i = 0; i < position; i++) {
+                switch (string.charAt(i)) {
+                case 13:
+                    if (i + 1 < position && string.charAt(i + 1) == 10) {
+                        i++;
+                    }
+                    line++;
+                    break;
+                case 10:
+                    line++;
+                }
+            }
+            return line;
+        }
+
+        /**
+         * Returns the current column in the string.
+         */
+        public int getColumn() {
+            int column = 0;
+            for (int i = position - 1; i >= 0; i--) {
+                char c = string.charAt(i);
+                if (c == 10 || c == 13) {
+                    break;
+                }
+                column++;
+            }
+            return column;
+        }
+
+        /**
+         * Close the stream.
+         */
+        public void close() throws IOException {
+        }
+    }
+
     /**
      * Returns the resource bundle base name.
      * @return BUNDLE_CLASSNAME.
@@ -234,7 +333,7 @@ public abstract class AbstractParser implements Parser {
             case 0x0D:
             case 0x0A:
             }
-            current = reader.read();
+            current = nextChar();
         }
     }
 
@@ -251,11 +350,11 @@ public abstract class AbstractParser implements Parser {
             case 0xD:
             case 0xA:
             }
-            current = reader.read();
+            current = nextChar();
         }
         if (current == ',') {
             wsp2: for (;;) {
-                switch (current = reader.read()) {
+                switch (current = nextChar()) {
                 default:
                     break wsp2;
                 case 0x20:
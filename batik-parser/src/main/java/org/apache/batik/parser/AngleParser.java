@@ -62,7 +62,7 @@ public class AngleParser extends NumberParser {
     protected void doParse() throws ParseException, IOException {
         angleHandler.startAngle();
 
-        current = reader.read();
+        current = nextChar();
         skipSpaces();
 
         try {
@@ -78,51 +78,51 @@ public class AngleParser extends NumberParser {
 
                 switch (current) {
                 case 'd':
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'e') {
                         reportCharacterExpectedError('e', current );
                         break;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'g') {
                         reportCharacterExpectedError('g', current );
                         break;
                     }
                     angleHandler.deg();
-                    current = reader.read();
+                    current = nextChar();
                     break;
                 case 'g':
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'r') {
                         reportCharacterExpectedError('r', current );
                         break;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'a') {
                         reportCharacterExpectedError('a', current );
                         break;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'd') {
                         reportCharacterExpectedError('d', current );
                         break;
                     }
                     angleHandler.grad();
-                    current = reader.read();
+                    current = nextChar();
                     break;
                 case 'r':
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'a') {
                         reportCharacterExpectedError('a', current );
                         break;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'd') {
                         reportCharacterExpectedError('d', current );
                         break;
                     }
                     angleHandler.rad();
-                    current = reader.read();
+                    current = nextChar();
                     break;
                 default:
                     reportUnexpectedCharacterError( current );
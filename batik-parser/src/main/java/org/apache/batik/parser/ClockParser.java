@@ -64,7 +64,7 @@ public class ClockParser extends TimingParser {
      * Parses a clock value.
      */
     protected void doParse() throws ParseException, IOException {
-        current = reader.read();
+        current = nextChar();
         float clockValue = parseOffset ? parseOffset() : parseClockValue();
         if (current != -1) {
             reportError("end.of.stream.expected",
@@ -83,7 +83,7 @@ public class FragmentIdentifierParser extends NumberParser {
     protected void doParse() throws ParseException, IOException {
         bufferSize = 0;
 
-        current = reader.read();
+        current = nextChar();
 
         fragmentIdentifierHandler.startFragmentIdentifier();
 
@@ -93,76 +93,76 @@ public class FragmentIdentifierParser extends NumberParser {
             switch (current) {
             case 'x':
                 bufferize();
-                current = reader.read();
+                current = nextChar();
                 if (current != 'p') {
                     parseIdentifier();
                     break;
                 }
                 bufferize();
-                current = reader.read();
+                current = nextChar();
                 if (current != 'o') {
                     parseIdentifier();
                     break;
                 }
                 bufferize();
-                current = reader.read();
+                current = nextChar();
                 if (current != 'i') {
                     parseIdentifier();
                     break;
                 }
                 bufferize();
-                current = reader.read();
+                current = nextChar();
                 if (current != 'n') {
                     parseIdentifier();
                     break;
                 }
                 bufferize();
-                current = reader.read();
+                current = nextChar();
                 if (current != 't') {
                     parseIdentifier();
                     break;
                 }
                 bufferize();
-                current = reader.read();
+                current = nextChar();
                 if (current != 'e') {
                     parseIdentifier();
                     break;
                 }
                 bufferize();
-                current = reader.read();
+                current = nextChar();
                 if (current != 'r') {
                     parseIdentifier();
                     break;
                 }
                 bufferize();
-                current = reader.read();
+                current = nextChar();
                 if (current != '(') {
                     parseIdentifier();
                     break;
                 }
                 bufferSize = 0;
-                current = reader.read();
+                current = nextChar();
                 if (current != 'i') {
                     reportCharacterExpectedError( 'i', current );
                     break ident;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'd') {
                     reportCharacterExpectedError( 'd', current );
                     break ident;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != '(') {
                     reportCharacterExpectedError( '(', current );
                     break ident;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != '"' && current != '\'') {
                     reportCharacterExpectedError( '\'', current );
                     break ident;
                 }
                 char q = (char)current;
-                current = reader.read();
+                current = nextChar();
                 parseIdentifier();
 
                 id = getBufferContent();
@@ -173,12 +173,12 @@ public class FragmentIdentifierParser extends NumberParser {
                     reportCharacterExpectedError( q, current );
                     break ident;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != ')') {
                     reportCharacterExpectedError( ')', current );
                     break ident;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != ')') {
                     reportCharacterExpectedError( ')', current );
                 }
@@ -186,49 +186,49 @@ public class FragmentIdentifierParser extends NumberParser {
 
             case 's':
                 bufferize();
-                current = reader.read();
+                current = nextChar();
                 if (current != 'v') {
                     parseIdentifier();
                     break;
                 }
                 bufferize();
-                current = reader.read();
+                current = nextChar();
                 if (current != 'g') {
                     parseIdentifier();
                     break;
                 }
                 bufferize();
-                current = reader.read();
+                current = nextChar();
                 if (current != 'V') {
                     parseIdentifier();
                     break;
                 }
                 bufferize();
-                current = reader.read();
+                current = nextChar();
                 if (current != 'i') {
                     parseIdentifier();
                     break;
                 }
                 bufferize();
-                current = reader.read();
+                current = nextChar();
                 if (current != 'e') {
                     parseIdentifier();
                     break;
                 }
                 bufferize();
-                current = reader.read();
+                current = nextChar();
                 if (current != 'w') {
                     parseIdentifier();
                     break;
                 }
                 bufferize();
-                current = reader.read();
+                current = nextChar();
                 if (current != '(') {
                     parseIdentifier();
                     break;
                 }
                 bufferSize = 0;
-                current = reader.read();
+                current = nextChar();
                 parseViewAttributes();
 
                 if (current != ')') {
@@ -242,7 +242,7 @@ public class FragmentIdentifierParser extends NumberParser {
                     break ident;
                 }
                 bufferize();
-                current = reader.read();
+                current = nextChar();
                 parseIdentifier();
             }
             id = getBufferContent();
@@ -273,73 +273,73 @@ public class FragmentIdentifierParser extends NumberParser {
                     reportUnexpectedCharacterError( current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 break;
             case 'v':
                 first = false;
-                current = reader.read();
+                current = nextChar();
                 if (current != 'i') {
                     reportCharacterExpectedError( 'i', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'e') {
                     reportCharacterExpectedError( 'e', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'w') {
                     reportCharacterExpectedError( 'w', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
 
                 switch (current) {
                 case 'B':
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'o') {
                         reportCharacterExpectedError( 'o', current );
                         break loop;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'x') {
                         reportCharacterExpectedError( 'x', current );
                         break loop;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     if (current != '(') {
                         reportCharacterExpectedError( '(', current );
                         break loop;
                     }
-                    current = reader.read();
+                    current = nextChar();
 
                     float x = parseFloat();
                     if (current != ',') {
                         reportCharacterExpectedError( ',', current );
                         break loop;
                     }
-                    current = reader.read();
+                    current = nextChar();
 
                     float y = parseFloat();
                     if (current != ',') {
                         reportCharacterExpectedError( ',', current );
                         break loop;
                     }
-                    current = reader.read();
+                    current = nextChar();
 
                     float w = parseFloat();
                     if (current != ',') {
                         reportCharacterExpectedError( ',', current );
                         break loop;
                     }
-                    current = reader.read();
+                    current = nextChar();
 
                     float h = parseFloat();
                     if (current != ')') {
                         reportCharacterExpectedError( ')', current );
                         break loop;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     fragmentIdentifierHandler.viewBox(x, y, w, h);
                     if (current != ')' && current != ';') {
                         reportCharacterExpectedError( ')', current );
@@ -348,37 +348,37 @@ public class FragmentIdentifierParser extends NumberParser {
                     break;
 
                 case 'T':
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'a') {
                         reportCharacterExpectedError( 'a', current );
                         break loop;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'r') {
                         reportCharacterExpectedError( 'r', current );
                         break loop;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'g') {
                         reportCharacterExpectedError( 'g', current );
                         break loop;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'e') {
                         reportCharacterExpectedError( 'e', current );
                         break loop;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 't') {
                         reportCharacterExpectedError( 't', current );
                         break loop;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     if (current != '(') {
                         reportCharacterExpectedError( '(', current );
                         break loop;
                     }
-                    current = reader.read();
+                    current = nextChar();
 
                     fragmentIdentifierHandler.startViewTarget();
 
@@ -390,7 +390,7 @@ public class FragmentIdentifierParser extends NumberParser {
                             break loop;
                         }
                         bufferize();
-                        current = reader.read();
+                        current = nextChar();
                         parseIdentifier();
                         String s = getBufferContent();
 
@@ -399,11 +399,11 @@ public class FragmentIdentifierParser extends NumberParser {
                         bufferSize = 0;
                         switch (current) {
                         case ')':
-                            current = reader.read();
+                            current = nextChar();
                             break id;
                         case ',':
                         case ';':
-                            current = reader.read();
+                            current = nextChar();
                             break;
                         default:
                             reportUnexpectedCharacterError( current );
@@ -421,102 +421,102 @@ public class FragmentIdentifierParser extends NumberParser {
                 break;
             case 'p':
                 first = false;
-                current = reader.read();
+                current = nextChar();
                 if (current != 'r') {
                     reportCharacterExpectedError( 'r', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'e') {
                     reportCharacterExpectedError( 'e', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 's') {
                     reportCharacterExpectedError( 's', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'e') {
                     reportCharacterExpectedError( 'e', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'r') {
                     reportCharacterExpectedError( 'r', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'v') {
                     reportCharacterExpectedError( 'v', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'e') {
                     reportCharacterExpectedError( 'e', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'A') {
                     reportCharacterExpectedError( 'A', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 's') {
                     reportCharacterExpectedError( 's', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'p') {
                     reportCharacterExpectedError( 'p', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'e') {
                     reportCharacterExpectedError( 'e', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'c') {
                     reportCharacterExpectedError( 'c', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 't') {
                     reportCharacterExpectedError( 't', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'R') {
                     reportCharacterExpectedError( 'R', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'a') {
                     reportCharacterExpectedError( 'a', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 't') {
                     reportCharacterExpectedError( 't', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'i') {
                     reportCharacterExpectedError( 'i', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'o') {
                     reportCharacterExpectedError( 'o', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != '(') {
                     reportCharacterExpectedError( '(', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
 
                 parsePreserveAspectRatio();
 
@@ -524,52 +524,52 @@ public class FragmentIdentifierParser extends NumberParser {
                     reportCharacterExpectedError( ')', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 break;
 
             case 't':
                 first = false;
-                current = reader.read();
+                current = nextChar();
                 if (current != 'r') {
                     reportCharacterExpectedError( 'r', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'a') {
                     reportCharacterExpectedError( 'a', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'n') {
                     reportCharacterExpectedError( 'n', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 's') {
                     reportCharacterExpectedError( 's', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'f') {
                     reportCharacterExpectedError( 'f', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'o') {
                     reportCharacterExpectedError( 'o', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'r') {
                     reportCharacterExpectedError( 'r', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'm') {
                     reportCharacterExpectedError( 'm', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != '(') {
                     reportCharacterExpectedError( '(', current );
                     break loop;
@@ -579,7 +579,7 @@ public class FragmentIdentifierParser extends NumberParser {
 
                 tloop: for (;;) {
                     try {
-                        current = reader.read();
+                        current = nextChar();
                         switch (current) {
                         case ',':
                             break;
@@ -593,7 +593,7 @@ public class FragmentIdentifierParser extends NumberParser {
                             parseTranslate();
                             break;
                         case 's':
-                            current = reader.read();
+                            current = nextChar();
                             switch (current) {
                             case 'c':
                                 parseScale();
@@ -620,126 +620,126 @@ public class FragmentIdentifierParser extends NumberParser {
 
             case 'z':
                 first = false;
-                current = reader.read();
+                current = nextChar();
                 if (current != 'o') {
                     reportCharacterExpectedError( 'o', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'o') {
                     reportCharacterExpectedError( 'o', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'm') {
                     reportCharacterExpectedError( 'm', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'A') {
                     reportCharacterExpectedError( 'A', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'n') {
                     reportCharacterExpectedError( 'n', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'd') {
                     reportCharacterExpectedError( 'd', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'P') {
                     reportCharacterExpectedError( 'P', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'a') {
                     reportCharacterExpectedError( 'a', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'n') {
                     reportCharacterExpectedError( 'n', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != '(') {
                     reportCharacterExpectedError( '(', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
 
                 switch (current) {
                 case 'm':
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'a') {
                         reportCharacterExpectedError( 'a', current );
                         break loop;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'g') {
                         reportCharacterExpectedError( 'g', current );
                         break loop;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'n') {
                         reportCharacterExpectedError( 'n', current );
                         break loop;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'i') {
                         reportCharacterExpectedError( 'i', current );
                         break loop;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'f') {
                         reportCharacterExpectedError( 'f', current );
                         break loop;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'y') {
                         reportCharacterExpectedError( 'y', current );
                         break loop;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     fragmentIdentifierHandler.zoomAndPan(true);
                     break;
 
                 case 'd':
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'i') {
                         reportCharacterExpectedError( 'i', current );
                         break loop;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 's') {
                         reportCharacterExpectedError( 's', current );
                         break loop;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'a') {
                         reportCharacterExpectedError( 'a', current );
                         break loop;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'b') {
                         reportCharacterExpectedError( 'b', current );
                         break loop;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'l') {
                         reportCharacterExpectedError( 'l', current );
                         break loop;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'e') {
                         reportCharacterExpectedError( 'e', current );
                         break loop;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     fragmentIdentifierHandler.zoomAndPan(false);
                     break;
 
@@ -752,7 +752,7 @@ public class FragmentIdentifierParser extends NumberParser {
                     reportCharacterExpectedError( ')', current );
                     break loop;
                 }
-                current = reader.read();
+                current = nextChar();
             }
         }
     }
@@ -767,7 +767,7 @@ public class FragmentIdentifierParser extends NumberParser {
                 break;
             }
             bufferize();
-            current = reader.read();
+            current = nextChar();
         }
     }
 
@@ -796,7 +796,7 @@ public class FragmentIdentifierParser extends NumberParser {
      */
     protected void skipSpaces() throws IOException {
         if (current == ',') {
-            current = reader.read();
+            current = nextChar();
         }
     }
 
@@ -805,7 +805,7 @@ public class FragmentIdentifierParser extends NumberParser {
      */
     protected void skipCommaSpaces() throws IOException {
         if (current == ',') {
-            current = reader.read();
+            current = nextChar();
         }
     }
 
@@ -813,7 +813,7 @@ public class FragmentIdentifierParser extends NumberParser {
      * Parses a matrix transform. 'm' is assumed to be the current character.
      */
     protected void parseMatrix() throws ParseException, IOException {
-        current = reader.read();
+        current = nextChar();
 
         // Parse 'atrix wsp? ( wsp?'
         if (current != 'a') {
@@ -821,38 +821,38 @@ public class FragmentIdentifierParser extends NumberParser {
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 't') {
             reportCharacterExpectedError( 't', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 'r') {
             reportCharacterExpectedError( 'r', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 'i') {
             reportCharacterExpectedError( 'i', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 'x') {
             reportCharacterExpectedError( 'x', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         skipSpaces();
         if (current != '(') {
             reportCharacterExpectedError( '(', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         skipSpaces();
 
         float a = parseFloat();
@@ -881,7 +881,7 @@ public class FragmentIdentifierParser extends NumberParser {
      * Parses a rotate transform. 'r' is assumed to be the current character.
      */
     protected void parseRotate() throws ParseException, IOException {
-        current = reader.read();
+        current = nextChar();
 
         // Parse 'otate wsp? ( wsp?'
         if (current != 'o') {
@@ -889,31 +889,31 @@ public class FragmentIdentifierParser extends NumberParser {
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 't') {
             reportCharacterExpectedError( 't', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 'a') {
             reportCharacterExpectedError( 'a', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 't') {
             reportCharacterExpectedError( 't', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 'e') {
             reportCharacterExpectedError( 'e', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         skipSpaces();
 
         if (current != '(') {
@@ -921,7 +921,7 @@ public class FragmentIdentifierParser extends NumberParser {
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         skipSpaces();
 
         float theta = parseFloat();
@@ -932,7 +932,7 @@ public class FragmentIdentifierParser extends NumberParser {
             fragmentIdentifierHandler.rotate(theta);
             return;
         case ',':
-            current = reader.read();
+            current = nextChar();
             skipSpaces();
         }
 
@@ -955,7 +955,7 @@ public class FragmentIdentifierParser extends NumberParser {
      * the current character.
      */
     protected void parseTranslate() throws ParseException, IOException {
-        current = reader.read();
+        current = nextChar();
 
         // Parse 'ranslate wsp? ( wsp?'
         if (current != 'r') {
@@ -963,56 +963,56 @@ public class FragmentIdentifierParser extends NumberParser {
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 'a') {
             reportCharacterExpectedError( 'a', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 'n') {
             reportCharacterExpectedError( 'n', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 's') {
             reportCharacterExpectedError( 's', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 'l') {
             reportCharacterExpectedError( 'l', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 'a') {
             reportCharacterExpectedError( 'a', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 't') {
             reportCharacterExpectedError( 't', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 'e') {
             reportCharacterExpectedError( 'e', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         skipSpaces();
         if (current != '(') {
             reportCharacterExpectedError( '(', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         skipSpaces();
 
         float tx = parseFloat();
@@ -1023,7 +1023,7 @@ public class FragmentIdentifierParser extends NumberParser {
             fragmentIdentifierHandler.translate(tx);
             return;
         case ',':
-            current = reader.read();
+            current = nextChar();
             skipSpaces();
         }
 
@@ -1043,7 +1043,7 @@ public class FragmentIdentifierParser extends NumberParser {
      * Parses a scale transform. 'c' is assumed to be the current character.
      */
     protected void parseScale() throws ParseException, IOException {
-        current = reader.read();
+        current = nextChar();
 
         // Parse 'ale wsp? ( wsp?'
         if (current != 'a') {
@@ -1051,26 +1051,26 @@ public class FragmentIdentifierParser extends NumberParser {
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 'l') {
             reportCharacterExpectedError( 'l', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 'e') {
             reportCharacterExpectedError( 'e', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         skipSpaces();
         if (current != '(') {
             reportCharacterExpectedError( '(', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         skipSpaces();
 
         float sx = parseFloat();
@@ -1081,7 +1081,7 @@ public class FragmentIdentifierParser extends NumberParser {
             fragmentIdentifierHandler.scale(sx);
             return;
         case ',':
-            current = reader.read();
+            current = nextChar();
             skipSpaces();
         }
 
@@ -1101,7 +1101,7 @@ public class FragmentIdentifierParser extends NumberParser {
      * Parses a skew transform. 'e' is assumed to be the current character.
      */
     protected void parseSkew() throws ParseException, IOException {
-        current = reader.read();
+        current = nextChar();
 
         // Parse 'ew[XY] wsp? ( wsp?'
         if (current != 'e') {
@@ -1109,13 +1109,13 @@ public class FragmentIdentifierParser extends NumberParser {
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 'w') {
             reportCharacterExpectedError( 'w', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
 
         boolean skewX = false;
         switch (current) {
@@ -1129,14 +1129,14 @@ public class FragmentIdentifierParser extends NumberParser {
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         skipSpaces();
         if (current != '(') {
             reportCharacterExpectedError( '(', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         skipSpaces();
 
         float sk = parseFloat();
@@ -1160,7 +1160,7 @@ public class FragmentIdentifierParser extends NumberParser {
      */
     protected void skipTransform() throws IOException {
         loop: for (;;) {
-            current = reader.read();
+            current = nextChar();
             switch (current) {
                 case ')':
                     break loop;
@@ -1181,79 +1181,79 @@ public class FragmentIdentifierParser extends NumberParser {
 
         align: switch (current) {
         case 'n':
-            current = reader.read();
+            current = nextChar();
             if (current != 'o') {
                 reportCharacterExpectedError( 'o', current );
                 skipIdentifier();
                 break align;
             }
-            current = reader.read();
+            current = nextChar();
             if (current != 'n') {
                 reportCharacterExpectedError( 'n', current );
                 skipIdentifier();
                 break align;
             }
-            current = reader.read();
+            current = nextChar();
             if (current != 'e') {
                 reportCharacterExpectedError( 'e', current );
                 skipIdentifier();
                 break align;
             }
-            current = reader.read();
+            current = nextChar();
             skipSpaces();
             fragmentIdentifierHandler.none();
             break;
 
         case 'x':
-            current = reader.read();
+            current = nextChar();
             if (current != 'M') {
                 reportCharacterExpectedError( 'M', current );
                 skipIdentifier();
                 break;
             }
-            current = reader.read();
+            current = nextChar();
             switch (current) {
             case 'a':
-                current = reader.read();
+                current = nextChar();
                 if (current != 'x') {
                     reportCharacterExpectedError( 'x', current );
                     skipIdentifier();
                     break align;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'Y') {
                     reportCharacterExpectedError( 'Y', current );
                     skipIdentifier();
                     break align;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'M') {
                     reportCharacterExpectedError( 'M', current );
                     skipIdentifier();
                     break align;
                 }
-                current = reader.read();
+                current = nextChar();
                 switch (current) {
                 case 'a':
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'x') {
                         reportCharacterExpectedError( 'x', current );
                         skipIdentifier();
                         break align;
                     }
                     fragmentIdentifierHandler.xMaxYMax();
-                    current = reader.read();
+                    current = nextChar();
                     break;
                 case 'i':
-                    current = reader.read();
+                    current = nextChar();
                     switch (current) {
                     case 'd':
                         fragmentIdentifierHandler.xMaxYMid();
-                        current = reader.read();
+                        current = nextChar();
                         break;
                     case 'n':
                         fragmentIdentifierHandler.xMaxYMin();
-                        current = reader.read();
+                        current = nextChar();
                         break;
                     default:
                         reportUnexpectedCharacterError( current );
@@ -1263,43 +1263,43 @@ public class FragmentIdentifierParser extends NumberParser {
                 }
                 break;
             case 'i':
-                current = reader.read();
+                current = nextChar();
                 switch (current) {
                 case 'd':
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'Y') {
                         reportCharacterExpectedError( 'Y', current );
                         skipIdentifier();
                         break align;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'M') {
                         reportCharacterExpectedError( 'M', current );
                         skipIdentifier();
                         break align;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     switch (current) {
                     case 'a':
-                        current = reader.read();
+                        current = nextChar();
                         if (current != 'x') {
                             reportCharacterExpectedError( 'x', current );
                             skipIdentifier();
                             break align;
                         }
                         fragmentIdentifierHandler.xMidYMax();
-                        current = reader.read();
+                        current = nextChar();
                         break;
                     case 'i':
-                        current = reader.read();
+                        current = nextChar();
                         switch (current) {
                         case 'd':
                             fragmentIdentifierHandler.xMidYMid();
-                            current = reader.read();
+                            current = nextChar();
                             break;
                         case 'n':
                             fragmentIdentifierHandler.xMidYMin();
-                            current = reader.read();
+                            current = nextChar();
                             break;
                         default:
                             reportUnexpectedCharacterError( current );
@@ -1309,40 +1309,40 @@ public class FragmentIdentifierParser extends NumberParser {
                     }
                     break;
                 case 'n':
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'Y') {
                         reportCharacterExpectedError( 'Y', current );
                         skipIdentifier();
                         break align;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'M') {
                         reportCharacterExpectedError( 'M', current );
                         skipIdentifier();
                         break align;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     switch (current) {
                     case 'a':
-                        current = reader.read();
+                        current = nextChar();
                         if (current != 'x') {
                             reportCharacterExpectedError( 'x', current );
                             skipIdentifier();
                             break align;
                         }
                         fragmentIdentifierHandler.xMinYMax();
-                        current = reader.read();
+                        current = nextChar();
                         break;
                     case 'i':
-                        current = reader.read();
+                        current = nextChar();
                         switch (current) {
                         case 'd':
                             fragmentIdentifierHandler.xMinYMid();
-                            current = reader.read();
+                            current = nextChar();
                             break;
                         case 'n':
                             fragmentIdentifierHandler.xMinYMin();
-                            current = reader.read();
+                            current = nextChar();
                             break;
                         default:
                             reportUnexpectedCharacterError( current );
@@ -1373,54 +1373,54 @@ public class FragmentIdentifierParser extends NumberParser {
 
         switch (current) {
         case 'm':
-            current = reader.read();
+            current = nextChar();
             if (current != 'e') {
                 reportCharacterExpectedError( 'e', current );
                 skipIdentifier();
                 break;
             }
-            current = reader.read();
+            current = nextChar();
             if (current != 'e') {
                 reportCharacterExpectedError( 'e', current );
                 skipIdentifier();
                 break;
             }
-            current = reader.read();
+            current = nextChar();
             if (current != 't') {
                 reportCharacterExpectedError( 't', current );
                 skipIdentifier();
                 break;
             }
             fragmentIdentifierHandler.meet();
-            current = reader.read();
+            current = nextChar();
             break;
         case 's':
-            current = reader.read();
+            current = nextChar();
             if (current != 'l') {
                 reportCharacterExpectedError( 'l', current );
                 skipIdentifier();
                 break;
             }
-            current = reader.read();
+            current = nextChar();
             if (current != 'i') {
                 reportCharacterExpectedError( 'i', current );
                 skipIdentifier();
                 break;
             }
-            current = reader.read();
+            current = nextChar();
             if (current != 'c') {
                 reportCharacterExpectedError( 'c', current );
                 skipIdentifier();
                 break;
             }
-            current = reader.read();
+            current = nextChar();
             if (current != 'e') {
                 reportCharacterExpectedError( 'e', current );
                 skipIdentifier();
                 break;
             }
             fragmentIdentifierHandler.slice();
-            current = reader.read();
+            current = nextChar();
         }
 
         fragmentIdentifierHandler.endPreserveAspectRatio();
@@ -1431,10 +1431,10 @@ public class FragmentIdentifierParser extends NumberParser {
      */
     protected void skipIdentifier() throws IOException {
         loop: for (;;) {
-          current = reader.read();
+          current = nextChar();
           switch(current) {
               case 0xD: case 0xA: case 0x20: case 0x9:
-                  current = reader.read();
+                  current = nextChar();
               case -1:
                   break loop;
           }
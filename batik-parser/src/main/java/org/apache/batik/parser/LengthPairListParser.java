@@ -36,7 +36,7 @@ public class LengthPairListParser extends LengthListParser {
     protected void doParse() throws ParseException, IOException {
         ((LengthListHandler) lengthHandler).startLengthList();
 
-        current = reader.read();
+        current = nextChar();
         skipSpaces();
 
         try {
@@ -55,7 +55,7 @@ public class LengthPairListParser extends LengthListParser {
                 if (current != ';') {
                     reportUnexpectedCharacterError( current );
                 }
-                current = reader.read();
+                current = nextChar();
                 skipSpaces();
             }
         } catch (NumberFormatException e) {
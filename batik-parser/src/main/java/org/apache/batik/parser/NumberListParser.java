@@ -67,7 +67,7 @@ public class NumberListParser extends NumberParser {
     protected void doParse() throws ParseException, IOException {
         numberListHandler.startNumberList();
 
-        current = reader.read();
+        current = nextChar();
         skipSpaces();
 
         try {
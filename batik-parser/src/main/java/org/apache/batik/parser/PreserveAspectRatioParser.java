@@ -69,7 +69,7 @@ public class PreserveAspectRatioParser extends AbstractParser {
      * Parses the current stream.
      */
     protected void doParse() throws ParseException, IOException {
-        current = reader.read();
+        current = nextChar();
         skipSpaces();
 
         parsePreserveAspectRatio();
@@ -84,79 +84,79 @@ public class PreserveAspectRatioParser extends AbstractParser {
 
         align: switch (current) {
         case 'n':
-            current = reader.read();
+            current = nextChar();
             if (current != 'o') {
                 reportCharacterExpectedError( 'o',current );
                 skipIdentifier();
                 break align;
             }
-            current = reader.read();
+            current = nextChar();
             if (current != 'n') {
                 reportCharacterExpectedError( 'o',current );
                 skipIdentifier();
                 break align;
             }
-            current = reader.read();
+            current = nextChar();
             if (current != 'e') {
                 reportCharacterExpectedError( 'e',current );
                 skipIdentifier();
                 break align;
             }
-            current = reader.read();
+            current = nextChar();
             skipSpaces();
             preserveAspectRatioHandler.none();
             break;
 
         case 'x':
-            current = reader.read();
+            current = nextChar();
             if (current != 'M') {
                 reportCharacterExpectedError( 'M',current );
                 skipIdentifier();
                 break;
             }
-            current = reader.read();
+            current = nextChar();
             switch (current) {
             case 'a':
-                current = reader.read();
+                current = nextChar();
                 if (current != 'x') {
                     reportCharacterExpectedError( 'x',current );
                     skipIdentifier();
                     break align;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'Y') {
                     reportCharacterExpectedError( 'Y',current );
                     skipIdentifier();
                     break align;
                 }
-                current = reader.read();
+                current = nextChar();
                 if (current != 'M') {
                     reportCharacterExpectedError( 'M',current );
                     skipIdentifier();
                     break align;
                 }
-                current = reader.read();
+                current = nextChar();
                 switch (current) {
                 case 'a':
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'x') {
                         reportCharacterExpectedError( 'x',current );
                         skipIdentifier();
                         break align;
                     }
                     preserveAspectRatioHandler.xMaxYMax();
-                    current = reader.read();
+                    current = nextChar();
                     break;
                 case 'i':
-                    current = reader.read();
+                    current = nextChar();
                     switch (current) {
                     case 'd':
                         preserveAspectRatioHandler.xMaxYMid();
-                        current = reader.read();
+                        current = nextChar();
                         break;
                     case 'n':
                         preserveAspectRatioHandler.xMaxYMin();
-                        current = reader.read();
+                        current = nextChar();
                         break;
                     default:
                         reportUnexpectedCharacterError( current );
@@ -166,43 +166,43 @@ public class PreserveAspectRatioParser extends AbstractParser {
                 }
                 break;
             case 'i':
-                current = reader.read();
+                current = nextChar();
                 switch (current) {
                 case 'd':
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'Y') {
                         reportCharacterExpectedError( 'Y',current );
                         skipIdentifier();
                         break align;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'M') {
                         reportCharacterExpectedError( 'M',current );
                         skipIdentifier();
                         break align;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     switch (current) {
                     case 'a':
-                        current = reader.read();
+                        current = nextChar();
                         if (current != 'x') {
                             reportCharacterExpectedError( 'x',current );
                             skipIdentifier();
                             break align;
                         }
                         preserveAspectRatioHandler.xMidYMax();
-                        current = reader.read();
+                        current = nextChar();
                         break;
                     case 'i':
-                        current = reader.read();
+                        current = nextChar();
                         switch (current) {
                         case 'd':
                             preserveAspectRatioHandler.xMidYMid();
-                            current = reader.read();
+                            current = nextChar();
                             break;
                         case 'n':
                             preserveAspectRatioHandler.xMidYMin();
-                            current = reader.read();
+                            current = nextChar();
                             break;
                         default:
                             reportUnexpectedCharacterError( current );
@@ -212,40 +212,40 @@ public class PreserveAspectRatioParser extends AbstractParser {
                     }
                     break;
                 case 'n':
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'Y') {
                         reportCharacterExpectedError( 'Y',current );
                         skipIdentifier();
                         break align;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     if (current != 'M') {
                         reportCharacterExpectedError( 'M',current );
                         skipIdentifier();
                         break align;
                     }
-                    current = reader.read();
+                    current = nextChar();
                     switch (current) {
                     case 'a':
-                        current = reader.read();
+                        current = nextChar();
                         if (current != 'x') {
                             reportCharacterExpectedError( 'x',current );
                             skipIdentifier();
                             break align;
                         }
                         preserveAspectRatioHandler.xMinYMax();
-                        current = reader.read();
+                        current = nextChar();
                         break;
                     case 'i':
-                        current = reader.read();
+                        current = nextChar();
                         switch (current) {
                         case 'd':
                             preserveAspectRatioHandler.xMinYMid();
-                            current = reader.read();
+                            current = nextChar();
                             break;
                         case 'n':
                             preserveAspectRatioHandler.xMinYMin();
-                            current = reader.read();
+                            current = nextChar();
                             break;
                         default:
                             reportUnexpectedCharacterError( current );
@@ -276,54 +276,54 @@ public class PreserveAspectRatioParser extends AbstractParser {
 
         switch (current) {
         case 'm':
-            current = reader.read();
+            current = nextChar();
             if (current != 'e') {
                 reportCharacterExpectedError( 'e',current );
                 skipIdentifier();
                 break;
             }
-            current = reader.read();
+            current = nextChar();
             if (current != 'e') {
                 reportCharacterExpectedError( 'e',current );
                 skipIdentifier();
                 break;
             }
-            current = reader.read();
+            current = nextChar();
             if (current != 't') {
                 reportCharacterExpectedError( 't',current );
                 skipIdentifier();
                 break;
             }
             preserveAspectRatioHandler.meet();
-            current = reader.read();
+            current = nextChar();
             break;
         case 's':
-            current = reader.read();
+            current = nextChar();
             if (current != 'l') {
                 reportCharacterExpectedError( 'l',current );
                 skipIdentifier();
                 break;
             }
-            current = reader.read();
+            current = nextChar();
             if (current != 'i') {
                 reportCharacterExpectedError( 'i',current );
                 skipIdentifier();
                 break;
             }
-            current = reader.read();
+            current = nextChar();
             if (current != 'c') {
                 reportCharacterExpectedError( 'c',current );
                 skipIdentifier();
                 break;
             }
-            current = reader.read();
+            current = nextChar();
             if (current != 'e') {
                 reportCharacterExpectedError( 'e',current );
                 skipIdentifier();
                 break;
             }
             preserveAspectRatioHandler.slice();
-            current = reader.read();
+            current = nextChar();
             break;
         default:
             if (current != -1) {
@@ -346,10 +346,10 @@ public class PreserveAspectRatioParser extends AbstractParser {
      */
     protected void skipIdentifier() throws IOException {
         loop: for (;;) {
-            current = reader.read();
+            current = nextChar();
             switch(current) {
             case 0xD: case 0xA: case 0x20: case 0x9:
-                current = reader.read();
+                current = nextChar();
                 break loop;
             default:
                 if (current == -1) {
@@ -61,7 +61,7 @@ public class TimingSpecifierListParser extends TimingSpecifierParser {
      * Parses a timing specifier list.
      */
     protected void doParse() throws ParseException, IOException {
-        current = reader.read();
+        current = nextChar();
 
         ((TimingSpecifierListHandler) timingSpecifierHandler)
             .startTimingSpecifierList();
@@ -77,7 +77,7 @@ public class TimingSpecifierListParser extends TimingSpecifierParser {
                     break;
                 }
                 if (current == ';') {
-                    current = reader.read();
+                    current = nextChar();
                     continue;
                 }
                 reportUnexpectedCharacterError( current );
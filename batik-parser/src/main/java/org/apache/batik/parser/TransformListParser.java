@@ -71,7 +71,7 @@ public class TransformListParser extends NumberParser {
 
         loop: for (;;) {
             try {
-                current = reader.read();
+                current = nextChar();
                 switch (current) {
                 case 0xD:
                 case 0xA:
@@ -89,7 +89,7 @@ public class TransformListParser extends NumberParser {
                     parseTranslate();
                     break;
                 case 's':
-                    current = reader.read();
+                    current = nextChar();
                     switch (current) {
                     case 'c':
                         parseScale();
@@ -126,7 +126,7 @@ public class TransformListParser extends NumberParser {
      * Parses a matrix transform. 'm' is assumed to be the current character.
      */
     protected void parseMatrix() throws ParseException, IOException {
-        current = reader.read();
+        current = nextChar();
 
         // Parse 'atrix wsp? ( wsp?'
         if (current != 'a') {
@@ -134,38 +134,38 @@ public class TransformListParser extends NumberParser {
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 't') {
             reportCharacterExpectedError('t', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 'r') {
             reportCharacterExpectedError('r', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 'i') {
             reportCharacterExpectedError('i', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 'x') {
             reportCharacterExpectedError('x', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         skipSpaces();
         if (current != '(') {
             reportCharacterExpectedError('(', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         skipSpaces();
 
         float a = parseFloat();
@@ -194,7 +194,7 @@ public class TransformListParser extends NumberParser {
      * Parses a rotate transform. 'r' is assumed to be the current character.
      */
     protected void parseRotate() throws ParseException, IOException {
-        current = reader.read();
+        current = nextChar();
 
         // Parse 'otate wsp? ( wsp?'
         if (current != 'o') {
@@ -202,31 +202,31 @@ public class TransformListParser extends NumberParser {
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 't') {
             reportCharacterExpectedError('t', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 'a') {
             reportCharacterExpectedError('a', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 't') {
             reportCharacterExpectedError('t', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 'e') {
             reportCharacterExpectedError('e', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         skipSpaces();
 
         if (current != '(') {
@@ -234,7 +234,7 @@ public class TransformListParser extends NumberParser {
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         skipSpaces();
 
         float theta = parseFloat();
@@ -245,7 +245,7 @@ public class TransformListParser extends NumberParser {
             transformListHandler.rotate(theta);
             return;
         case ',':
-            current = reader.read();
+            current = nextChar();
             skipSpaces();
         }
 
@@ -268,7 +268,7 @@ public class TransformListParser extends NumberParser {
      * the current character.
      */
     protected void parseTranslate() throws ParseException, IOException {
-        current = reader.read();
+        current = nextChar();
 
         // Parse 'ranslate wsp? ( wsp?'
         if (current != 'r') {
@@ -276,56 +276,56 @@ public class TransformListParser extends NumberParser {
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 'a') {
             reportCharacterExpectedError('a', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 'n') {
             reportCharacterExpectedError('n', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 's') {
             reportCharacterExpectedError('s', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 'l') {
             reportCharacterExpectedError('l', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 'a') {
             reportCharacterExpectedError('a', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 't') {
             reportCharacterExpectedError('t', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 'e') {
             reportCharacterExpectedError('e', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         skipSpaces();
         if (current != '(') {
             reportCharacterExpectedError('(', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         skipSpaces();
 
         float tx = parseFloat();
@@ -336,7 +336,7 @@ public class TransformListParser extends NumberParser {
             transformListHandler.translate(tx);
             return;
         case ',':
-            current = reader.read();
+            current = nextChar();
             skipSpaces();
         }
 
@@ -356,7 +356,7 @@ public class TransformListParser extends NumberParser {
      * Parses a scale transform. 'c' is assumed to be the current character.
      */
     protected void parseScale() throws ParseException, IOException {
-        current = reader.read();
+        current = nextChar();
 
         // Parse 'ale wsp? ( wsp?'
         if (current != 'a') {
@@ -364,26 +364,26 @@ public class TransformListParser extends NumberParser {
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 'l') {
             reportCharacterExpectedError('l', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 'e') {
             reportCharacterExpectedError('e', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         skipSpaces();
         if (current != '(') {
             reportCharacterExpectedError('(', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         skipSpaces();
 
         float sx = parseFloat();
@@ -394,7 +394,7 @@ public class TransformListParser extends NumberParser {
             transformListHandler.scale(sx);
             return;
         case ',':
-            current = reader.read();
+            current = nextChar();
             skipSpaces();
         }
 
@@ -414,7 +414,7 @@ public class TransformListParser extends NumberParser {
      * Parses a skew transform. 'e' is assumed to be the current character.
      */
     protected void parseSkew() throws ParseException, IOException {
-        current = reader.read();
+        current = nextChar();
 
         // Parse 'ew[XY] wsp? ( wsp?'
         if (current != 'e') {
@@ -422,13 +422,13 @@ public class TransformListParser extends NumberParser {
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         if (current != 'w') {
             reportCharacterExpectedError('w', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
 
         boolean skewX = false;
         switch (current) {
@@ -442,14 +442,14 @@ public class TransformListParser extends NumberParser {
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         skipSpaces();
         if (current != '(') {
             reportCharacterExpectedError('(', current );
             skipTransform();
             return;
         }
-        current = reader.read();
+        current = nextChar();
         skipSpaces();
 
         float sk = parseFloat();
@@ -473,7 +473,7 @@ public class TransformListParser extends NumberParser {
      */
     protected void skipTransform() throws IOException {
         loop: for (;;) {
-            current = reader.read();
+            current = nextChar();
             switch (current) {
             case ')':
                 break loop;
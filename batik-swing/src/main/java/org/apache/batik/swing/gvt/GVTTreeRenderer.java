@@ -120,7 +120,7 @@ public class GVTTreeRenderer extends HaltingThread {
                 return;
             }
 
-            renderer.repaint(areaOfInterest);
+            render();
 
             if (isHalted()) {
                 fireEvent(cancelledDispatcher, ev);
@@ -145,6 +145,14 @@ public class GVTTreeRenderer extends HaltingThread {
         }
     }
 
+    /**
+     * Paints the area of interest into the offscreen of the renderer,
+     * once it has been set up.
+     */
+    protected void render() {
+        renderer.repaint(areaOfInterest);
+    }
+
     public void fireEvent(Dispatcher dispatcher, Object event) {
         EventDispatcher.fireEvent(dispatcher, listeners, event, true);
     }
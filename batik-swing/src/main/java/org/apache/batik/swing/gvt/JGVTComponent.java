@@ -25,6 +25,8 @@ import java.awt.Dimension;
 import java.awt.EventQueue;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.HeadlessException;
+import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.Toolkit;
@@ -119,6 +121,12 @@ public class JGVTComponent extends JComponent {
      */
     protected HaltingThread progressivePaintThread;
 
+    /**
+     * The number of threads painting tiles during a progressive paint.
+     */
+    protected int renderingThreadCount =
+        Runtime.getRuntime().availableProcessors();
+
     /**
      * The image to paint.
      */
@@ -522,6 +530,24 @@ public class JGVTComponent extends JComponent {
         return progressivePaint;
     }
 
+    /**
+     * Sets the number of threads painting tiles during a progressive
+     * paint.  The threads come from a pool shared by all the components,
+     * which has at most one thread per processor.  The change will be
+     * effective during the next rendering.
+     */
+    public void setRenderingThreadCount(int n) {
+        renderingThreadCount = Math.max(1, n);
+    }
+
+    /**
+     * Returns the number of threads painting tiles during a progressive
+     * paint.
+     */
+    public int getRenderingThreadCount() {
+        return renderingThreadCount;
+    }
+
     public Rectangle getRenderRect() {
         Dimension d = getSize();
         return new Rectangle(0, 0, d.width, d.height);
@@ -728,9 +754,20 @@ public class JGVTComponent extends JComponent {
         Shape s = inv.createTransformedShape(visRect);
 
         // Rendering thread setup.
-        gvtTreeRenderer = new GVTTreeRenderer(renderer, renderingTransform,
-                                              doubleBufferedRendering, s,
-                                              visRect.width, visRect.height);
+        if (progressivePaint && !doubleBufferedRendering) {
+            gvtTreeRenderer = new TiledGVTTreeRenderer
+                (renderer, renderingTransform, s,
+                 visRect.width, visRect.height,
+                 getRenderingFocus(visRect), renderingThreadCount) {
+                    protected void tileRendered(Rectangle r) {
+                        repaint(r.x, r.y, r.width, r.height);
+                    }
+                };
+        } else {
+            gvtTreeRenderer = new GVTTreeRenderer
+                (renderer, renderingTransform, doubleBufferedRendering, s,
+                 visRect.width, visRect.height);
+        }
         gvtTreeRenderer.setPriority(Thread.MIN_PRIORITY);
 
         for (Object gvtTreeRendererListener : gvtTreeRendererListeners) {
@@ -747,6 +784,23 @@ public class JGVTComponent extends JComponent {
         gvtTreeRenderer.start();
     }
 
+    /**
+     * Returns the point, in device space, around which a progressive paint
+     * starts: the mouse position if the mouse is over this component,
+     * otherwise the center of the given area.
+     */
+    protected Point getRenderingFocus(Rectangle visRect) {
+        try {
+            Point p = getMousePosition();
+            if (p != null) {
+                return p;
+            }
+        } catch (HeadlessException e) {
+        }
+        return new Point(visRect.x + visRect.width / 2,
+                         visRect.y + visRect.height / 2);
+    }
+
     /**
      * Computes the initial value of the transform used for rendering.
      * Return true if a repaint is required, otherwise false.
@@ -0,0 +1,471 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+package org.apache.batik.swing.gvt;
+
+import java.awt.Color;
+import java.awt.Paint;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.RenderedImage;
+import java.awt.image.WritableRaster;
+import java.awt.image.renderable.RenderContext;
+import java.text.AttributedCharacterIterator;
+import java.text.CharacterIterator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.batik.bridge.TextNode;
+import org.apache.batik.ext.awt.MultipleGradientPaint;
+import org.apache.batik.ext.awt.image.GraphicsUtil;
+import org.apache.batik.ext.awt.image.rendered.CachableRed;
+import org.apache.batik.ext.awt.image.rendered.TranslateRed;
+import org.apache.batik.gvt.CompositeGraphicsNode;
+import org.apache.batik.gvt.CompositeShapePainter;
+import org.apache.batik.gvt.FillShapePainter;
+import org.apache.batik.gvt.GraphicsNode;
+import org.apache.batik.gvt.ImageNode;
+import org.apache.batik.gvt.Marker;
+import org.apache.batik.gvt.MarkerShapePainter;
+import org.apache.batik.gvt.ShapeNode;
+import org.apache.batik.gvt.ShapePainter;
+import org.apache.batik.gvt.StrokeShapePainter;
+import org.apache.batik.gvt.renderer.ImageRenderer;
+import org.apache.batik.gvt.text.GVTAttributedCharacterIterator;
+import org.apache.batik.gvt.text.TextPaintInfo;
+
+/**
+ * A <code>GVTTreeRenderer</code> which paints the area of interest tile by
+ * tile, starting with the tiles nearest to a focus point, so that the
+ * offscreen fills up progressively.  Double buffering is not supported,
+ * since the offscreen would not be visible before the rendering completes.
+ *
+ * <p>The tiles are painted directly into the offscreen of the renderer
+ * by the threads of a pool shared by all the instances, which has at most
+ * one thread per processor.  The first tile is painted alone, so that the
+ * state the GVT tree computes lazily is set up before the other tiles are
+ * painted concurrently.  Filters, masks, patterns and images keep caches
+ * which are not safe to share between threads, so trees which use them are
+ * painted by a single thread.  Halting the renderer cancels the tiles not
+ * painted yet.
+ *
+ * @version $Id$
+ */
+public class TiledGVTTreeRenderer extends GVTTreeRenderer {
+
+    /**
+     * The text attribute holding the paints of a text run.
+     */
+    protected static final AttributedCharacterIterator.Attribute PAINT_INFO
+        = GVTAttributedCharacterIterator.TextAttribute.PAINT_INFO;
+
+    /**
+     * The point, in device space, whose nearest tiles are painted first.
+     */
+    protected Point2D focus;
+
+    /**
+     * The maximum number of threads painting tiles.
+     */
+    protected int threadCount;
+
+    /**
+     * The tiles left to paint.
+     */
+    protected LinkedList tiles = new LinkedList();
+
+    /**
+     * The pool of the threads painting tiles.
+     */
+    protected static final ExecutorService TILE_EXECUTOR;
+    static {
+        int n = Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor e = new ThreadPoolExecutor
+            (n, n, 10, TimeUnit.SECONDS, new LinkedBlockingQueue(),
+             new ThreadFactory() {
+                 public Thread newThread(Runnable r) {
+                     Thread t = new Thread(r, "TiledGVTTreeRenderer");
+                     t.setDaemon(true);
+                     t.setPriority(Thread.MIN_PRIORITY);
+                     return t;
+                 }
+             });
+        e.allowCoreThreadTimeOut(true);
+        TILE_EXECUTOR = e;
+    }
+
+    /**
+     * Creates a new TiledGVTTreeRenderer.
+     * @param r The renderer to use to paint.
+     * @param usr2dev The user to device transform.
+     * @param aoi The area of interest in the renderer space units.
+     * @param width The offscreen buffer width.
+     * @param height The offscreen buffer height.
+     * @param focus The point, in device space, whose nearest tiles are
+     *        painted first, or null for the center of the offscreen.
+     * @param threadCount The maximum number of threads painting tiles.
+     */
+    public TiledGVTTreeRenderer(ImageRenderer r, AffineTransform usr2dev,
+                                Shape aoi, int width, int height,
+                                Point2D focus, int threadCount) {
+        super(r, usr2dev, false, aoi, width, height);
+        if (focus == null) {
+            focus = new Point2D.Float(width / 2f, height / 2f);
+        }
+        this.focus = focus;
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * Halts this renderer, and cancels the tiles not painted yet.
+     */
+    public void halt() {
+        super.halt();
+        synchronized (tiles) {
+            tiles.clear();
+        }
+    }
+
+    /**
+     * Paints the area of interest into the offscreen of the renderer,
+     * tile by tile.
+     */
+    protected void render() {
+        BufferedImage offScreen = renderer.getOffScreen();
+        CachableRed cr = null;
+        if (offScreen != null) {
+            cr = createRendering();
+        }
+        if (cr == null
+                || !cr.getColorModel().equals(offScreen.getColorModel())) {
+            super.render();
+            return;
+        }
+
+        Rectangle r = new Rectangle(0, 0, width, height);
+        r = r.intersection(user2DeviceTransform.createTransformedShape
+                           (areaOfInterest).getBounds());
+        r = r.intersection(cr.getBounds());
+        if (r.isEmpty()) {
+            return;
+        }
+        List l = createTiles(cr, r);
+        WritableRaster wr = offScreen.getRaster();
+
+        // Sets up the lazily computed state of the tree.
+        renderer.getTree().getBounds();
+        renderTile(cr, wr, (Rectangle) l.remove(0));
+
+        int n = Math.min(threadCount, l.size());
+        if (n > 1 && !isConcurrentlyPaintable(renderer.getTree())) {
+            n = 1;
+        }
+        synchronized (tiles) {
+            if (isHalted()) {
+                return;
+            }
+            tiles.addAll(l);
+        }
+        Future[] fs = new Future[n];
+        for (int i = 0; i < n; i++) {
+            fs[i] = TILE_EXECUTOR.submit(new TilePainter(cr, wr));
+        }
+        try {
+            for (int i = 0; i < n; i++) {
+                fs[i].get();
+            }
+        } catch (InterruptedException e) {
+            halt();
+        } catch (ExecutionException e) {
+            halt();
+            Throwable t = e.getCause();
+            if (t instanceof RuntimeException) {
+                throw (RuntimeException) t;
+            }
+            if (t instanceof Error) {
+                throw (Error) t;
+            }
+        }
+    }
+
+    /**
+     * Returns a rendering of the tree in device space, the way the
+     * renderer computes it but without its cache, or null if there is
+     * nothing to render.
+     */
+    protected CachableRed createRendering() {
+        GraphicsNode gn = renderer.getTree();
+        if (gn == null) {
+            return null;
+        }
+        AffineTransform at = renderer.getTransform();
+        AffineTransform rcAT =
+            new AffineTransform(at.getScaleX(), at.getShearY(),
+                                at.getShearX(), at.getScaleY(),
+                                0, 0);
+        RenderContext rc =
+            new RenderContext(rcAT, null, renderer.getRenderingHints());
+        RenderedImage ri = gn.getGraphicsNodeRable(true).createRendering(rc);
+        if (ri == null) {
+            return null;
+        }
+        CachableRed cr = GraphicsUtil.wrap(ri);
+        int dx = Math.round((float) at.getTranslateX());
+        int dy = Math.round((float) at.getTranslateY());
+        cr = new TranslateRed(cr, cr.getMinX() + dx, cr.getMinY() + dy);
+        return GraphicsUtil.convertTosRGB(cr);
+    }
+
+    /**
+     * Splits the given area into tiles aligned with the tile grid of the
+     * given rendering, sorted by distance to the focus.
+     */
+    protected List createTiles(CachableRed cr, Rectangle r) {
+        int tw = cr.getTileWidth();
+        int th = cr.getTileHeight();
+        int tx = cr.getTileGridXOffset();
+        int ty = cr.getTileGridYOffset();
+        int x0 = tx + (int) Math.floor((r.x - tx) / (double) tw) * tw;
+        int y0 = ty + (int) Math.floor((r.y - ty) / (double) th) * th;
+        List l = new ArrayList();
+        for (int y = y0; y < r.y + r.height; y += th) {
+            for (int x = x0; x < r.x + r.width; x += tw) {
+                l.add(r.intersection(new Rectangle(x, y, tw, th)));
+            }
+        }
+        Collections.sort(l, new Comparator() {
+                public int compare(Object o1, Object o2) {
+                    double d1 = distanceToFocus((Rectangle) o1);
+                    double d2 = distanceToFocus((Rectangle) o2);
+                    return d1 < d2 ? -1 : (d1 > d2 ? 1 : 0);
+                }
+            });
+        return l;
+    }
+
+    /**
+     * Returns the squared distance from the center of the given tile to
+     * the focus.
+     */
+    protected double distanceToFocus(Rectangle r) {
+        double dx = r.getCenterX() - focus.getX();
+        double dy = r.getCenterY() - focus.getY();
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Paints the given tile into the given raster.
+     */
+    protected void renderTile(CachableRed cr, WritableRaster wr,
+                              Rectangle r) {
+        WritableRaster dst =
+            wr.createWritableChild(r.x, r.y, r.width, r.height,
+                                   r.x, r.y, null);
+        cr.copyData(dst);
+        if (!isHalted()) {
+            tileRendered(r);
+        }
+    }
+
+    /**
+     * Invoked, from the thread which painted it, when the given tile of the
+     * offscreen has been painted, unless the renderer was halted.  This
+     * implementation does nothing.
+     */
+    protected void tileRendered(Rectangle r) {
+    }
+
+    /**
+     * Returns whether the given tree can be painted by several threads at
+     * once, that is whether none of its nodes has a filter or a mask, and
+     * whether all its shapes and texts are painted with colors or
+     * gradients.
+     */
+    protected static boolean isConcurrentlyPaintable(GraphicsNode gn) {
+        if (gn == null) {
+            return true;
+        }
+        if (gn.getFilter() != null || gn.getMask() != null) {
+            return false;
+        }
+        if (gn instanceof CompositeGraphicsNode) {
+            Iterator it = ((CompositeGraphicsNode) gn).iterator();
+            while (it.hasNext()) {
+                if (!isConcurrentlyPaintable((GraphicsNode) it.next())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (gn instanceof ShapeNode) {
+            return isConcurrentlyPaintable(((ShapeNode) gn).getShapePainter());
+        }
+        if (gn instanceof TextNode) {
+            AttributedCharacterIterator aci =
+                ((TextNode) gn).getAttributedCharacterIterator();
+            if (aci == null) {
+                return true;
+            }
+            for (char c = aci.first();
+                 c != CharacterIterator.DONE;
+                 c = aci.setIndex(aci.getRunLimit(PAINT_INFO))) {
+                TextPaintInfo tpi =
+                    (TextPaintInfo) aci.getAttribute(PAINT_INFO);
+                if (tpi != null
+                        && (!isConcurrentlyPaintable(tpi.fillPaint)
+                            || !isConcurrentlyPaintable(tpi.strokePaint)
+                            || !isConcurrentlyPaintable(tpi.underlinePaint)
+                            || !isConcurrentlyPaintable
+                                   (tpi.underlineStrokePaint)
+                            || !isConcurrentlyPaintable(tpi.overlinePaint)
+                            || !isConcurrentlyPaintable
+                                   (tpi.overlineStrokePaint)
+                            || !isConcurrentlyPaintable
+                                   (tpi.strikethroughPaint)
+                            || !isConcurrentlyPaintable
+                                   (tpi.strikethroughStrokePaint))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (gn instanceof ImageNode) {
+            return isConcurrentlyPaintable(((ImageNode) gn).getImage());
+        }
+        // Raster images and unknown nodes may keep caches.
+        return false;
+    }
+
+    /**
+     * Returns whether the given shape painter can paint from several
+     * threads at once.
+     */
+    protected static boolean isConcurrentlyPaintable(ShapePainter sp) {
+        if (sp == null) {
+            return true;
+        }
+        if (sp instanceof FillShapePainter) {
+            return isConcurrentlyPaintable(((FillShapePainter) sp).getPaint());
+        }
+        if (sp instanceof StrokeShapePainter) {
+            return isConcurrentlyPaintable
+                (((StrokeShapePainter) sp).getPaint());
+        }
+        if (sp instanceof CompositeShapePainter) {
+            CompositeShapePainter csp = (CompositeShapePainter) sp;
+            for (int i = 0; i < csp.getShapePainterCount(); i++) {
+                if (!isConcurrentlyPaintable(csp.getShapePainter(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (sp instanceof MarkerShapePainter) {
+            MarkerShapePainter msp = (MarkerShapePainter) sp;
+            Marker[] ms = { msp.getStartMarker(), msp.getMiddleMarker(),
+                            msp.getEndMarker() };
+            for (int i = 0; i < ms.length; i++) {
+                if (ms[i] != null
+                        && !isConcurrentlyPaintable(ms[i].getMarkerNode())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether the given paint can be used from several threads at
+     * once: colors and gradients can, while patterns render their content
+     * through caches.
+     */
+    protected static boolean isConcurrentlyPaintable(Paint p) {
+        return p == null
+            || p instanceof Color
+            || p instanceof MultipleGradientPaint
+            || p instanceof java.awt.GradientPaint
+            || p instanceof java.awt.MultipleGradientPaint;
+    }
+
+    /**
+     * A task which paints tiles until none is left.
+     */
+    protected class TilePainter implements Runnable {
+
+        /**
+         * The rendering of the tree.
+         */
+        protected CachableRed rendering;
+
+        /**
+         * The raster to paint.
+         */
+        protected WritableRaster raster;
+
+        /**
+         * Creates a new TilePainter.
+         */
+        public TilePainter(CachableRed cr, WritableRaster wr) {
+            rendering = cr;
+            raster = wr;
+        }
+
+        /**
+         * Paints the tiles.
+         */
+        public void run() {
+            try {
+                for (;;) {
+                    Rectangle r;
+                    synchronized (tiles) {
+                        if (tiles.isEmpty() || isHalted()) {
+                            return;
+                        }
+                        r = (Rectangle) tiles.removeFirst();
+                    }
+                    renderTile(rendering, raster, r);
+                }
+            } catch (RuntimeException e) {
+                synchronized (tiles) {
+                    tiles.clear();
+                }
+                throw e;
+            } catch (Error e) {
+                synchronized (tiles) {
+                    tiles.clear();
+                }
+                throw e;
+            }
+        }
+    }
+}
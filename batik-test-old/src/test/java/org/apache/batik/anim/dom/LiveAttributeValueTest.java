@@ -0,0 +1,237 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+package org.apache.batik.anim.dom;
+
+import java.io.StringReader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.batik.anim.values.AnimatableValue;
+import org.apache.batik.test.AbstractTest;
+import org.apache.batik.util.DoublyIndexedTable;
+import org.apache.batik.util.XMLResourceDescriptor;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Checks that the live attribute values of the SVG DOM elements, which
+ * are only created when first requested, are found whatever the first
+ * access is: for every SVG 1.1 element, the animated value accessors
+ * ('getX()') on one document, and the trait information and the
+ * underlying values used by the animation engine on another.
+ *
+ * @version $Id$
+ */
+public class LiveAttributeValueTest extends AbstractTest {
+
+    /**
+     * The URI of the test documents.
+     */
+    public static final String URI =
+        "http://example.org/LiveAttributeValueTest.svg";
+
+    public boolean runImplBasic() throws Exception {
+        String[] names = (String[]) SVGDOMImplementation.svg11Factories
+            .keySet().toArray(new String[0]);
+        Arrays.sort(names);
+        StringBuffer sb = new StringBuffer();
+        sb.append("<svg xmlns='http://www.w3.org/2000/svg'>");
+        for (int i = 0; i < names.length; i++) {
+            sb.append('<').append(names[i]).append("/>");
+        }
+        sb.append("</svg>");
+        String doc = sb.toString();
+        SVGOMElement[] accessed = getElements(doc);
+        SVGOMElement[] animated = getElements(doc);
+        assertEquals(names.length + 1, accessed.length);
+
+        Method[][] accessors = new Method[accessed.length][];
+        List[] values = new List[accessed.length];
+        int max = 0;
+        for (int i = 0; i < accessed.length; i++) {
+            // The trait information and the underlying values are the
+            // first access.
+            SVGOMElement a = animated[i];
+            SVGOMElement e = accessed[i];
+            assertEquals(e.getLocalName(), a.getLocalName());
+            assertTrue(a.liveAttributeValues == null);
+            DoublyIndexedTable t = a.getTraitInformationTable();
+            DoublyIndexedTable underlying = new DoublyIndexedTable();
+            Iterator it = t.iterator();
+            while (it.hasNext()) {
+                DoublyIndexedTable.Entry en =
+                    (DoublyIndexedTable.Entry) it.next();
+                String ns = (String) en.getKey1();
+                String ln = (String) en.getKey2();
+                TraitInformation ti = (TraitInformation) en.getValue();
+                assertEquals(ti.isAnimatable(),
+                             a.isAttributeAnimatable(ns, ln));
+                assertEquals(ti.getType(), a.getAttributeType(ns, ln));
+                if (ti.isAnimatable()) {
+                    underlying.put(ns, ln, getUnderlyingValue(a, ns, ln));
+                }
+            }
+            accessors[i] = getAccessors(a);
+            List created = getAnimatedValues(a, accessors[i]);
+
+            // The accessors are the first access, and return the values
+            // the engine created.  Only the values an element never
+            // creates are null.
+            assertTrue(e.liveAttributeValues == null);
+            values[i] = getAnimatedValues(e, accessors[i]);
+            assertEquals(values[i], getAnimatedValues(e, accessors[i]));
+            assertEquals(created.size(), values[i].size());
+            for (int j = 0; j < created.size(); j++) {
+                Object v = created.get(j);
+                assertTrue((v == null) == (values[i].get(j) == null));
+                if (v instanceof AbstractSVGAnimatedValue) {
+                    AbstractSVGAnimatedValue av =
+                        (AbstractSVGAnimatedValue) v;
+                    String ns = av.getNamespaceURI();
+                    String ln = av.getLocalName();
+                    assertEquals
+                        (values[i].indexOf(e.getLiveAttributeValue(ns, ln)),
+                         created.indexOf(a.getLiveAttributeValue(ns, ln)));
+                }
+            }
+
+            // The underlying values do not depend on the first access.
+            it = t.iterator();
+            while (it.hasNext()) {
+                DoublyIndexedTable.Entry en =
+                    (DoublyIndexedTable.Entry) it.next();
+                String ns = (String) en.getKey1();
+                String ln = (String) en.getKey2();
+                if (((TraitInformation) en.getValue()).isAnimatable()) {
+                    assertEquals(underlying.get(ns, ln),
+                                 getUnderlyingValue(e, ns, ln));
+                }
+            }
+            max = Math.max(max, accessors[i].length);
+        }
+
+        // Each of the other accessors is the first access to an element
+        // of a new document.
+        for (int j = 1; j < max; j++) {
+            SVGOMElement[] elts = getElements(doc);
+            for (int i = 0; i < elts.length; i++) {
+                if (j >= accessors[i].length) {
+                    continue;
+                }
+                SVGOMElement e = elts[i];
+                assertTrue(e.liveAttributeValues == null);
+                Object v = accessors[i][j].invoke(e, (Object[]) null);
+                assertTrue((v == null) == (values[i].get(j) == null));
+                assertTrue(v == getAnimatedValues(e, accessors[i]).get(j));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses the given document and returns its document element
+     * followed by its child elements.
+     */
+    protected SVGOMElement[] getElements(String doc) throws Exception {
+        SAXSVGDocumentFactory f = new SAXSVGDocumentFactory
+            (XMLResourceDescriptor.getXMLParserClassName());
+        Document d = f.createDocument(URI, new StringReader(doc));
+        Element root = d.getDocumentElement();
+        List l = new ArrayList();
+        l.add(root);
+        for (Node n = root.getFirstChild();
+             n != null;
+             n = n.getNextSibling()) {
+            if (n instanceof SVGOMElement) {
+                l.add(n);
+            }
+        }
+        return (SVGOMElement[]) l.toArray(new SVGOMElement[l.size()]);
+    }
+
+    /**
+     * Returns the public animated value accessors of the given element,
+     * sorted by name.  The accessors that are not implemented are
+     * skipped.
+     */
+    protected Method[] getAccessors(Element e) throws Exception {
+        Method[] ms = e.getClass().getMethods();
+        Arrays.sort(ms, new Comparator() {
+                public int compare(Object o1, Object o2) {
+                    return ((Method) o1).getName()
+                        .compareTo(((Method) o2).getName());
+                }
+            });
+        List l = new ArrayList();
+        for (int i = 0; i < ms.length; i++) {
+            Method m = ms[i];
+            if (m.getParameterTypes().length != 0
+                    || Modifier.isStatic(m.getModifiers())
+                    || !m.getName().startsWith("get")
+                    || !m.getReturnType().getName()
+                          .startsWith("org.w3c.dom.svg.SVGAnimated")) {
+                continue;
+            }
+            try {
+                m.invoke(e, (Object[]) null);
+            } catch (InvocationTargetException ex) {
+                if (ex.getCause() instanceof UnsupportedOperationException) {
+                    continue;
+                }
+                throw ex;
+            }
+            l.add(m);
+        }
+        return (Method[]) l.toArray(new Method[l.size()]);
+    }
+
+    /**
+     * Calls the given accessors and returns their values.
+     */
+    protected List getAnimatedValues(Element e, Method[] accessors)
+            throws Exception {
+        List l = new ArrayList();
+        for (int i = 0; i < accessors.length; i++) {
+            l.add(accessors[i].invoke(e, (Object[]) null));
+        }
+        return l;
+    }
+
+    /**
+     * Returns the string representation of the underlying value of the
+     * given attribute, or the class of the exception getting it threw.
+     */
+    protected String getUnderlyingValue(SVGOMElement e, String ns,
+                                        String ln) {
+        try {
+            AnimatableValue v = e.getUnderlyingValue(ns, ln);
+            return v == null ? null : v.toStringRep();
+        } catch (RuntimeException ex) {
+            return ex.getClass().getName();
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.batik.anim.dom;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.batik.test.AbstractTest;
+import org.apache.batik.test.DefaultTestReport;
+import org.apache.batik.test.TestReport;
+import org.apache.batik.util.XMLResourceDescriptor;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Checks that {@link ParallelSAXSVGDocumentFactory} builds the same
+ * document as {@link SAXSVGDocumentFactory} for a document made of many
+ * top-level groups, and that getElementById returns the same elements,
+ * including for ids shared by elements of different groups.
+ *
+ * @version $Id$
+ */
+public class ParallelSAXSVGDocumentFactoryTest extends AbstractTest {
+
+    /**
+     * The number of top-level groups of the test document.
+     */
+    public static final int GROUP_COUNT = 40;
+
+    /**
+     * The number of threads of the parallel factory.
+     */
+    protected int threadCount;
+
+    /**
+     * @param threadCount the number of threads of the parallel factory
+     */
+    public ParallelSAXSVGDocumentFactoryTest(Integer threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    public TestReport runImpl() throws Exception {
+        String text = createDocumentText();
+        String uri = "http://example.org/ParallelSAXSVGDocumentFactoryTest.svg";
+        String parser = XMLResourceDescriptor.getXMLParserClassName();
+
+        Document serial = new SAXSVGDocumentFactory(parser).createDocument
+            (uri, new StringReader(text));
+
+        final boolean[] split = new boolean[1];
+        ParallelSAXSVGDocumentFactory f =
+            new ParallelSAXSVGDocumentFactory(parser) {
+                protected Layout scan(char[] text, int offset, int length) {
+                    Layout l = super.scan(text, offset, length);
+                    split[0] = l != null;
+                    return l;
+                }
+            };
+        f.setThreadCount(threadCount);
+        Document parallel = f.createDocument(uri, new StringReader(text));
+        if (!split[0]) {
+            return reportFailure("document.not.split", "");
+        }
+
+        String diff = compare(serial.getDocumentElement(),
+                              parallel.getDocumentElement(), "/svg");
+        if (diff != null) {
+            return reportFailure("documents.differ", diff);
+        }
+
+        List ids = new ArrayList();
+        collectIds(serial.getDocumentElement(), ids);
+        ids.add("missing");
+        Iterator it = ids.iterator();
+        while (it.hasNext()) {
+            String id = (String)it.next();
+            String a = path(serial.getElementById(id));
+            String b = path(parallel.getElementById(id));
+            if (!a.equals(b)) {
+                return reportFailure("id.lookup.differs",
+                                     id + ": " + a + " / " + b);
+            }
+        }
+        return reportSuccess();
+    }
+
+    /**
+     * Creates a document of GROUP_COUNT groups holding various kinds of
+     * content, large enough to be parsed in parallel.  The ids "shared"
+     * and "shared-n" are used in several groups.
+     */
+    protected String createDocumentText() {
+        StringBuffer sb = new StringBuffer();
+        sb.append("<?xml version='1.0'?>\r\n");
+        sb.append("<!DOCTYPE svg [\n");
+        sb.append("<!ENTITY mark '<circle r=\"2\" class=\"mark\"/>'>\n");
+        sb.append("<!ENTITY name 'Parallel'>\n");
+        sb.append("]>\n");
+        sb.append("<svg xmlns='http://www.w3.org/2000/svg'");
+        sb.append(" xmlns:xlink='http://www.w3.org/1999/xlink'");
+        sb.append(" width='400' height='400'>\n");
+        sb.append("<title>&name; test</title>\n");
+        for (int g = 0; g < GROUP_COUNT; g++) {
+            if (g % 7 == 3) {
+                sb.append("<g xmlns:e='http://example.org/ext' id='g");
+            } else {
+                sb.append("<g id='g");
+            }
+            sb.append(g).append("' transform='translate(").append(g);
+            sb.append(")'>\r\n");
+            if (g % 5 == 0) {
+                sb.append("<rect id='shared' width='1' height='1'/>");
+            }
+            for (int i = 0; i < 60; i++) {
+                sb.append("  <path id='p").append(g).append('-').append(i);
+                sb.append("' d='M").append(i).append(' ').append(g);
+                sb.append(" L 10 20 z' fill='#").append(i % 10).append("00'/>\n");
+                if (i % 10 == 0) {
+                    sb.append("  <text x='1'>&name; &amp; <![CDATA[<")
+                        .append(i).append(">]]><tspan>&#x41;</tspan></text>");
+                    sb.append("<!-- comment ").append(i).append(" -->");
+                    sb.append("<?pi data?>\n");
+                    sb.append("  <use xlink:href='#p").append(g).append('-')
+                        .append(i).append("' id='shared-").append(i % 3)
+                        .append("'/>&mark;\n");
+                }
+                if (i % 20 == 7 && g % 7 == 3) {
+                    sb.append("  <e:data e:value='").append(i).append("'/>");
+                }
+            }
+            sb.append("</g>\n");
+        }
+        sb.append("<rect id='shared' x='5' width='2' height='2'/>\n");
+        sb.append("</svg>\n");
+        return sb.toString();
+    }
+
+    /**
+     * Compares two nodes and their descendants.
+     * @return a description of the first difference, or null.
+     */
+    protected String compare(Node a, Node b, String path) {
+        if (a.getNodeType() != b.getNodeType()
+            || !equals(a.getNodeName(), b.getNodeName())
+            || !equals(a.getNamespaceURI(), b.getNamespaceURI())
+            || !equals(a.getNodeValue(), b.getNodeValue())) {
+            return path;
+        }
+        if (a.getClass() != b.getClass()) {
+            return path + " (" + b.getClass().getName() + ")";
+        }
+        if (a.getNodeType() == Node.ELEMENT_NODE) {
+            String s = attributes(a);
+            if (!s.equals(attributes(b))) {
+                return path + " " + s + " / " + attributes(b);
+            }
+        }
+        Node ca = a.getFirstChild();
+        Node cb = b.getFirstChild();
+        int i = 0;
+        while (ca != null && cb != null) {
+            String r = compare(ca, cb, path + '/' + i);
+            if (r != null) {
+                return r;
+            }
+            ca = ca.getNextSibling();
+            cb = cb.getNextSibling();
+            i++;
+        }
+        if (ca != null || cb != null) {
+            return path + '/' + i;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the attributes of an element, sorted by name.
+     */
+    protected String attributes(Node n) {
+        NamedNodeMap m = n.getAttributes();
+        Set s = new TreeSet();
+        for (int i = 0; i < m.getLength(); i++) {
+            Node a = m.item(i);
+            s.add(a.getNamespaceURI() + " " + a.getNodeName() + "="
+                  + a.getNodeValue());
+        }
+        return s.toString();
+    }
+
+    protected void collectIds(Node n, List ids) {
+        for (Node c = n.getFirstChild(); c != null; c = c.getNextSibling()) {
+            if (c.getNodeType() == Node.ELEMENT_NODE) {
+                String id = ((Element)c).getAttributeNS(null, "id");
+                if (id.length() > 0) {
+                    ids.add(id);
+                }
+                collectIds(c, ids);
+            }
+        }
+    }
+
+    /**
+     * Returns the child indexes leading to the given node.
+     */
+    protected String path(Node n) {
+        if (n == null) {
+            return "null";
+        }
+        StringBuffer sb = new StringBuffer();
+        while (n.getParentNode() != null) {
+            int i = 0;
+            for (Node c = n.getPreviousSibling(); c != null;
+                 c = c.getPreviousSibling()) {
+                i++;
+            }
+            sb.insert(0, i).insert(0, '/');
+            n = n.getParentNode();
+        }
+        return sb.toString();
+    }
+
+    protected static boolean equals(Object a, Object b) {
+        return (a == null) ? b == null : a.equals(b);
+    }
+
+    protected TestReport reportFailure(String code, String detail) {
+        DefaultTestReport report = new DefaultTestReport(this);
+        report.setErrorCode(code);
+        report.addDescriptionEntry("difference", detail);
+        report.setPassed(false);
+        return report;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+package org.apache.batik.bridge;
+
+import java.io.StringReader;
+
+import org.apache.batik.anim.dom.SAXSVGDocumentFactory;
+import org.apache.batik.test.AbstractTest;
+import org.apache.batik.util.XMLResourceDescriptor;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.svg.SVGAnimationElement;
+import org.w3c.dom.svg.SVGRectElement;
+
+/**
+ * Checks that the animation engine only copies into the document the
+ * animated values that changed since the last tick.  A 'set' animation,
+ * static while active and then removed, runs with an 'animate' whose
+ * value changes at every tick; both are restarted with beginElement.
+ *
+ * @version $Id$
+ */
+public class AnimationUpdateTest extends AbstractTest {
+
+    /**
+     * The test document.
+     */
+    public static final String DOCUMENT =
+        "<svg xmlns='http://www.w3.org/2000/svg' width='200' height='100'>" +
+        "<rect id='s' width='10' height='10'>" +
+        "<set id='set' attributeName='width' to='40' dur='2s'/></rect>" +
+        "<rect id='c' y='20' width='10' height='10'>" +
+        "<animate id='animate' attributeName='x' from='0' to='100'" +
+        " dur='10s' fill='freeze'/></rect>" +
+        "</svg>";
+
+    /**
+     * The precision of the document times, in seconds.
+     */
+    public static final float EPSILON = 0.002f;
+
+    /**
+     * The engine of the test document.
+     */
+    protected SVGAnimationEngine engine;
+
+    /**
+     * The targets of the animations.
+     */
+    protected SVGRectElement setTarget, animateTarget;
+
+    public boolean runImplBasic() throws Exception {
+        SAXSVGDocumentFactory f = new SAXSVGDocumentFactory
+            (XMLResourceDescriptor.getXMLParserClassName());
+        Document doc = f.createDocument
+            ("http://example.org/AnimationUpdateTest.svg",
+             new StringReader(DOCUMENT));
+        BridgeContext ctx = new BridgeContext(new UserAgentAdapter());
+        ctx.setDynamicState(BridgeContext.DYNAMIC);
+        new GVTBuilder().build(ctx, doc);
+        engine = ctx.getAnimationEngine();
+        engine.start(System.currentTimeMillis());
+        setTarget = (SVGRectElement) doc.getElementById("s");
+        animateTarget = (SVGRectElement) doc.getElementById("c");
+
+        // Once the 'set' value is copied, only the 'animate' value is,
+        // including after the 'set' is removed.
+        tick(0, 2, 40, 0);
+        tick(1, 1, 40, 10);
+        tick(2.5f, 2, 10, 25);
+        tick(3, 1, 10, 30);
+        tick(4, 1, 10, 40);
+
+        // The restarted animations are copied again.  They begin at the
+        // wallclock time of beginElement, a little after the last tick.
+        long before = System.currentTimeMillis();
+        engine.setCurrentTime(4);
+        ((SVGAnimationElement) doc.getElementById("set")).beginElement();
+        ((SVGAnimationElement) doc.getElementById("animate")).beginElement();
+        float delay = (System.currentTimeMillis() - before) / 1000f;
+        tick(4.5f, 2, 40, 5, delay);
+        tick(5, 1, 40, 10, delay);
+        tick(7, 2, 10, 30, delay);
+        tick(8, 1, 10, 40, delay);
+
+        ctx.dispose();
+        return true;
+    }
+
+    /**
+     * Samples the document at the given time and checks the number of
+     * values copied and the animated values.
+     */
+    protected void tick(float t, int updated, float width, float x)
+            throws Exception {
+        tick(t, updated, width, x, 0);
+    }
+
+    /**
+     * Samples the document at the given time and checks the number of
+     * values copied and the animated values, the 'animate' one having
+     * begun up to the given delay late.
+     */
+    protected void tick(float t, int updated, float width, float x,
+                        float delay)
+            throws Exception {
+        engine.setCurrentTime(t);
+        assertEquals(2, engine.getSampledCount());
+        assertEquals(updated, engine.getUpdatedCount());
+        assertTrue(setTarget.getWidth().getAnimVal().getValue() == width);
+        // The document times are rounded to the millisecond.
+        float v = animateTarget.getX().getAnimVal().getValue();
+        assertTrue(v <= x + EPSILON * 10
+                   && v >= x - (delay + EPSILON) * 10);
+    }
+}
@@ -0,0 +1,166 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.batik.bridge;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.batik.anim.dom.SAXSVGDocumentFactory;
+import org.apache.batik.anim.dom.SVGOMElement;
+import org.apache.batik.gvt.AbstractGraphicsNode;
+import org.apache.batik.gvt.CompositeGraphicsNode;
+import org.apache.batik.gvt.GraphicsNode;
+import org.apache.batik.gvt.ShapeNode;
+import org.apache.batik.test.AbstractTest;
+import org.apache.batik.util.XMLResourceDescriptor;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Checks the bindings between the elements and the graphics nodes of a
+ * dynamic document: they resolve both ways, are stored in the nodes by
+ * the context which built them and in maps by any other context, and
+ * are all removed by unbind() and dispose().
+ *
+ * @version $Id$
+ */
+public class BindingTest extends AbstractTest {
+
+    /**
+     * The test document.
+     */
+    public static final String DOCUMENT =
+        "<svg xmlns='http://www.w3.org/2000/svg'" +
+        " xmlns:xlink='http://www.w3.org/1999/xlink'" +
+        " width='100' height='100'>" +
+        "<defs><rect id='r' width='10' height='10'/></defs>" +
+        "<g id='g1'><rect id='r1' width='5' height='5'/>" +
+        "<circle id='c1' r='3'/>" +
+        "<g id='g2'><text id='t1' x='1' y='20'>text</text>" +
+        "<use id='u1' xlink:href='#r' x='20'/></g></g>" +
+        "<rect id='r2' x='50' width='5' height='5'/>" +
+        "</svg>";
+
+    public boolean runImplBasic() throws Exception {
+        String parser = XMLResourceDescriptor.getXMLParserClassName();
+        Document doc = new SAXSVGDocumentFactory(parser).createDocument
+            ("http://example.org/BindingTest.svg", new StringReader(DOCUMENT));
+        BridgeContext ctx = new BridgeContext(new UserAgentAdapter());
+        ctx.setDynamicState(BridgeContext.DYNAMIC);
+        GraphicsNode root = new GVTBuilder().build(ctx, doc);
+
+        // (1-3) Every bound element holds its binding, which resolves
+        // both ways.
+        List elements = new ArrayList();
+        collectElements(doc.getDocumentElement(), elements);
+        int bound = 0;
+        for (int i = 0; i < elements.size(); i++) {
+            SVGOMElement e = (SVGOMElement) elements.get(i);
+            GraphicsNode gn = ctx.getGraphicsNode(e);
+            if (gn == null) {
+                ensure(1, e.getBindingContext() == null);
+                continue;
+            }
+            bound++;
+            ensure(2, e.getBindingContext() == ctx && e.getBinding() == gn);
+            ensure(3, ctx.getElement(gn) == e
+                   && ((AbstractGraphicsNode) gn).getBindingContext() == ctx);
+        }
+        ensure(4, bound >= 7);
+        ensure(5, ctx.getElement(root) == null);
+
+        // (6-10) Another context binding the same element uses its maps,
+        // and leaves the binding of the first context alone.
+        SVGOMElement r1 = (SVGOMElement) doc.getElementById("r1");
+        GraphicsNode gn1 = ctx.getGraphicsNode(r1);
+        BridgeContext other = new BridgeContext(new UserAgentAdapter());
+        ShapeNode gn2 = new ShapeNode();
+        other.bind(r1, gn2);
+        ensure(6, other.getGraphicsNode(r1) == gn2
+               && other.getElement(gn2) == r1);
+        ensure(7, gn2.getBindingContext() == other);
+        ensure(8, ctx.getGraphicsNode(r1) == gn1
+               && r1.getBindingContext() == ctx);
+        other.unbind(r1);
+        ensure(9, other.getGraphicsNode(r1) == null
+               && other.getElement(gn2) == null
+               && gn2.getBindingContext() == null);
+        ensure(10, ctx.getGraphicsNode(r1) == gn1 && ctx.getElement(gn1) == r1);
+
+        // (11-12) unbind() clears both nodes.
+        SVGOMElement r2 = (SVGOMElement) doc.getElementById("r2");
+        AbstractGraphicsNode rgn =
+            (AbstractGraphicsNode) ctx.getGraphicsNode(r2);
+        ctx.unbind(r2);
+        ensure(11, ctx.getGraphicsNode(r2) == null
+               && ctx.getElement(rgn) == null);
+        ensure(12, r2.getBindingContext() == null && r2.getBinding() == null
+               && rgn.getBindingContext() == null && rgn.getBinding() == null);
+        ctx.bind(r2, rgn);
+
+        // (13-15) dispose() leaves nothing bound.
+        ctx.dispose();
+        for (int i = 0; i < elements.size(); i++) {
+            SVGOMElement e = (SVGOMElement) elements.get(i);
+            ensure(13, e.getBindingContext() == null && e.getBinding() == null);
+            ensure(14, ctx.getGraphicsNode(e) == null);
+        }
+        checkUnbound(ctx, root);
+        return true;
+    }
+
+    /**
+     * Checks that no graphics node of the given tree is bound.
+     */
+    protected void checkUnbound(BridgeContext ctx, GraphicsNode gn) {
+        if (gn instanceof AbstractGraphicsNode) {
+            AbstractGraphicsNode agn = (AbstractGraphicsNode) gn;
+            ensure(15, agn.getBindingContext() == null
+                   && agn.getBinding() == null && ctx.getElement(gn) == null);
+        }
+        if (gn instanceof CompositeGraphicsNode) {
+            List l = ((CompositeGraphicsNode) gn).getChildren();
+            for (int i = 0; i < l.size(); i++) {
+                checkUnbound(ctx, (GraphicsNode) l.get(i));
+            }
+        }
+    }
+
+    protected void collectElements(Node n, List l) {
+        if (n instanceof SVGOMElement) {
+            l.add(n);
+        }
+        for (Node c = n.getFirstChild(); c != null; c = c.getNextSibling()) {
+            if (c instanceof Element) {
+                collectElements(c, l);
+            }
+        }
+    }
+
+    protected void ensure(int subTestNumber, boolean b) {
+        if (!b) {
+            throw new RuntimeException("Assertion failure in sub-test "
+                                       + subTestNumber);
+        }
+    }
+}
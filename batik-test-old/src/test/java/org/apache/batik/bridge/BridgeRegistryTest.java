@@ -0,0 +1,209 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.batik.bridge;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.batik.test.AbstractTest;
+
+import org.w3c.dom.Element;
+
+/**
+ * Checks the rule deciding which bridges of a {@link BridgeRegistry} are
+ * shared between the bridge contexts: a bridge is shared only if it has
+ * no instance fields and its getInstance() returns itself.  Any other
+ * bridge must be instantiated once per context.
+ *
+ * @version $Id$
+ */
+public class BridgeRegistryTest extends AbstractTest {
+
+    public static final String NS = "http://example.org/BridgeRegistryTest";
+
+    public boolean runImplBasic() throws Exception {
+        // (1-4) Instance fields, declared or inherited, but not static ones.
+        ensure(1, !BridgeRegistry.hasInstanceFields(StatelessBridge.class));
+        ensure(2, BridgeRegistry.hasInstanceFields(StatefulBridge.class));
+        ensure(3, BridgeRegistry.hasInstanceFields
+                      (StatefulSubclassBridge.class));
+        ensure(4, !BridgeRegistry.hasInstanceFields(StaticFieldBridge.class));
+
+        List ext = Collections.singletonList(new TestExtension());
+        BridgeRegistry r = BridgeRegistry.getRegistry(ext);
+        ensure(5, r != null);
+        ensure(6, r == BridgeRegistry.getRegistry
+                           (Collections.singletonList(new TestExtension())));
+
+        // (7-11) Only stateless bridges returning themselves are shared.
+        ensure(7, r.isShared(r.getBridge(NS, "stateless")));
+        ensure(8, r.isShared(r.getBridge(NS, "staticField")));
+        ensure(9, !r.isShared(r.getBridge(NS, "stateful")));
+        ensure(10, !r.isShared(r.getBridge(NS, "statefulSubclass")));
+        ensure(11, !r.isShared(r.getBridge(NS, "fresh")));
+
+        // (12-16) Contexts share the shared bridges, and get their own
+        // instance of the others, created once.
+        BridgeContext c1 = createContext(ext);
+        BridgeContext c2 = createContext(ext);
+        String[] names = {
+            "stateless", "staticField", "stateful", "statefulSubclass",
+            "fresh"
+        };
+        for (int i = 0; i < names.length; i++) {
+            Bridge proto = r.getBridge(NS, names[i]);
+            Bridge b1 = c1.getBridge(NS, names[i]);
+            Bridge b2 = c2.getBridge(NS, names[i]);
+            ensure(12, b1 != null && b1.getClass() == proto.getClass());
+            if (r.isShared(proto)) {
+                ensure(13, b1 == proto && b2 == proto);
+            } else {
+                ensure(14, b1 != proto && b2 != proto && b1 != b2);
+                ensure(15, c1.getBridge(NS, names[i]) == b1);
+            }
+        }
+
+        // (16) The same rule holds for the bridges of the SVG extensions.
+        List svg = new ArrayList(BridgeContext.getGlobalBridgeExtensions());
+        svg.add(new SVGBridgeExtension());
+        BridgeRegistry sr = BridgeRegistry.getRegistry(svg);
+        ensure(16, sr != null);
+        int shared = 0;
+        int unshared = 0;
+        Iterator it = sr.namespaceURIMap.values().iterator();
+        while (it.hasNext()) {
+            Iterator it2 = ((Map) it.next()).values().iterator();
+            while (it2.hasNext()) {
+                Bridge b = (Bridge) it2.next();
+                boolean rule = b.getInstance() == b
+                    && !BridgeRegistry.hasInstanceFields(b.getClass());
+                ensure(17, sr.isShared(b) == rule);
+                if (rule) {
+                    shared++;
+                } else {
+                    unshared++;
+                }
+            }
+        }
+        ensure(18, shared > 0 && unshared > 0);
+
+        // (19) Extensions whose bridges cannot be instantiated again have
+        // no registry, so they register their bridges in each context.
+        ensure(19, BridgeRegistry.getRegistry
+                       (Collections.singletonList
+                        (new NoConstructorExtension())) == null);
+        return true;
+    }
+
+    protected BridgeContext createContext(List ext) {
+        BridgeContext ctx = new BridgeContext(new UserAgentAdapter());
+        ctx.bridgeRegistry = BridgeRegistry.getRegistry(ext);
+        return ctx;
+    }
+
+    protected void ensure(int subTestNumber, boolean b) {
+        if (!b) {
+            throw new RuntimeException("Assertion failure in sub-test "
+                                       + subTestNumber);
+        }
+    }
+
+    /**
+     * A bridge without state.
+     */
+    public static class StatelessBridge implements Bridge {
+        public String getNamespaceURI() { return NS; }
+        public String getLocalName() { return "stateless"; }
+        public Bridge getInstance() { return this; }
+    }
+
+    /**
+     * A bridge with only static fields.
+     */
+    public static class StaticFieldBridge extends StatelessBridge {
+        protected static int count;
+        public String getLocalName() { return "staticField"; }
+    }
+
+    /**
+     * A bridge with state, whose getInstance() returns itself.
+     */
+    public static class StatefulBridge extends StatelessBridge {
+        protected Element element;
+        public String getLocalName() { return "stateful"; }
+    }
+
+    /**
+     * A bridge inheriting its state.
+     */
+    public static class StatefulSubclassBridge extends StatefulBridge {
+        public String getLocalName() { return "statefulSubclass"; }
+    }
+
+    /**
+     * A bridge without state whose getInstance() returns a new bridge.
+     */
+    public static class FreshBridge extends StatelessBridge {
+        public String getLocalName() { return "fresh"; }
+        public Bridge getInstance() { return new FreshBridge(); }
+    }
+
+    /**
+     * A bridge with state and no public constructor.
+     */
+    public static class NoConstructorBridge extends StatefulBridge {
+        protected NoConstructorBridge(Element e) { element = e; }
+        public String getLocalName() { return "noConstructor"; }
+    }
+
+    /**
+     * An extension registering the test bridges.
+     */
+    public static class TestExtension implements BridgeExtension {
+        public float getPriority() { return 0; }
+        public Iterator getImplementedExtensions() {
+            return Collections.EMPTY_LIST.iterator();
+        }
+        public String getAuthor() { return null; }
+        public String getContactAddress() { return null; }
+        public String getURL() { return null; }
+        public String getDescription() { return null; }
+        public void registerTags(BridgeContext ctx) {
+            ctx.putBridge(new StatelessBridge());
+            ctx.putBridge(new StaticFieldBridge());
+            ctx.putBridge(new StatefulBridge());
+            ctx.putBridge(new StatefulSubclassBridge());
+            ctx.putBridge(new FreshBridge());
+        }
+        public boolean isDynamicElement(Element e) { return false; }
+    }
+
+    /**
+     * An extension registering a bridge which cannot be instantiated.
+     */
+    public static class NoConstructorExtension extends TestExtension {
+        public void registerTags(BridgeContext ctx) {
+            ctx.putBridge(new NoConstructorBridge(null));
+        }
+    }
+}
@@ -0,0 +1,266 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.batik.bridge;
+
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.StringReader;
+import java.util.List;
+
+import org.apache.batik.anim.dom.SAXSVGDocumentFactory;
+import org.apache.batik.bridge.svg12.SVG12BridgeContext;
+import org.apache.batik.gvt.GraphicsNode;
+import org.apache.batik.test.AbstractTest;
+import org.apache.batik.test.DefaultTestReport;
+import org.apache.batik.test.TestReport;
+import org.apache.batik.util.SVGConstants;
+import org.apache.batik.util.XMLResourceDescriptor;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Text;
+
+/**
+ * Checks that the incremental reflow of flowRoot text gives the same
+ * layout as a full reflow.  A series of edits is applied to a dynamic
+ * document, which is laid out again after each edit, and to a new copy
+ * of the document, which is laid out from scratch.  Both must have the
+ * same text runs and the same rendering.  The edits change the text,
+ * the paragraphs and their style, then the flow region.
+ *
+ * @version $Id$
+ */
+public class FlowTextReflowTest extends AbstractTest {
+
+    /**
+     * The number of paragraphs of the test document.
+     */
+    public static final int PARAGRAPH_COUNT = 8;
+
+    /**
+     * The size of the rendering.
+     */
+    public static final int WIDTH = 300, HEIGHT = 400;
+
+    /**
+     * The number of edits.
+     */
+    public static final int EDIT_COUNT = 9;
+
+    /**
+     * The edits, after which the layout of the first paragraph must be
+     * reused.
+     */
+    public static final boolean[] REUSES_FIRST_PARAGRAPH = {
+        true, true, true, true, true, true, false, false, false
+    };
+
+    public TestReport runImpl() throws Exception {
+        Document doc = createDocument();
+        BridgeContext ctx = createContext();
+        GraphicsNode root = new GVTBuilder().build(ctx, doc);
+        FlowTextNode tn = getTextNode(ctx, doc);
+        render(root);
+
+        for (int i = 0; i < EDIT_COUNT; i++) {
+            FlowTextPainter.ChunkInfo[] before = tn.getChunkInfos();
+            edit(doc, i);
+            BufferedImage incremental = render(root);
+            String runs = describeRuns(tn);
+            FlowTextPainter.ChunkInfo[] after = tn.getChunkInfos();
+            if (before == null || after == null) {
+                return report("no.chunk.infos", i, "");
+            }
+            if ((before[0] == after[0]) != REUSES_FIRST_PARAGRAPH[i]) {
+                return report("first.paragraph.reuse", i,
+                              "" + REUSES_FIRST_PARAGRAPH[i]);
+            }
+
+            Document full = createDocument();
+            for (int j = 0; j <= i; j++) {
+                edit(full, j);
+            }
+            BridgeContext fctx = createContext();
+            GraphicsNode froot = new GVTBuilder().build(fctx, full);
+            BufferedImage reference = render(froot);
+            String fullRuns = describeRuns(getTextNode(fctx, full));
+            fctx.dispose();
+
+            if (!runs.equals(fullRuns)) {
+                return report("text.runs.differ", i,
+                              runs + " / " + fullRuns);
+            }
+            int d = compare(incremental, reference);
+            if (d != 0) {
+                return report("rendering.differs", i, d + " pixels");
+            }
+        }
+        ctx.dispose();
+        return reportSuccess();
+    }
+
+    /**
+     * Applies the given edit to the given document.
+     */
+    protected void edit(Document doc, int edit) {
+        Element region = doc.getElementById("region");
+        switch (edit) {
+        case 0: // Text of a middle paragraph.
+            text(doc, "p3").setData("A shorter third paragraph.");
+            break;
+        case 1: // Text of the last paragraph.
+            text(doc, "p7").appendData(" And a few more words at the end.");
+            break;
+        case 2: { // New paragraph.
+            Element p = doc.createElementNS(SVGConstants.SVG_NAMESPACE_URI,
+                                            "flowPara");
+            p.setAttributeNS(null, "id", "new");
+            p.appendChild(doc.createTextNode
+                          ("An inserted paragraph, long enough to span a"
+                           + " couple of lines of the region."));
+            Element p5 = doc.getElementById("p5");
+            p5.getParentNode().insertBefore(p, p5);
+            break;
+        }
+        case 3: { // Removed paragraph.
+            Element p4 = doc.getElementById("p4");
+            p4.getParentNode().removeChild(p4);
+            break;
+        }
+        case 4: // Style of a paragraph.
+            doc.getElementById("p6").setAttributeNS(null, "font-size", "18");
+            break;
+        case 5: // Text of a span.
+            text(doc, "s2").setData("a much longer span of text");
+            break;
+        case 6: // Text of the first paragraph.
+            text(doc, "p0").appendData(" The first one grows too.");
+            break;
+        case 7: // Smaller region, which the text overflows.
+            region.setAttributeNS(null, "height", "180");
+            break;
+        case 8: // Wider region.
+            region.setAttributeNS(null, "width", "260");
+            region.setAttributeNS(null, "height", "380");
+            break;
+        }
+    }
+
+    /**
+     * Returns the first text node of the given element.
+     */
+    protected Text text(Document doc, String id) {
+        return (Text) doc.getElementById(id).getFirstChild();
+    }
+
+    protected Document createDocument() throws Exception {
+        StringBuffer sb = new StringBuffer();
+        sb.append("<svg xmlns='http://www.w3.org/2000/svg' version='1.2'");
+        sb.append(" width='" + WIDTH + "' height='" + HEIGHT + "'>");
+        sb.append("<flowRoot id='root' font-family='SansSerif'");
+        sb.append(" font-size='12'><flowRegion>");
+        sb.append("<rect id='region' x='10' y='10' width='220'");
+        sb.append(" height='380'/></flowRegion><flowDiv>");
+        for (int i = 0; i < PARAGRAPH_COUNT; i++) {
+            sb.append("<flowPara id='p").append(i).append("'");
+            if (i == 2) {
+                sb.append(" margin-top='8' margin-bottom='4'");
+            }
+            sb.append(">Paragraph ").append(i);
+            sb.append(" of the text, with enough words to wrap");
+            if (i == 2) {
+                sb.append(" and <flowSpan id='s2' fill='red'>a span</flowSpan>");
+            }
+            sb.append(" over several lines.</flowPara>");
+        }
+        sb.append("</flowDiv></flowRoot></svg>");
+        String parser = XMLResourceDescriptor.getXMLParserClassName();
+        return new SAXSVGDocumentFactory(parser).createDocument
+            ("http://example.org/FlowTextReflowTest.svg",
+             new StringReader(sb.toString()));
+    }
+
+    protected BridgeContext createContext() {
+        BridgeContext ctx = new SVG12BridgeContext(new UserAgentAdapter());
+        ctx.setDynamicState(BridgeContext.DYNAMIC);
+        return ctx;
+    }
+
+    protected FlowTextNode getTextNode(BridgeContext ctx, Document doc) {
+        return (FlowTextNode) ctx.getGraphicsNode(doc.getElementById("root"));
+    }
+
+    /**
+     * Returns the characters and the bounds of the text runs of the
+     * given node.
+     */
+    protected String describeRuns(TextNode tn) {
+        StringBuffer sb = new StringBuffer();
+        List runs = tn.getTextRuns();
+        for (int i = 0; i < runs.size(); i++) {
+            StrokingTextPainter.TextRun r =
+                (StrokingTextPainter.TextRun) runs.get(i);
+            TextSpanLayout l = r.getLayout();
+            Rectangle2D b = l.getBounds2D();
+            sb.append('[').append(l.getGlyphCount());
+            if (b != null) {
+                sb.append(' ').append(b.getX()).append(',').append(b.getY());
+                sb.append(' ').append(b.getWidth()).append('x');
+                sb.append(b.getHeight());
+            }
+            sb.append(']');
+        }
+        return sb.toString();
+    }
+
+    protected BufferedImage render(GraphicsNode gn) {
+        BufferedImage img =
+            new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = img.createGraphics();
+        gn.paint(g);
+        g.dispose();
+        return img;
+    }
+
+    /**
+     * Returns the number of pixels which differ.
+     */
+    protected int compare(BufferedImage a, BufferedImage b) {
+        int n = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                if (a.getRGB(x, y) != b.getRGB(x, y)) {
+                    n++;
+                }
+            }
+        }
+        return n;
+    }
+
+    protected TestReport report(String code, int edit, String detail) {
+        DefaultTestReport report = new DefaultTestReport(this);
+        report.setErrorCode(code);
+        report.addDescriptionEntry("edit", "" + edit);
+        report.addDescriptionEntry("detail", detail);
+        report.setPassed(false);
+        return report;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+package org.apache.batik.bridge;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.batik.gvt.font.AWTFontFamily;
+import org.apache.batik.gvt.font.AWTGVTFont;
+import org.apache.batik.gvt.font.GVTFontFamily;
+import org.apache.batik.test.AbstractTest;
+
+/**
+ * Checks the fallback families and the resolved families cached by
+ * {@link DefaultFontFamilyResolver}: the family that can display a
+ * character is the first one of the system font table, the default one
+ * first and the "Song" ones skipped, and font names are resolved, or
+ * not, the same way on every call.
+ *
+ * @version $Id$
+ */
+public class FontFamilyResolverTest extends AbstractTest {
+
+    /**
+     * Characters of various blocks: latin, greek, cyrillic, hebrew,
+     * arabic, mathematical operators, hiragana, CJK, hangul and private
+     * use.
+     */
+    public static final char[] CHARACTERS = {
+        'a', 'Z', '\u00e9', '\u03a9', '\u0416', '\u05d0', '\u0627',
+        '\u2200', '\u3042', '\u4e2d', '\uac00', '\ue000', '\uffff'
+    };
+
+    public boolean runImplBasic() throws Exception {
+        DefaultFontFamilyResolver r = DefaultFontFamilyResolver.SINGLETON;
+
+        // The fallback families are the same as when all the families of
+        // the system font table were probed, and are cached.
+        for (int i = 0; i < CHARACTERS.length; i++) {
+            char c = CHARACTERS[i];
+            GVTFontFamily ff = r.getFamilyThatCanDisplay(c);
+            String name = ff == null ? null : ff.getFamilyName();
+            assertEquals(getFamilyThatCanDisplay(c), name);
+            assertTrue(r.getFamilyThatCanDisplay(c) == ff);
+            assertTrue(name == null || name.indexOf("Song") == -1);
+        }
+        assertEquals(r.getDefault(), r.getFamilyThatCanDisplay('a'));
+        AWTFontFamily[] fallbacks = DefaultFontFamilyResolver.SystemFonts
+            .fallbackFamilies;
+        for (int i = 0; i < fallbacks.length; i++) {
+            String name = fallbacks[i].getFamilyName();
+            assertTrue(name.indexOf("Song") == -1);
+            for (int j = 0; j < i; j++) {
+                assertTrue(!name.equals(fallbacks[j].getFamilyName()));
+            }
+        }
+        List values = new ArrayList();
+        values.add("Serif");
+        values.add("MS Song");
+        values.add("SansSerif");
+        values.add("Serif");
+        values.add("STSong");
+        values.add("Monospaced");
+        fallbacks = DefaultFontFamilyResolver.SystemFonts
+            .createFallbackFamilies(values);
+        assertEquals(3, fallbacks.length);
+        assertTrue(fallbacks[0] == r.getDefault());
+        assertEquals("Serif", fallbacks[1].getFamilyName());
+        assertEquals("Monospaced", fallbacks[2].getFamilyName());
+
+        // Resolved and unresolved names give the same result on every
+        // call.
+        String[] names = { "serif", "Monospace", "no-such-font-family" };
+        for (int i = 0; i < names.length; i++) {
+            GVTFontFamily ff = r.resolve(names[i]);
+            assertTrue((ff == null) == (i == names.length - 1));
+            assertTrue(r.resolve(names[i]) == ff);
+            assertTrue(r.resolve(names[i].toUpperCase()) == ff);
+            Object value = DefaultFontFamilyResolver.resolvedFontFamilies
+                .get(names[i].toLowerCase());
+            assertTrue(value != null);
+            assertTrue(ff == null ? !(value instanceof GVTFontFamily)
+                                  : value == ff);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the name of the first family of the system font table,
+     * after the default one, that can display the given character and
+     * is not a "Song" family, or null.
+     */
+    protected String getFamilyThatCanDisplay(char c) {
+        String name = DefaultFontFamilyResolver.SINGLETON.getDefault()
+            .getFamilyName();
+        if (new AWTGVTFont(name, 0, 12).canDisplay(c)) {
+            return name;
+        }
+        Iterator it = DefaultFontFamilyResolver.SystemFonts.fonts.values()
+            .iterator();
+        while (it.hasNext()) {
+            name = (String) it.next();
+            if (name.indexOf("Song") == -1
+                    && new AWTGVTFont(name, 0, 12).canDisplay(c)) {
+                return name;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,278 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.batik.bridge.svg12;
+
+import java.io.StringReader;
+import java.util.Iterator;
+import java.util.Random;
+
+import org.apache.batik.anim.dom.SAXSVGDocumentFactory;
+import org.apache.batik.anim.dom.XBLOMContentElement;
+import org.apache.batik.bridge.BridgeContext;
+import org.apache.batik.bridge.GVTBuilder;
+import org.apache.batik.bridge.UpdateManager;
+import org.apache.batik.bridge.UserAgentAdapter;
+import org.apache.batik.dom.AbstractDocument;
+import org.apache.batik.gvt.GraphicsNode;
+import org.apache.batik.test.AbstractTest;
+import org.apache.batik.util.SVGConstants;
+import org.apache.batik.util.XMLResourceDescriptor;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * Checks the content selected by the xbl:content elements of a shadow
+ * tree as children of the bound element are inserted and removed.  The
+ * selection maintained by the {@link ContentManager} must be the one a
+ * full update computes: the first content element matching a node
+ * selects it, and nth index and id() selectors select the right nodes.
+ * The children of the bound element are only selected again by a full
+ * update when a selector is not local.
+ *
+ * @version $Id$
+ */
+public class ContentSelectionTest extends AbstractTest {
+
+    /**
+     * The namespace URI of the bound elements.
+     */
+    public static final String NS = "http://example.org/ContentSelectionTest";
+
+    /**
+     * The number of random insertions and removals.
+     */
+    public static final int MUTATION_COUNT = 200;
+
+    public boolean runImplBasic() throws Exception {
+        // (1-6) Local name selectors: the first content element wins.
+        ContentManager cm = createContentManager("c:foo", "*");
+        Document doc = cm.boundElement.getOwnerDocument();
+        ensure(1, cm.hasLocalSelectors());
+        ensure(2, "[f1 f2][r1 x][]".equals(describe(cm)));
+        int full = cm.getFullUpdateCount();
+        Element f3 = doc.createElementNS(NS, "c:foo");
+        f3.setAttributeNS(null, "id", "f3");
+        cm.boundElement.insertBefore(f3, doc.getElementById("r1"));
+        ensure(3, "[f1 f3 f2][r1 x][]".equals(describe(cm)));
+        cm.boundElement.insertBefore(doc.createTextNode("t"), f3);
+        ensure(4, "[f1 f3 f2][r1 x][#text]".equals(describe(cm)));
+        cm.boundElement.removeChild(doc.getElementById("f1"));
+        cm.boundElement.removeChild(doc.getElementById("x"));
+        ensure(5, "[f3 f2][r1][#text]".equals(describe(cm)));
+        ensure(6, cm.getFullUpdateCount() == full
+               && cm.getIncrementalUpdateCount() == 4);
+        checkSelection(7, cm);
+
+        // (8-12) id() selectors.
+        cm = createContentManager("id('x')", "svg:rect");
+        doc = cm.boundElement.getOwnerDocument();
+        ensure(8, cm.hasLocalSelectors());
+        ensure(9, "[x][r1][f1 f2]".equals(describe(cm)));
+        full = cm.getFullUpdateCount();
+        Element r2 = createRect(doc, "x");
+        cm.boundElement.insertBefore(r2, cm.boundElement.getFirstChild());
+        Element r3 = createRect(doc, "r3");
+        cm.boundElement.appendChild(r3);
+        ensure(10, "[x x][r1 r3][f1 f2]".equals(describe(cm)));
+        cm.boundElement.removeChild(r2);
+        ensure(11, "[x][r1 r3][f1 f2]".equals(describe(cm)));
+        ensure(12, cm.getFullUpdateCount() == full
+               && cm.getIncrementalUpdateCount() == 3);
+        checkSelection(13, cm);
+
+        // (14-17) nth index selectors, which are updated in full.
+        cm = createContentManager("c:foo[2]", "*[1]");
+        doc = cm.boundElement.getOwnerDocument();
+        ensure(14, !cm.hasLocalSelectors());
+        ensure(15, "[f2][f1][r1 x]".equals(describe(cm)));
+        full = cm.getFullUpdateCount();
+        Element f0 = doc.createElementNS(NS, "c:foo");
+        f0.setAttributeNS(null, "id", "f0");
+        cm.boundElement.insertBefore(f0, cm.boundElement.getFirstChild());
+        ensure(16, "[f1][f0][r1 x f2]".equals(describe(cm)));
+        cm.boundElement.removeChild(f0);
+        ensure(17, "[f2][f1][r1 x]".equals(describe(cm))
+               && cm.getFullUpdateCount() == full + 2
+               && cm.getIncrementalUpdateCount() == 0);
+        checkSelection(18, cm);
+
+        // (19-24) Random insertions and removals give the selection of a
+        // full update, without one for local selectors.
+        String[][] includes = {
+            { "c:foo", "*" }, { "id('x')", "svg:rect" },
+            { "c:foo[2]", "*[1]" }, { "*[1]", "svg:rect" }
+        };
+        for (int i = 0; i < includes.length; i++) {
+            cm = createContentManager(includes[i][0], includes[i][1]);
+            full = cm.getFullUpdateCount();
+            mutate(19 + i, cm, new Random(49 + i));
+            if (cm.hasLocalSelectors()) {
+                ensure(23, cm.getFullUpdateCount() == full
+                       && cm.getIncrementalUpdateCount() == MUTATION_COUNT);
+            } else {
+                ensure(24, cm.getFullUpdateCount() == full + MUTATION_COUNT
+                       && cm.getIncrementalUpdateCount() == 0);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Applies random insertions and removals to the children of the bound
+     * element and of its children, checking the selection after each.
+     */
+    protected void mutate(int subTestNumber, ContentManager cm, Random r) {
+        Element bound = cm.boundElement;
+        Document doc = bound.getOwnerDocument();
+        for (int i = 0; i < MUTATION_COUNT; i++) {
+            NodeList children = bound.getChildNodes();
+            int n = children.getLength();
+            if (n > 2 && r.nextInt(3) == 0) {
+                bound.removeChild(children.item(r.nextInt(n)));
+            } else if (n > 0 && r.nextInt(5) == 0) {
+                // Below a child of the bound element.
+                Node c = children.item(r.nextInt(n));
+                if (c.getNodeType() == Node.ELEMENT_NODE) {
+                    c.appendChild(doc.createElementNS(NS, "c:foo"));
+                } else {
+                    bound.removeChild(c);
+                }
+            } else {
+                Node c;
+                switch (r.nextInt(4)) {
+                case 0:
+                    c = doc.createTextNode("t");
+                    break;
+                case 1:
+                    c = doc.createElementNS(NS, "c:foo");
+                    break;
+                default:
+                    c = createRect(doc, r.nextInt(3) == 0 ? "x" : "r" + i);
+                }
+                Node ref = n == 0 || r.nextBoolean()
+                    ? null : children.item(r.nextInt(n));
+                bound.insertBefore(c, ref);
+            }
+            int full = cm.getFullUpdateCount();
+            int incremental = cm.getIncrementalUpdateCount();
+            checkSelection(subTestNumber, cm);
+            cm.fullUpdateCount = full;
+            cm.incrementalUpdateCount = incremental;
+        }
+    }
+
+    /**
+     * Checks that the current selection is the one a full update computes.
+     */
+    protected void checkSelection(int subTestNumber, ContentManager cm) {
+        String selection = describe(cm);
+        cm.update(false);
+        ensure(subTestNumber, selection.equals(describe(cm)));
+    }
+
+    /**
+     * Returns the ids of the nodes selected by each content element, and
+     * checks that the nodes know the content element which selected them.
+     */
+    protected String describe(ContentManager cm) {
+        StringBuffer sb = new StringBuffer();
+        Iterator it = cm.contentElementList.iterator();
+        while (it.hasNext()) {
+            XBLOMContentElement e = (XBLOMContentElement) it.next();
+            NodeList nl = cm.getSelectedContent(e);
+            sb.append('[');
+            for (int i = 0; i < nl.getLength(); i++) {
+                Node n = nl.item(i);
+                if (i > 0) {
+                    sb.append(' ');
+                }
+                if (n.getNodeType() == Node.ELEMENT_NODE) {
+                    sb.append(((Element) n).getAttributeNS(null, "id"));
+                } else {
+                    sb.append(n.getNodeName());
+                }
+                if (cm.getContentElement(n) != e) {
+                    sb.append('!');
+                }
+            }
+            sb.append(']');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Builds a document whose bound element is given to a shadow tree of
+     * three content elements, which select the given XPath subset
+     * expressions and the remaining children, and returns the content
+     * manager of that shadow tree.
+     */
+    protected ContentManager createContentManager(String includes1,
+                                                  String includes2)
+            throws Exception {
+        // The prefixes of the selectors are looked up from the content
+        // elements, in the shadow tree.
+        String doc =
+            "<svg xmlns='http://www.w3.org/2000/svg'" +
+            " xmlns:xbl='http://www.w3.org/2004/xbl'" +
+            " xmlns:batik='http://xml.apache.org/batik/ext'" +
+            " xmlns:c='" + NS + "' version='1.2'" +
+            " batik:selectorLanguage='XPathSubset'>" +
+            "<xbl:xbl><xbl:definition element='c:bound'><xbl:template>" +
+            "<g xmlns:svg='http://www.w3.org/2000/svg' xmlns:c='" + NS + "'>" +
+            "<xbl:content includes=\"" + includes1 + "\"/>" +
+            "<g><xbl:content includes=\"" + includes2 + "\"/></g>" +
+            "<xbl:content/></g></xbl:template></xbl:definition></xbl:xbl>" +
+            "<c:bound id='b'><c:foo id='f1'/>" +
+            "<rect id='r1' width='1' height='1'/>" +
+            "<circle id='x' r='1'/><c:foo id='f2'/></c:bound></svg>";
+        String parser = XMLResourceDescriptor.getXMLParserClassName();
+        Document d = new SAXSVGDocumentFactory(parser).createDocument
+            ("http://example.org/ContentSelectionTest.svg",
+             new StringReader(doc));
+        BridgeContext ctx = new SVG12BridgeContext(new UserAgentAdapter());
+        ctx.setDynamicState(BridgeContext.DYNAMIC);
+        GraphicsNode root = new GVTBuilder().build(ctx, d);
+        // The XBL manager starts processing on the SVGLoad event.
+        new UpdateManager(ctx, root, d).dispatchSVGLoadEvent();
+        DefaultXBLManager xm =
+            (DefaultXBLManager) ((AbstractDocument) d).getXBLManager();
+        Element bound = d.getElementById("b");
+        return xm.getContentManager(xm.getXblShadowTree(bound));
+    }
+
+    protected Element createRect(Document doc, String id) {
+        Element e = doc.createElementNS(SVGConstants.SVG_NAMESPACE_URI,
+                                        SVGConstants.SVG_RECT_TAG);
+        e.setAttributeNS(null, "id", id);
+        e.setAttributeNS(null, "width", "1");
+        e.setAttributeNS(null, "height", "1");
+        return e;
+    }
+
+    protected void ensure(int subTestNumber, boolean b) {
+        if (!b) {
+            throw new RuntimeException("Assertion failure in sub-test "
+                                       + subTestNumber);
+        }
+    }
+}
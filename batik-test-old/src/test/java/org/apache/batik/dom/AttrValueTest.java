@@ -0,0 +1,207 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+package org.apache.batik.dom;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.Text;
+import org.w3c.dom.events.Event;
+import org.w3c.dom.events.EventListener;
+import org.w3c.dom.events.EventTarget;
+import org.w3c.dom.events.MutationEvent;
+
+/**
+ * Tests the two representations of the value of an attribute: a string
+ * until the child node API is used, then a text node child.  The values
+ * and the mutation events must be the same either way, including after
+ * appendChild, normalize, setTextContent, cloneNode and importNode.
+ *
+ * @version $Id$
+ */
+public class AttrValueTest extends DOM3Test {
+
+    /**
+     * The mutation events fired since the last check.
+     */
+    protected StringBuffer events = new StringBuffer();
+
+    /**
+     * Records the mutation events.
+     */
+    protected EventListener listener = new EventListener() {
+            public void handleEvent(Event evt) {
+                MutationEvent e = (MutationEvent) evt;
+                String type = e.getType();
+                events.append(type.substring(3));
+                if (type.equals("DOMAttrModified")) {
+                    events.append('(').append(e.getAttrName())
+                        .append(',').append(e.getAttrChange())
+                        .append(',').append(e.getPrevValue())
+                        .append(',').append(e.getNewValue()).append(')');
+                } else if (type.equals("DOMCharacterDataModified")) {
+                    events.append('(').append(e.getPrevValue())
+                        .append(',').append(e.getNewValue()).append(')');
+                }
+                events.append(' ');
+            }
+        };
+
+    public boolean runImplBasic() throws Exception {
+        Document doc = newDoc();
+        doc.appendChild(doc.createElementNS(null, "root"));
+        Document svg = newSVGDoc();
+        return check(doc) && check(svg);
+    }
+
+    /**
+     * Checks the values and the events of the attributes of the
+     * document element of the given document.
+     */
+    protected boolean check(Document doc) {
+        Element e = doc.getDocumentElement();
+        String[] types = {
+            "DOMAttrModified", "DOMSubtreeModified",
+            "DOMCharacterDataModified", "DOMNodeInserted", "DOMNodeRemoved"
+        };
+        for (int i = 0; i < types.length; i++) {
+            ((EventTarget) e).addEventListener(types[i], listener, false);
+        }
+
+        // (1-3) The value is kept as a string.
+        e.setAttributeNS(null, "a", "1");
+        AbstractAttr a = (AbstractAttr) e.getAttributeNodeNS(null, "a");
+        ensure(1, a, "1", true, "AttrModified(a,2,,1) ");
+        e.setAttributeNS(null, "a", "2");
+        ensure(2, a, "2", true, "SubtreeModified SubtreeModified "
+               + "AttrModified(a,1,1,2) ");
+        a.setValue("3");
+        ensure(3, a, "3", true, "SubtreeModified SubtreeModified "
+               + "AttrModified(a,1,2,3) ");
+
+        // (4-6) Copies of a string value are independent.
+        Attr c = (Attr) a.cloneNode(true);
+        c.setValue("x");
+        ensure(4, c.getChildNodes().getLength() == 1);
+        Node n = newDoc().importNode(a, true);
+        ensure(5, ((AbstractAttr) n).value != null
+               && n.getNodeValue().equals("3")
+               && n.getChildNodes().getLength() == 1
+               && n.getFirstChild().getNodeValue().equals("3"));
+        Element ec = (Element) e.cloneNode(true);
+        ec.setAttributeNS(null, "a", "y");
+        ensure(6, a, "3", true, "");
+
+        // (7-8) Getting the child switches to the text node, without
+        // any event.
+        Text t = (Text) a.getFirstChild();
+        ensure(7, a, "3", false, "");
+        ensure(8, t.getNodeValue().equals("3") && t.getParentNode() == a);
+
+        // (9-16) Changes through the text node children.
+        e.setAttributeNS(null, "a", "4");
+        ensure(9, a, "4", false, "SubtreeModified SubtreeModified "
+               + "AttrModified(a,1,3,4) ");
+        ((Text) a.getFirstChild()).setData("5");
+        ensure(10, a, "5", false, "SubtreeModified ");
+        a.appendChild(doc.createTextNode("6"));
+        ensure(11, a, "56", false, "SubtreeModified ");
+        ensure(12, a.getChildNodes().getLength() == 2);
+        a.normalize();
+        ensure(13, a, "56", false, "SubtreeModified SubtreeModified ");
+        ensure(14, a.getChildNodes().getLength() == 1);
+        a.setTextContent("7");
+        ensure(15, a, "7", false, "SubtreeModified SubtreeModified ");
+        ((EventTarget) a).addEventListener("DOMCharacterDataModified",
+                                           listener, false);
+        ((Text) a.getFirstChild()).setData("8");
+        ensure(16, a, "8", false, "CharacterDataModified(7,8) "
+               + "SubtreeModified ");
+
+        // (17-19) Copies of text node children are independent.
+        c = (Attr) a.cloneNode(true);
+        ((Text) c.getFirstChild()).setData("z");
+        ensure(17, c.getValue().equals("z"));
+        n = newDoc().importNode(a, true);
+        ensure(18, n.getNodeValue().equals("8")
+               && n.getChildNodes().getLength() == 1);
+        ensure(19, a, "8", false, "");
+
+        // (20-21) A listener on the attribute keeps the string value
+        // unless it would see the text node child being replaced.
+        e.setAttributeNS(null, "b", "1");
+        AbstractAttr b = (AbstractAttr) e.getAttributeNodeNS(null, "b");
+        ((EventTarget) b).addEventListener("DOMSubtreeModified",
+                                           listener, false);
+        e.setAttributeNS(null, "b", "2");
+        ensure(20, b, "2", true, "AttrModified(b,2,,1) "
+               + "SubtreeModified SubtreeModified SubtreeModified "
+               + "SubtreeModified AttrModified(b,1,1,2) ");
+        ((EventTarget) b).addEventListener("DOMNodeInserted",
+                                           listener, false);
+        e.setAttributeNS(null, "b", "3");
+        ensure(21, b, "3", false, "SubtreeModified SubtreeModified "
+               + "NodeInserted SubtreeModified SubtreeModified "
+               + "AttrModified(b,1,2,3) ");
+
+        // (22-23) New attributes set through appendChild and
+        // setTextContent.
+        Attr d = doc.createAttributeNS(null, "d");
+        d.setValue("x");
+        d.appendChild(doc.createTextNode("y"));
+        d.normalize();
+        ensure(22, d.getValue().equals("xy")
+               && d.getChildNodes().getLength() == 1);
+        d = doc.createAttributeNS(null, "f");
+        d.setTextContent("tc");
+        ensure(23, d.getValue().equals("tc") && d.hasChildNodes()
+               && d.getTextContent().equals("tc"));
+
+        // (24) Removal.
+        e.removeAttributeNS(null, "a");
+        ensure(24, e.getAttributeNodeNS(null, "a") == null
+               && events.toString().equals("AttrModified(a,3,8,) "));
+        events.setLength(0);
+        return true;
+    }
+
+    /**
+     * Checks the value of the given attribute, how it is held, and the
+     * events fired since the last check.
+     */
+    protected void ensure(int subTestNumber, AbstractAttr a, String value,
+                          boolean inline, String expectedEvents) {
+        String e = events.toString();
+        events.setLength(0);
+        ensure(subTestNumber, a.getValue().equals(value)
+               && a.getNodeValue().equals(value)
+               && a.getTextContent().equals(value)
+               && a.hasChildNodes()
+               && (a.value != null) == inline
+               && e.equals(expectedEvents));
+    }
+
+    protected void ensure(int subTestNumber, boolean b) {
+        if (!b) {
+            throw new RuntimeException("Assertion failure in sub-test "
+                                       + subTestNumber);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.batik.dom.util;
+
+import java.io.StringReader;
+
+import org.apache.batik.dom.GenericDOMImplementation;
+import org.apache.batik.test.AbstractTest;
+import org.apache.batik.util.XMLResourceDescriptor;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * Tests {@link SymbolTable}: lookups of equal strings, slot collisions,
+ * the fixed capacity of the table, and the sharing of names and short
+ * attribute values by {@link SAXDocumentFactory}.
+ *
+ * @version $Id$
+ */
+public class SymbolTableTest extends AbstractTest {
+
+    public boolean runImplBasic() throws Exception {
+        // (1-4) Lookup: equal strings give the first instance interned.
+        SymbolTable t = new SymbolTable();
+        String a = new String("rect");
+        String b = new String("rect");
+        ensure(1, t.intern(a) == a);
+        ensure(2, t.intern(b) == a);
+        ensure(3, t.intern(null) == null);
+        String c = new String("circle");
+        ensure(4, t.intern(c) == c && t.intern(new String("circle")) == c
+               && t.intern(b) == a);
+
+        // (5-8) Collision: a string mapping to an occupied slot replaces
+        // its occupant, which is no longer shared afterwards.
+        t = new SymbolTable(4);
+        String s1 = "s0";
+        String s2 = null;
+        for (int i = 1; s2 == null; i++) {
+            String s = "s" + i;
+            if (slot(t, s) == slot(t, s1)) {
+                s2 = s;
+            }
+        }
+        String s1a = new String(s1);
+        String s1b = new String(s1);
+        String s2a = new String(s2);
+        ensure(5, t.intern(s1a) == s1a);
+        ensure(6, t.intern(s2a) == s2a);
+        ensure(7, t.intern(s1b) == s1b);
+        ensure(8, t.intern(new String(s1)) == s1b);
+
+        // (9-11) Capacity: rounded up to a power of two, and never grown
+        // however many strings are interned.
+        ensure(9, new SymbolTable(1).table.length == 1);
+        ensure(10, new SymbolTable(1000).table.length == 1024);
+        t = new SymbolTable(16);
+        for (int i = 0; i < 1000; i++) {
+            String s = "name" + i;
+            ensure(11, t.intern(s) == s || t.intern(s).equals(s));
+        }
+        ensure(12, t.table.length == 16 && t.mask == 15);
+        int used = 0;
+        for (int i = 0; i < t.table.length; i++) {
+            if (t.table[i] != null) {
+                used++;
+                ensure(13, t.table[i] == t.intern(new String(t.table[i])));
+            }
+        }
+        ensure(14, used > 0);
+
+        // (15) clear() forgets every string.
+        t.clear();
+        for (int i = 0; i < t.table.length; i++) {
+            ensure(15, t.table[i] == null);
+        }
+        String d = new String("name1");
+        ensure(16, t.intern(d) == d);
+
+        // (17-20) The document factory shares element names, and short
+        // attribute values when asked to.
+        String parser = XMLResourceDescriptor.getXMLParserClassName();
+        SAXDocumentFactory df = new SAXDocumentFactory
+            (GenericDOMImplementation.getDOMImplementation(), parser);
+        StringBuffer sb = new StringBuffer("<a>");
+        for (int i = 0; i < 3; i++) {
+            sb.append("<b fill='red' d='");
+            for (int j = 0; j <= SAXDocumentFactory.MAX_INTERNED_VALUE_LENGTH;
+                 j++) {
+                sb.append('x');
+            }
+            sb.append("'/>");
+        }
+        sb.append("</a>");
+        String doc = sb.toString();
+
+        NodeList l = parse(df, doc).getElementsByTagName("b");
+        Element e0 = (Element)l.item(0);
+        Element e1 = (Element)l.item(1);
+        ensure(17, e0.getTagName() == e1.getTagName());
+        ensure(18, e0.getAttribute("fill") != e1.getAttribute("fill"));
+
+        df.setInternValues(true);
+        l = parse(df, doc).getElementsByTagName("b");
+        e0 = (Element)l.item(0);
+        e1 = (Element)l.item(2);
+        ensure(19, e0.getAttribute("fill") == e1.getAttribute("fill"));
+        ensure(20, e0.getAttribute("d") != e1.getAttribute("d")
+               && e0.getAttribute("d").equals(e1.getAttribute("d")));
+
+        return true;
+    }
+
+    /**
+     * Returns the slot of the given string in the given table.
+     */
+    protected int slot(SymbolTable t, String s) {
+        int h = s.hashCode();
+        return (h ^ (h >>> 16)) & t.mask;
+    }
+
+    protected Document parse(SAXDocumentFactory df, String doc)
+            throws Exception {
+        return df.createDocument("http://example.org/", new StringReader(doc));
+    }
+
+    protected void ensure(int subTestNumber, boolean b) {
+        if (!b) {
+            throw new RuntimeException("Assertion failure in sub-test "
+                                       + subTestNumber);
+        }
+    }
+}
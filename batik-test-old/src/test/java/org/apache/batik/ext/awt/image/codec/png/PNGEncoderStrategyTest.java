@@ -0,0 +1,237 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.batik.ext.awt.image.codec.png;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.RenderedImage;
+import java.awt.image.WritableRaster;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import org.apache.batik.ext.awt.image.GraphicsUtil;
+import org.apache.batik.ext.awt.image.rendered.TileCacheRed;
+import org.apache.batik.test.AbstractTest;
+import org.apache.batik.test.DefaultTestReport;
+import org.apache.batik.test.TestReport;
+
+/**
+ * Checks that images encoded with a given filter strategy and
+ * compression level decode to the original pixels.  Images of
+ * several types are encoded, as well as a tiled image and an image
+ * large enough to be fetched in several pieces, with and without
+ * interlacing.
+ *
+ * @version $Id$
+ */
+public class PNGEncoderStrategyTest extends AbstractTest {
+
+    /**
+     * Decoded image differs from encoded image
+     * {0} = description of the encoded image
+     */
+    public static final String ERROR_DECODED_DOES_NOT_MATCH_ENCODED
+        = "PNGEncoderStrategyTest.error.decoded.does.not.match.encoded";
+
+    public static final String ENTRY_KEY_IMAGE
+        = "PNGEncoderStrategyTest.entry.key.image";
+
+    /**
+     * The image types that are encoded.
+     */
+    protected static final int[] IMAGE_TYPES = {
+        BufferedImage.TYPE_INT_ARGB,
+        BufferedImage.TYPE_INT_RGB,
+        BufferedImage.TYPE_3BYTE_BGR,
+        BufferedImage.TYPE_4BYTE_ABGR,
+        BufferedImage.TYPE_BYTE_GRAY,
+        BufferedImage.TYPE_USHORT_GRAY,
+        BufferedImage.TYPE_BYTE_BINARY,
+        BufferedImage.TYPE_BYTE_INDEXED
+    };
+
+    /**
+     * One of the PNGEncodeParam.FILTER_STRATEGY_XXX values.
+     */
+    protected int filterStrategy;
+
+    /**
+     * The deflate compression level.
+     */
+    protected int compressionLevel;
+
+    /**
+     * @param filterStrategy "adaptive", "fast" or "none"
+     * @param compressionLevel the deflate compression level
+     */
+    public PNGEncoderStrategyTest(String filterStrategy,
+                                  Integer compressionLevel) {
+        if ("fast".equals(filterStrategy)) {
+            this.filterStrategy = PNGEncodeParam.FILTER_STRATEGY_FAST;
+        } else if ("none".equals(filterStrategy)) {
+            this.filterStrategy = PNGEncodeParam.FILTER_STRATEGY_NONE;
+        } else {
+            this.filterStrategy = PNGEncodeParam.FILTER_STRATEGY_ADAPTIVE;
+        }
+        this.compressionLevel = compressionLevel;
+    }
+
+    public TestReport runImpl() throws Exception {
+        for (int i = 0; i < IMAGE_TYPES.length; i++) {
+            BufferedImage image = createImage(67, 45, IMAGE_TYPES[i]);
+            TestReport report = check(image, "type " + IMAGE_TYPES[i]);
+            if (report != null) {
+                return report;
+            }
+        }
+
+        // Fetched by the encoder one tile row at a time.
+        BufferedImage image = createImage(120, 90, BufferedImage.TYPE_INT_ARGB);
+        TestReport report =
+            check(new TileCacheRed(GraphicsUtil.wrap(image), 32, 16), "tiled");
+        if (report != null) {
+            return report;
+        }
+
+        // Fetched by the encoder in several pieces of rows.
+        image = createImage(700, 500, BufferedImage.TYPE_INT_ARGB);
+        report = check(image, "large");
+        if (report != null) {
+            return report;
+        }
+
+        return reportSuccess();
+    }
+
+    /**
+     * Encodes the image, with and without interlacing, and compares
+     * the decoded images with it.  Returns null if they all match.
+     */
+    protected TestReport check(RenderedImage image, String desc)
+            throws Exception {
+        for (int pass = 0; pass < 2; pass++) {
+            PNGEncodeParam param = PNGEncodeParam.getDefaultEncodeParam(image);
+            param.setFilterStrategy(filterStrategy);
+            param.setCompressionLevel(compressionLevel);
+            param.setInterlacing(pass == 1);
+
+            RenderedImage decoded =
+                new PNGRed(new ByteArrayInputStream(encode(image, param)));
+            if (!checkIdentical(image, decoded)) {
+                DefaultTestReport report = new DefaultTestReport(this);
+                report.setErrorCode(ERROR_DECODED_DOES_NOT_MATCH_ENCODED);
+                report.addDescriptionEntry
+                    (ENTRY_KEY_IMAGE,
+                     desc + (pass == 1 ? ", interlaced" : ""));
+                report.setPassed(false);
+                return report;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Encodes an image with the given parameters.
+     */
+    public static byte[] encode(RenderedImage image, PNGEncodeParam param)
+            throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        new PNGImageEncoder(bos, param).encode(image);
+        bos.close();
+        return bos.toByteArray();
+    }
+
+    /**
+     * Creates an image whose top half is a smooth gradient and whose
+     * bottom half is noise, so that every filter type gets chosen by
+     * the adaptive strategy.
+     */
+    public static BufferedImage createImage(int w, int h, int type) {
+        BufferedImage image = new BufferedImage(w, h, type);
+        WritableRaster wr = image.getRaster();
+        int bands = wr.getNumBands();
+        int max = (1 << image.getSampleModel().getSampleSize(0)) - 1;
+        Random random = new Random(w * 31 + h * 17 + type);
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                for (int b = 0; b < bands; b++) {
+                    int v;
+                    if (y < h / 2) {
+                        v = ((x * (b + 1) + y * 3) * max / (w + h * 2)) % (max + 1);
+                    } else {
+                        v = random.nextInt(max + 1);
+                    }
+                    wr.setSample(x, y, b, v);
+                }
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Returns true if both images have the same size and the same
+     * colors.  Gray images are compared sample by sample, so 16 bit
+     * values must match exactly.
+     */
+    public static boolean checkIdentical(RenderedImage imgA,
+                                         RenderedImage imgB) {
+        BufferedImage a = toBufferedImage(imgA);
+        BufferedImage b = toBufferedImage(imgB);
+        int w = a.getWidth();
+        int h = a.getHeight();
+        if (w != b.getWidth() || h != b.getHeight()) {
+            return false;
+        }
+        boolean samples = a.getRaster().getNumBands() == 1
+            && b.getRaster().getNumBands() == 1
+            && a.getSampleModel().getSampleSize(0) == 16;
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                if (samples) {
+                    if (a.getRaster().getSample(x, y, 0)
+                        != b.getRaster().getSample(x, y, 0)) {
+                        return false;
+                    }
+                } else if (a.getRGB(x, y) != b.getRGB(x, y)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies a rendered image into a BufferedImage with the same
+     * color model.
+     */
+    public static BufferedImage toBufferedImage(RenderedImage img) {
+        if (img instanceof BufferedImage) {
+            return (BufferedImage)img;
+        }
+        ColorModel cm = img.getColorModel();
+        WritableRaster wr = cm.createCompatibleWritableRaster
+            (img.getWidth(), img.getHeight());
+        wr = wr.createWritableTranslatedChild(img.getMinX(), img.getMinY());
+        img.copyData(wr);
+        wr = wr.createWritableTranslatedChild(0, 0);
+        return new BufferedImage(cm, wr, cm.isAlphaPremultiplied(), null);
+    }
+}
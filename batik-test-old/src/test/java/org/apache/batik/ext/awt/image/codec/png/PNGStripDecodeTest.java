@@ -0,0 +1,114 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.batik.ext.awt.image.codec.png;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.io.ByteArrayInputStream;
+import java.util.Random;
+
+import org.apache.batik.test.AbstractTest;
+import org.apache.batik.test.DefaultTestReport;
+import org.apache.batik.test.TestReport;
+
+/**
+ * Checks that PNG images decoded strip by strip, with the strips
+ * requested in random order, have the same pixels as images decoded
+ * in one piece.
+ *
+ * @version $Id$
+ */
+public class PNGStripDecodeTest extends AbstractTest {
+
+    /**
+     * Strip decoded image differs from whole decoded image
+     * {0} = description of the image
+     */
+    public static final String ERROR_STRIPS_DO_NOT_MATCH
+        = "PNGStripDecodeTest.error.strips.do.not.match";
+
+    public static final String ENTRY_KEY_IMAGE
+        = "PNGStripDecodeTest.entry.key.image";
+
+    public static final int STRIP_HEIGHT = 7;
+
+    public TestReport runImpl() throws Exception {
+        int[] types = PNGEncoderStrategyTest.IMAGE_TYPES;
+        for (int i = 0; i < types.length; i++) {
+            BufferedImage image =
+                PNGEncoderStrategyTest.createImage(53, 61, types[i]);
+            PNGEncodeParam param = PNGEncodeParam.getDefaultEncodeParam(image);
+            byte[] data = PNGEncoderStrategyTest.encode(image, param);
+
+            RenderedImage whole =
+                new PNGRed(new ByteArrayInputStream(data));
+
+            PNGDecodeParam decodeParam = new PNGDecodeParam();
+            decodeParam.setStripHeight(STRIP_HEIGHT);
+            RenderedImage strips =
+                new PNGRed(new ByteArrayInputStream(data), decodeParam);
+
+            if (strips.getTileHeight() != STRIP_HEIGHT
+                || !checkTiles(whole, strips, new Random(types[i]))) {
+                DefaultTestReport report = new DefaultTestReport(this);
+                report.setErrorCode(ERROR_STRIPS_DO_NOT_MATCH);
+                report.addDescriptionEntry(ENTRY_KEY_IMAGE, "type " + types[i]);
+                report.setPassed(false);
+                return report;
+            }
+        }
+        return reportSuccess();
+    }
+
+    /**
+     * Requests every strip of <code>strips</code> at least once, in
+     * random order, and compares it with the same rows of
+     * <code>whole</code>.
+     */
+    protected boolean checkTiles(RenderedImage whole, RenderedImage strips,
+                                 Random random) {
+        int n = strips.getNumYTiles();
+        Raster ref = whole.getData();
+        int nb = ref.getNumBands();
+        for (int i = 0; i < n * 3; i++) {
+            int ty = (i < n) ? n - 1 - i : random.nextInt(n);
+            Raster tile = strips.getTile(strips.getMinTileX(),
+                                         strips.getMinTileY() + ty);
+            int y0 = Math.max(tile.getMinY(), ref.getMinY());
+            int y1 = Math.min(tile.getMinY() + tile.getHeight(),
+                              ref.getMinY() + ref.getHeight());
+            if (y0 >= y1 || tile.getNumBands() != nb) {
+                return false;
+            }
+            for (int y = y0; y < y1; y++) {
+                for (int x = 0; x < ref.getWidth(); x++) {
+                    for (int b = 0; b < nb; b++) {
+                        if (tile.getSample(x, y, b)
+                            != ref.getSample(x, y, b)) {
+                            return false;
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+}
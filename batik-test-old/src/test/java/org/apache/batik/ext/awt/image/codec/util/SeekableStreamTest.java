@@ -0,0 +1,219 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.batik.ext.awt.image.codec.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.apache.batik.test.AbstractTest;
+
+/**
+ * Checks the reads and seeks of a seekable stream against the data
+ * it was created from.  Reads cross the 8 KB blocks of the caching
+ * streams and the end of the data, single byte reads are mixed with
+ * bulk reads, and seeks go backwards and beyond the end.
+ *
+ * @version $Id$
+ */
+public class SeekableStreamTest extends AbstractTest {
+
+    /**
+     * The block size of the caching streams.
+     */
+    public static final int BLOCK_SIZE = 8192;
+
+    /**
+     * The kind of stream to test: "mapped", "memory" or "file".
+     */
+    protected String kind;
+
+    /**
+     * @param kind "mapped", "memory" or "file"
+     */
+    public SeekableStreamTest(String kind) {
+        this.kind = kind;
+    }
+
+    public boolean runImplBasic() throws Exception {
+        byte[] data = new byte[3 * BLOCK_SIZE + 17];
+        new Random(data.length).nextBytes(data);
+
+        File file = File.createTempFile("SeekableStreamTest", ".bin");
+        try {
+            FileOutputStream fos = new FileOutputStream(file);
+            fos.write(data);
+            fos.close();
+
+            SeekableStream ss = createStream(file, data);
+            try {
+                checkStream(ss, data);
+            } finally {
+                ss.close();
+            }
+
+            // An empty file is at its end from the start.
+            fos = new FileOutputStream(file);
+            fos.close();
+            ss = createStream(file, new byte[0]);
+            try {
+                assertEquals(-1, ss.read());
+                assertEquals(-1, ss.read(new byte[4], 0, 4));
+            } finally {
+                ss.close();
+            }
+        } finally {
+            file.delete();
+        }
+        return true;
+    }
+
+    /**
+     * Creates the stream to test.
+     */
+    protected SeekableStream createStream(File file, byte[] data)
+            throws IOException {
+        if ("mapped".equals(kind)) {
+            return new MappedFileSeekableStream(file);
+        } else if ("memory".equals(kind)) {
+            return new MemoryCacheSeekableStream(new ByteArrayInputStream(data));
+        } else if ("file".equals(kind)) {
+            return new FileCacheSeekableStream(new ByteArrayInputStream(data));
+        }
+        throw new IllegalArgumentException(kind);
+    }
+
+    protected void checkStream(SeekableStream ss, byte[] data)
+            throws Exception {
+        int len = data.length;
+        assertTrue(ss.canSeekBackwards());
+
+        // Single byte reads across the first block boundary.
+        ss.seek(BLOCK_SIZE - 2);
+        for (int i = BLOCK_SIZE - 2; i < BLOCK_SIZE + 2; i++) {
+            assertEquals(data[i] & 0xff, ss.read());
+        }
+        assertEquals(BLOCK_SIZE + 2, (int)ss.getFilePointer());
+
+        // A bulk read spanning two block boundaries.
+        checkRead(ss, data, BLOCK_SIZE - 5, 2 * BLOCK_SIZE + 10);
+
+        // Backwards seeks, reads ending exactly on a block boundary.
+        checkRead(ss, data, 0, BLOCK_SIZE);
+        checkRead(ss, data, BLOCK_SIZE, BLOCK_SIZE);
+        checkRead(ss, data, 2 * BLOCK_SIZE - 1, 1);
+
+        // Random reads in both directions.
+        Random random = new Random(17);
+        for (int i = 0; i < 200; i++) {
+            int pos = random.nextInt(len);
+            int n = random.nextInt(Math.min(len - pos, 3 * BLOCK_SIZE / 2) + 1);
+            checkRead(ss, data, pos, n);
+        }
+
+        // A read across the end returns what is left.
+        byte[] b = new byte[64];
+        ss.seek(len - 10);
+        int n = readAll(ss, b, 0, b.length);
+        assertEquals(10, n);
+        for (int i = 0; i < n; i++) {
+            assertEquals(data[len - 10 + i], b[i]);
+        }
+        assertEquals(len, (int)ss.getFilePointer());
+
+        // At the end of the data.
+        assertEquals(-1, ss.read());
+        assertEquals(-1, ss.read(b, 0, b.length));
+        assertEquals(0, ss.read(b, 0, 0));
+
+        // Beyond the end of the data.
+        ss.seek(len + 100);
+        assertEquals(-1, ss.read());
+        assertEquals(-1, ss.read(b, 0, b.length));
+
+        // readFully can't read past the end.
+        ss.seek(len - 4);
+        try {
+            ss.readFully(b, 0, 8);
+            error("SeekableStreamTest.error.no.eof");
+        } catch (EOFException ex) {
+        }
+
+        // The last byte, then back to the start.
+        ss.seek(len - 1);
+        assertEquals(data[len - 1] & 0xff, ss.read());
+        ss.seek(0);
+        assertEquals(data[0] & 0xff, ss.read());
+
+        // mark and reset.
+        ss.seek(BLOCK_SIZE - 1);
+        ss.mark(0);
+        ss.skip(10);
+        ss.reset();
+        assertEquals(BLOCK_SIZE - 1, (int)ss.getFilePointer());
+        assertEquals(data[BLOCK_SIZE - 1] & 0xff, ss.read());
+
+        // Negative seeks are rejected.
+        try {
+            ss.seek(-1);
+            error("SeekableStreamTest.error.negative.seek");
+        } catch (IOException ex) {
+        }
+    }
+
+    /**
+     * Seeks to <code>pos</code>, reads <code>n</code> bytes at an
+     * offset in a larger array and compares them with the data.
+     */
+    protected void checkRead(SeekableStream ss, byte[] data, int pos, int n)
+            throws Exception {
+        byte[] b = new byte[n + 6];
+        ss.seek(pos);
+        assertEquals(n, readAll(ss, b, 3, n));
+        assertEquals(pos + n, (int)ss.getFilePointer());
+        for (int i = 0; i < n; i++) {
+            if (b[i + 3] != data[pos + i]) {
+                assertEquals(data[pos + i], b[i + 3]);
+            }
+        }
+        assertEquals(0, b[0]);
+        assertEquals(0, b[n + 3]);
+    }
+
+    /**
+     * Reads until <code>len</code> bytes are read or the end of the
+     * stream is reached, and returns the number of bytes read.
+     */
+    protected int readAll(SeekableStream ss, byte[] b, int off, int len)
+            throws IOException {
+        int total = 0;
+        while (total < len) {
+            int n = ss.read(b, off + total, len - total);
+            if (n < 0) {
+                break;
+            }
+            total += n;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,182 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.batik.gvt.flow;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.apache.batik.test.AbstractTest;
+
+/**
+ * Tests {@link TextLineBreaks}: the two stage table of line break classes
+ * must give the classes of the former lookup, a 256 entry table followed
+ * by a binary search of the ranges, for every character; and the word
+ * limit cache must stay under its bound in characters, evicting the least
+ * recently used paragraphs.
+ *
+ * @version $Id$
+ */
+public class TextLineBreaksTest extends AbstractTest {
+
+    /**
+     * The length of the paragraphs put in the cache.
+     */
+    public static final int PARAGRAPH_LENGTH = 1000;
+
+    public boolean runImplBasic() throws Exception {
+        // (1-2) Character classes.
+        byte[] quick = buildQuickTable();
+        StringBuffer all = new StringBuffer();
+        for (int c = 0; c <= 0xFFFF; c++) {
+            char ch = (char) c;
+            byte expected = c < quick.length ? quick[c] : search(ch);
+            ensure(1, TextLineBreaks.getCharCharClass(ch) == expected);
+            all.append(ch);
+        }
+        byte[] classes =
+            TextLineBreaks.stringToLineBreakClasses(all.toString());
+        for (int c = 0; c <= 0xFFFF; c++) {
+            ensure(2, classes[c] == TextLineBreaks.getCharCharClass((char) c));
+        }
+
+        // (3-6) The cache stays under its bound, and keeps the most
+        // recently used paragraphs.
+        synchronized (TextLineBreaks.wordLimitCache) {
+            TextLineBreaks.wordLimitCache.clear();
+            TextLineBreaks.wordLimitCacheChars = 0;
+        }
+        int max = TextLineBreaks.WORD_LIMIT_CACHE_CHARS;
+        int count = 2 * max / PARAGRAPH_LENGTH;
+        char[] first = createParagraph(0);
+        for (int i = 0; i < count; i++) {
+            char[] p = createParagraph(i);
+            int[] limits = TextLineBreaks.getWordLimits(p, 0, p.length);
+            ensure(3, Arrays.equals(limits, TextLineBreaks.computeWordLimits
+                                                (p, 0, p.length)));
+            // The first paragraph is used again before each insertion.
+            TextLineBreaks.getWordLimits(first, 0, first.length);
+            ensure(4, getCachedChars() == TextLineBreaks.wordLimitCacheChars
+                   && TextLineBreaks.wordLimitCacheChars <= max);
+        }
+        ensure(5, TextLineBreaks.wordLimitCache.size()
+                  == max / PARAGRAPH_LENGTH);
+        ensure(6, isCached(first) && isCached(createParagraph(count - 1))
+               && !isCached(createParagraph(1)));
+
+        // (7) A cached paragraph does not count twice.
+        int chars = TextLineBreaks.wordLimitCacheChars;
+        char[] last = createParagraph(count - 1);
+        TextLineBreaks.getWordLimits(last, 0, last.length);
+        ensure(7, TextLineBreaks.wordLimitCacheChars == chars);
+
+        // (8) A paragraph longer than the bound is not cached.
+        char[] longer = new char[max + 1];
+        Arrays.fill(longer, 'a');
+        for (int i = 0; i < longer.length; i += 10) {
+            longer[i] = ' ';
+        }
+        TextLineBreaks.getWordLimits(longer, 0, longer.length);
+        ensure(8, !isCached(longer) && isCached(first)
+               && TextLineBreaks.wordLimitCacheChars == chars);
+        return true;
+    }
+
+    /**
+     * Returns a paragraph of words of various classes, different for each
+     * given number.
+     */
+    protected char[] createParagraph(int n) {
+        String words = n + " The quick (brown) fox, 1.5 km; \u6F22\u5B57"
+            + " \u0627\u0644\u0639 jumps-over \u00AB lazy \u00BB dogs! ";
+        char[] p = new char[PARAGRAPH_LENGTH];
+        for (int i = 0; i < p.length; i++) {
+            p[i] = words.charAt(i % words.length());
+        }
+        return p;
+    }
+
+    protected boolean isCached(char[] p) {
+        synchronized (TextLineBreaks.wordLimitCache) {
+            return TextLineBreaks.wordLimitCache.containsKey(new String(p));
+        }
+    }
+
+    /**
+     * Returns the number of characters of the paragraphs in the cache.
+     */
+    protected int getCachedChars() {
+        int n = 0;
+        synchronized (TextLineBreaks.wordLimitCache) {
+            Iterator it = TextLineBreaks.wordLimitCache.keySet().iterator();
+            while (it.hasNext()) {
+                n += ((String) it.next()).length();
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Builds the table of the classes of the first 256 characters, as the
+     * former lookup did.
+     */
+    protected byte[] buildQuickTable() {
+        byte[] quick = new byte[256];
+        int entry = 0;
+        int i = 0;
+        while (i < quick.length) {
+            int max = TextLineBreaks.raw_data[2 * entry + 1];
+            byte cls = TextLineBreaks.raw_classes[entry];
+            while (i <= max && i < quick.length) {
+                quick[i++] = cls;
+            }
+            entry++;
+        }
+        return quick;
+    }
+
+    /**
+     * Returns the class of the given character by a binary search of the
+     * ranges, as the former lookup did.
+     */
+    protected byte search(char ch) {
+        char[] data = TextLineBreaks.raw_data;
+        int l = 0;
+        int r = (data.length / 2) - 1;
+        int entry = (l + r) / 2;
+        while (l <= r) {
+            if (ch < data[2 * entry]) {
+                r = entry - 1;
+            } else if (ch > data[2 * entry + 1]) {
+                l = entry + 1;
+            } else {
+                break;
+            }
+            entry = (l + r) / 2;
+        }
+        return TextLineBreaks.raw_classes[entry];
+    }
+
+    protected void ensure(int subTestNumber, boolean b) {
+        if (!b) {
+            throw new RuntimeException("Assertion failure in sub-test "
+                                       + subTestNumber);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.batik.gvt.font;
+
+import java.awt.geom.GeneralPath;
+
+import org.apache.batik.test.AbstractTest;
+
+/**
+ * Tests {@link GlyphGeometryCache}: the estimated size of the outlines,
+ * the bound on the total size, the least recently used eviction order,
+ * the statistics and the equality of the keys.
+ *
+ * @version $Id$
+ */
+public class GlyphGeometryCacheTest extends AbstractTest {
+
+    public boolean runImplBasic() throws Exception {
+        // (1-2) Outline sizes, by segment type.
+        GeneralPath p = new GeneralPath();
+        p.moveTo(0, 0);
+        p.lineTo(1, 0);
+        p.quadTo(2, 0, 2, 1);
+        p.curveTo(2, 2, 1, 2, 0, 2);
+        p.closePath();
+        ensure(1, GlyphGeometryCache.getSize(p) == 9 + 9 + 17 + 25 + 1);
+        ensure(2, GlyphGeometryCache.getSize(null) == 0);
+
+        int entry = GlyphGeometryCache.ENTRY_SIZE
+            + GlyphGeometryCache.getSize(p);
+        GlyphGeometryCache c = new GlyphGeometryCache(3 * entry);
+        Object k1 = new GlyphGeometryCache.Key("font", 1, 12);
+        Object k2 = new GlyphGeometryCache.Key("font", 2, 12);
+        Object k3 = new GlyphGeometryCache.Key("font", 3, 12);
+        Object k4 = new GlyphGeometryCache.Key("font", 4, 12);
+
+        // (3-5) Entries are kept while the cache is under its maximum size,
+        // and replacing an entry does not count it twice.
+        c.put(k1, "v1", p);
+        c.put(k2, "v2", p);
+        c.put(k3, "v3", p);
+        ensure(3, c.getEntryCount() == 3 && c.getSize() == 3 * entry);
+        c.put(k3, "v3'", p);
+        ensure(4, c.getEntryCount() == 3 && c.getSize() == 3 * entry);
+        ensure(5, c.getEvictionCount() == 0);
+
+        // (6-9) The least recently used entry is evicted, a lookup
+        // counting as a use.
+        ensure(6, "v1".equals(c.get(k1)));
+        c.put(k4, "v4", p);
+        ensure(7, c.getEntryCount() == 3 && c.getSize() == 3 * entry);
+        ensure(8, c.getEvictionCount() == 1);
+        ensure(9, c.get(k2) == null && "v1".equals(c.get(k1))
+               && "v3'".equals(c.get(k3)) && "v4".equals(c.get(k4)));
+
+        // (10-11) Larger outlines evict several entries, and the size never
+        // exceeds the maximum.
+        GeneralPath large = new GeneralPath();
+        large.moveTo(0, 0);
+        for (int i = 0; i < 20; i++) {
+            large.lineTo(i, i);
+        }
+        Object k5 = new GlyphGeometryCache.Key("font", 5, 12);
+        c.put(k5, "v5", large);
+        ensure(10, c.getSize() <= c.getMaxSize() && "v5".equals(c.get(k5)));
+        ensure(11, c.getEvictionCount() == 3 && c.get(k1) == null);
+
+        // (12) Lowering the maximum size evicts the entries over it.
+        c.put(k1, "v1", p);
+        c.setMaxSize(entry);
+        ensure(12, c.getEntryCount() == 1 && "v1".equals(c.get(k1)));
+
+        // (13-14) Statistics.
+        c.resetStatistics();
+        c.get(k1);
+        c.get(k2);
+        c.get(k1);
+        ensure(13, c.getHitCount() == 2 && c.getMissCount() == 1
+               && c.getEvictionCount() == 0);
+        ensure(14, Math.abs(c.getHitRate() - 2 / 3.0) < 1e-9);
+
+        // (15) clear() empties the cache.
+        c.clear();
+        ensure(15, c.getEntryCount() == 0 && c.getSize() == 0
+               && c.get(k1) == null);
+
+        // (16-18) Keys are equal when their font, glyph code and size are.
+        Object k = new GlyphGeometryCache.Key(new String("font"), 1, 12);
+        ensure(16, k.equals(k1) && k.hashCode() == k1.hashCode());
+        ensure(17, !k1.equals(new GlyphGeometryCache.Key("font", 1, 13))
+               && !k1.equals(new GlyphGeometryCache.Key("other", 1, 12))
+               && !k1.equals(k2));
+        ensure(18, !k1.equals("font"));
+        return true;
+    }
+
+    protected void ensure(int subTestNumber, boolean b) {
+        if (!b) {
+            throw new RuntimeException("Assertion failure in sub-test "
+                                       + subTestNumber);
+        }
+    }
+}
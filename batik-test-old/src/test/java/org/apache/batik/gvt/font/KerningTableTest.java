@@ -0,0 +1,143 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.batik.gvt.font;
+
+import java.util.Random;
+
+import org.apache.batik.test.AbstractTest;
+
+/**
+ * Checks that {@link KerningTable} returns the value of the first
+ * matching entry, as a linear scan of its entries does, for entries
+ * made of glyph codes, of unicode ranges, and of both.
+ *
+ * @version $Id$
+ */
+public class KerningTableTest extends AbstractTest {
+
+    /**
+     * The number of glyphs of the test fonts.
+     */
+    public static final int GLYPH_COUNT = 40;
+
+    /**
+     * The number of random tables.
+     */
+    public static final int TABLE_COUNT = 50;
+
+    public boolean runImplBasic() throws Exception {
+        String[] unicodes = new String[GLYPH_COUNT];
+        for (int i = 0; i < GLYPH_COUNT; i++) {
+            unicodes[i] = String.valueOf((char) ('A' + i));
+        }
+        unicodes[GLYPH_COUNT - 2] = "";
+        unicodes[GLYPH_COUNT - 1] = "ffi";
+
+        // (1-4) The first entry wins, whether it matches by glyph code or
+        // by unicode range.
+        UnicodeRange[] none = new UnicodeRange[0];
+        UnicodeRange[] upper = { new UnicodeRange("U+41-5A") };
+        Kern[] kerns = {
+            new Kern(new int[] { 3 }, new int[] { 4 }, none, none, 1),
+            new Kern(null, new int[] { 4 }, upper, none, 2),
+            new Kern(new int[] { 5, 1, 5 }, null, none, upper, 3),
+            new Kern(new int[] { 1 }, new int[] { 30 }, none, none, 4)
+        };
+        KerningTable t = new KerningTable(kerns);
+        ensure(1, t.getKerningValue(3, 4, unicodes[3], unicodes[4]) == 1);
+        ensure(2, t.getKerningValue(1, 4, unicodes[1], unicodes[4]) == 2);
+        ensure(3, t.getKerningValue(5, 2, unicodes[5], unicodes[2]) == 3);
+        ensure(4, t.getKerningValue(1, 30, unicodes[1], unicodes[30]) == 4
+               && t.getKerningValue(1, 31, unicodes[1], unicodes[31]) == 0);
+        compare(5, kerns, unicodes);
+
+        // (6) Random tables give the same values as a linear scan.
+        Random r = new Random(45);
+        for (int n = 0; n < TABLE_COUNT; n++) {
+            kerns = new Kern[1 + r.nextInt(60)];
+            for (int i = 0; i < kerns.length; i++) {
+                kerns[i] = new Kern(createCodes(r), createCodes(r),
+                                    createRanges(r), createRanges(r),
+                                    i + 1);
+            }
+            compare(6, kerns, unicodes);
+        }
+        return true;
+    }
+
+    /**
+     * Compares the values of a table and of a linear scan of its entries,
+     * for all the glyph pairs.
+     */
+    protected void compare(int subTestNumber, Kern[] kerns,
+                           String[] unicodes) {
+        KerningTable t = new KerningTable(kerns);
+        for (int g1 = 0; g1 < GLYPH_COUNT; g1++) {
+            for (int g2 = 0; g2 < GLYPH_COUNT; g2++) {
+                float expected = 0;
+                for (int i = 0; i < kerns.length; i++) {
+                    if (kerns[i].matchesFirstGlyph(g1, unicodes[g1])
+                        && kerns[i].matchesSecondGlyph(g2, unicodes[g2])) {
+                        expected = kerns[i].getAdjustValue();
+                        break;
+                    }
+                }
+                ensure(subTestNumber,
+                       t.getKerningValue(g1, g2, unicodes[g1], unicodes[g2])
+                       == expected);
+            }
+        }
+    }
+
+    /**
+     * Returns null or a few glyph codes, possibly repeated.
+     */
+    protected int[] createCodes(Random r) {
+        if (r.nextInt(4) == 0) {
+            return null;
+        }
+        int[] codes = new int[r.nextInt(4)];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = r.nextInt(GLYPH_COUNT);
+        }
+        return codes;
+    }
+
+    /**
+     * Returns no range, most of the time, or a few ranges.
+     */
+    protected UnicodeRange[] createRanges(Random r) {
+        UnicodeRange[] ranges = new UnicodeRange[r.nextInt(3) == 0 ? 2 : 0];
+        for (int i = 0; i < ranges.length; i++) {
+            int first = 'A' + r.nextInt(GLYPH_COUNT);
+            int last = first + r.nextInt(4);
+            ranges[i] = new UnicodeRange("U+" + Integer.toHexString(first)
+                                         + "-" + Integer.toHexString(last));
+        }
+        return ranges;
+    }
+
+    protected void ensure(int subTestNumber, boolean b) {
+        if (!b) {
+            throw new RuntimeException("Assertion failure in sub-test "
+                                       + subTestNumber);
+        }
+    }
+}
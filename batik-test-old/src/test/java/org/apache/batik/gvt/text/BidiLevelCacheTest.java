@@ -0,0 +1,138 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+package org.apache.batik.gvt.text;
+
+import java.awt.font.FontRenderContext;
+import java.awt.font.TextAttribute;
+import java.awt.geom.AffineTransform;
+import java.text.AttributedCharacterIterator;
+import java.text.AttributedString;
+import java.util.Arrays;
+
+import org.apache.batik.test.AbstractTest;
+
+/**
+ * Checks that the bidi levels cached by {@link
+ * BidiAttributedCharacterIterator} depend on the run direction and on
+ * the embedding and override levels of the text: the same string laid
+ * out with different values gets different levels, and the same levels
+ * as with an empty cache.
+ *
+ * @version $Id$
+ */
+public class BidiLevelCacheTest extends AbstractTest {
+
+    /**
+     * The test string: latin, hebrew, digits and latin.
+     */
+    public static final String TEXT =
+        "abc \u05d0\u05d1\u05d2 123 def";
+
+    /**
+     * The attribute, value and range of each layout of the string, an
+     * end of -1 standing for the end of the string.
+     */
+    public static final Object[][] ATTRIBUTES = {
+        {},
+        { TextAttribute.RUN_DIRECTION, TextAttribute.RUN_DIRECTION_RTL,
+          0, -1 },
+        { TextAttribute.BIDI_EMBEDDING, 1, 4, -1 },
+        { TextAttribute.BIDI_EMBEDDING, -1, 0, -1 },
+        { TextAttribute.BIDI_EMBEDDING, 2, 0, -1 },
+        { TextAttribute.BIDI_EMBEDDING, -2, 4, 7 },
+        { TextAttribute.BIDI_EMBEDDING, 1, 0, 3 },
+        { TextAttribute.BIDI_EMBEDDING, -1, 8, 11 }
+    };
+
+    public boolean runImplBasic() throws Exception {
+        FontRenderContext frc =
+            new FontRenderContext(new AffineTransform(), true, true);
+        int n = ATTRIBUTES.length;
+        clearCache();
+
+        // The levels of each layout differ, and are taken from the cache
+        // when the same text is laid out again.
+        byte[][] levels = new byte[n][];
+        for (int i = 0; i < n; i++) {
+            levels[i] = layout(i, frc);
+            for (int j = 0; j < i; j++) {
+                assertTrue(!Arrays.equals(levels[i], levels[j]));
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            assertTrue(BidiAttributedCharacterIterator.getLevels
+                       (createText(i), frc) == levels[i]);
+        }
+
+        // The same levels are computed with an empty cache.
+        for (int i = n - 1; i >= 0; i--) {
+            clearCache();
+            byte[] l = layout(i, frc);
+            assertTrue(l != levels[i]);
+            assertTrue(Arrays.equals(levels[i], l));
+        }
+        return true;
+    }
+
+    /**
+     * Returns the test string with the given attributes.
+     */
+    protected AttributedString createText(int i) {
+        AttributedString as = new AttributedString(TEXT);
+        Object[] a = ATTRIBUTES[i];
+        if (a.length != 0) {
+            int end = (Integer) a[3];
+            as.addAttribute((AttributedCharacterIterator.Attribute) a[0],
+                            a[1], (Integer) a[2],
+                            end == -1 ? TEXT.length() : end);
+        }
+        return as;
+    }
+
+    /**
+     * Lays out the test string with the given attributes, checks the
+     * levels of the reordered characters and returns the levels of the
+     * characters.
+     */
+    protected byte[] layout(int i, FontRenderContext frc) throws Exception {
+        AttributedString as = createText(i);
+        BidiAttributedCharacterIterator bidi =
+            new BidiAttributedCharacterIterator(as.getIterator(), frc, 0);
+        byte[] levels =
+            BidiAttributedCharacterIterator.getLevels(as, frc);
+        int[] charMap = bidi.getCharMap();
+        for (int k = 0; k < TEXT.length(); k++) {
+            bidi.setIndex(k);
+            Integer level = (Integer) bidi.getAttribute
+                (GVTAttributedCharacterIterator.TextAttribute.BIDI_LEVEL);
+            int level2 = level == null ? 0 : level;
+            assertEquals(levels[charMap[k]], level2);
+        }
+        return levels;
+    }
+
+    /**
+     * Empties the level cache.
+     */
+    protected void clearCache() {
+        synchronized (BidiAttributedCharacterIterator.levelCache) {
+            BidiAttributedCharacterIterator.levelCache.clear();
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.batik.parser;
+
+import java.io.StringReader;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import org.apache.batik.test.AbstractTest;
+import org.apache.batik.test.DefaultTestReport;
+import org.apache.batik.test.TestReport;
+
+/**
+ * Checks that a parser reports the same events and the same errors,
+ * on the same line, whether the text is given as a string, which is
+ * scanned in place, or through a reader.  Columns are not compared
+ * since StreamNormalizingReader only counts them after line breaks.
+ *
+ * @version $Id$
+ */
+public class StringInputTest extends AbstractTest {
+
+    /**
+     * The kind of parser to use.
+     */
+    protected String parserName;
+
+    /**
+     * The text to parse.
+     */
+    protected String text;
+
+    /**
+     * The events recorded during the current parse.
+     */
+    protected StringBuffer events;
+
+    /**
+     * @param parserName the parser: "path", "transform", "length",
+     *        "lengthList", "numberList", "points", "angle",
+     *        "preserveAspectRatio", "fragmentIdentifier", "clock" or
+     *        "timingSpecifierList"
+     * @param text the text to parse; "\r" and "\n" escapes are
+     *        replaced by line breaks
+     */
+    public StringInputTest(String parserName, String text) {
+        this.parserName = parserName;
+        this.text = text.replace("\\r", "\r").replace("\\n", "\n");
+    }
+
+    public TestReport runImpl() throws Exception {
+        String fromString = parse(true);
+        String fromReader = parse(false);
+
+        if (!fromString.equals(fromReader)) {
+            DefaultTestReport report = new DefaultTestReport(this);
+            report.setErrorCode("invalid.parsing.events");
+            report.addDescriptionEntry("expected.text", fromReader);
+            report.addDescriptionEntry("generated.text", fromString);
+            report.setPassed(false);
+            return report;
+        }
+        return reportSuccess();
+    }
+
+    /**
+     * Parses the text and returns the recorded events.
+     */
+    protected String parse(boolean asString) throws Exception {
+        events = new StringBuffer();
+        AbstractParser p = createParser();
+        p.setErrorHandler(new ErrorHandler() {
+                public void error(ParseException e) throws ParseException {
+                    events.append("error(");
+                    events.append(e.getMessage());
+                    events.append(", ");
+                    events.append(e.getLineNumber());
+                    events.append(")\n");
+                    // Like the default handler, since some parsers
+                    // don't consume the character in error.
+                    throw e;
+                }
+            });
+        try {
+            if (asString) {
+                p.parse(text);
+            } else {
+                p.parse(new StringReader(text));
+            }
+        } catch (ParseException e) {
+        }
+        return events.toString();
+    }
+
+    /**
+     * Creates the parser and registers a handler that records every
+     * event.
+     */
+    protected AbstractParser createParser() {
+        if ("path".equals(parserName)) {
+            PathParser p = new PathParser();
+            p.setPathHandler((PathHandler)recorder(PathHandler.class));
+            return p;
+        } else if ("transform".equals(parserName)) {
+            TransformListParser p = new TransformListParser();
+            p.setTransformListHandler
+                ((TransformListHandler)recorder(TransformListHandler.class));
+            return p;
+        } else if ("length".equals(parserName)) {
+            LengthParser p = new LengthParser();
+            p.setLengthHandler((LengthHandler)recorder(LengthHandler.class));
+            return p;
+        } else if ("lengthList".equals(parserName)) {
+            LengthListParser p = new LengthListParser();
+            p.setLengthListHandler
+                ((LengthListHandler)recorder(LengthListHandler.class));
+            return p;
+        } else if ("numberList".equals(parserName)) {
+            NumberListParser p = new NumberListParser();
+            p.setNumberListHandler
+                ((NumberListHandler)recorder(NumberListHandler.class));
+            return p;
+        } else if ("points".equals(parserName)) {
+            PointsParser p = new PointsParser();
+            p.setPointsHandler((PointsHandler)recorder(PointsHandler.class));
+            return p;
+        } else if ("angle".equals(parserName)) {
+            AngleParser p = new AngleParser();
+            p.setAngleHandler((AngleHandler)recorder(AngleHandler.class));
+            return p;
+        } else if ("preserveAspectRatio".equals(parserName)) {
+            PreserveAspectRatioParser p = new PreserveAspectRatioParser();
+            p.setPreserveAspectRatioHandler
+                ((PreserveAspectRatioHandler)recorder
+                 (PreserveAspectRatioHandler.class));
+            return p;
+        } else if ("fragmentIdentifier".equals(parserName)) {
+            FragmentIdentifierParser p = new FragmentIdentifierParser();
+            p.setFragmentIdentifierHandler
+                ((FragmentIdentifierHandler)recorder
+                 (FragmentIdentifierHandler.class));
+            return p;
+        } else if ("clock".equals(parserName)) {
+            ClockParser p = new ClockParser(true);
+            p.setClockHandler((ClockHandler)recorder(ClockHandler.class));
+            return p;
+        } else if ("timingSpecifierList".equals(parserName)) {
+            TimingSpecifierListParser p =
+                new TimingSpecifierListParser(false, true);
+            p.setTimingSpecifierListHandler
+                ((TimingSpecifierListHandler)recorder
+                 (TimingSpecifierListHandler.class));
+            return p;
+        }
+        throw new IllegalArgumentException(parserName);
+    }
+
+    /**
+     * Returns a handler of the given type that appends every call
+     * and its arguments to <code>events</code>.
+     */
+    protected Object recorder(Class handlerClass) {
+        return Proxy.newProxyInstance
+            (handlerClass.getClassLoader(), new Class[] { handlerClass },
+             new InvocationHandler() {
+                 public Object invoke(Object proxy, Method m, Object[] args) {
+                     events.append(m.getName());
+                     events.append('(');
+                     if (args != null) {
+                         for (int i = 0; i < args.length; i++) {
+                             if (i > 0) {
+                                 events.append(", ");
+                             }
+                             append(args[i]);
+                         }
+                     }
+                     events.append(")\n");
+                     return null;
+                 }
+             });
+    }
+
+    /**
+     * Appends an event argument, listing the elements of arrays.
+     */
+    protected void append(Object arg) {
+        if (arg != null && arg.getClass().isArray()) {
+            events.append('[');
+            for (int i = 0; i < Array.getLength(arg); i++) {
+                if (i > 0) {
+                    events.append(", ");
+                }
+                append(Array.get(arg, i));
+            }
+            events.append(']');
+        } else {
+            events.append(arg);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.batik.swing.gvt;
+
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.apache.batik.anim.dom.SAXSVGDocumentFactory;
+import org.apache.batik.bridge.BridgeContext;
+import org.apache.batik.bridge.GVTBuilder;
+import org.apache.batik.bridge.UserAgentAdapter;
+import org.apache.batik.gvt.GraphicsNode;
+import org.apache.batik.gvt.renderer.ConcreteImageRendererFactory;
+import org.apache.batik.gvt.renderer.ImageRenderer;
+import org.apache.batik.test.AbstractTest;
+import org.apache.batik.test.DefaultTestReport;
+import org.apache.batik.test.TestReport;
+import org.apache.batik.util.XMLResourceDescriptor;
+
+import org.w3c.dom.Document;
+
+/**
+ * Renders a document with a TiledGVTTreeRenderer, with one and with
+ * several threads, and with a GVTTreeRenderer.  The tiled renderings
+ * must be identical whatever the number of threads, and must match the
+ * untiled one, but for antialiased pixels which the rasterizer computes
+ * differently when an edge is cut by a tile boundary.  Also checks
+ * whether the tree is found to be safe to paint concurrently.
+ *
+ * @version $Id$
+ */
+public class TiledGVTTreeRendererTest extends AbstractTest {
+
+    /**
+     * The size of the rendering.
+     */
+    public static final int WIDTH = 450, HEIGHT = 500;
+
+    /**
+     * The largest difference allowed on a channel between the tiled and
+     * the untiled renderings.
+     */
+    public static final int MAX_CHANNEL_DIFFERENCE = 64;
+
+    /**
+     * The largest fraction of the pixels which may differ between the
+     * tiled and the untiled renderings.
+     */
+    public static final double MAX_DIFFERENT_PIXELS = 0.01;
+
+    /**
+     * The document to render.
+     */
+    protected String file;
+
+    /**
+     * Whether the tree of the document can be painted concurrently.
+     */
+    protected boolean concurrent;
+
+    /**
+     * @param file the document to render
+     * @param concurrent whether the tree of the document can be painted
+     *        by several threads at once
+     */
+    public TiledGVTTreeRendererTest(String file, Boolean concurrent) {
+        this.file = file;
+        this.concurrent = concurrent;
+    }
+
+    public TestReport runImpl() throws Exception {
+        ThreadPoolExecutor e =
+            (ThreadPoolExecutor) TiledGVTTreeRenderer.TILE_EXECUTOR;
+        if (e.getMaximumPoolSize()
+                > Runtime.getRuntime().availableProcessors()) {
+            return report("pool.unbounded", "" + e.getMaximumPoolSize());
+        }
+
+        GraphicsNode gn = buildTree();
+        if (TiledGVTTreeRenderer.isConcurrentlyPaintable(gn) != concurrent) {
+            return report("concurrency.misjudged", "" + !concurrent);
+        }
+
+        BufferedImage untiled = render(gn, 0);
+        BufferedImage tiled1 = render(gn, 1);
+        BufferedImage tiledN = render(gn, 4);
+
+        int[] d = compare(tiled1, tiledN);
+        if (d[0] != 0) {
+            return report("thread.count.changes.rendering", "" + d[0]);
+        }
+        d = compare(untiled, tiled1);
+        if (d[0] > WIDTH * HEIGHT * MAX_DIFFERENT_PIXELS
+                || d[1] > MAX_CHANNEL_DIFFERENCE) {
+            return report("tiled.rendering.differs",
+                          d[0] + " pixels, up to " + d[1]);
+        }
+        return reportSuccess();
+    }
+
+    /**
+     * Builds the GVT tree of the document.
+     */
+    protected GraphicsNode buildTree() throws Exception {
+        String parser = XMLResourceDescriptor.getXMLParserClassName();
+        Document doc = new SAXSVGDocumentFactory(parser).createDocument
+            (new File(file).toURI().toString());
+        BridgeContext ctx = new BridgeContext(new UserAgentAdapter());
+        return new GVTBuilder().build(ctx, doc);
+    }
+
+    /**
+     * Renders the tree with a GVTTreeRenderer if <code>threads</code> is
+     * 0, or else with a TiledGVTTreeRenderer.
+     */
+    protected BufferedImage render(GraphicsNode gn, int threads) {
+        ImageRenderer r =
+            new ConcreteImageRendererFactory().createStaticImageRenderer();
+        r.setTree(gn);
+        AffineTransform at = new AffineTransform();
+        Shape aoi = new Rectangle(0, 0, WIDTH, HEIGHT);
+        final int[] painted = new int[1];
+        GVTTreeRenderer tr;
+        if (threads == 0) {
+            tr = new GVTTreeRenderer(r, at, false, aoi, WIDTH, HEIGHT);
+        } else {
+            tr = new TiledGVTTreeRenderer(r, at, aoi, WIDTH, HEIGHT,
+                                          null, threads) {
+                    protected void tileRendered(Rectangle t) {
+                        synchronized (painted) {
+                            painted[0]++;
+                        }
+                    }
+                };
+        }
+        tr.run();
+        if (threads != 0 && painted[0] < 2) {
+            throw new IllegalStateException("not tiled");
+        }
+        BufferedImage off = r.getOffScreen();
+        BufferedImage img =
+            new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        img.getGraphics().drawImage(off, 0, 0, null);
+        r.dispose();
+        return img;
+    }
+
+    /**
+     * Returns the number of pixels which differ, and the largest
+     * difference on a channel.
+     */
+    protected int[] compare(BufferedImage a, BufferedImage b) {
+        int[] d = new int[2];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int p = a.getRGB(x, y);
+                int q = b.getRGB(x, y);
+                if (p != q) {
+                    d[0]++;
+                    for (int s = 0; s < 32; s += 8) {
+                        int c = Math.abs(((p >>> s) & 0xff)
+                                         - ((q >>> s) & 0xff));
+                        d[1] = Math.max(d[1], c);
+                    }
+                }
+            }
+        }
+        return d;
+    }
+
+    protected TestReport report(String code, String detail) {
+        DefaultTestReport report = new DefaultTestReport(this);
+        report.setErrorCode(code);
+        report.addDescriptionEntry("file", file);
+        report.addDescriptionEntry("detail", detail);
+        report.setPassed(false);
+        return report;
+    }
+}
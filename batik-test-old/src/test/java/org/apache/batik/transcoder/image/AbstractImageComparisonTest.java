@@ -0,0 +1,58 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.batik.transcoder.image;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+
+import org.apache.batik.ext.awt.image.codec.png.PNGEncoderStrategyTest;
+import org.apache.batik.ext.awt.image.codec.png.PNGRed;
+import org.apache.batik.test.AbstractTest;
+
+/**
+ * Base class for the tests comparing the pixels of the images written
+ * by the transcoders.
+ *
+ * @version $Id$
+ */
+public abstract class AbstractImageComparisonTest extends AbstractTest {
+
+    /**
+     * Decodes the given PNG data.
+     */
+    protected BufferedImage decode(byte[] png) throws Exception {
+        return PNGEncoderStrategyTest.toBufferedImage
+            (new PNGRed(new ByteArrayInputStream(png)));
+    }
+
+    /**
+     * Checks that the two images have the same size and pixels.
+     */
+    protected void assertIdentical(BufferedImage a, BufferedImage b)
+            throws Exception {
+        assertEquals(a.getWidth(), b.getWidth());
+        assertEquals(a.getHeight(), b.getHeight());
+        for (int y = 0; y < a.getHeight(); y++) {
+            for (int x = 0; x < a.getWidth(); x++) {
+                assertEquals(a.getRGB(x, y), b.getRGB(x, y));
+            }
+        }
+    }
+}
@@ -0,0 +1,242 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.batik.transcoder.image;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.batik.transcoder.TranscoderException;
+import org.apache.batik.transcoder.TranscoderInput;
+import org.apache.batik.transcoder.TranscoderOutput;
+
+/**
+ * Checks the AnimationFrameTranscoder: the validation of the frame
+ * patterns, the files written from KEY_FRAME_PATTERN and from a file
+ * URI, that several threads write the same frames as one, and that the
+ * other threads are cancelled when one of them fails.
+ *
+ * @version $Id$
+ */
+public class AnimationFrameTranscoderTest extends AbstractImageComparisonTest {
+
+    /**
+     * A document whose rectangle moves by 9 pixels every tenth of a
+     * second.
+     */
+    public static final String DOCUMENT =
+        "<svg xmlns='http://www.w3.org/2000/svg' width='100' height='20'>" +
+        "<rect width='100' height='20' fill='white'/>" +
+        "<rect x='0' y='5' width='10' height='10' fill='blue'>" +
+        "<animate attributeName='x' from='0' to='90' dur='1s'" +
+        " fill='freeze'/></rect>" +
+        "</svg>";
+
+    /**
+     * The number of frames written from 0 to 1s at 10 frames per second.
+     */
+    public static final int FRAME_COUNT = 11;
+
+    public boolean runImplBasic() throws Exception {
+        // Patterns taking exactly one integer argument.
+        String[] valid = {
+            "f%d.png", "frames/f%04d.png", "%x", "100%%-%1$03o.png"
+        };
+        String[] invalid = {
+            "f.png", "f%d%d.png", "f%s.png", "f%f.png", "f%.png",
+            "f%d%", "f%2$d.png", "f%<d.png", "f%tY%d.png", "f%n%d.png",
+            "f%.2d.png"
+        };
+        for (int i = 0; i < valid.length; i++) {
+            assertTrue(AnimationFrameTranscoder.isFramePattern(valid[i]));
+        }
+        for (int i = 0; i < invalid.length; i++) {
+            assertTrue(!AnimationFrameTranscoder.isFramePattern(invalid[i]));
+            try {
+                new AnimationFrameTranscoder().addTranscodingHint
+                    (AnimationFrameTranscoder.KEY_FRAME_PATTERN, invalid[i]);
+                error("AnimationFrameTranscoderTest.error.pattern.accepted");
+            } catch (IllegalArgumentException ex) {
+            }
+        }
+
+        // The same frames are written by one and by three threads.
+        Map serial = transcodeInMemory(1);
+        Map parallel = transcodeInMemory(3);
+        assertEquals(FRAME_COUNT, serial.size());
+        assertEquals(FRAME_COUNT, parallel.size());
+        for (int i = 0; i < FRAME_COUNT; i++) {
+            assertIdentical(decode((byte[])serial.get(i)),
+                            decode((byte[])parallel.get(i)));
+        }
+        assertTrue(decode((byte[])serial.get(0)).getRGB(95, 10)
+                   != decode((byte[])serial.get(FRAME_COUNT - 1))
+                      .getRGB(95, 10));
+
+        checkCancellation();
+        checkFiles();
+        return true;
+    }
+
+    /**
+     * Makes the first frame fail once the two other threads are writing
+     * a frame, and checks that they are interrupted and have stopped
+     * when the transcoder returns.
+     */
+    protected void checkCancellation() throws Exception {
+        final CountDownLatch started = new CountDownLatch(2);
+        final int[] interrupted = new int[1];
+        final int[] finished = new int[1];
+        AnimationFrameTranscoder t = new AnimationFrameTranscoder() {
+                protected TranscoderOutput createFrameOutput
+                        (TranscoderOutput output, int frame, float time)
+                        throws TranscoderException {
+                    if (frame == 0) {
+                        try {
+                            started.await(20, TimeUnit.SECONDS);
+                        } catch (InterruptedException ex) {
+                        }
+                        throw new TranscoderException("frame 0");
+                    }
+                    started.countDown();
+                    try {
+                        Thread.sleep(20000);
+                    } catch (InterruptedException ex) {
+                        synchronized (interrupted) {
+                            interrupted[0]++;
+                        }
+                    } finally {
+                        synchronized (interrupted) {
+                            finished[0]++;
+                        }
+                    }
+                    throw new TranscoderException("frame " + frame);
+                }
+            };
+        setHints(t, 3);
+        try {
+            t.transcode(createInput(), new TranscoderOutput());
+            error("AnimationFrameTranscoderTest.error.failure.ignored");
+        } catch (TranscoderException ex) {
+            assertEquals("frame 0", ex.getMessage());
+        }
+        synchronized (interrupted) {
+            assertEquals(2, interrupted[0]);
+            assertEquals(2, finished[0]);
+        }
+    }
+
+    /**
+     * Checks the files written from KEY_FRAME_PATTERN and from a file
+     * URI, and that an output URI without pattern is rejected.
+     */
+    protected void checkFiles() throws Exception {
+        File dir = File.createTempFile("frames", "");
+        dir.delete();
+        dir.mkdir();
+        try {
+            AnimationFrameTranscoder t = new AnimationFrameTranscoder();
+            setHints(t, 2);
+            t.addTranscodingHint(AnimationFrameTranscoder.KEY_FRAME_PATTERN,
+                                 new File(dir, "a%02d.png").getPath());
+            t.transcode(createInput(), new TranscoderOutput());
+
+            // The '%' is escaped in the URI.
+            t = new AnimationFrameTranscoder();
+            setHints(t, 2);
+            String uri = new File(dir, "b%02d.png").toURI().toString();
+            assertTrue(uri.indexOf("%2502d") != -1);
+            t.transcode(createInput(), new TranscoderOutput(uri));
+
+            for (int i = 0; i < FRAME_COUNT; i++) {
+                String n = (i < 10 ? "0" : "") + i + ".png";
+                assertTrue(new File(dir, "a" + n).length() > 0);
+                assertTrue(new File(dir, "b" + n).length() > 0);
+            }
+            assertEquals(2 * FRAME_COUNT, dir.list().length);
+
+            String[] bad = {
+                new File(dir, "c.png").getPath(),
+                new File(dir, "c.png").toURI().toString(),
+                "file:" + new File(dir, "c%02d.png").getPath()
+            };
+            for (int i = 0; i < bad.length; i++) {
+                t = new AnimationFrameTranscoder();
+                setHints(t, 1);
+                try {
+                    t.transcode(createInput(), new TranscoderOutput(bad[i]));
+                    error("AnimationFrameTranscoderTest.error.output.accepted");
+                } catch (TranscoderException ex) {
+                }
+            }
+            assertEquals(2 * FRAME_COUNT, dir.list().length);
+        } finally {
+            File[] files = dir.listFiles();
+            for (int i = 0; i < files.length; i++) {
+                files[i].delete();
+            }
+            dir.delete();
+        }
+    }
+
+    /**
+     * Transcodes the document with the given number of threads.
+     * @return a map of the frame indexes to the PNG data.
+     */
+    protected Map transcodeInMemory(int threads) throws Exception {
+        final Map frames = new HashMap();
+        AnimationFrameTranscoder t = new AnimationFrameTranscoder() {
+                protected TranscoderOutput createFrameOutput
+                        (TranscoderOutput output, int frame, float time) {
+                    return new TranscoderOutput(new ByteArrayOutputStream());
+                }
+                protected void closeFrameOutput(TranscoderOutput output,
+                                                int frame) {
+                    ByteArrayOutputStream out =
+                        (ByteArrayOutputStream)output.getOutputStream();
+                    synchronized (frames) {
+                        frames.put(frame, out.toByteArray());
+                    }
+                }
+            };
+        setHints(t, threads);
+        t.transcode(createInput(), new TranscoderOutput());
+        return frames;
+    }
+
+    protected void setHints(AnimationFrameTranscoder t, int threads) {
+        t.addTranscodingHint(AnimationFrameTranscoder.KEY_BEGIN_TIME, 0f);
+        t.addTranscodingHint(AnimationFrameTranscoder.KEY_END_TIME, 1f);
+        t.addTranscodingHint(AnimationFrameTranscoder.KEY_FRAME_RATE, 10f);
+        t.addTranscodingHint(AnimationFrameTranscoder.KEY_THREAD_COUNT,
+                             threads);
+    }
+
+    protected TranscoderInput createInput() {
+        TranscoderInput input =
+            new TranscoderInput(new StringReader(DOCUMENT));
+        input.setURI("http://example.org/AnimationFrameTranscoderTest.svg");
+        return input;
+    }
+}
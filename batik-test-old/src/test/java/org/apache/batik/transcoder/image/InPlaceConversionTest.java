@@ -0,0 +1,203 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.batik.transcoder.image;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.WritableRaster;
+import java.io.StringReader;
+
+import org.apache.batik.gvt.renderer.ImageRenderer;
+import org.apache.batik.gvt.renderer.StaticRenderer;
+import org.apache.batik.transcoder.TranscoderInput;
+import org.apache.batik.transcoder.TranscoderOutput;
+
+/**
+ * Checks that the renderer's offscreen image converted in place by the
+ * ImageTranscoder has the pixels of the image the background and the
+ * offscreen are painted into, for ARGB and RGB images, with an opaque,
+ * a transparent, a translucent or no background color, and with a
+ * premultiplied or non premultiplied offscreen.  The cases Java2D
+ * rounds differently must not be converted in place.
+ *
+ * @version $Id$
+ */
+public class InPlaceConversionTest extends AbstractImageComparisonTest {
+
+    /**
+     * A document with translucent, antialiased and unpainted areas.
+     */
+    public static final String DOCUMENT =
+        "<svg xmlns='http://www.w3.org/2000/svg' width='120' height='80'>" +
+        "<defs><linearGradient id='g'>" +
+        "<stop offset='0' stop-color='blue' stop-opacity='0'/>" +
+        "<stop offset='1' stop-color='yellow'/>" +
+        "</linearGradient></defs>" +
+        "<rect x='10' y='10' width='100' height='30' fill='url(#g)'/>" +
+        "<circle cx='60.3' cy='45.6' r='28.2' fill='red'" +
+        " fill-opacity='0.37'/>" +
+        "<rect x='70' y='5' width='40' height='70' fill='green'" +
+        " opacity='0.81'/>" +
+        "</svg>";
+
+    public boolean runImplBasic() throws Exception {
+        Color[] backgrounds = {
+            null, Color.white, new Color(10, 200, 70), new Color(0, 0, 0, 0),
+            new Color(255, 128, 0, 100)
+        };
+        int[] types = {
+            BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_INT_RGB
+        };
+        for (int i = 0; i < types.length; i++) {
+            for (int j = 0; j < backgrounds.length; j++) {
+                for (int k = 0; k < 2; k++) {
+                    boolean premultiplied = k == 0;
+                    ConversionTranscoder copy = transcode
+                        (types[i], false, backgrounds[j], premultiplied);
+                    ConversionTranscoder conv = transcode
+                        (types[i], true, backgrounds[j], premultiplied);
+
+                    // Translucent backgrounds, and premultiplied pixels
+                    // left translucent, are painted into a new image.
+                    int alpha = backgrounds[j] == null
+                        ? 0 : backgrounds[j].getAlpha();
+                    boolean copied = alpha != 0 && alpha != 255
+                        || premultiplied && alpha == 0
+                           && types[i] == BufferedImage.TYPE_INT_ARGB;
+                    assertTrue(!copy.isConvertedInPlace());
+                    assertTrue(conv.isConvertedInPlace() == !copied);
+                    assertEquals(types[i], conv.result.getType());
+                    assertIdentical(copy.result, conv.result);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Transcodes the test document into an image of the given type.
+     * @param inPlace whether the offscreen may be converted in place
+     * @param bg the background color or null
+     * @param premultiplied whether the offscreen is premultiplied
+     */
+    protected ConversionTranscoder transcode(int type, boolean inPlace,
+                                             Color bg,
+                                             boolean premultiplied)
+            throws Exception {
+        ConversionTranscoder t =
+            new ConversionTranscoder(type, inPlace, premultiplied);
+        if (bg != null) {
+            t.addTranscodingHint(ImageTranscoder.KEY_BACKGROUND_COLOR, bg);
+        }
+        TranscoderInput input =
+            new TranscoderInput(new StringReader(DOCUMENT));
+        input.setURI("http://example.org/InPlaceConversionTest.svg");
+        t.transcode(input, new TranscoderOutput());
+        assertTrue(t.offScreen.isAlphaPremultiplied() == premultiplied);
+        return t;
+    }
+
+    /**
+     * A transcoder keeping the written image and the renderer's
+     * offscreen image.
+     */
+    protected static class ConversionTranscoder extends ImageTranscoder {
+
+        /**
+         * The type of the images to create.
+         */
+        protected int type;
+
+        /**
+         * Whether the offscreen may be converted in place.
+         */
+        protected boolean inPlace;
+
+        /**
+         * Whether the offscreen is premultiplied.
+         */
+        protected boolean premultiplied;
+
+        /**
+         * The last offscreen image of the renderer.
+         */
+        protected BufferedImage offScreen;
+
+        /**
+         * The written image.
+         */
+        protected BufferedImage result;
+
+        public ConversionTranscoder(int type, boolean inPlace,
+                                    boolean premultiplied) {
+            this.type = type;
+            this.inPlace = inPlace;
+            this.premultiplied = premultiplied;
+        }
+
+        /**
+         * Returns whether the written image shares the pixels of the
+         * offscreen image.
+         */
+        public boolean isConvertedInPlace() {
+            return result.getRaster().getDataBuffer()
+                == offScreen.getRaster().getDataBuffer();
+        }
+
+        public BufferedImage createImage(int w, int h) {
+            return new BufferedImage(w, h, type);
+        }
+
+        protected int getImageType() {
+            return inPlace ? type : BufferedImage.TYPE_CUSTOM;
+        }
+
+        protected ImageRenderer createRenderer() {
+            return new StaticRenderer() {
+                    public BufferedImage getOffScreen() {
+                        BufferedImage bi = super.getOffScreen();
+                        if (bi == null) {
+                            return null;
+                        }
+                        if (offScreen != null
+                                && offScreen.getRaster() == bi.getRaster()) {
+                            return offScreen;
+                        }
+                        // BufferedImage.coerceData keeps the image type,
+                        // which Java2D would still use to read the pixels.
+                        ColorModel cm = bi.getColorModel();
+                        WritableRaster wr = bi.getRaster();
+                        if (cm.isAlphaPremultiplied() != premultiplied) {
+                            cm = cm.coerceData(wr, premultiplied);
+                            bi = new BufferedImage(cm, wr, premultiplied,
+                                                   null);
+                        }
+                        offScreen = bi;
+                        return bi;
+                    }
+                };
+        }
+
+        public void writeImage(BufferedImage img, TranscoderOutput output) {
+            result = img;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.batik.transcoder.image;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.batik.transcoder.TranscoderInput;
+import org.apache.batik.transcoder.TranscoderOutput;
+import org.apache.batik.transcoder.TranscodingHints;
+
+/**
+ * Checks the KEY_COMPRESSION_LEVEL, KEY_FILTER_STRATEGY and
+ * KEY_STRIP_HEIGHT hints of the PNGTranscoder: out of range values
+ * are rejected, and every accepted combination produces the same
+ * pixels as the default settings.
+ *
+ * @version $Id$
+ */
+public class PNGTranscoderHintsTest extends AbstractImageComparisonTest {
+
+    /**
+     * A document whose edges all fall on pixel boundaries, so that
+     * rendering it in strips can't change the antialiasing.
+     */
+    public static final String DOCUMENT =
+        "<svg xmlns='http://www.w3.org/2000/svg' width='150' height='110'>" +
+        "<defs><linearGradient id='g' x1='0' y1='0' x2='1' y2='1'>" +
+        "<stop offset='0' stop-color='blue'/>" +
+        "<stop offset='1' stop-color='yellow' stop-opacity='0.5'/>" +
+        "</linearGradient></defs>" +
+        "<rect x='5' y='3' width='140' height='100' fill='url(#g)'/>" +
+        "<rect x='20' y='17' width='33' height='60' fill='red'/>" +
+        "<rect x='60' y='40' width='70' height='9' fill='green'" +
+        " fill-opacity='0.4'/>" +
+        "</svg>";
+
+    /**
+     * A document with edges that cross pixels, whose antialiasing may
+     * change when it is rendered in strips.
+     */
+    public static final String UNALIGNED_DOCUMENT =
+        "<svg xmlns='http://www.w3.org/2000/svg' width='150' height='110'>" +
+        "<rect x='30.3' y='20.6' width='80' height='50' fill='navy'" +
+        " transform='rotate(17 75 55)'/>" +
+        "<circle cx='70.4' cy='51.7' r='33.3' fill='orange'" +
+        " fill-opacity='0.7' stroke='black' stroke-width='1.3'/>" +
+        "</svg>";
+
+    /**
+     * The largest difference of any color or alpha component between
+     * a document rendered in strips and at once.
+     */
+    public static final int STRIP_TOLERANCE = 2;
+
+    public boolean runImplBasic() throws Exception {
+        PNGTranscoder t = new PNGTranscoder();
+
+        // Out of range values are rejected like any incompatible hint.
+        assertRejected(t, PNGTranscoder.KEY_COMPRESSION_LEVEL, -1);
+        assertRejected(t, PNGTranscoder.KEY_COMPRESSION_LEVEL, 10);
+        assertRejected(t, PNGTranscoder.KEY_COMPRESSION_LEVEL, "9");
+        assertRejected(t, PNGTranscoder.KEY_FILTER_STRATEGY, "fastest");
+        assertRejected(t, PNGTranscoder.KEY_FILTER_STRATEGY, 1);
+        assertTrue(!t.getTranscodingHints().containsKey
+                   (PNGTranscoder.KEY_COMPRESSION_LEVEL));
+        assertTrue(!t.getTranscodingHints().containsKey
+                   (PNGTranscoder.KEY_FILTER_STRATEGY));
+
+        BufferedImage ref = transcode(new TranscodingHints());
+
+        String[] strategies = {
+            PNGTranscoder.VALUE_FILTER_STRATEGY_ADAPTIVE,
+            PNGTranscoder.VALUE_FILTER_STRATEGY_FAST,
+            PNGTranscoder.VALUE_FILTER_STRATEGY_NONE
+        };
+        for (int level = 0; level <= 9; level += 3) {
+            for (int i = 0; i < strategies.length; i++) {
+                TranscodingHints hints = new TranscodingHints();
+                hints.put(PNGTranscoder.KEY_COMPRESSION_LEVEL, level);
+                hints.put(PNGTranscoder.KEY_FILTER_STRATEGY, strategies[i]);
+                assertIdentical(ref, transcode(hints));
+            }
+        }
+
+        // Strips that divide the height and strips that don't.
+        int[] stripHeights = { 1, 10, 16, 109 };
+        for (int i = 0; i < stripHeights.length; i++) {
+            TranscodingHints hints = new TranscodingHints();
+            hints.put(ImageTranscoder.KEY_STRIP_HEIGHT, stripHeights[i]);
+            assertIdentical(ref, transcode(hints));
+
+            hints.put(PNGTranscoder.KEY_FILTER_STRATEGY,
+                      PNGTranscoder.VALUE_FILTER_STRATEGY_FAST);
+            hints.put(ImageTranscoder.KEY_BACKGROUND_COLOR,
+                      Color.white);
+            TranscodingHints wholeHints = new TranscodingHints(hints);
+            wholeHints.remove(ImageTranscoder.KEY_STRIP_HEIGHT);
+            assertIdentical(transcode(wholeHints), transcode(hints));
+
+            // Edges crossing pixels may be antialiased differently.
+            hints.remove(ImageTranscoder.KEY_BACKGROUND_COLOR);
+            wholeHints.remove(ImageTranscoder.KEY_BACKGROUND_COLOR);
+            assertSimilar(transcode(wholeHints, UNALIGNED_DOCUMENT),
+                          transcode(hints, UNALIGNED_DOCUMENT));
+        }
+        return true;
+    }
+
+    /**
+     * Checks that the transcoder refuses the given hint value.
+     */
+    protected void assertRejected(PNGTranscoder t, TranscodingHints.Key key,
+                                  Object value) throws Exception {
+        try {
+            t.addTranscodingHint(key, value);
+        } catch (IllegalArgumentException ex) {
+            return;
+        }
+        error("PNGTranscoderHintsTest.error.hint.accepted");
+    }
+
+    /**
+     * Checks that no component of the pixels of the two images differs
+     * by more than STRIP_TOLERANCE, and that they are not all equal
+     * to the background.
+     */
+    protected void assertSimilar(BufferedImage a, BufferedImage b)
+            throws Exception {
+        assertEquals(a.getWidth(), b.getWidth());
+        assertEquals(a.getHeight(), b.getHeight());
+        int max = 0;
+        int painted = 0;
+        for (int y = 0; y < a.getHeight(); y++) {
+            for (int x = 0; x < a.getWidth(); x++) {
+                int pa = a.getRGB(x, y);
+                int pb = b.getRGB(x, y);
+                for (int shift = 0; shift < 32; shift += 8) {
+                    int d = ((pa >>> shift) & 0xff) - ((pb >>> shift) & 0xff);
+                    max = Math.max(max, Math.abs(d));
+                }
+                if (pa != a.getRGB(0, 0)) {
+                    painted++;
+                }
+            }
+        }
+        assertTrue(max <= STRIP_TOLERANCE);
+        assertTrue(painted > 0);
+    }
+
+    /**
+     * Transcodes the test document with the given hints and decodes
+     * the PNG image.
+     */
+    protected BufferedImage transcode(TranscodingHints hints)
+            throws Exception {
+        return transcode(hints, DOCUMENT);
+    }
+
+    /**
+     * Transcodes the given document with the given hints and decodes
+     * the PNG image.
+     */
+    protected BufferedImage transcode(TranscodingHints hints, String doc)
+            throws Exception {
+        PNGTranscoder t = new PNGTranscoder();
+        Iterator i = hints.entrySet().iterator();
+        while (i.hasNext()) {
+            Map.Entry e = (Map.Entry)i.next();
+            t.addTranscodingHint((TranscodingHints.Key)e.getKey(), e.getValue());
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TranscoderInput input =
+            new TranscoderInput(new StringReader(doc));
+        input.setURI("http://example.org/PNGTranscoderHintsTest.svg");
+        t.transcode(input, new TranscoderOutput(out));
+
+        return decode(out.toByteArray());
+    }
+}
@@ -0,0 +1,181 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.batik.transcoder.image;
+
+import java.awt.image.BufferedImage;
+import java.io.StringReader;
+
+import org.apache.batik.transcoder.TranscoderException;
+import org.apache.batik.transcoder.TranscoderInput;
+import org.apache.batik.transcoder.TranscoderOutput;
+
+import org.w3c.dom.Document;
+
+/**
+ * Checks that the ImageTranscoder renders the same image when the
+ * elements of the document are released as they are built: for a
+ * fragment identifier in the document URI, for elements referenced by
+ * 'use', 'tref', 'textPath' and paint servers, and for the documents
+ * with style sheets, which are not released.
+ *
+ * @version $Id$
+ */
+public class StreamingBuildTest extends AbstractImageComparisonTest {
+
+    /**
+     * The URI of the test documents.
+     */
+    public static final String URI =
+        "http://example.org/StreamingBuildTest.svg";
+
+    /**
+     * A document with elements referenced from attributes.
+     */
+    public static final String REFERENCES =
+        "<svg xmlns='http://www.w3.org/2000/svg'" +
+        " xmlns:xlink='http://www.w3.org/1999/xlink'" +
+        " width='160' height='120' viewBox='0 0 160 120'>" +
+        "<linearGradient id='g'><stop offset='0' stop-color='blue'/>" +
+        "<stop offset='1' stop-color='red'/></linearGradient>" +
+        "<rect x='5' y='5' width='60' height='20' fill='url(#g)'/>" +
+        "<rect id='r1' x='10' y='30' width='30' height='20' fill='green'/>" +
+        "<use xlink:href='#r1' x='40'/>" +
+        "<g id='grp'><circle cx='120' cy='20' r='12' fill='orange'/>" +
+        "<rect x='100' y='40' width='20' height='10'/></g>" +
+        "<use xlink:href='#grp' y='40'/>" +
+        "<path id='p' d='M10 100 L150 90' fill='none' stroke='gray'/>" +
+        "<text font-size='10'><textPath xlink:href='#p'>path</textPath>" +
+        "</text>" +
+        "<text id='t' x='10' y='70' font-size='10'>tref</text>" +
+        "<text x='60' y='70' font-size='10'><tref xlink:href='#t'/></text>" +
+        "<rect id='r2' x='130' y='100' width='20' height='15'" +
+        " fill='purple'/>" +
+        "</svg>";
+
+    /**
+     * A document whose style sheet depends on the siblings of its
+     * elements.
+     */
+    public static final String STYLESHEET =
+        "<svg xmlns='http://www.w3.org/2000/svg' width='160' height='120'>" +
+        "<style type='text/css'>rect:first-child + rect { fill: red }" +
+        "</style><g>" +
+        "<rect x='5' y='5' width='30' height='30' fill='blue'/>" +
+        "<rect x='45' y='5' width='30' height='30' fill='blue'/>" +
+        "<rect x='85' y='5' width='30' height='30' fill='blue'/>" +
+        "</g></svg>";
+
+    public boolean runImplBasic() throws Exception {
+        // Elements are released, but the references still resolve.
+        StreamingTranscoder t = transcode(REFERENCES, URI, false);
+        StreamingTranscoder s = transcode(REFERENCES, URI, true);
+        assertIdentical(t.result, s.result);
+        assertTrue(s.getElementCount() < t.getElementCount());
+        assertTrue(s.document.getElementById("r1") != null);
+        assertTrue(s.document.getElementById("grp") != null);
+        assertTrue(s.document.getElementById("p") != null);
+        assertTrue(s.document.getElementById("t") != null);
+
+        // The fragment identifier of the document URI selects the
+        // element whose viewport is used, here one referenced nowhere
+        // else.
+        String[] refs = { "#r2", "#svgView(viewBox(0,0,80,60))" };
+        for (int i = 0; i < refs.length; i++) {
+            t = transcode(REFERENCES, URI + refs[i], false);
+            s = transcode(REFERENCES, URI + refs[i], true);
+            assertIdentical(t.result, s.result);
+        }
+
+        // Nothing is released from the documents with style sheets.
+        t = transcode(STYLESHEET, URI, false);
+        s = transcode(STYLESHEET, URI, true);
+        assertIdentical(t.result, s.result);
+        assertEquals(t.getElementCount(), s.getElementCount());
+        assertEquals(0xffff0000, s.result.getRGB(60, 20));
+        return true;
+    }
+
+    /**
+     * Transcodes the given document.
+     * @param streaming whether the document may be released as its GVT
+     *        tree is built
+     */
+    protected StreamingTranscoder transcode(String doc, String uri,
+                                            boolean streaming)
+            throws Exception {
+        StreamingTranscoder t = new StreamingTranscoder(streaming);
+        TranscoderInput input = new TranscoderInput(new StringReader(doc));
+        input.setURI(uri);
+        t.transcode(input, new TranscoderOutput());
+        return t;
+    }
+
+    /**
+     * A transcoder keeping the written image and the transcoded
+     * document.
+     */
+    protected static class StreamingTranscoder extends ImageTranscoder {
+
+        /**
+         * Whether the document may be released as it is built.
+         */
+        protected boolean streaming;
+
+        /**
+         * The transcoded document.
+         */
+        protected Document document;
+
+        /**
+         * The written image.
+         */
+        protected BufferedImage result;
+
+        public StreamingTranscoder(boolean streaming) {
+            this.streaming = streaming;
+        }
+
+        /**
+         * Returns the number of elements left in the document.
+         */
+        public int getElementCount() {
+            return document.getElementsByTagNameNS("*", "*").getLength();
+        }
+
+        protected boolean isStreamingBuild() {
+            return streaming;
+        }
+
+        protected void transcode(Document document, String uri,
+                                 TranscoderOutput output)
+                throws TranscoderException {
+            this.document = document;
+            super.transcode(document, uri, output);
+        }
+
+        public BufferedImage createImage(int w, int h) {
+            return new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+        }
+
+        public void writeImage(BufferedImage img, TranscoderOutput output) {
+            result = img;
+        }
+    }
+}
@@ -0,0 +1,330 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.batik.transcoder.wmf.tosvg;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.GeneralPath;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.batik.ext.awt.g2d.DefaultGraphics2D;
+import org.apache.batik.ext.awt.g2d.GraphicContext;
+import org.apache.batik.test.AbstractTest;
+import org.apache.batik.transcoder.wmf.WMFConstants;
+
+/**
+ * Tests the painting of consecutive WMF lines and polygons as one path
+ * by {@link WMFPainter}, and the int values of {@link MetaRecord}.  A
+ * metafile must give the same pixels as the same metafile where a record
+ * which paints nothing separates the others, so that each line or polygon
+ * is painted alone.
+ *
+ * @version $Id$
+ */
+public class WMFPainterTest extends AbstractTest {
+
+    /**
+     * The size of the metafiles, in metafile units.
+     */
+    public static final int SIZE = 200;
+
+    /**
+     * The pen and brush colors, as COLORREF values.
+     */
+    public static final int BLACK = 0x000000, RED = 0x0000FF;
+
+    public boolean runImplBasic() throws Exception {
+        // (1-4) MetaRecord values.
+        MetaRecord mr = new MetaRecord();
+        for (int i = 0; i < 100; i++) {
+            mr.addElement(i - 50);
+        }
+        mr.AddElement(Integer.valueOf(Integer.MIN_VALUE));
+        ensure(1, mr.elementAt(0) == -50 && mr.elementAt(99) == 49
+               && mr.ElementAt(100).intValue() == Integer.MIN_VALUE);
+        mr.EnsureCapacity(1000);
+        mr.EnsureCapacity(10);
+        ensure(2, mr.elementAt(0) == -50 && mr.elementAt(100)
+               == Integer.MIN_VALUE);
+        try {
+            mr.elementAt(101);
+            ensure(3, false);
+        } catch (IndexOutOfBoundsException e) {
+        }
+        mr = new MetaRecord();
+        mr.EnsureCapacity(3);
+        mr.addElement(7);
+        ensure(4, mr.elementAt(0) == 7);
+
+        // (5) Little endian shorts and ints.
+        WMFRecordStore store = new WMFRecordStore();
+        DataInputStream is = new DataInputStream(new ByteArrayInputStream
+            (new byte[] { (byte) 0xFE, (byte) 0xFF, 0x34, 0x12,
+                          0x78, 0x56, 0x34, 0x12,
+                          (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0x80 }));
+        ensure(5, store.readShort(is) == -2 && store.readShort(is) == 0x1234
+               && store.readInt(is) == 0x12345678
+               && store.readInt(is) == 0x80FFFFFF);
+
+        // (6-9) A self-intersecting star and a disjoint polygon are filled
+        // as one path, with the nonzero rule.
+        List records = createHeader(WMFConstants.META_PS_SOLID, 4);
+        records.add(createPolygon(WMFConstants.META_POLYGON,
+                                  new int[] { 10, 10, 30, 10, 20, 30 }));
+        int[] star = new int[10];
+        for (int i = 0; i < 5; i++) {
+            double a = Math.PI * (-0.5 + 0.8 * i);
+            star[2 * i] = 60 + (int) Math.round(40 * Math.cos(a));
+            star[2 * i + 1] = 100 + (int) Math.round(40 * Math.sin(a));
+        }
+        records.add(createPolygon(WMFConstants.META_POLYGON, star));
+        records.add(createPolygon(WMFConstants.META_POLYGON,
+                                  new int[] { 130, 80, 170, 80,
+                                              170, 120, 130, 120 }));
+        RecordingGraphics2D merged = paint(records, false);
+        RecordingGraphics2D separate = paint(records, true);
+        ensure(6, merged.fills.size() == 2 && merged.draws.size() == 2
+               && separate.fills.size() == 3);
+        Shape path = (Shape) merged.fills.get(1);
+        ensure(7, path instanceof GeneralPath
+               && ((GeneralPath) path).getWindingRule()
+                  == GeneralPath.WIND_NON_ZERO);
+        ensure(8, merged.image.getRGB(toPixel(merged, 60),
+                                      toPixel(merged, 100))
+                  == Color.red.getRGB());
+        ensure(9, compare(merged.image, separate.image) == 0);
+
+        // (10) Overlapping polygons are painted in turn.
+        records = createHeader(WMFConstants.META_PS_SOLID, 4);
+        records.add(createPolygon(WMFConstants.META_POLYGON,
+                                  new int[] { 10, 10, 30, 10, 20, 30 }));
+        records.add(createPolygon(WMFConstants.META_POLYGON,
+                                  new int[] { 50, 50, 100, 50, 100, 100 }));
+        records.add(createPolygon(WMFConstants.META_POLYGON,
+                                  new int[] { 90, 90, 150, 90, 150, 150 }));
+        merged = paint(records, false);
+        separate = paint(records, true);
+        ensure(10, merged.fills.size() == 3
+               && compare(merged.image, separate.image) == 0);
+
+        // (11-13) Consecutive moves, lines and polylines are drawn as one
+        // path, which starts the lines where the previous record ended.
+        records = createHeader(WMFConstants.META_PS_SOLID, 2);
+        records.add(createPoint(WMFConstants.META_MOVETO, 20, 20));
+        records.add(createPoint(WMFConstants.META_LINETO, 180, 20));
+        records.add(createPoint(WMFConstants.META_LINETO, 180, 60));
+        records.add(createPolygon(WMFConstants.META_POLYLINE,
+                                  new int[] { 20, 60, 100, 120, 180, 100 }));
+        records.add(createPoint(WMFConstants.META_LINETO, 150, 180));
+        records.add(createPoint(WMFConstants.META_MOVETO, 20, 150));
+        records.add(createPoint(WMFConstants.META_LINETO, 100, 190));
+        merged = paint(records, false);
+        separate = paint(records, true);
+        ensure(11, merged.draws.size() == 1 && separate.draws.size() == 5);
+        ensure(12, merged.image.getRGB(toPixel(merged, 180),
+                                       toPixel(merged, 40))
+                  == Color.black.getRGB());
+        ensure(13, compare(merged.image, separate.image) == 0);
+
+        // (14) Dashed lines are drawn in turn.
+        records = createHeader(WMFConstants.META_PS_DASH, 2);
+        records.add(createPoint(WMFConstants.META_MOVETO, 20, 20));
+        records.add(createPoint(WMFConstants.META_LINETO, 180, 20));
+        records.add(createPolygon(WMFConstants.META_POLYLINE,
+                                  new int[] { 20, 60, 100, 120, 180, 100 }));
+        records.add(createPoint(WMFConstants.META_LINETO, 150, 180));
+        merged = paint(records, false);
+        separate = paint(records, true);
+        ensure(14, merged.draws.size() == 3
+               && compare(merged.image, separate.image) == 0);
+        return true;
+    }
+
+    /**
+     * Returns the records which set the window and select a pen of the
+     * given style and width and a red brush.
+     */
+    protected List createHeader(int penStyle, int penWidth) {
+        List records = new ArrayList();
+        records.add(new int[] { WMFConstants.META_SETWINDOWORG, 0, 0 });
+        records.add(new int[] { WMFConstants.META_SETWINDOWEXT, SIZE, SIZE });
+        records.add(new int[] { WMFConstants.META_CREATEPENINDIRECT,
+                                penStyle, penWidth, 0,
+                                BLACK & 0xFFFF, BLACK >> 16 });
+        records.add(new int[] { WMFConstants.META_CREATEBRUSHINDIRECT,
+                                WMFConstants.BS_SOLID,
+                                RED & 0xFFFF, RED >> 16, 0 });
+        records.add(new int[] { WMFConstants.META_SELECTOBJECT, 0 });
+        records.add(new int[] { WMFConstants.META_SELECTOBJECT, 1 });
+        return records;
+    }
+
+    /**
+     * Returns a MOVETO or LINETO record.
+     */
+    protected int[] createPoint(int function, int x, int y) {
+        return new int[] { function, y, x };
+    }
+
+    /**
+     * Returns a POLYGON or POLYLINE record of the given coordinates.
+     */
+    protected int[] createPolygon(int function, int[] points) {
+        int[] record = new int[points.length + 2];
+        record[0] = function;
+        record[1] = points.length / 2;
+        System.arraycopy(points, 0, record, 2, points.length);
+        return record;
+    }
+
+    /**
+     * Reads and paints a metafile of the given records, each an array of
+     * the function and of the 16 bit parameters.
+     * @param separate whether to separate the records by a record which
+     *        paints nothing, so that they are painted in turn
+     */
+    protected RecordingGraphics2D paint(List records, boolean separate)
+            throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        // Aldus placeable header.
+        writeInt(out, WMFConstants.META_ALDUS_APM);
+        int[] apm = { 0, 0, 0, SIZE, SIZE, 96, 0, 0, 0 };
+        for (int i = 0; i < apm.length; i++) {
+            writeShort(out, apm[i]);
+        }
+        // Metafile header: type, header size, version, size, number of
+        // objects, largest record and number of parameters.
+        int[] header = { 1, 9, 0x300, 0, 0, 2, 0, 0, 0 };
+        for (int i = 0; i < header.length; i++) {
+            writeShort(out, header[i]);
+        }
+        for (int i = 0; i < records.size(); i++) {
+            if (separate && i > 0) {
+                writeRecord(out, new int[] { WMFConstants.META_SETPOLYFILLMODE,
+                                             WMFConstants.ALTERNATE });
+            }
+            writeRecord(out, (int[]) records.get(i));
+        }
+        writeRecord(out, new int[] { 0 });
+
+        WMFRecordStore store = new WMFRecordStore();
+        store.read(new DataInputStream
+                   (new ByteArrayInputStream(out.toByteArray())));
+        RecordingGraphics2D g = new RecordingGraphics2D
+            (new BufferedImage(store.getWidthPixels(),
+                               store.getHeightPixels(),
+                               BufferedImage.TYPE_INT_ARGB));
+        new WMFPainter(store, 1).paint(g);
+        g.target.dispose();
+        return g;
+    }
+
+    protected void writeRecord(ByteArrayOutputStream out, int[] record) {
+        writeInt(out, record.length + 2);
+        for (int i = 0; i < record.length; i++) {
+            writeShort(out, record[i]);
+        }
+    }
+
+    protected void writeShort(ByteArrayOutputStream out, int v) {
+        out.write(v & 0xFF);
+        out.write((v >> 8) & 0xFF);
+    }
+
+    protected void writeInt(ByteArrayOutputStream out, int v) {
+        writeShort(out, v);
+        writeShort(out, v >> 16);
+    }
+
+    /**
+     * Returns the pixel coordinate of the center of the given metafile
+     * coordinate.
+     */
+    protected int toPixel(RecordingGraphics2D g, int v) {
+        return (int) ((v + 0.5) * g.image.getWidth() / SIZE);
+    }
+
+    /**
+     * Returns the number of pixels which differ.
+     */
+    protected int compare(BufferedImage a, BufferedImage b) {
+        int n = 0;
+        for (int y = 0; y < a.getHeight(); y++) {
+            for (int x = 0; x < a.getWidth(); x++) {
+                if (a.getRGB(x, y) != b.getRGB(x, y)) {
+                    n++;
+                }
+            }
+        }
+        return n;
+    }
+
+    protected void ensure(int subTestNumber, boolean b) {
+        if (!b) {
+            throw new RuntimeException("Assertion failure in sub-test "
+                                       + subTestNumber);
+        }
+    }
+
+    /**
+     * A Graphics2D which records the drawn and filled shapes, and paints
+     * them on an image.
+     */
+    protected static class RecordingGraphics2D extends DefaultGraphics2D {
+
+        public final BufferedImage image;
+        public final Graphics2D target;
+        public final List draws = new ArrayList();
+        public final List fills = new ArrayList();
+
+        public RecordingGraphics2D(BufferedImage image) {
+            super(false);
+            gc = new GraphicContext(new AffineTransform());
+            this.image = image;
+            target = image.createGraphics();
+        }
+
+        public void draw(Shape s) {
+            draws.add(s);
+            update();
+            target.draw(s);
+        }
+
+        public void fill(Shape s) {
+            fills.add(s);
+            update();
+            target.fill(s);
+        }
+
+        protected void update() {
+            target.setTransform(getTransform());
+            target.setPaint(getPaint());
+            target.setStroke(getStroke());
+            target.setClip(getClip());
+        }
+    }
+}
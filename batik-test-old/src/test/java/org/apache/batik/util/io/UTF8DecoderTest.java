@@ -0,0 +1,302 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.batik.util.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.batik.test.AbstractTest;
+import org.apache.batik.test.DefaultTestReport;
+import org.apache.batik.test.TestReport;
+
+/**
+ * Checks the UTF-8 decoding of UTF8Decoder and StreamNormalizingReader
+ * around the end of the decoder's byte buffer and of the reader's
+ * character buffer.  Multi-byte sequences, including surrogate pairs,
+ * must decode like the JDK decoder wherever they are split, and
+ * malformed sequences must raise an IOException after the characters
+ * that precede them.
+ *
+ * @version $Id$
+ */
+public class UTF8DecoderTest extends AbstractTest {
+
+    /**
+     * The size of the decoder's byte buffer.
+     */
+    public static final int BYTE_BUFFER_SIZE = 8192;
+
+    /**
+     * The size of StreamNormalizingReader's character buffer.
+     */
+    public static final int CHAR_BUFFER_SIZE = 4096;
+
+    /**
+     * Well formed sequences: 2, 3 and 4 bytes.
+     */
+    public static final String[] CHARACTERS = {
+        "\u00e9", "\u20ac", "\ud83d\ude00", "\ud800\udc00", "\udbff\udfff"
+    };
+
+    /**
+     * Malformed sequences, each followed by an ASCII character.
+     */
+    public static final byte[][] MALFORMED = {
+        { (byte)0x80, 'x' },                        // lone continuation byte
+        { (byte)0xf8, 'x' },                        // invalid lead byte
+        { (byte)0xc3, 'x' },                        // bad 2nd byte of 2
+        { (byte)0xe2, 'x', (byte)0xac },            // bad 2nd byte of 3
+        { (byte)0xe2, (byte)0x82, 'x' },            // bad 3rd byte of 3
+        { (byte)0xf0, (byte)0x9f, 'x', (byte)0x80 },// bad 3rd byte of 4
+        { (byte)0xf0, (byte)0x9f, (byte)0x98, 'x' } // bad 4th byte of 4
+    };
+
+    /**
+     * Sequences truncated by the end of the stream.
+     */
+    public static final byte[][] TRUNCATED = {
+        { (byte)0xc3 },
+        { (byte)0xe2, (byte)0x82 },
+        { (byte)0xf0, (byte)0x9f, (byte)0x98 }
+    };
+
+    /**
+     * The maximum number of bytes returned by each read of the input
+     * stream, or 0 for no limit.
+     */
+    protected int chunkSize;
+
+    /**
+     * @param chunkSize the maximum number of bytes returned by each
+     *        read of the input stream, or 0 for no limit
+     */
+    public UTF8DecoderTest(Integer chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public TestReport runImpl() throws Exception {
+        int[] boundaries = { BYTE_BUFFER_SIZE, CHAR_BUFFER_SIZE };
+        for (int b = 0; b < boundaries.length; b++) {
+            for (int shift = -4; shift <= 1; shift++) {
+                int prefix = boundaries[b] + shift;
+                for (int i = 0; i < CHARACTERS.length; i++) {
+                    TestReport r = checkWellFormed(prefix, CHARACTERS[i]);
+                    if (r != null) {
+                        return r;
+                    }
+                }
+                for (int i = 0; i < MALFORMED.length; i++) {
+                    TestReport r = checkMalformed(prefix, MALFORMED[i]);
+                    if (r != null) {
+                        return r;
+                    }
+                }
+                for (int i = 0; i < TRUNCATED.length; i++) {
+                    TestReport r = checkMalformed(prefix, TRUNCATED[i]);
+                    if (r != null) {
+                        return r;
+                    }
+                }
+            }
+        }
+        return reportSuccess();
+    }
+
+    /**
+     * Decodes ASCII characters followed by <code>s</code> repeated,
+     * and compares the result with the JDK decoder.
+     */
+    protected TestReport checkWellFormed(int prefix, String s)
+            throws Exception {
+        StringBuffer sb = new StringBuffer();
+        for (int i = 0; i < prefix; i++) {
+            sb.append((char)('a' + i % 26));
+        }
+        for (int i = 0; i < 5; i++) {
+            sb.append(s);
+            sb.append('.');
+        }
+        sb.append(s);
+        String expected = sb.toString();
+        byte[] data = expected.getBytes("UTF-8");
+
+        int[] lengths = { 1, 2, 3, 4096 };
+        for (int i = 0; i < lengths.length; i++) {
+            String actual = decodeChars(data, lengths[i]);
+            if (!expected.equals(actual)) {
+                return reportMismatch("readChars(" + lengths[i] + ")",
+                                      prefix, s, expected, actual);
+            }
+        }
+        String actual = decodeChar(data);
+        if (!expected.equals(actual)) {
+            return reportMismatch("readChar", prefix, s, expected, actual);
+        }
+        actual = readReader(data);
+        if (!expected.equals(actual)) {
+            return reportMismatch("StreamNormalizingReader", prefix, s,
+                                  expected, actual);
+        }
+        return null;
+    }
+
+    /**
+     * Decodes ASCII characters followed by a malformed sequence, and
+     * checks that the ASCII characters are decoded and that an
+     * IOException is then thrown.
+     */
+    protected TestReport checkMalformed(int prefix, byte[] seq)
+            throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        for (int i = 0; i < prefix; i++) {
+            bos.write('a' + i % 26);
+        }
+        bos.write(seq);
+        byte[] data = bos.toByteArray();
+
+        int[] lengths = { 1, 3, 4096 };
+        for (int i = 0; i < lengths.length + 2; i++) {
+            String mode;
+            UTF8Decoder d = new UTF8Decoder(createStream(data));
+            StreamNormalizingReader r = null;
+            if (i < lengths.length) {
+                mode = "readChars(" + lengths[i] + ")";
+            } else if (i == lengths.length) {
+                mode = "readChar";
+            } else {
+                mode = "StreamNormalizingReader";
+                r = new StreamNormalizingReader(createStream(data), "UTF-8");
+            }
+            char[] buf = new char[i < lengths.length ? lengths[i] : 1];
+            int n = 0;
+            try {
+                for (;;) {
+                    int c;
+                    if (r != null) {
+                        c = r.read();
+                    } else if (i == lengths.length) {
+                        c = d.readChar();
+                    } else {
+                        c = d.readChars(buf, 0, buf.length);
+                    }
+                    if (c == -1) {
+                        return reportMalformed(mode, prefix, seq,
+                                               "no exception");
+                    }
+                    n += (i < lengths.length) ? c : 1;
+                }
+            } catch (IOException ex) {
+                if (n < prefix) {
+                    return reportMalformed(mode, prefix, seq,
+                                           "exception after " + n
+                                           + " characters");
+                }
+            }
+        }
+        return null;
+    }
+
+    protected String decodeChars(byte[] data, int len) throws IOException {
+        UTF8Decoder d = new UTF8Decoder(createStream(data));
+        StringBuffer sb = new StringBuffer();
+        char[] buf = new char[len];
+        int n;
+        while ((n = d.readChars(buf, 0, len)) != -1) {
+            if (n <= 0 || n > len) {
+                throw new IllegalStateException("readChars returned " + n);
+            }
+            sb.append(buf, 0, n);
+        }
+        return sb.toString();
+    }
+
+    protected String decodeChar(byte[] data) throws IOException {
+        UTF8Decoder d = new UTF8Decoder(createStream(data));
+        StringBuffer sb = new StringBuffer();
+        int c;
+        while ((c = d.readChar()) != -1) {
+            sb.append((char)c);
+        }
+        return sb.toString();
+    }
+
+    protected String readReader(byte[] data) throws IOException {
+        StreamNormalizingReader r =
+            new StreamNormalizingReader(createStream(data), "UTF-8");
+        StringBuffer sb = new StringBuffer();
+        int c;
+        while ((c = r.read()) != -1) {
+            sb.append((char)c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Creates a stream returning at most <code>chunkSize</code> bytes
+     * per read.
+     */
+    protected InputStream createStream(byte[] data) {
+        return new ByteArrayInputStream(data) {
+                public synchronized int read(byte[] b, int off, int len) {
+                    if (chunkSize > 0 && len > chunkSize) {
+                        len = chunkSize;
+                    }
+                    return super.read(b, off, len);
+                }
+            };
+    }
+
+    protected TestReport reportMismatch(String mode, int prefix, String s,
+                                        String expected, String actual) {
+        int i = 0;
+        while (i < expected.length() && i < actual.length()
+               && expected.charAt(i) == actual.charAt(i)) {
+            i++;
+        }
+        DefaultTestReport report = new DefaultTestReport(this);
+        report.setErrorCode("decoded.text.differs");
+        report.addDescriptionEntry("mode", mode);
+        report.addDescriptionEntry("prefix", String.valueOf(prefix));
+        report.addDescriptionEntry("character",
+                                   Integer.toHexString(s.codePointAt(0)));
+        report.addDescriptionEntry("first.difference", String.valueOf(i));
+        report.setPassed(false);
+        return report;
+    }
+
+    protected TestReport reportMalformed(String mode, int prefix, byte[] seq,
+                                         String problem) {
+        StringBuffer sb = new StringBuffer();
+        for (int i = 0; i < seq.length; i++) {
+            sb.append(Integer.toHexString(seq[i] & 0xff));
+            sb.append(' ');
+        }
+        DefaultTestReport report = new DefaultTestReport(this);
+        report.setErrorCode("malformed.sequence.accepted");
+        report.addDescriptionEntry("mode", mode);
+        report.addDescriptionEntry("prefix", String.valueOf(prefix));
+        report.addDescriptionEntry("sequence", sb.toString());
+        report.addDescriptionEntry("problem", problem);
+        report.setPassed(false);
+        return report;
+    }
+}
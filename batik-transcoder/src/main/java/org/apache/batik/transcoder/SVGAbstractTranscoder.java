@@ -115,6 +115,12 @@ public abstract class SVGAbstractTranscoder extends XMLAbstractTranscoder {
     /** The user agent dedicated to an SVG Transcoder. */
     protected UserAgent userAgent;
 
+    /**
+     * Whether the document being transcoded was created by this transcoder,
+     * rather than given by the caller.
+     */
+    protected boolean ownDocument;
+
     protected SVGAbstractTranscoder() {
         userAgent = createUserAgent();
 
@@ -155,11 +161,26 @@ public abstract class SVGAbstractTranscoder extends XMLAbstractTranscoder {
     public void transcode(TranscoderInput input, TranscoderOutput output)
             throws TranscoderException {
 
-        super.transcode(input, output);
+        ownDocument = input.getDocument() == null;
+        try {
+            super.transcode(input, output);
+        } finally {
+            ownDocument = false;
+        }
 
         if (ctx != null)
             ctx.dispose();
     }
+
+    /**
+     * Returns whether the GVT tree of a static document may be built in
+     * streaming mode, releasing the document as it is built.  This is only
+     * done for documents created by this transcoder.
+     * @see BridgeContext#setStreamingBuild(boolean)
+     */
+    protected boolean isStreamingBuild() {
+        return false;
+    }
     /**
      * Transcodes the specified Document as an image in the specified output.
      *
@@ -179,6 +200,7 @@ public abstract class SVGAbstractTranscoder extends XMLAbstractTranscoder {
             impl = (DOMImplementation)hints.get(KEY_DOM_IMPLEMENTATION);
             // impl = SVGDOMImplementation.getDOMImplementation();
             document = DOMUtilities.deepCloneDocument(document, impl);
+            ownDocument = true;
             if (uri != null) {
                 ParsedURL url = new ParsedURL(uri);
                 ((SVGOMDocument)document).setParsedURL(url);
@@ -206,6 +228,8 @@ public abstract class SVGAbstractTranscoder extends XMLAbstractTranscoder {
         try {
             if (isDynamic)
                 ctx.setDynamicState(BridgeContext.DYNAMIC);
+            else if (ownDocument && isStreamingBuild())
+                ctx.setStreamingBuild(true);
 
             gvtRoot = builder.build(ctx, svgDoc);
 
@@ -0,0 +1,747 @@
+/*
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+package org.apache.batik.transcoder.image;
+
+import java.awt.Shape;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.IllegalFormatException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.batik.anim.dom.SVGOMDocument;
+import org.apache.batik.bridge.BridgeException;
+import org.apache.batik.bridge.RepaintManager;
+import org.apache.batik.bridge.SVGAnimationEngine;
+import org.apache.batik.dom.util.DOMUtilities;
+import org.apache.batik.gvt.RootGraphicsNode;
+import org.apache.batik.gvt.UpdateTracker;
+import org.apache.batik.gvt.renderer.ConcreteImageRendererFactory;
+import org.apache.batik.gvt.renderer.ImageRenderer;
+import org.apache.batik.transcoder.TranscoderException;
+import org.apache.batik.transcoder.TranscoderOutput;
+import org.apache.batik.transcoder.TranscodingHints;
+import org.apache.batik.transcoder.image.resources.Messages;
+import org.apache.batik.transcoder.keys.FloatKey;
+import org.apache.batik.transcoder.keys.IntegerKey;
+import org.apache.batik.util.HaltingThread;
+import org.apache.batik.util.ParsedURL;
+import org.w3c.dom.Document;
+
+/**
+ * This class is a <code>PNGTranscoder</code> that renders a SMIL animated
+ * document as a sequence of PNG frames.
+ *
+ * <p>The animation engine is seeked to <code>KEY_BEGIN_TIME</code>, then
+ * every <code>1 / KEY_FRAME_RATE</code> seconds up to
+ * <code>KEY_END_TIME</code>, and a frame is written at each step.  By
+ * default, the frames are written to the files named by
+ * <code>KEY_FRAME_PATTERN</code>, or else by the URI of the output, a
+ * <code>java.util.Formatter</code> pattern taking the frame index, e.g.
+ * <code>frames/frame%04d.png</code>.  Subclasses can write the frames
+ * elsewhere by overriding <code>createFrameOutput</code> and
+ * <code>closeFrameOutput</code>.
+ *
+ * <p>Within a sequence, only the areas the animation changed since the
+ * previous frame are rendered again.  When <code>KEY_THREAD_COUNT</code>
+ * is greater than one, the frames are split into that many sequences,
+ * each rendered by its own thread from its own copy of the document.  When
+ * one sequence fails, the others are cancelled.  Since
+ * every copy runs its own scripts, documents whose scripts depend on the
+ * order of the frames should be rendered with a single thread.
+ *
+ * <p><code>KEY_EXECUTE_ONLOAD</code> defaults to <code>true</code> for this
+ * transcoder, as the document must be dynamic to be animated.
+ *
+ * @version $Id$
+ */
+public class AnimationFrameTranscoder extends PNGTranscoder {
+
+    /**
+     * Constructs a new transcoder that produces png frames.
+     */
+    public AnimationFrameTranscoder() {
+        hints.put(KEY_EXECUTE_ONLOAD, Boolean.TRUE);
+    }
+
+    /**
+     * Transcodes the specified Document as a sequence of frames.
+     *
+     * @param document the document to transcode
+     * @param uri the uri of the document or null if any
+     * @param output the ouput the frame outputs are created from
+     * @exception TranscoderException if an error occured while transcoding
+     */
+    protected void transcode(Document document,
+                             String uri,
+                             TranscoderOutput output)
+            throws TranscoderException {
+
+        int n = getFrameCount();
+        int threads = Runtime.getRuntime().availableProcessors();
+        if (hints.containsKey(KEY_THREAD_COUNT)) {
+            threads = (Integer) hints.get(KEY_THREAD_COUNT);
+        }
+        threads = Math.min(threads, n);
+        if (threads < 2) {
+            transcodeFrames(document, uri, output, 0, n);
+            return;
+        }
+
+        // The copies are made before any script or animation runs.
+        Document[] documents = new Document[threads];
+        documents[0] = document;
+        for (int i = 1; i < threads; i++) {
+            Document d = DOMUtilities.deepCloneDocument
+                (document, document.getImplementation());
+            if (uri != null && d instanceof SVGOMDocument) {
+                ((SVGOMDocument)d).setParsedURL(new ParsedURL(uri));
+            }
+            documents[i] = d;
+        }
+
+        ExecutorService executor =
+            Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                    public Thread newThread(Runnable r) {
+                        Thread t = new Thread(r);
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+        CompletionService cs = new ExecutorCompletionService(executor);
+        Future[] futures = new Future[threads];
+        try {
+            for (int i = 0; i < threads; i++) {
+                futures[i] = cs.submit
+                    (new FrameRange(new FrameRangeTranscoder(), documents[i],
+                                    uri, output,
+                                    i * n / threads, (i + 1) * n / threads));
+                documents[i] = null;
+            }
+            documents = null;
+            for (int i = 0; i < threads; i++) {
+                try {
+                    cs.take().get();
+                } catch (ExecutionException ex) {
+                    cancel(futures);
+                    Throwable t = ex.getCause();
+                    if (t instanceof TranscoderException) {
+                        throw (TranscoderException)t;
+                    }
+                    if (t instanceof RuntimeException) {
+                        throw (RuntimeException)t;
+                    }
+                    if (t instanceof Error) {
+                        throw (Error)t;
+                    }
+                    throw new TranscoderException((Exception)t);
+                }
+            }
+        } catch (InterruptedException ex) {
+            cancel(futures);
+            throw new TranscoderException(ex);
+        } finally {
+            executor.shutdownNow();
+            try {
+                // No frame may be written once this method has returned.
+                executor.awaitTermination(Long.MAX_VALUE,
+                                          TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Cancels the given tasks, interrupting the ones that are running.
+     */
+    private static void cancel(Future[] futures) {
+        for (int i = 0; i < futures.length; i++) {
+            if (futures[i] != null) {
+                futures[i].cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Renders and writes the specified frames of the specified document,
+     * in order.  Each frame is rendered over the previous one, only in
+     * the areas that changed.  The bridge context is left for the caller
+     * to dispose.
+     *
+     * @param document the document to transcode
+     * @param uri the uri of the document or null if any
+     * @param output the ouput the frame outputs are created from
+     * @param first the index of the first frame to write
+     * @param last the index of the frame after the last one to write
+     * @exception TranscoderException if an error occured while transcoding
+     */
+    protected void transcodeFrames(Document document,
+                                   String uri,
+                                   TranscoderOutput output,
+                                   int first,
+                                   int last)
+            throws TranscoderException {
+
+        // Sets up root, curTxf & curAoi
+        buildTree(document, uri, output);
+        ImageRenderer renderer = null;
+        try {
+            int w = (int)(width+0.5);
+            int h = (int)(height+0.5);
+
+            renderer = createRenderer();
+            renderer.setTree(this.root);
+            RepaintManager repaintManager = new RepaintManager(renderer);
+            repaintManager.setupRenderer(curTxf, false, null, w, h);
+
+            UpdateTracker updateTracker = new UpdateTracker();
+            RootGraphicsNode rgn = this.root.getRoot();
+            if (rgn != null) {
+                rgn.addTreeGraphicsNodeChangeListener(updateTracker);
+            }
+            this.root = null; // The renderer holds it.
+
+            SVGAnimationEngine engine = null;
+            if (ctx.isDynamic()) {
+                engine = ctx.getAnimationEngine();
+                engine.pause();
+            }
+
+            Shape raoi = new Rectangle2D.Float(0, 0, width, height);
+            // Warning: the renderer's AOI must be in user space
+            Shape aoi = curTxf.createInverse().createTransformedShape(raoi);
+
+            for (int i = first; i < last; i++) {
+                if (HaltingThread.hasBeenHalted()
+                        || Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException();
+                }
+                float t = getFrameTime(i);
+                if (engine != null) {
+                    engine.setCurrentTime(t);
+                }
+                if (i == first) {
+                    renderer.repaint(aoi);
+                } else {
+                    List dirtyAreas = updateTracker.getDirtyAreas();
+                    if (dirtyAreas != null) {
+                        repaintManager.updateRendering(dirtyAreas);
+                    }
+                }
+                updateTracker.clear();
+
+                // The offscreen is kept for the next frame, so it is
+                // copied rather than converted in place.
+                BufferedImage dest = createImage(w, h);
+                paintImage(dest, renderer.getOffScreen());
+
+                TranscoderOutput frameOutput =
+                    createFrameOutput(output, i, t);
+                try {
+                    writeImage(dest, frameOutput);
+                } finally {
+                    closeFrameOutput(frameOutput, i);
+                }
+            }
+        } catch (TranscoderException ex) {
+            throw ex;
+        } catch (BridgeException ex) {
+            throw new TranscoderException(ex);
+        } catch (NoninvertibleTransformException ex) {
+            throw new TranscoderException(ex);
+        } catch (InterruptedException ex) {
+            throw new TranscoderException(ex);
+        } finally {
+            if (renderer != null) {
+                renderer.dispose();
+            }
+        }
+    }
+
+    /**
+     * Returns a dynamic renderer, which can render again the areas of
+     * its offscreen an animation changed.
+     */
+    protected ImageRenderer createRenderer() {
+        return new ConcreteImageRendererFactory().createDynamicImageRenderer();
+    }
+
+    /**
+     * Returns the number of frames to write, according to the hints.
+     */
+    protected int getFrameCount() {
+        float begin = getFloatHint(KEY_BEGIN_TIME, 0);
+        float end = getFloatHint(KEY_END_TIME, begin);
+        float rate = getFloatHint(KEY_FRAME_RATE, DEFAULT_FRAME_RATE);
+        if (end <= begin || rate <= 0) {
+            return 1;
+        }
+        // Allows for rounding errors on the last frame time.
+        return (int) Math.floor((end - begin) * rate + 1e-3) + 1;
+    }
+
+    /**
+     * Returns the document time of the specified frame, in seconds.
+     */
+    protected float getFrameTime(int frame) {
+        float begin = getFloatHint(KEY_BEGIN_TIME, 0);
+        float rate = getFloatHint(KEY_FRAME_RATE, DEFAULT_FRAME_RATE);
+        if (rate <= 0) {
+            return begin;
+        }
+        return begin + frame / rate;
+    }
+
+    /**
+     * Returns the value of the specified float hint, or the given default
+     * value if it is not set.
+     */
+    private float getFloatHint(TranscodingHints.Key key, float def) {
+        if (hints.containsKey(key)) {
+            return (Float) hints.get(key);
+        }
+        return def;
+    }
+
+    /**
+     * Returns the output where to write the specified frame.  The default
+     * implementation opens the file whose name is given by the frame
+     * pattern, formatted with the frame index.
+     *
+     * @param output the output of the transcoder
+     * @param frame the index of the frame
+     * @param time the document time of the frame, in seconds
+     * @throws TranscoderException if the output cannot be created
+     */
+    protected TranscoderOutput createFrameOutput(TranscoderOutput output,
+                                                 int frame,
+                                                 float time)
+            throws TranscoderException {
+        File f = new File(String.format(getFramePattern(output), frame));
+        try {
+            return new TranscoderOutput(new FileOutputStream(f));
+        } catch (IOException ex) {
+            throw new TranscoderException(ex);
+        }
+    }
+
+    /**
+     * Returns the pattern of the frame file names: the value of
+     * <code>KEY_FRAME_PATTERN</code> if set, or else the path named by
+     * the URI of the output.  In a <code>file:</code> URI, the
+     * <code>'%'</code> of the pattern must be escaped as
+     * <code>"%25"</code>.
+     *
+     * @param output the output of the transcoder
+     * @throws TranscoderException if there is no pattern, or if it does
+     *         not take exactly one integer argument
+     */
+    protected String getFramePattern(TranscoderOutput output)
+            throws TranscoderException {
+        if (hints.containsKey(KEY_FRAME_PATTERN)) {
+            return (String) hints.get(KEY_FRAME_PATTERN);
+        }
+        String pattern = output.getURI();
+        if (pattern == null) {
+            throw new TranscoderException(
+                Messages.formatMessage("animation.badoutput", null));
+        }
+        if (pattern.startsWith("file:")) {
+            try {
+                pattern = new File(new URI(pattern)).getPath();
+            } catch (URISyntaxException ex) {
+                throw new TranscoderException(
+                    Messages.formatMessage("animation.badoutput", null), ex);
+            } catch (IllegalArgumentException ex) {
+                throw new TranscoderException(
+                    Messages.formatMessage("animation.badoutput", null), ex);
+            }
+        }
+        if (!isFramePattern(pattern)) {
+            throw new TranscoderException(
+                Messages.formatMessage("animation.badpattern",
+                                       new Object[] { pattern }));
+        }
+        return pattern;
+    }
+
+    /**
+     * The format specifiers of <code>java.util.Formatter</code>.
+     */
+    private static final Pattern FORMAT_SPECIFIER = Pattern.compile
+        ("%(\\d+\\$)?([-#+ 0,(<]*)?(\\d+)?(\\.\\d+)?([tT])?([a-zA-Z%])");
+
+    /**
+     * Returns whether the given string is a format pattern which takes
+     * exactly one integer argument, and no other argument.
+     */
+    public static boolean isFramePattern(String pattern) {
+        Matcher m = FORMAT_SPECIFIER.matcher(pattern);
+        int integers = 0;
+        int end = 0;
+        while (m.find()) {
+            if (pattern.substring(end, m.start()).indexOf('%') != -1) {
+                return false;
+            }
+            end = m.end();
+            if (m.group(5) != null) {
+                return false;
+            }
+            switch (m.group(6).charAt(0)) {
+            case '%':
+                break;
+            case 'd': case 'o': case 'x': case 'X':
+                integers++;
+                break;
+            default:
+                return false;
+            }
+        }
+        if (integers != 1 || pattern.indexOf('%', end) != -1) {
+            return false;
+        }
+        try {
+            String.format(pattern, 0);
+        } catch (IllegalFormatException ex) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Releases the output of a frame once it has been written.  The default
+     * implementation closes the stream opened by
+     * <code>createFrameOutput</code>.
+     *
+     * @param frameOutput the output returned by <code>createFrameOutput</code>
+     * @param frame the index of the frame
+     * @throws TranscoderException if the output cannot be closed
+     */
+    protected void closeFrameOutput(TranscoderOutput frameOutput, int frame)
+            throws TranscoderException {
+        OutputStream os = frameOutput.getOutputStream();
+        if (os != null) {
+            try {
+                os.close();
+            } catch (IOException ex) {
+                throw new TranscoderException(ex);
+            }
+        }
+    }
+
+    /**
+     * A transcoder writing a range of the frames of this transcoder.  It
+     * uses a copy of the hints of this transcoder, and delegates the
+     * creation and the writing of the frames to it.
+     */
+    protected class FrameRangeTranscoder extends AnimationFrameTranscoder {
+
+        /**
+         * Creates a new FrameRangeTranscoder.
+         */
+        public FrameRangeTranscoder() {
+            hints.putAll(AnimationFrameTranscoder.this.hints);
+            handler = AnimationFrameTranscoder.this.handler;
+        }
+
+        protected ImageRenderer createRenderer() {
+            return AnimationFrameTranscoder.this.createRenderer();
+        }
+
+        public BufferedImage createImage(int width, int height) {
+            return AnimationFrameTranscoder.this.createImage(width, height);
+        }
+
+        protected int getImageType() {
+            return AnimationFrameTranscoder.this.getImageType();
+        }
+
+        public void writeImage(BufferedImage img, TranscoderOutput output)
+                throws TranscoderException {
+            AnimationFrameTranscoder.this.writeImage(img, output);
+        }
+
+        protected TranscoderOutput createFrameOutput(TranscoderOutput output,
+                                                     int frame,
+                                                     float time)
+                throws TranscoderException {
+            return AnimationFrameTranscoder.this.createFrameOutput
+                (output, frame, time);
+        }
+
+        protected void closeFrameOutput(TranscoderOutput frameOutput,
+                                        int frame)
+                throws TranscoderException {
+            AnimationFrameTranscoder.this.closeFrameOutput(frameOutput, frame);
+        }
+    }
+
+    /**
+     * A task which writes a range of frames.
+     */
+    protected static class FrameRange implements Callable {
+
+        /**
+         * The transcoder writing the frames.
+         */
+        protected AnimationFrameTranscoder transcoder;
+
+        /**
+         * The document to render.
+         */
+        protected Document document;
+
+        /**
+         * The document URI.
+         */
+        protected String uri;
+
+        /**
+         * The output of the transcoder.
+         */
+        protected TranscoderOutput output;
+
+        /**
+         * The range of frames to write.
+         */
+        protected int first, last;
+
+        /**
+         * Creates a new FrameRange.
+         */
+        public FrameRange(AnimationFrameTranscoder transcoder,
+                          Document document, String uri,
+                          TranscoderOutput output, int first, int last) {
+            this.transcoder = transcoder;
+            this.document = document;
+            this.uri = uri;
+            this.output = output;
+            this.first = first;
+            this.last = last;
+        }
+
+        /**
+         * Writes the frames.
+         */
+        public Object call() throws TranscoderException {
+            Document d = document;
+            document = null;
+            try {
+                transcoder.transcodeFrames(d, uri, output, first, last);
+            } finally {
+                // The bridge context of this transcoder is not disposed by
+                // transcode(TranscoderInput, TranscoderOutput).
+                if (transcoder.ctx != null) {
+                    transcoder.ctx.dispose();
+                }
+            }
+            return null;
+        }
+    }
+
+    // --------------------------------------------------------------------
+    // Keys definition
+    // --------------------------------------------------------------------
+
+    /**
+     * The default number of frames per second.
+     */
+    public static final float DEFAULT_FRAME_RATE = 10;
+
+    /**
+     * The frame rate key.
+     *
+     * <table summary="" border="0" cellspacing="0" cellpadding="1">
+     *   <tr>
+     *     <th valign="top" align="right">Key:</th>
+     *     <td valign="top">KEY_FRAME_RATE</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Value:</th>
+     *     <td valign="top">Float</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Default:</th>
+     *     <td valign="top">10</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Required:</th>
+     *     <td valign="top">No</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Description:</th>
+     *     <td valign="top">Specifies the number of frames per second of
+     *       document time.</td>
+     *   </tr>
+     * </table>
+     */
+    public static final TranscodingHints.Key KEY_FRAME_RATE
+        = new FloatKey();
+
+    /**
+     * The begin time key.
+     *
+     * <table summary="" border="0" cellspacing="0" cellpadding="1">
+     *   <tr>
+     *     <th valign="top" align="right">Key:</th>
+     *     <td valign="top">KEY_BEGIN_TIME</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Value:</th>
+     *     <td valign="top">Float</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Default:</th>
+     *     <td valign="top">0</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Required:</th>
+     *     <td valign="top">No</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Description:</th>
+     *     <td valign="top">Specifies the document time of the first frame,
+     *       in seconds.</td>
+     *   </tr>
+     * </table>
+     */
+    public static final TranscodingHints.Key KEY_BEGIN_TIME
+        = new FloatKey();
+
+    /**
+     * The end time key.
+     *
+     * <table summary="" border="0" cellspacing="0" cellpadding="1">
+     *   <tr>
+     *     <th valign="top" align="right">Key:</th>
+     *     <td valign="top">KEY_END_TIME</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Value:</th>
+     *     <td valign="top">Float</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Default:</th>
+     *     <td valign="top">The begin time</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Required:</th>
+     *     <td valign="top">No</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Description:</th>
+     *     <td valign="top">Specifies the document time, in seconds, after
+     *       which no frame is written.  A frame is written at that time
+     *       if it falls on the frame rate.</td>
+     *   </tr>
+     * </table>
+     */
+    public static final TranscodingHints.Key KEY_END_TIME
+        = new FloatKey();
+
+    /**
+     * The thread count key.
+     *
+     * <table summary="" border="0" cellspacing="0" cellpadding="1">
+     *   <tr>
+     *     <th valign="top" align="right">Key:</th>
+     *     <td valign="top">KEY_THREAD_COUNT</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Value:</th>
+     *     <td valign="top">Integer</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Default:</th>
+     *     <td valign="top">The number of available processors</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Required:</th>
+     *     <td valign="top">No</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Description:</th>
+     *     <td valign="top">Specifies the number of threads rendering
+     *       frames, each from its own copy of the document.</td>
+     *   </tr>
+     * </table>
+     */
+    public static final TranscodingHints.Key KEY_THREAD_COUNT
+        = new IntegerKey();
+
+    /**
+     * The frame pattern key.
+     *
+     * <table summary="" border="0" cellspacing="0" cellpadding="1">
+     *   <tr>
+     *     <th valign="top" align="right">Key:</th>
+     *     <td valign="top">KEY_FRAME_PATTERN</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Value:</th>
+     *     <td valign="top">String</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Default:</th>
+     *     <td valign="top">The path named by the URI of the output</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Required:</th>
+     *     <td valign="top">No</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Description:</th>
+     *     <td valign="top">Specifies the file names of the frames, as a
+     *       <code>java.util.Formatter</code> pattern taking the frame index
+     *       as its only argument, e.g. <code>frames/frame%04d.png</code>.
+     *       </td>
+     *   </tr>
+     * </table>
+     */
+    public static final TranscodingHints.Key KEY_FRAME_PATTERN
+        = new FramePatternKey();
+
+    /**
+     * A transcoding Key accepting the patterns for which
+     * <code>isFramePattern</code> is true.
+     */
+    private static class FramePatternKey extends TranscodingHints.Key {
+        public boolean isCompatibleValue(Object v) {
+            return (v instanceof String) && isFramePattern((String) v);
+        }
+    }
+}
@@ -19,16 +19,26 @@
 package org.apache.batik.transcoder.image;
 
 import java.awt.AlphaComposite;
+import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Paint;
+import java.awt.Rectangle;
 import java.awt.Shape;
 import java.awt.geom.AffineTransform;
+import java.awt.geom.NoninvertibleTransformException;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
 import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
 import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
 
 import org.apache.batik.ext.awt.image.GraphicsUtil;
+import org.apache.batik.ext.awt.image.rendered.AbstractRed;
+import org.apache.batik.ext.awt.image.rendered.CachableRed;
 import org.apache.batik.gvt.renderer.ConcreteImageRendererFactory;
 import org.apache.batik.gvt.renderer.ImageRenderer;
 import org.apache.batik.gvt.renderer.ImageRendererFactory;
@@ -37,6 +47,7 @@ import org.apache.batik.transcoder.TranscoderException;
 import org.apache.batik.transcoder.TranscoderOutput;
 import org.apache.batik.transcoder.TranscodingHints;
 import org.apache.batik.transcoder.keys.BooleanKey;
+import org.apache.batik.transcoder.keys.IntegerKey;
 import org.apache.batik.transcoder.keys.PaintKey;
 import org.w3c.dom.Document;
 
@@ -55,6 +66,10 @@ import org.w3c.dom.Document;
  * <p>The <code>KEY_AOI</code> represents the area of interest to paint
  * in device space.
  *
+ * <p>The <code>KEY_STRIP_HEIGHT</code> asks transcoders that support it
+ * to render and encode the image in horizontal strips, so the whole
+ * image never has to be held in memory.
+ *
  * <p>Three additional transcoding hints that act on the SVG
  * processor can be specified:
  *
@@ -75,6 +90,14 @@ public abstract class ImageTranscoder extends SVGAbstractTranscoder {
     protected ImageTranscoder() {
     }
 
+    /**
+     * Returns true: the document is not needed once its GVT tree has been
+     * built, since only the GVT tree is rendered.
+     */
+    protected boolean isStreamingBuild() {
+        return true;
+    }
+
     /**
      * Transcodes the specified Document as an image in the specified output.
      *
@@ -89,7 +112,7 @@ public abstract class ImageTranscoder extends SVGAbstractTranscoder {
             throws TranscoderException {
 
         // Sets up root, curTxf & curAoi
-        super.transcode(document, uri, output);
+        buildTree(document, uri, output);
 
         // prepare the image to be painted
         int w = (int)(width+0.5);
@@ -98,11 +121,28 @@ public abstract class ImageTranscoder extends SVGAbstractTranscoder {
         // paint the SVG document using the bridge package
         // create the appropriate renderer
         ImageRenderer renderer = createRenderer();
+        renderer.setTree(this.root);
+        this.root = null; // We're done with it...
+
+        int stripHeight = 0;
+        if (hints.containsKey(KEY_STRIP_HEIGHT)) {
+            stripHeight = (Integer) hints.get(KEY_STRIP_HEIGHT);
+        }
+        if (stripHeight > 0 && stripHeight < h && canWriteStrips()) {
+            try {
+                writeStrips(new StripRed(renderer, w, h, stripHeight),
+                            output);
+            } catch (TranscoderException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new TranscoderException(ex);
+            }
+            return;
+        }
+
         renderer.updateOffScreen(w, h);
         // curTxf.translate(0.5, 0.5);
         renderer.setTransform(curTxf);
-        renderer.setTree(this.root);
-        this.root = null; // We're done with it...
 
         try {
             // now we are sure that the aoi is the image size
@@ -113,19 +153,7 @@ public abstract class ImageTranscoder extends SVGAbstractTranscoder {
             BufferedImage rend = renderer.getOffScreen();
             renderer = null; // We're done with it...
 
-            BufferedImage dest = createImage(w, h);
-
-            Graphics2D g2d = GraphicsUtil.createGraphics(dest);
-            if (hints.containsKey(KEY_BACKGROUND_COLOR)) {
-                Paint bgcolor = (Paint)hints.get(KEY_BACKGROUND_COLOR);
-                g2d.setComposite(AlphaComposite.SrcOver);
-                g2d.setPaint(bgcolor);
-                g2d.fillRect(0, 0, w, h);
-            }
-            if (rend != null) { // might be null if the svg document is empty
-                g2d.drawRenderedImage(rend, new AffineTransform());
-            }
-            g2d.dispose();
+            BufferedImage dest = createImage(rend, w, h);
             rend = null; // We're done with it...
             writeImage(dest, output);
         } catch (Exception ex) {
@@ -133,6 +161,290 @@ public abstract class ImageTranscoder extends SVGAbstractTranscoder {
         }
     }
 
+    /**
+     * Builds the GVT tree of the specified document and sets up
+     * <code>root</code>, <code>curTxf</code> and <code>curAOI</code>,
+     * without rendering anything.
+     *
+     * @param document the document to transcode
+     * @param uri the uri of the document or null if any
+     * @param output the ouput where to transcode
+     * @exception TranscoderException if an error occured while building
+     */
+    protected void buildTree(Document document,
+                             String uri,
+                             TranscoderOutput output)
+            throws TranscoderException {
+        super.transcode(document, uri, output);
+    }
+
+    /**
+     * Returns an image created by <code>createImage</code> holding the
+     * rendered image painted over the background color, if any.  When
+     * possible the renderer's offscreen image is converted in place
+     * and reused rather than copied into a new image.
+     * @param rend the renderer's offscreen image, may be null
+     * @param w the image width
+     * @param h the image height
+     */
+    private BufferedImage createImage(BufferedImage rend, int w, int h) {
+        BufferedImage dest = convertInPlace(rend, w, h);
+        if (dest == null) {
+            dest = createImage(w, h);
+            paintImage(dest, rend);
+        }
+        return dest;
+    }
+
+    /**
+     * Composites the background color under the renderer's offscreen
+     * image, in place, and wraps its raster in the color model of the
+     * images returned by <code>createImage</code>.  This is only done
+     * for int packed ARGB offscreens, an opaque color background (or
+     * none) and a <code>getImageType</code> of <code>TYPE_INT_ARGB</code>
+     * or <code>TYPE_INT_RGB</code>, except for premultiplied offscreens
+     * giving translucent ARGB pixels.
+     * When the offscreen is not premultiplied and there is no background
+     * the pixels are used as they are.
+     * @return the converted image or null if it can't be done in place
+     */
+    private BufferedImage convertInPlace(BufferedImage rend, int w, int h) {
+        if (rend == null || rend.getWidth() != w || rend.getHeight() != h) {
+            return null;
+        }
+        WritableRaster wr = rend.getRaster();
+        if (!GraphicsUtil.is_INT_PACK_Data(wr.getSampleModel(), true)) {
+            return null;
+        }
+
+        Color bg = null;
+        if (hints.containsKey(KEY_BACKGROUND_COLOR)) {
+            Paint p = (Paint)hints.get(KEY_BACKGROUND_COLOR);
+            if (!(p instanceof Color)) {
+                return null;
+            }
+            bg = (Color)p;
+            if (bg.getAlpha() == 0) {
+                bg = null;
+            } else if (bg.getAlpha() != 255) {
+                // Java2D rounds translucent fills differently.
+                return null;
+            }
+        }
+
+        ColorModel cm;
+        boolean opaque;
+        switch (getImageType()) {
+        case BufferedImage.TYPE_INT_ARGB:
+            cm = ColorModel.getRGBdefault();
+            opaque = false;
+            break;
+        case BufferedImage.TYPE_INT_RGB:
+            cm = new DirectColorModel(24, 0xff0000, 0xff00, 0xff);
+            opaque = true;
+            break;
+        default:
+            return null;
+        }
+
+        boolean premult = rend.isAlphaPremultiplied();
+        if (opaque || bg != null) {
+            compositeBackground(wr, bg, premult);
+        } else if (premult) {
+            // Java2D rounds the translucent pixels it unpremultiplies
+            // differently.
+            return null;
+        }
+        if (opaque) {
+            // Drop the alpha band, the RGB bands come first.
+            wr = wr.createWritableChild(wr.getMinX(), wr.getMinY(), w, h,
+                                        wr.getMinX(), wr.getMinY(),
+                                        new int[] { 0, 1, 2 });
+        }
+        return new BufferedImage(cm, wr, false, null);
+    }
+
+    /**
+     * Composites the opaque color <code>bg</code>, or opaque black, under
+     * the pixels of <code>wr</code> the way <code>paintImage</code> does.
+     * Each product is rounded on its own, as Java2D does.
+     * @param wr an int packed ARGB raster
+     * @param bg the opaque background color, or null for black
+     * @param premult whether the pixels of wr are premultiplied
+     */
+    private static void compositeBackground(WritableRaster wr, Color bg,
+                                            boolean premult) {
+        int bgR = 0, bgG = 0, bgB = 0;
+        if (bg != null) {
+            bgR = bg.getRed();
+            bgG = bg.getGreen();
+            bgB = bg.getBlue();
+        }
+
+        SinglePixelPackedSampleModel sppsm;
+        sppsm = (SinglePixelPackedSampleModel)wr.getSampleModel();
+        DataBufferInt db = (DataBufferInt)wr.getDataBuffer();
+        int[] pixels = db.getBankData()[0];
+        int w = wr.getWidth();
+        int h = wr.getHeight();
+        int scanStride = sppsm.getScanlineStride();
+        int base = db.getOffset() + sppsm.getOffset
+            (wr.getMinX() - wr.getSampleModelTranslateX(),
+             wr.getMinY() - wr.getSampleModelTranslateY());
+
+        for (int i = 0; i < h; i++) {
+            int p = base + i * scanStride;
+            for (int end = p + w; p < end; p++) {
+                int pel = pixels[p];
+                int a = pel >>> 24;
+                int r = (pel >> 16) & 0xff;
+                int g = (pel >> 8 ) & 0xff;
+                int b =  pel        & 0xff;
+                if (!premult) {
+                    r = (r * a + 127) / 255;
+                    g = (g * a + 127) / 255;
+                    b = (b * a + 127) / 255;
+                }
+                int na = 255 - a;
+                r += (bgR * na + 127) / 255;
+                g += (bgG * na + 127) / 255;
+                b += (bgB * na + 127) / 255;
+                pixels[p] = 0xff000000 | (r << 16) | (g << 8) | b;
+            }
+        }
+    }
+
+    /**
+     * Fills <code>dest</code> with the background color, if any, and
+     * draws the rendered image over it.
+     * @param dest the image to paint
+     * @param rend the renderer's offscreen image, may be null
+     */
+    protected void paintImage(BufferedImage dest, BufferedImage rend) {
+        Graphics2D g2d = GraphicsUtil.createGraphics(dest);
+        if (hints.containsKey(KEY_BACKGROUND_COLOR)) {
+            Paint bgcolor = (Paint)hints.get(KEY_BACKGROUND_COLOR);
+            g2d.setComposite(AlphaComposite.SrcOver);
+            g2d.setPaint(bgcolor);
+            g2d.fillRect(0, 0, dest.getWidth(), dest.getHeight());
+        }
+        if (rend != null) { // might be null if the svg document is empty
+            g2d.drawRenderedImage(rend, new AffineTransform());
+        }
+        g2d.dispose();
+    }
+
+    /**
+     * Returns true if this transcoder can encode an image that is
+     * rendered strip by strip, through <code>writeStrips</code>.
+     * The default implementation returns false.
+     */
+    protected boolean canWriteStrips() {
+        return false;
+    }
+
+    /**
+     * Writes an image that is rendered on demand, one strip of
+     * <code>img.getTileHeight()</code> rows at a time.  Strips are
+     * cheapest to access in order, from top to bottom.  The default
+     * implementation copies the whole image into a
+     * <code>BufferedImage</code> and calls <code>writeImage</code>.
+     * @param img the image to write
+     * @param output the output where to store the image
+     * @throws TranscoderException if an error occured while storing the image
+     */
+    protected void writeStrips(RenderedImage img, TranscoderOutput output)
+            throws TranscoderException {
+        BufferedImage dest = createImage(img.getWidth(), img.getHeight());
+        dest.setData(img.getData());
+        writeImage(dest, output);
+    }
+
+    /**
+     * An image whose tiles are full width strips rendered on demand
+     * by an <code>ImageRenderer</code>.  Only the last rendered strip
+     * is kept.
+     */
+    private class StripRed extends AbstractRed {
+
+        /**
+         * The renderer used to paint each strip.
+         */
+        protected ImageRenderer renderer;
+
+        /**
+         * The index of the strip held in <code>strip</code>.
+         */
+        protected int stripIndex = -1;
+
+        /**
+         * The last rendered strip.
+         */
+        protected BufferedImage strip;
+
+        /**
+         * Creates a new StripRed.
+         * @param renderer the renderer holding the GVT tree to paint
+         * @param w the image width
+         * @param h the image height
+         * @param stripHeight the number of rows in each strip
+         */
+        public StripRed(ImageRenderer renderer, int w, int h,
+                        int stripHeight) {
+            BufferedImage bi = createImage(w, stripHeight);
+            init((CachableRed)null, new Rectangle(0, 0, w, h),
+                 bi.getColorModel(), bi.getSampleModel(), 0, 0, null);
+            this.renderer = renderer;
+        }
+
+        public WritableRaster copyData(WritableRaster wr) {
+            copyToRaster(wr);
+            return wr;
+        }
+
+        public synchronized Raster getTile(int tileX, int tileY) {
+            if (tileY != stripIndex) {
+                strip = null;
+                strip = renderStrip(tileY);
+                stripIndex = tileY;
+            }
+            return strip.getRaster().createTranslatedChild
+                (0, tileY * tileHeight);
+        }
+
+        /**
+         * Renders the strip at the given index.
+         */
+        protected BufferedImage renderStrip(int tileY) {
+            int y = tileY * tileHeight;
+            int sh = Math.min(tileHeight, bounds.height - y);
+            int w = bounds.width;
+
+            AffineTransform at = AffineTransform.getTranslateInstance(0, -y);
+            at.concatenate(curTxf);
+            renderer.updateOffScreen(w, sh);
+            renderer.setTransform(at);
+            try {
+                Shape raoi = new Rectangle2D.Float(0, 0, w, sh);
+                // Warning: the renderer's AOI must be in user space
+                renderer.repaint(at.createInverse().
+                                 createTransformedShape(raoi));
+            } catch (NoninvertibleTransformException ex) {
+                throw new IllegalStateException(ex.getMessage());
+            }
+
+            BufferedImage dest = createImage(renderer.getOffScreen(), w, sh);
+
+            Boolean ftw = (Boolean)hints.get(KEY_FORCE_TRANSPARENT_WHITE);
+            if (ftw != null && ftw &&
+                dest.getSampleModel() instanceof SinglePixelPackedSampleModel) {
+                forceTransparentWhite
+                    (dest, (SinglePixelPackedSampleModel)dest.getSampleModel());
+            }
+            return dest;
+        }
+    }
+
     /**
      * Method so subclasses can modify the Renderer used to render document.
      */
@@ -161,7 +473,10 @@ public abstract class ImageTranscoder extends SVGAbstractTranscoder {
         int scanStride = sppsm.getScanlineStride();
         int dbOffset = biDB.getOffset();
         int[] pixels = biDB.getBankData()[0];
-        int p = dbOffset;
+        WritableRaster wr = img.getRaster();
+        int p = dbOffset + sppsm.getOffset
+            (wr.getMinX() - wr.getSampleModelTranslateX(),
+             wr.getMinY() - wr.getSampleModelTranslateY());
         int adjust = scanStride - w;
         int a=0, r=0, g=0, b=0, pel=0;
         for(int i=0; i<h; i++){
@@ -191,6 +506,17 @@ public abstract class ImageTranscoder extends SVGAbstractTranscoder {
      */
     public abstract BufferedImage createImage(int width, int height);
 
+    /**
+     * Returns the type of the images returned by <code>createImage</code>,
+     * or <code>BufferedImage.TYPE_CUSTOM</code> if it is not known.  The
+     * renderer's offscreen image is only reused for <code>TYPE_INT_ARGB</code>
+     * and <code>TYPE_INT_RGB</code>, so subclasses overriding
+     * <code>createImage</code> must override this method as well.
+     */
+    protected int getImageType() {
+        return BufferedImage.TYPE_CUSTOM;
+    }
+
     /**
      * Writes the specified image to the specified output.
      * @param img the image to write
@@ -275,4 +601,44 @@ public abstract class ImageTranscoder extends SVGAbstractTranscoder {
      */
     public static final TranscodingHints.Key KEY_FORCE_TRANSPARENT_WHITE
         = new BooleanKey();
+
+    /**
+     * The strip height key.
+     *
+     * <table summary="" border="0" cellspacing="0" cellpadding="1">
+     *   <tr>
+     *     <th valign="top" align="right">Key:</th>
+     *     <td valign="top">KEY_STRIP_HEIGHT</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Value:</th>
+     *     <td valign="top">Integer</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Default:</th>
+     *     <td valign="top">none (the image is rendered at once)</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Required:</th>
+     *     <td valign="top">No</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Description:</th>
+     *     <td valign="top">The number of rows rendered at once.  When
+     *       set, transcoders that support it render the image in
+     *       horizontal strips of this height and encode each strip as
+     *       soon as it is rendered, so memory use is proportional to
+     *       the strip height rather than to the image height.
+     *       Since the renderer's tile grid changes, the antialiasing
+     *       of edges crossing pixels may differ by up to 2 levels
+     *       from the image rendered at once.
+     *       <br>
+     *       Not all Transcoders use this key, and some settings (such
+     *       as an indexed PNG) require the whole image and fall back
+     *       to rendering it at once.</td>
+     *   </tr>
+     * </table>
+     */
+    public static final TranscodingHints.Key KEY_STRIP_HEIGHT
+        = new IntegerKey();
 }
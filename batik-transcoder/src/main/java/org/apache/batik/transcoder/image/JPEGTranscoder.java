@@ -55,6 +55,13 @@ public class JPEGTranscoder extends ImageTranscoder {
         return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
     }
 
+    /**
+     * Returns the type of the images returned by <code>createImage</code>.
+     */
+    protected int getImageType() {
+        return BufferedImage.TYPE_INT_RGB;
+    }
+
     /**
      * Writes the specified image to the specified output.
      * @param img the image to write
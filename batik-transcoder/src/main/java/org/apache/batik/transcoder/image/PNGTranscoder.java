@@ -19,6 +19,7 @@
 package org.apache.batik.transcoder.image;
 
 import java.awt.image.BufferedImage;
+import java.awt.image.RenderedImage;
 import java.awt.image.SinglePixelPackedSampleModel;
 import java.io.OutputStream;
 import java.lang.reflect.InvocationTargetException;
@@ -39,6 +40,26 @@ import org.apache.batik.transcoder.keys.IntegerKey;
  */
 public class PNGTranscoder extends ImageTranscoder {
 
+    /**
+     * The default value of KEY_FILTER_STRATEGY: each row is filtered with
+     * the one of the five PNG filter types giving the smallest sum of
+     * absolute differences.  This usually gives the smallest files.
+     */
+    public static final String VALUE_FILTER_STRATEGY_ADAPTIVE = "adaptive";
+
+    /**
+     * The KEY_FILTER_STRATEGY value choosing between the None, Sub and
+     * Up filter types only, which is faster than the adaptive strategy
+     * for slightly larger files.
+     */
+    public static final String VALUE_FILTER_STRATEGY_FAST = "fast";
+
+    /**
+     * The KEY_FILTER_STRATEGY value writing every row unfiltered, which
+     * is the fastest and gives the largest files.
+     */
+    public static final String VALUE_FILTER_STRATEGY_NONE = "none";
+
     /**
      * Constructs a new transcoder that produces png images.
      */
@@ -60,6 +81,13 @@ public class PNGTranscoder extends ImageTranscoder {
         return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
     }
 
+    /**
+     * Returns the type of the images returned by <code>createImage</code>.
+     */
+    protected int getImageType() {
+        return BufferedImage.TYPE_INT_ARGB;
+    }
+
     private WriteAdapter getWriteAdapter(String className) {
         WriteAdapter adapter;
         try {
@@ -79,6 +107,59 @@ public class PNGTranscoder extends ImageTranscoder {
         }
     }
     
+    /**
+     * Returns the first available adapter, preferring the internal codec.
+     * @throws TranscoderException if no adapter is available
+     */
+    private WriteAdapter getWriteAdapter() throws TranscoderException {
+        WriteAdapter adapter = getWriteAdapter(
+                "org.apache.batik.ext.awt.image.codec.png.PNGTranscoderInternalCodecWriteAdapter");
+        if (adapter == null) {
+            adapter = getWriteAdapter(
+                "org.apache.batik.transcoder.image.PNGTranscoderImageIOWriteAdapter");
+        }
+        if (adapter == null) {
+            throw new TranscoderException(
+                    "Could not write PNG file because no WriteAdapter is availble");
+        }
+        return adapter;
+    }
+
+    /**
+     * Returns true if the PNG adapter in use can write strips.
+     */
+    protected boolean canWriteStrips() {
+        if (hints.containsKey(KEY_INDEXED)) {
+            // Color reduction needs the whole image.
+            return false;
+        }
+        try {
+            return getWriteAdapter() instanceof StripWriteAdapter;
+        } catch (TranscoderException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes an image rendered strip by strip to the specified output.
+     * @param img the image to write
+     * @param output the output where to store the image
+     * @throws TranscoderException if an error occured while storing the image
+     */
+    protected void writeStrips(RenderedImage img, TranscoderOutput output)
+            throws TranscoderException {
+        if (output.getOutputStream() == null) {
+            throw new TranscoderException(
+                Messages.formatMessage("png.badoutput", null));
+        }
+        WriteAdapter adapter = getWriteAdapter();
+        if (adapter instanceof StripWriteAdapter) {
+            ((StripWriteAdapter)adapter).writeStrips(this, img, output);
+        } else {
+            super.writeStrips(img, output);
+        }
+    }
+
     /**
      * Writes the specified image to the specified output.
      * @param img the image to write
@@ -112,16 +193,7 @@ public class PNGTranscoder extends ImageTranscoder {
             forceTransparentWhite(img, sppsm);
         }
 
-        WriteAdapter adapter = getWriteAdapter(
-                "org.apache.batik.ext.awt.image.codec.png.PNGTranscoderInternalCodecWriteAdapter");
-        if (adapter == null) {
-            adapter = getWriteAdapter(
-                "org.apache.batik.transcoder.image.PNGTranscoderImageIOWriteAdapter");
-        }
-        if (adapter == null) {
-            throw new TranscoderException(
-                    "Could not write PNG file because no WriteAdapter is availble");
-        }
+        WriteAdapter adapter = getWriteAdapter();
         adapter.writeImage(this, img, output);
     }
     
@@ -148,6 +220,28 @@ public class PNGTranscoder extends ImageTranscoder {
                 TranscoderOutput output) throws TranscoderException;
 
     }
+
+    /**
+     * A <code>WriteAdapter</code> that can also encode an image as it is
+     * rendered, one strip at a time.
+     *
+     * @version $Id$
+     */
+    public interface StripWriteAdapter extends WriteAdapter {
+
+        /**
+         * Writes the specified image to the specified output.  The image
+         * tiles are full width strips that are best read from top to
+         * bottom.
+         * @param transcoder the calling PNGTranscoder
+         * @param img the image to write
+         * @param output the output where to store the image
+         * @throws TranscoderException if an error occured while storing the image
+         */
+        void writeStrips(PNGTranscoder transcoder, RenderedImage img,
+                TranscoderOutput output) throws TranscoderException;
+
+    }
     
 
     // --------------------------------------------------------------------
@@ -225,4 +319,92 @@ public class PNGTranscoder extends ImageTranscoder {
      */
     public static final TranscodingHints.Key KEY_INDEXED
         = new IntegerKey();
+
+    /**
+     * The compression level key.
+     *
+     * <table summary="" border="0" cellspacing="0" cellpadding="1">
+     *   <tr>
+     *     <th valign="top" align="right">Key:</th>
+     *     <td valign="top">KEY_COMPRESSION_LEVEL</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Value:</th>
+     *     <td valign="top">Integer (0 to 9)</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Default:</th>
+     *     <td valign="top">9</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Required:</th>
+     *     <td valign="top">No</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Description:</th>
+     *     <td valign="top">The deflate compression level of the image
+     *       data. Lower values encode faster but produce larger
+     *       files.</td>
+     *   </tr>
+     * </table>
+     */
+    public static final TranscodingHints.Key KEY_COMPRESSION_LEVEL
+        = new CompressionLevelKey();
+
+    /**
+     * The filter strategy key.
+     *
+     * <table summary="" border="0" cellspacing="0" cellpadding="1">
+     *   <tr>
+     *     <th valign="top" align="right">Key:</th>
+     *     <td valign="top">KEY_FILTER_STRATEGY</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Value:</th>
+     *     <td valign="top">String ("adaptive", "fast" or "none")</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Default:</th>
+     *     <td valign="top">"adaptive"</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Required:</th>
+     *     <td valign="top">No</td>
+     *   </tr>
+     *   <tr>
+     *     <th valign="top" align="right">Description:</th>
+     *     <td valign="top">Controls how the filter of each image row is
+     *       chosen. "adaptive" tries every PNG filter and gives the
+     *       smallest files, "fast" only tries the cheapest filters and
+     *       "none" disables filtering.</td>
+     *   </tr>
+     * </table>
+     */
+    public static final TranscodingHints.Key KEY_FILTER_STRATEGY
+        = new FilterStrategyKey();
+
+    /**
+     * A transcoding Key represented the deflate compression level.
+     */
+    private static class CompressionLevelKey extends TranscodingHints.Key {
+        public boolean isCompatibleValue(Object v) {
+            if (v instanceof Integer) {
+                int level = (Integer) v;
+                return (level >= 0 && level <= 9);
+            } else {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * A transcoding Key represented the filter strategy.
+     */
+    private static class FilterStrategyKey extends TranscodingHints.Key {
+        public boolean isCompatibleValue(Object v) {
+            return VALUE_FILTER_STRATEGY_ADAPTIVE.equals(v)
+                || VALUE_FILTER_STRATEGY_FAST.equals(v)
+                || VALUE_FILTER_STRATEGY_NONE.equals(v);
+        }
+    }
 }
@@ -20,6 +20,7 @@
 package org.apache.batik.transcoder.image;
 
 import java.awt.image.BufferedImage;
+import java.awt.image.RenderedImage;
 import java.awt.image.SinglePixelPackedSampleModel;
 import java.lang.reflect.InvocationTargetException;
 
@@ -59,6 +60,13 @@ public class TIFFTranscoder extends ImageTranscoder {
         return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
     }
 
+    /**
+     * Returns the type of the images returned by <code>createImage</code>.
+     */
+    protected int getImageType() {
+        return BufferedImage.TYPE_INT_ARGB;
+    }
+
     private WriteAdapter getWriteAdapter(String className) {
         WriteAdapter adapter;
         try {
@@ -78,6 +86,51 @@ public class TIFFTranscoder extends ImageTranscoder {
         }
     }
     
+    /**
+     * Returns the first available adapter, preferring the internal codec.
+     * @throws TranscoderException if no adapter is available
+     */
+    private WriteAdapter getWriteAdapter() throws TranscoderException {
+        WriteAdapter adapter = getWriteAdapter(
+                "org.apache.batik.ext.awt.image.codec.tiff.TIFFTranscoderInternalCodecWriteAdapter");
+        if (adapter == null) {
+            adapter = getWriteAdapter(
+                "org.apache.batik.ext.awt.image.codec.imageio.TIFFTranscoderImageIOWriteAdapter");
+        }
+        if (adapter == null) {
+            throw new TranscoderException(
+                    "Could not write TIFF file because no WriteAdapter is availble");
+        }
+        return adapter;
+    }
+
+    /**
+     * Returns true if the TIFF adapter in use can write strips.
+     */
+    protected boolean canWriteStrips() {
+        try {
+            return getWriteAdapter() instanceof StripWriteAdapter;
+        } catch (TranscoderException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes an image rendered strip by strip to the specified output.
+     * @param img the image to write
+     * @param output the output where to store the image
+     * @throws TranscoderException if an error occured while storing the image
+     */
+    protected void writeStrips(RenderedImage img, TranscoderOutput output)
+            throws TranscoderException {
+        WriteAdapter adapter = getWriteAdapter();
+        if (adapter instanceof StripWriteAdapter) {
+            ((StripWriteAdapter)adapter).writeStrips(this, img, output);
+        } else {
+            super.writeStrips(img, output);
+        }
+    }
+
     /**
      * Writes the specified image to the specified output.
      * @param img the image to write
@@ -105,16 +158,7 @@ public class TIFFTranscoder extends ImageTranscoder {
             forceTransparentWhite(img, sppsm);
         }
 
-        WriteAdapter adapter = getWriteAdapter(
-                "org.apache.batik.ext.awt.image.codec.tiff.TIFFTranscoderInternalCodecWriteAdapter");
-        if (adapter == null) {
-            adapter = getWriteAdapter(
-                "org.apache.batik.ext.awt.image.codec.imageio.TIFFTranscoderImageIOWriteAdapter");
-        }
-        if (adapter == null) {
-            throw new TranscoderException(
-                    "Could not write TIFF file because no WriteAdapter is availble");
-        }
+        WriteAdapter adapter = getWriteAdapter();
         adapter.writeImage(this, img, output);
     }
     
@@ -141,6 +185,28 @@ public class TIFFTranscoder extends ImageTranscoder {
                 TranscoderOutput output) throws TranscoderException;
 
     }
+
+    /**
+     * A <code>WriteAdapter</code> that can also encode an image as it is
+     * rendered, one strip at a time.
+     *
+     * @version $Id$
+     */
+    public interface StripWriteAdapter extends WriteAdapter {
+
+        /**
+         * Writes the specified image to the specified output.  The image
+         * tiles are full width strips that are best read from top to
+         * bottom.
+         * @param transcoder the calling TIFFTranscoder
+         * @param img the image to write
+         * @param output the output where to store the image
+         * @throws TranscoderException if an error occured while storing the image
+         */
+        void writeStrips(TIFFTranscoder transcoder, RenderedImage img,
+                TranscoderOutput output) throws TranscoderException;
+
+    }
     
 
     // --------------------------------------------------------------------
@@ -80,25 +80,20 @@ public abstract class AbstractWMFReader {
      * Read the next short (2 bytes) value in the DataInputStream.
      */
     protected short readShort(DataInputStream is) throws IOException {
-        byte[] js = new byte[ 2 ];
-        is.readFully(js);
-        int iTemp = ((0xff) & js[ 1 ] ) << 8;
-        short i = (short)(0xffff & iTemp);
-        i |= ((0xff) & js[ 0 ] );
-        return i;
+        int b0 = is.readUnsignedByte();
+        int b1 = is.readUnsignedByte();
+        return (short)((b1 << 8) | b0);
     }
 
     /**
      * Read the next int (4 bytes) value in the DataInputStream.
      */
     protected int readInt( DataInputStream is) throws IOException {
-        byte[] js = new byte[ 4 ];
-        is.readFully(js);
-        int i = ((0xff) & js[ 3 ] ) << 24;
-        i |= ((0xff) & js[ 2 ] ) << 16;
-        i |= ((0xff) & js[ 1 ] ) << 8;
-        i |= ((0xff) & js[ 0 ] );
-        return i;
+        int b0 = is.readUnsignedByte();
+        int b1 = is.readUnsignedByte();
+        int b2 = is.readUnsignedByte();
+        int b3 = is.readUnsignedByte();
+        return (b3 << 24) | (b2 << 16) | (b1 << 8) | b0;
     }
 
     /**
@@ -67,6 +67,11 @@ public class WMFPainter extends AbstractWMFPainter {
 
     private static final Integer INTEGER_0 = 0;
 
+    /**
+     * Maximum number of consecutive polygons painted as one path.
+     */
+    private static final int MAX_COALESCED_POLYGONS = 256;
+
     private float scale, scaleX, scaleY, conv;
     private float xOffset, yOffset;
     private float vpX, vpY, vpW, vpH;
@@ -451,15 +456,44 @@ public class WMFPainter extends AbstractWMFPainter {
 
                 case WMFConstants.META_POLYGON:
                     {
-                        int count = mr.elementAt( 0 );
-                        float[] _xpts = new float[ count ];
-                        float[] _ypts = new float[ count ];
-                        for ( int k = 0; k < count; k++ ) {
-                            _xpts[k] = scaleX * ( vpX + xOffset + mr.elementAt( k*2+1 ) );
-                            _ypts[k] = scaleY * ( vpY + yOffset + mr.elementAt( k*2+2 ) );
+                        Polygon2D pol = getPolygon( mr );
+                        if ( firstEffectivePaint || isDashed( g2d ) ) {
+                            paint(brushObject, penObject, pol, g2d);
+                            break;
+                        }
+                        /* consecutive polygons which do not overlap, even with
+                         * their outline, can be painted as one path with the
+                         * same result, as long as the outline is not dashed;
+                         * the path fills each of them with the nonzero rule,
+                         * as Polygon2D does
+                         */
+                        float margin = 0;
+                        if (penObject >= 0 && g2d.getStroke() instanceof BasicStroke) {
+                            margin = ((BasicStroke)g2d.getStroke()).getLineWidth() / 2;
+                        }
+                        List bounds = new ArrayList();
+                        bounds.add(getBounds(pol, margin));
+                        GeneralPath path = null;
+                        while (iRec + 1 < numRecords
+                               && bounds.size() < MAX_COALESCED_POLYGONS) {
+                            MetaRecord next = currentStore.getRecord( iRec + 1 );
+                            if ( next.functionId != WMFConstants.META_POLYGON ) {
+                                break;
+                            }
+                            Polygon2D nextPol = getPolygon( next );
+                            Rectangle2D b = getBounds(nextPol, margin);
+                            if ( intersects(bounds, b) ) {
+                                break;
+                            }
+                            if ( path == null ) {
+                                path = new GeneralPath(GeneralPath.WIND_NON_ZERO);
+                                path.append(pol, false);
+                            }
+                            path.append(nextPol, false);
+                            bounds.add(b);
+                            iRec++;
                         }
-                        Polygon2D pol = new Polygon2D(_xpts, _ypts, count);
-                        paint(brushObject, penObject, pol, g2d);
+                        paint(brushObject, penObject, path == null ? (Shape)pol : path, g2d);
                     }
                     break;
 
@@ -469,28 +503,59 @@ public class WMFPainter extends AbstractWMFPainter {
                     break;
 
                 case WMFConstants.META_LINETO:
-                    {
-                        float endX = scaleX * ( vpX + xOffset + mr.elementAt( 0 ) );
-                        float endY = scaleY * ( vpY + yOffset + mr.elementAt( 1 ) );
-                        // painting with NULL PEN
-                        Line2D.Float line = new Line2D.Float(startX, startY, endX, endY);
-                        paintWithPen(penObject, line, g2d);
-                        startX = endX;
-                        startY = endY;
-                    }
-                    break;
-
                 case WMFConstants.META_POLYLINE:
                     {
-                        int count = mr.elementAt( 0 );
-                        float[] _xpts = new float[ count ];
-                        float[] _ypts = new float[ count ];
-                        for ( int k = 0; k < count; k++ ) {
-                            _xpts[k] = scaleX * ( vpX + xOffset + mr.elementAt( k*2+1 ) );
-                            _ypts[k] = scaleY * ( vpY + yOffset + mr.elementAt( k*2+2 ) );
+                        /* consecutive lines and polylines are drawn with the
+                         * same pen, so they are painted as one path, unless
+                         * the dash pattern must restart for each of them
+                         */
+                        boolean coalesce = !isDashed( g2d );
+                        Shape shape = null;
+                        GeneralPath path = null;
+                        for (;;) {
+                            Shape s = null;
+                            if ( mr.functionId == WMFConstants.META_MOVETO ) {
+                                startX = scaleX * ( vpX + xOffset + mr.elementAt( 0 ) );
+                                startY = scaleY * ( vpY + yOffset + mr.elementAt( 1 ) );
+                            } else if ( mr.functionId == WMFConstants.META_LINETO ) {
+                                float endX = scaleX * ( vpX + xOffset + mr.elementAt( 0 ) );
+                                float endY = scaleY * ( vpY + yOffset + mr.elementAt( 1 ) );
+                                s = new Line2D.Float(startX, startY, endX, endY);
+                                startX = endX;
+                                startY = endY;
+                            } else {
+                                int count = mr.elementAt( 0 );
+                                float[] _xpts = new float[ count ];
+                                float[] _ypts = new float[ count ];
+                                for ( int k = 0; k < count; k++ ) {
+                                    _xpts[k] = scaleX * ( vpX + xOffset + mr.elementAt( k*2+1 ) );
+                                    _ypts[k] = scaleY * ( vpY + yOffset + mr.elementAt( k*2+2 ) );
+                                }
+                                s = new Polyline2D(_xpts, _ypts, count);
+                            }
+                            if ( s != null ) {
+                                if ( shape == null ) {
+                                    shape = s;
+                                } else {
+                                    if ( path == null ) {
+                                        path = new GeneralPath();
+                                        path.append(shape, false);
+                                    }
+                                    path.append(s, false);
+                                }
+                            }
+                            if ( !coalesce || iRec + 1 >= numRecords ) {
+                                break;
+                            }
+                            int nextId = currentStore.getRecord( iRec + 1 ).functionId;
+                            if ( nextId != WMFConstants.META_LINETO
+                                 && nextId != WMFConstants.META_POLYLINE
+                                 && nextId != WMFConstants.META_MOVETO ) {
+                                break;
+                            }
+                            mr = currentStore.getRecord( ++iRec );
                         }
-                        Polyline2D pol = new Polyline2D(_xpts, _ypts, count);
-                        paintWithPen(penObject, pol, g2d);
+                        paintWithPen(penObject, path == null ? shape : path, g2d);
                     }
                     break;
 
@@ -1061,6 +1126,50 @@ public class WMFPainter extends AbstractWMFPainter {
         }
     }
 
+    /** Returns the Polygon of a META_POLYGON record.
+     */
+    private Polygon2D getPolygon(MetaRecord mr) {
+        int count = mr.elementAt( 0 );
+        float[] _xpts = new float[ count ];
+        float[] _ypts = new float[ count ];
+        for ( int k = 0; k < count; k++ ) {
+            _xpts[k] = scaleX * ( vpX + xOffset + mr.elementAt( k*2+1 ) );
+            _ypts[k] = scaleY * ( vpY + yOffset + mr.elementAt( k*2+2 ) );
+        }
+        return new Polygon2D(_xpts, _ypts, count);
+    }
+
+    /** Returns true if the current stroke is not a solid one.
+     */
+    private boolean isDashed(Graphics2D g2d) {
+        Stroke stroke = g2d.getStroke();
+        return !(stroke instanceof BasicStroke)
+            || ((BasicStroke)stroke).getDashArray() != null;
+    }
+
+    /** Returns the bounds of the Shape, grown by the given margin on each side.
+     */
+    private Rectangle2D getBounds(Shape shape, float margin) {
+        Rectangle2D b = shape.getBounds2D();
+        return new Rectangle2D.Float((float)b.getX() - margin, (float)b.getY() - margin,
+                                     (float)b.getWidth() + 2 * margin,
+                                     (float)b.getHeight() + 2 * margin);
+    }
+
+    /** Returns true if the Rectangle intersects, or touches, one of the
+     * Rectangles of the List.
+     */
+    private boolean intersects(List bounds, Rectangle2D b) {
+        for (Object bound : bounds) {
+            Rectangle2D r = (Rectangle2D) bound;
+            if (b.getMaxX() >= r.getMinX() && b.getMinX() <= r.getMaxX()
+                && b.getMaxY() >= r.getMinY() && b.getMinY() <= r.getMaxY()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /** Just to be consistent with PolyPolygon filling.
      */
     private void drawPolyPolygon(Graphics2D g2d, List pols) {
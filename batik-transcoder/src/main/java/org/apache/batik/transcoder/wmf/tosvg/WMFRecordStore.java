@@ -123,10 +123,7 @@ public class WMFRecordStore extends AbstractWMFReader {
                         clipped = true;
                     }
                     byte[] bstr = new byte[ lenText ];
-                    int i = 0;
-                    for ( ; i < lenText; i++ ) {
-                        bstr[ i ] = is.readByte();
-                    }
+                    is.readFully( bstr );
                     read += (lenText + 1)/2;
                     /* must do this because WMF strings always have an even number of bytes, even
                      * if there is an odd number of characters
@@ -160,9 +157,7 @@ public class WMFRecordStore extends AbstractWMFReader {
                     int len = readShort( is );
                     int read = 1; // used to track the actual size really read
                     byte[] bstr = new byte[ len ];
-                    for ( int i = 0; i < len; i++ ) {
-                        bstr[ i ] = is.readByte();
-                    }
+                    is.readFully( bstr );
                     /* must do this because WMF strings always have an even number of bytes, even
                      * if there is an odd number of characters
                      */
@@ -212,7 +207,7 @@ public class WMFRecordStore extends AbstractWMFReader {
                     int len = (2*(recSize-9));
                     byte[] lfFaceName = new byte[ len ];
                     byte ch;
-                    for ( int i = 0; i < len; i++ ) lfFaceName[ i ] = is.readByte();
+                    is.readFully( lfFaceName );
 
                     String str = new String( lfFaceName );    // what locale ?? ascii ?? platform ??
 
@@ -457,6 +452,7 @@ public class WMFRecordStore extends AbstractWMFReader {
                     mr.functionId = functionId;
 
                     int count = readShort( is );
+                    mr.EnsureCapacity( 2 * count + 1 );
                     mr.addElement( count );
                     for ( int i = 0; i < count; i++ ) {
                         mr.addElement((int)(readShort( is ) * xSign * scaleXY));
@@ -611,7 +607,7 @@ public class WMFRecordStore extends AbstractWMFReader {
 
                     int len = 2*recSize - 20;
                     byte[] bitmap = new byte[len];
-                    for (int i = 0; i < len; i++) bitmap[i] = is.readByte();
+                    is.readFully(bitmap);
 
                     mr = new MetaRecord.ByteRecord(bitmap);
                     mr.numPoints = recSize;
@@ -642,7 +638,7 @@ public class WMFRecordStore extends AbstractWMFReader {
                     
                     int len = 2*recSize - 22;
                     byte[] bitmap = new byte[len];
-                    for (int i = 0; i < len; i++) bitmap[i] = is.readByte();
+                    is.readFully(bitmap);
                     
                     mr = new MetaRecord.ByteRecord(bitmap);
                     mr.numPoints = recSize;
@@ -674,8 +670,7 @@ public class WMFRecordStore extends AbstractWMFReader {
                     int len = 2*recSize - 18;
                     if (len > 0) {
                         byte[] bitmap = new byte[len];
-                        for (int i = 0; i < len; i++)
-                            bitmap[i] = is.readByte();
+                        is.readFully(bitmap);
                         mr = new MetaRecord.ByteRecord(bitmap);
                         mr.numPoints = recSize;
                         mr.functionId = functionId;
@@ -702,7 +697,7 @@ public class WMFRecordStore extends AbstractWMFReader {
                     int type = is.readInt() & 0xff;
                     int len = 2*recSize - 4;
                     byte[] bitmap = new byte[len];
-                    for (int i = 0; i < len; i++) bitmap[i] = is.readByte();
+                    is.readFully(bitmap);
 
                     mr = new MetaRecord.ByteRecord(bitmap);
                     mr.numPoints = recSize;
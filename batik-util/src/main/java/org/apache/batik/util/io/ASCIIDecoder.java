@@ -54,4 +54,37 @@ public class ASCIIDecoder extends AbstractCharDecoder {
         }
         return result;
     }
+
+    /**
+     * Reads up to <code>len</code> characters into a portion of an
+     * array.
+     * @return the number of characters read, or END_OF_STREAM.
+     */
+    public int readChars(char[] cbuf, int off, int len) throws IOException {
+        if (position == count) {
+            fillBuffer();
+        }
+        if (count == -1) {
+            return END_OF_STREAM;
+        }
+        int n = Math.min(len, count - position);
+        byte[] buf = buffer;
+        int p = position;
+        for (int i = off, end = off + n; i < end; i++) {
+            int b = buf[p];
+            if (b < 0) {
+                if (i > off) {
+                    // Return the valid characters first, the next
+                    // call reports the error.
+                    n = i - off;
+                    break;
+                }
+                charError("ASCII");
+            }
+            cbuf[i] = (char)b;
+            p++;
+        }
+        position = p;
+        return n;
+    }
 }
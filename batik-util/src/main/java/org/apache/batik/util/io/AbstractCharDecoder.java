@@ -54,6 +54,14 @@ public abstract class AbstractCharDecoder implements CharDecoder {
      */
     protected int count;
 
+    /**
+     * The exception raised by {@link #readChar()} during the last call
+     * to {@link #readChars(char[],int,int)}, after some characters were
+     * decoded.  It is thrown by the next call, so the characters that
+     * precede a decoding error are always returned.
+     */
+    protected IOException readCharsException;
+
     /**
      * Creates a new CharDecoder object.
      * @param is The stream to read.
@@ -70,6 +78,51 @@ public abstract class AbstractCharDecoder implements CharDecoder {
         inputStream = null;
     }
 
+    /**
+     * Reads up to <code>len</code> characters into a portion of an
+     * array.  This method only blocks if no character is available
+     * yet: the characters left in the input buffer are decoded, and
+     * the stream is only read again when nothing was decoded yet.
+     * This implementation uses {@link #readChar()}.
+     * @param cbuf The destination buffer.
+     * @param off The offset at which to start storing characters.
+     * @param len The maximum number of characters to read, at least 1.
+     * @return the number of characters read, or END_OF_STREAM.
+     */
+    public int readChars(char[] cbuf, int off, int len) throws IOException {
+        throwReadCharsException();
+        int n = 0;
+        do {
+            int c;
+            try {
+                c = readChar();
+            } catch (IOException e) {
+                if (n == 0) {
+                    throw e;
+                }
+                readCharsException = e;
+                return n;
+            }
+            if (c == END_OF_STREAM) {
+                return (n == 0) ? END_OF_STREAM : n;
+            }
+            cbuf[off + n++] = (char)c;
+        } while (n < len && position < count);
+        return n;
+    }
+
+    /**
+     * Throws the exception left by the previous call to
+     * {@link #readChars(char[],int,int)}, if any.
+     */
+    protected void throwReadCharsException() throws IOException {
+        IOException e = readCharsException;
+        if (e != null) {
+            readCharsException = null;
+            throw e;
+        }
+    }
+
     /**
      * Fills the input buffer.
      */
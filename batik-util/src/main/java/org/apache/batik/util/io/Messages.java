@@ -41,7 +41,7 @@ public class Messages {
      * The error messages bundle class name.
      */
     protected static final String RESOURCES =
-        "org.apache.batik.util.io.Messages";
+        "org.apache.batik.util.io.resources.Messages";
 
     /**
      * The localizable support for the error messages.
@@ -35,6 +35,11 @@ import org.apache.batik.util.EncodingUtilities;
  */
 public class StreamNormalizingReader extends NormalizingReader {
 
+    /**
+     * The size of the decoded character buffer.
+     */
+    protected static final int BUFFER_SIZE = 4096;
+
     /**
      * The char decoder.
      */
@@ -45,6 +50,21 @@ public class StreamNormalizingReader extends NormalizingReader {
      */
     protected int nextChar = -1;
 
+    /**
+     * The characters decoded ahead by the char decoder.
+     */
+    private char[] chars = new char[BUFFER_SIZE];
+
+    /**
+     * The index of the next decoded character.
+     */
+    private int charsPosition;
+
+    /**
+     * The number of decoded characters.
+     */
+    private int charsCount;
+
     /**
      * The current line in the stream.
      */
@@ -109,12 +129,14 @@ public class StreamNormalizingReader extends NormalizingReader {
             }
             return result;
         }
-        result = charDecoder.readChar();
+        result = (charsPosition < charsCount)
+            ? chars[charsPosition++]
+            : readDecodedChar();
         switch (result) {
         case 13:
             column = 0;
             line++;
-            int c = charDecoder.readChar();
+            int c = readDecodedChar();
             if (c == 10) {
                 return 10;
             }
@@ -128,6 +150,44 @@ public class StreamNormalizingReader extends NormalizingReader {
         return result;
     }
 
+    /**
+     * Returns the next decoded character, decoding a new block of
+     * characters when the previous one is exhausted.
+     */
+    private int readDecodedChar() throws IOException {
+        if (charsPosition == charsCount) {
+            int n = decodeChars();
+            if (n == CharDecoder.END_OF_STREAM) {
+                return -1;
+            }
+            charsPosition = 0;
+            charsCount = n;
+        }
+        return chars[charsPosition++];
+    }
+
+    /**
+     * Decodes the next block of characters into <code>chars</code>.
+     * Decoders that can't decode a block at once, such as those set
+     * by subclasses, are read one character at a time.
+     * @return the number of characters decoded, or END_OF_STREAM.
+     */
+    private int decodeChars() throws IOException {
+        CharDecoder cd = charDecoder;
+        if (cd instanceof AbstractCharDecoder) {
+            return ((AbstractCharDecoder)cd).readChars(chars, 0, chars.length);
+        }
+        if (cd instanceof GenericDecoder) {
+            return ((GenericDecoder)cd).readChars(chars, 0, chars.length);
+        }
+        int c = cd.readChar();
+        if (c == CharDecoder.END_OF_STREAM) {
+            return CharDecoder.END_OF_STREAM;
+        }
+        chars[0] = (char)c;
+        return 1;
+    }
+
     /**
      * Returns the current line in the stream.
      */
@@ -89,7 +89,11 @@ public class UTF8Decoder extends AbstractCharDecoder {
             if (count == -1) {
                 endOfStreamError("UTF-8");
             }
-            return ((b1 & 0x1f) << 6) | (buffer[position++] & 0x3f);
+            int b2 = buffer[position++];
+            if ((b2 & 0xc0) != 0x80) {
+                charError("UTF-8");
+            }
+            return ((b1 & 0x1f) << 6) | (b2 & 0x3f);
 
         case 3:
             if (position == count) {
@@ -98,7 +102,7 @@ public class UTF8Decoder extends AbstractCharDecoder {
             if (count == -1) {
                 endOfStreamError("UTF-8");
             }
-            int b2 = buffer[position++];
+            b2 = buffer[position++];
             if (position == count) {
                 fillBuffer();
             }
@@ -109,7 +113,7 @@ public class UTF8Decoder extends AbstractCharDecoder {
             if ((b2 & 0xc0) != 0x80 || (b3 & 0xc0) != 0x80) {
                 charError("UTF-8");
             }
-            return ((b1 & 0x1f) << 12) | ((b2 & 0x3f) << 6) | (b3 & 0x1f);
+            return ((b1 & 0x0f) << 12) | ((b2 & 0x3f) << 6) | (b3 & 0x3f);
 
         case 4:
             if (position == count) {
@@ -138,12 +142,56 @@ public class UTF8Decoder extends AbstractCharDecoder {
                 (b4 & 0xc0) != 0x80) {
                 charError("UTF-8");
             }
-            int c = ((b1 & 0x1f) << 18)
+            int c = ((b1 & 0x07) << 18)
                 | ((b2 & 0x3f) << 12)
-                | ((b3 & 0x1f) << 6)
-                | (b4 & 0x1f);
+                | ((b3 & 0x3f) << 6)
+                | (b4 & 0x3f);
             nextChar = (c - 0x10000) % 0x400 + 0xdc00;
             return (c - 0x10000) / 0x400 + 0xd800;
         }
     }
+
+    /**
+     * Reads up to <code>len</code> characters into a portion of an
+     * array.  Runs of ASCII bytes are copied in a tight loop, other
+     * sequences are decoded by {@link #readChar()}.
+     * @return the number of characters read, or END_OF_STREAM.
+     */
+    public int readChars(char[] cbuf, int off, int len) throws IOException {
+        throwReadCharsException();
+        int n = 0;
+        do {
+            if (nextChar == -1) {
+                byte[] buf = buffer;
+                int p = position;
+                int end = Math.min(count, p + len - n);
+                while (p < end && buf[p] >= 0) {
+                    cbuf[off + n++] = (char)buf[p++];
+                }
+                position = p;
+                if (n == len) {
+                    break;
+                }
+                if (p == count && n > 0) {
+                    // Don't block while characters are available.
+                    break;
+                }
+            }
+            int c;
+            try {
+                c = readChar();
+            } catch (IOException e) {
+                if (n == 0) {
+                    throw e;
+                }
+                readCharsException = e;
+                return n;
+            }
+            if (c == END_OF_STREAM) {
+                return (n == 0) ? END_OF_STREAM : n;
+            }
+            cbuf[off + n++] = (char)c;
+        } while (n < len && (position < count || nextChar != -1));
+        return n;
+    }
 }
@@ -235,6 +235,21 @@ public class XMLScanner implements Localizable {
         }
     }
 
+    /**
+     * Creates a new XML scanner.
+     * @param r The reader to scan, whose line breaks are already
+     *          normalized.
+     */
+    public XMLScanner(NormalizingReader r) throws XMLException {
+        context = DOCUMENT_START_CONTEXT;
+        try {
+            reader = r;
+            current = nextChar();
+        } catch (IOException e) {
+            throw new XMLException(e);
+        }
+    }
+
     /**
      * Creates a new XML scanner.
      * @param s The string to parse.